@@ -0,0 +1,55 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sélection de l'agent libre depuis le plus longtemps selon la taille de l'effectif
+ * La moitié des agents est occupée; chaque agent couvre un à trois services.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AgentSelectionBenchmark {
+
+    @Param({"100", "1000", "10000"})
+    public int agents;
+
+    private VanadSSJReplay replay;
+    private int next = 0;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        Random random = new Random(42);
+        Map<Integer, Set<String>> roster = new HashMap<>();
+        for (int id = 1; id <= agents; id++) {
+            Set<String> skills = new HashSet<>();
+            for (int s = 0, n = 1 + random.nextInt(3); s < n; s++) {
+                skills.add(BenchmarkData.SERVICES[random.nextInt(BenchmarkData.SERVICES.length)]);
+            }
+            roster.put(id, skills);
+        }
+
+        replay = new VanadSSJReplay();
+        replay.setVerbose(false);
+        replay.setAgentRoster(roster);
+        replay.prepare(BenchmarkData.calls(1000, 42), BenchmarkData.SERVICES);
+        replay.initializeSSJ();
+        for (VanadSSJReplay.AgentState agent : replay.getAgents().values()) {
+            agent.setBusy(random.nextBoolean());
+            agent.setLastActivityTime(random.nextDouble() * 100.0);
+        }
+    }
+
+    @Benchmark
+    public VanadSSJReplay.AgentState findLongestIdleAgent() {
+        String service = BenchmarkData.SERVICES[next];
+        next = (next + 1) % BenchmarkData.SERVICES.length;
+        return replay.findLongestIdleAgent(service);
+    }
+}
@@ -0,0 +1,106 @@
+package org.example;
+
+import org.example.model.Call;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+
+/**
+ * Fichiers d'appels et d'activités synthétiques au format VANAD pour les benchmarks
+ * Arrivées poissonniennes de 8h à 20h, 10% d'abandons, graine fixe: fichiers reproductibles.
+ */
+final class BenchmarkData {
+
+    static final String[] SERVICES = {"30172", "30181", "30560", "30066", "30241"};
+    static final int AGENTS = 60;
+
+    private static final DateTimeFormatter FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final LocalDateTime START = LocalDateTime.of(2014, 1, 6, 8, 0);
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Écrit {@code rows} appels triés par date d'arrivée
+     */
+    static void writeCalls(Path file, int rows, long seed) throws IOException {
+        Random random = new Random(seed);
+        LocalDateTime received = START;
+        try (PrintWriter writer = new PrintWriter(new BufferedWriter(new FileWriter(file.toFile())))) {
+            writer.println("date_received,queue_name,agent_number,answered,consult,transfer,hangup,"
+                    + "year,month,day,day_of_week,hour,minute,time_of_day");
+            for (int i = 0; i < rows; i++) {
+                received = received.plusSeconds(1 + (long) (-Math.log(1 - random.nextDouble()) * 12));
+                if (received.getHour() >= 20) {
+                    received = received.plusDays(1).withHour(8).withMinute(0).withSecond(0);
+                }
+                String service = SERVICES[Math.min(SERVICES.length - 1, (int) (-Math.log(1 - random.nextDouble()) * 1.5))];
+                LocalDateTime answered = null;
+                LocalDateTime hangup;
+                String agent = "";
+                if (random.nextDouble() < 0.9) {
+                    answered = received.plusSeconds(random.nextInt(120));
+                    hangup = answered.plusSeconds(30 + random.nextInt(570));
+                    agent = String.valueOf(1 + random.nextInt(AGENTS));
+                } else {
+                    hangup = received.plusSeconds(5 + random.nextInt(180));
+                }
+                writer.printf("%s,%s,%s,%s,,,%s,%d,%d,%d,%d,%d,%d,%s%n",
+                        received.format(FORMAT), service, agent,
+                        answered == null ? "" : answered.format(FORMAT), hangup.format(FORMAT),
+                        received.getYear(), received.getMonthValue(), received.getDayOfMonth(),
+                        received.getDayOfWeek().getValue(), received.getHour(), received.getMinute(),
+                        received.getHour() + received.getMinute() / 60.0);
+            }
+        }
+    }
+
+    /**
+     * Écrit {@code rows} sessions d'agents d'une heure
+     */
+    static void writeActivities(Path file, int rows, long seed) throws IOException {
+        Random random = new Random(seed);
+        try (PrintWriter writer = new PrintWriter(new BufferedWriter(new FileWriter(file.toFile())))) {
+            writer.println("id,user_id,dnd_id,campaign_id,extension,last_call_id,startdatetime,enddatetime,"
+                    + "agent_id,year,month,day,day_of_week,hour,minute,secondes,time_of_day,duration");
+            for (int i = 0; i < rows; i++) {
+                int agent = 1 + random.nextInt(AGENTS);
+                LocalDateTime start = START.plusDays(i / 500).plusMinutes(random.nextInt(720));
+                writer.printf("%d,%d,3,1,%d,%d,%s,%s,%d,%d,%d,%d,%d,%d,%d,%d,%s,3600%n",
+                        i + 1, agent, 100 + agent, i + 1, start.format(FORMAT), start.plusHours(1).format(FORMAT),
+                        agent, start.getYear(), start.getMonthValue(), start.getDayOfMonth(),
+                        start.getDayOfWeek().getValue(), start.getHour(), start.getMinute(), start.getSecond(),
+                        start.getHour() + start.getMinute() / 60.0);
+            }
+        }
+    }
+
+    /**
+     * Table d'appels en mémoire (relue par CSVReaderUtil, comme en production)
+     */
+    static List<Call> calls(int rows, long seed) throws Exception {
+        Path dir = Files.createTempDirectory("vanad-bench");
+        try {
+            Path file = dir.resolve("calls.csv");
+            writeCalls(file, rows, seed);
+            return CSVReaderUtil.readCalls(file.toString());
+        } finally {
+            delete(dir);
+        }
+    }
+
+    /**
+     * Suppression récursive d'un dossier temporaire
+     */
+    static void delete(Path dir) throws IOException {
+        try (var paths = Files.walk(dir)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package org.example;
+
+import java.util.*;
+
+/**
+ * Point d'entrée des micro-benchmarks: java -jar target/benchmarks.jar [options JMH]
+ * Résultats en JSON par défaut (jmh-result.json, ou -rff fichier) pour comparer
+ * chaque optimisation à une référence enregistrée.
+ */
+public class BenchmarkMain {
+
+    static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+    public static void main(String[] args) throws Exception {
+        List<String> options = new ArrayList<>(Arrays.asList(args));
+        if (!options.contains("-rf")) {
+            options.addAll(List.of("-rf", "json"));
+        }
+        if (!options.contains("-rff")) {
+            options.addAll(List.of("-rff", DEFAULT_RESULT_FILE));
+        }
+        org.openjdk.jmh.Main.main(options.toArray(new String[0]));
+    }
+}
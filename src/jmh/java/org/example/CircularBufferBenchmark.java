@@ -0,0 +1,39 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buffer circulaire des métriques récentes: insertion (buffer plein) et moyenne
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CircularBufferBenchmark {
+
+    private VanadSSJReplay.CircularBuffer<Double> buffer;
+    private double value = 0.0;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        buffer = new VanadSSJReplay.CircularBuffer<>(VanadSSJReplay.RECENT_METRICS_SIZE);
+        for (int i = 0; i < VanadSSJReplay.RECENT_METRICS_SIZE; i++) {
+            buffer.add((double) i);
+        }
+    }
+
+    @Benchmark
+    public void add() {
+        value += 1.5;
+        buffer.add(value);
+    }
+
+    @Benchmark
+    public double getAverage() {
+        return buffer.getAverage();
+    }
+}
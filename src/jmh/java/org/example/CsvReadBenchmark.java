@@ -0,0 +1,49 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lecture CSV des appels et des activités sur fichiers synthétiques
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvReadBenchmark {
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    private Path dir;
+    private String callsFile;
+    private String activitiesFile;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        dir = java.nio.file.Files.createTempDirectory("vanad-bench");
+        callsFile = dir.resolve("calls.csv").toString();
+        activitiesFile = dir.resolve("activities.csv").toString();
+        BenchmarkData.writeCalls(Path.of(callsFile), rows, 42);
+        BenchmarkData.writeActivities(Path.of(activitiesFile), rows, 42);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        BenchmarkData.delete(dir);
+    }
+
+    @Benchmark
+    public int readCalls() throws Exception {
+        return CSVReaderUtil.readCalls(callsFile).size();
+    }
+
+    @Benchmark
+    public int readActivities() throws Exception {
+        return CSVReaderUtil.readActivities(activitiesFile).size();
+    }
+}
@@ -0,0 +1,93 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+import umontreal.ssj.simevents.Event;
+import umontreal.ssj.simevents.Simulator;
+import umontreal.ssj.simevents.eventlist.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Listes d'événements SSJ et tas primitif du noyau natif, modèle « hold »:
+ * retrait du premier événement puis reprogrammation à un délai exponentiel,
+ * taille de la liste constante
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventListBenchmark {
+
+    @Param({"DoublyLinked", "SplayTree", "BinaryTree", "Henriksen", "RedblackTree", "EventHeap"})
+    public String backend;
+
+    @Param({"100", "10000"})
+    public int size;
+
+    private EventList list;
+    private Simulator sim;
+    private EventHeap heap;
+    private final Random random = new Random(42);
+
+    /**
+     * Événement sans action: seule la gestion de la liste est mesurée
+     */
+    private static final class HoldEvent extends Event {
+        HoldEvent(Simulator sim) {
+            super(sim);
+        }
+
+        @Override
+        public void actions() {
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (backend.equals("EventHeap")) {
+            heap = new EventHeap();
+            for (int i = 0; i < size; i++) {
+                heap.add(delay(), NativeReplayKernel.ARRIVAL, i, NativeReplayKernel.NO_AGENT);
+            }
+            return;
+        }
+        list = switch (backend) {
+            case "DoublyLinked" -> new DoublyLinked();
+            case "SplayTree" -> new SplayTree();
+            case "BinaryTree" -> new BinaryTree();
+            case "Henriksen" -> new Henriksen();
+            case "RedblackTree" -> new RedblackTree();
+            default -> throw new IllegalArgumentException("Liste d'événements inconnue: " + backend);
+        };
+        sim = new Simulator();
+        sim.init(list);
+        for (int i = 0; i < size; i++) {
+            Event event = new HoldEvent(sim);
+            event.setTime(delay());
+            list.add(event);
+        }
+    }
+
+    private double delay() {
+        return -Math.log(1 - random.nextDouble());
+    }
+
+    @Benchmark
+    public double hold() {
+        if (heap != null) {
+            double now = heap.topTime();
+            int call = heap.topCall();
+            heap.removeTop();
+            heap.add(now + delay(), NativeReplayKernel.ARRIVAL, call, NativeReplayKernel.NO_AGENT);
+            return now;
+        }
+        double now = list.removeFirst().time();
+        Event event = new HoldEvent(sim); // un objet par événement, comme dans le replay
+        event.setTime(now + delay());
+        list.add(event);
+        return now;
+    }
+}
@@ -0,0 +1,59 @@
+package org.example;
+
+import org.example.model.Call;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lecture concurrente des prédictions publiées (une lecture volatile, aucun verrou),
+ * seule puis pendant que la boucle d'événements publie en continu
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PredictionQueryBenchmark {
+
+    private static final String SERVICE = BenchmarkData.SERVICES[0];
+
+    private PredictionService predictions;
+    private PredictionSnapshot snapshot;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        List<Call> calls = BenchmarkData.calls(20000, 42);
+        predictions = new PredictionService();
+        VanadSSJReplay replay = new VanadSSJReplay();
+        replay.setVerbose(false);
+        replay.setRetainStates(false);
+        replay.setPredictionService(predictions);
+        replay.setWorkloadModel(WorkloadModel.fit(calls, BenchmarkData.SERVICES));
+        replay.prepare(calls, BenchmarkData.SERVICES);
+        replay.runSimulation();
+        snapshot = predictions.current();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public double predict() {
+        return predictions.predict(SERVICE).getLes();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public double predictWhilePublishing() {
+        return predictions.predict(SERVICE).getAvgLes();
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public void publish() {
+        predictions.publish(snapshot);
+    }
+}
@@ -0,0 +1,97 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Choix de l'appel le plus ancien parmi les compétences d'un agent libéré: racine du tas de
+ * son ensemble de compétences contre parcours des têtes de ses files, et coût d'un changement
+ * de tête (mise à jour de tous les tas contenant le service).
+ * Toutes les files sont non vides; 256 agents couvrant chacun un à trois services.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueueHeadBenchmark {
+
+    @Param({"5", "20", "100"})
+    public int services;
+
+    private double[] heads;
+    private boolean[][] skills;
+    private QueueHeadHeap[] agentHeads;
+    private QueueHeadHeap[][] headsByService;
+    private final Random random = new Random(7);
+    private int next = 0;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random setup = new Random(42);
+        heads = new double[services];
+        for (int s = 0; s < services; s++) {
+            heads[s] = setup.nextDouble() * 100.0;
+        }
+
+        skills = new boolean[256][services];
+        agentHeads = new QueueHeadHeap[256];
+        Map<BitSet, QueueHeadHeap> pools = new HashMap<>();
+        List<List<QueueHeadHeap>> byService = new ArrayList<>();
+        for (int s = 0; s < services; s++) {
+            byService.add(new ArrayList<>());
+        }
+        for (int a = 0; a < skills.length; a++) {
+            BitSet set = new BitSet(services);
+            for (int k = 0, n = 1 + setup.nextInt(3); k < n; k++) {
+                int s = setup.nextInt(services);
+                skills[a][s] = true;
+                set.set(s);
+            }
+            agentHeads[a] = pools.computeIfAbsent(set, key -> {
+                QueueHeadHeap pool = new QueueHeadHeap(services);
+                key.stream().forEach(s -> {
+                    byService.get(s).add(pool);
+                    pool.update(s, heads[s]);
+                });
+                return pool;
+            });
+        }
+        headsByService = new QueueHeadHeap[services][];
+        for (int s = 0; s < services; s++) {
+            headsByService[s] = byService.get(s).toArray(new QueueHeadHeap[0]);
+        }
+    }
+
+    @Benchmark
+    public int heap() {
+        int agent = next;
+        next = (next + 1) & 255;
+        return agentHeads[agent].peek();
+    }
+
+    @Benchmark
+    public int scan() {
+        boolean[] agent = skills[next];
+        next = (next + 1) & 255;
+        int oldest = -1;
+        for (int s = 0; s < services; s++) {
+            if (agent[s] && (oldest < 0 || heads[s] < heads[oldest])) {
+                oldest = s;
+            }
+        }
+        return oldest;
+    }
+
+    @Benchmark
+    public void update() {
+        int s = random.nextInt(services);
+        heads[s] += 1.0 + random.nextDouble(); // nouvelle tête, plus récente
+        for (QueueHeadHeap pool : headsByService[s]) {
+            pool.update(s, heads[s]);
+        }
+    }
+}
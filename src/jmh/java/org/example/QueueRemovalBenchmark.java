@@ -0,0 +1,52 @@
+package org.example;
+
+import org.example.model.Call;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Retrait d'un appel de sa file à la réponse (CallAnsweredEvent)
+ * L'appel retiré est remis en queue: chaque mesure parcourt la file entière (pire cas).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueueRemovalBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int queueLength;
+
+    private VanadSSJReplay replay;
+    private LinkedList<Call> queue;
+    private Call target;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        List<Call> calls = BenchmarkData.calls(Math.max(1000, queueLength * 10), 42);
+        replay = new VanadSSJReplay();
+        replay.setVerbose(false);
+        replay.prepare(calls, BenchmarkData.SERVICES);
+        replay.initializeSSJ();
+
+        String service = BenchmarkData.SERVICES[0];
+        queue = replay.getQueue(service);
+        for (Call call : calls) {
+            if (queue.size() < queueLength && service.equals(call.getQueueName())) {
+                queue.addLast(call);
+            }
+        }
+        target = queue.getLast();
+    }
+
+    @Benchmark
+    public boolean removeFromQueue() {
+        boolean removed = replay.removeFromQueue(target);
+        queue.addLast(target);
+        return removed;
+    }
+}
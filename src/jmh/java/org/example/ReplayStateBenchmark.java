@@ -0,0 +1,80 @@
+package org.example;
+
+import org.example.model.Call;
+import org.example.model.SystemState;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chemin chaud d'une arrivée: capture de l'état (prédicteurs compris), conservation
+ * (enregistrement d'arène contre objet SystemState retenu) et encodage de la ligne du
+ * dataset, sur l'état du système en fin de replay synthétique
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReplayStateBenchmark {
+
+    private VanadSSJReplay replay;
+    private List<Call> calls;
+    private FeatureArena states;
+    private SystemState captured;
+    private FeatureArena arena;
+    private List<SystemState> retained;
+    private int nextCall = 0;
+    private int nextState = 0;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        calls = BenchmarkData.calls(20000, 42);
+        replay = new VanadSSJReplay();
+        replay.setVerbose(false);
+        replay.setRetainStates(true);
+        replay.setWorkloadModel(WorkloadModel.fit(calls, BenchmarkData.SERVICES));
+        replay.prepare(calls, BenchmarkData.SERVICES);
+        replay.runSimulation();
+        states = replay.getCapturedStates();
+        captured = replay.captureSystemState(calls.get(0));
+        arena = new FeatureArena(states.predictorCount(), 1 << 16);
+        retained = new ArrayList<>(1 << 16);
+    }
+
+    @Benchmark
+    public SystemState captureSystemState() {
+        Call call = calls.get(nextCall);
+        nextCall = (nextCall + 1) % calls.size();
+        return replay.captureSystemState(call);
+    }
+
+    @Benchmark
+    public int retainInArena() {
+        if (arena.size() == 1 << 16) arena.clear();
+        return arena.add(captured, 1);
+    }
+
+    @Benchmark
+    public int retainObject() {
+        if (retained.size() == 1 << 16) retained.clear();
+        SystemState copy = new SystemState(captured.getServiceType(), captured.getQueueLength(),
+                captured.getOtherQueuesLengths().clone(), captured.getArrivalTime(), captured.getAvailableAgents());
+        copy.setLesPredictor(captured.getLesPredictor());
+        copy.setAvgLesPredictor(captured.getAvgLesPredictor());
+        copy.setPredictorValues(captured.getPredictorValues().clone());
+        copy.setActualWaitTime(captured.getActualWaitTime());
+        retained.add(copy);
+        return retained.size();
+    }
+
+    @Benchmark
+    public String formatRow() {
+        int record = nextState;
+        nextState = (nextState + 1) % states.size();
+        return replay.formatRow(states, record);
+    }
+}
@@ -0,0 +1,133 @@
+package org.example;
+
+import org.example.model.Call;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * État à la coupure de l'ajout quotidien ({@link DailyAppend}): espacement des préprogrammés,
+ * agents (compétences comprises), appels encore en cours (par valeur) avec leurs préprogrammés
+ * restants, réponses routées et files. Les appels y sont désignés par leur indice dans la table
+ * des reportés, qui passe en tête de la table du jour suivant. L'état par service suit dans le
+ * même flux, écrit et relu par le replay.
+ */
+final class AppendState {
+
+    /**
+     * Préprogrammé restant (type {@link NativeReplayKernel}); son temps brut est relu sur l'appel
+     */
+    record Planned(int call, byte type) {
+    }
+
+    final double chainStart;                   // dernier préprogrammé traité (espacement)
+    final List<VanadSSJReplay.AgentState> agents = new ArrayList<>(); // identifiants croissants
+    final List<Call> calls = new ArrayList<>(); // reportés, dans l'ordre de la table
+    final List<Planned> planned = new ArrayList<>();
+    final List<VanadSSJReplay.RoutedAnswer> routes = new ArrayList<>();
+    final List<int[]> queues = new ArrayList<>(); // par service suivi, tête d'abord
+
+    private AppendState(double chainStart) {
+        this.chainStart = chainStart;
+    }
+
+    /**
+     * Fige l'état à la coupure. Les indices donnés sont ceux de {@code table}; seuls les appels
+     * encore référencés par un préprogrammé, une réponse routée ou une file sont reportés, dans
+     * l'ordre de la table (dates de réception croissantes).
+     */
+    static AppendState capture(double chainStart, List<Call> table, List<VanadSSJReplay.AgentState> agents,
+                               List<VanadSSJReplay.ScheduledEvent> planned,
+                               List<VanadSSJReplay.RoutedAnswer> routes, List<int[]> queues) {
+        TreeSet<Integer> carried = new TreeSet<>();
+        planned.forEach(event -> carried.add(event.call()));
+        routes.forEach(route -> carried.add(route.call()));
+        queues.forEach(queue -> Arrays.stream(queue).forEach(carried::add));
+        Map<Integer, Integer> carriedIndex = new HashMap<>();
+        for (int index : carried) {
+            carriedIndex.put(index, carriedIndex.size());
+        }
+
+        AppendState state = new AppendState(chainStart);
+        state.agents.addAll(agents);
+        carried.forEach(index -> state.calls.add(table.get(index)));
+        for (VanadSSJReplay.ScheduledEvent event : planned) {
+            state.planned.add(new Planned(carriedIndex.get(event.call()), event.type()));
+        }
+        for (VanadSSJReplay.RoutedAnswer route : routes) {
+            state.routes.add(new VanadSSJReplay.RoutedAnswer(carriedIndex.get(route.call()), route.agent(), route.time()));
+        }
+        for (int[] queue : queues) {
+            state.queues.add(Arrays.stream(queue).map(carriedIndex::get).toArray());
+        }
+        return state;
+    }
+
+    void write(DataOutput out) throws IOException {
+        out.writeDouble(chainStart);
+
+        out.writeInt(agents.size());
+        for (VanadSSJReplay.AgentState agent : agents) {
+            out.writeInt(agent.getAgentId());
+            out.writeUTF(String.join(",", new TreeSet<>(agent.getSkills())));
+            out.writeBoolean(!agent.isAvailable());
+            out.writeDouble(agent.getLastActivityTime());
+        }
+
+        out.writeInt(calls.size());
+        for (Call call : calls) {
+            DailyAppend.writeCall(out, call);
+        }
+        out.writeInt(planned.size());
+        for (Planned event : planned) {
+            out.writeInt(event.call());
+            out.writeByte(event.type());
+        }
+        out.writeInt(routes.size());
+        for (VanadSSJReplay.RoutedAnswer route : routes) {
+            out.writeInt(route.call());
+            out.writeInt(route.agent());
+            out.writeDouble(route.time());
+        }
+        for (int[] queue : queues) {
+            out.writeInt(queue.length);
+            for (int call : queue) {
+                out.writeInt(call);
+            }
+        }
+    }
+
+    static AppendState read(DataInput in, int services) throws IOException {
+        AppendState state = new AppendState(in.readDouble());
+
+        for (int i = in.readInt(); i > 0; i--) {
+            int agentId = in.readInt();
+            String skills = in.readUTF();
+            VanadSSJReplay.AgentState agent = new VanadSSJReplay.AgentState(agentId,
+                    skills.isEmpty() ? Set.of() : new HashSet<>(Arrays.asList(skills.split(","))));
+            agent.setBusy(in.readBoolean());
+            agent.setLastActivityTime(in.readDouble());
+            state.agents.add(agent);
+        }
+
+        for (int i = in.readInt(); i > 0; i--) {
+            state.calls.add(DailyAppend.readCall(in));
+        }
+        for (int i = in.readInt(); i > 0; i--) {
+            state.planned.add(new Planned(in.readInt(), in.readByte()));
+        }
+        for (int i = in.readInt(); i > 0; i--) {
+            state.routes.add(new VanadSSJReplay.RoutedAnswer(in.readInt(), in.readInt(), in.readDouble()));
+        }
+        for (int s = 0; s < services; s++) {
+            int[] queue = new int[in.readInt()];
+            for (int i = 0; i < queue.length; i++) {
+                queue[i] = in.readInt();
+            }
+            state.queues.add(queue);
+        }
+        return state;
+    }
+}
@@ -1,10 +1,19 @@
 package org.example;
 
 import com.opencsv.CSVReader;
+import com.opencsv.exceptions.CsvValidationException;
 import org.example.model.Activity;
 import org.example.model.Call;
 
+import java.io.Closeable;
 import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
@@ -22,46 +31,139 @@ public class CSVReaderUtil {
      * Format CSV: date_received,queue_name,agent_number,answered,consult,transfer,hangup,year,month,day,day_of_week,hour,minute,time_of_day
      */
     public static List<Call> readCalls(String filePath) throws Exception {
+        return readCalls(filePath, null, null, null);
+    }
+
+    /**
+     * Lecture filtrée des appels: seules les lignes dont le service appartient à {@code services}
+     * et dont la date de réception est dans [from, to) sont décodées (null = pas de filtre).
+     * Les appels non retenus ne sont jamais alloués.
+     */
+    public static List<Call> readCalls(String filePath, Set<String> services,
+                                       LocalDateTime from, LocalDateTime to) throws Exception {
         List<Call> calls = new ArrayList<>();
-        try (CSVReader reader = new CSVReader(new FileReader(filePath))) {
-            String[] nextLine;
-            int lineNum = 1;
-            reader.readNext(); // Ignore l'en-tête
+        try (CallCursor cursor = new CallCursor(filePath, services, from, to)) {
+            Call call;
+            while ((call = cursor.next()) != null) {
+                calls.add(call);
+            }
+            System.out.println("[CALL] Nombre total d'appels parsés : " + calls.size()
+                    + (cursor.getSkipped() > 0 ? " (" + cursor.getSkipped() + " ignorés par le filtre)" : ""));
+        }
+        return calls;
+    }
 
-            while ((nextLine = reader.readNext()) != null) {
-                lineNum++;
-                try {
-                    Call call = new Call();
+    /**
+     * Curseur paresseux sur un fichier d'appels: décode un appel retenu à la fois,
+     * avec les mêmes filtres (services, fenêtre [from, to)) que readCalls
+     */
+    public static class CallCursor implements Closeable {
+        private final CSVReader reader;
+        private final Set<String> services;
+        private final LocalDateTime from;
+        private final LocalDateTime to;
+        private final boolean seek;
+        private int lineNum = 1;
+        private int skipped = 0;
 
-                    // Champs principaux
-                    call.setDateReceived(parseDateSafely(nextLine, 0, "date_received", lineNum, false));
-                    call.setQueueName(parseStringSafely(nextLine));
-                    call.setAgentNumber(parseDoubleSafely(nextLine, 2, "agent_number", lineNum));
+        public CallCursor(String filePath, Set<String> services, LocalDateTime from, LocalDateTime to) throws IOException {
+            this.services = services;
+            this.from = from;
+            this.to = to;
 
-                    // Champs de timing (peuvent être null)
-                    call.setAnswered(parseDateSafely(nextLine, 3, "answered", lineNum, true));
-                    call.setConsult(parseDateSafely(nextLine, 4, "consult", lineNum, true));
-                    call.setTransfer(parseDateSafely(nextLine, 5, "transfer", lineNum, true));
-                    call.setHangup(parseDateSafely(nextLine, 6, "hangup", lineNum, true));
+            // Fenêtre temporelle: accès direct via l'index si le fichier est trié
+            TimeIndex index = (from != null || to != null) ? TimeIndex.loadOrBuild(filePath, 0, 1, 2) : null;
+            this.seek = index != null && index.isSorted();
+            this.reader = new CSVReader(seek ? openAt(filePath, index, from) : new FileReader(filePath));
+            if (seek) {
+                lineNum = index.lineFor(from) - 1; // numérotation du fichier complet
+            } else {
+                readLine(); // Ignore l'en-tête
+            }
+        }
 
-                    // Champs calculés de date/heure
-                    call.setYear(parseIntSafely(nextLine, 7, "year", lineNum));
-                    call.setMonth(parseIntSafely(nextLine, 8, "month", lineNum));
-                    call.setDay(parseIntSafely(nextLine, 9, "day", lineNum));
-                    call.setDayOfWeek(parseIntSafely(nextLine, 10, "day_of_week", lineNum));
-                    call.setHour(parseIntSafely(nextLine, 11, "hour", lineNum));
-                    call.setMinute(parseIntSafely(nextLine, 12, "minute", lineNum));
-                    call.setTimeOfDay(parseDoubleSafely(nextLine, 13, "time_of_day", lineNum));
-
-                    calls.add(call);
+        /**
+         * Prochain appel retenu, null en fin de fichier (ou de fenêtre)
+         */
+        public Call next() throws IOException {
+            String[] nextLine;
+            while ((nextLine = readLine()) != null) {
+                lineNum++;
+                // Filtre sur le service avant tout décodage
+                if (services != null && !services.contains(parseStringSafely(nextLine))) {
+                    skipped++;
+                    continue;
+                }
+                try {
+                    LocalDateTime received = parseDateSafely(nextLine, 0, "date_received", lineNum, false);
+                    if (to != null && !received.isBefore(to)) {
+                        if (seek) return null; // fichier trié: fin de fenêtre
+                        skipped++;
+                        continue;
+                    }
+                    if (from != null && received.isBefore(from)) {
+                        skipped++;
+                        continue;
+                    }
+                    return parseCall(nextLine, received, lineNum);
                 } catch (Exception e) {
                     System.err.printf("[CALL] Échec du parsing à la ligne %d: %s%n", lineNum, Arrays.toString(nextLine));
                     e.printStackTrace();
                 }
             }
+            return null;
         }
-        System.out.println("[CALL] Nombre total d'appels parsés : " + calls.size());
-        return calls;
+
+        private String[] readLine() throws IOException {
+            try {
+                return reader.readNext();
+            } catch (CsvValidationException e) {
+                throw new IOException(e);
+            }
+        }
+
+        public int getSkipped() {
+            return skipped;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    private static Call parseCall(String[] nextLine, LocalDateTime received, int lineNum) {
+        Call call = new Call();
+
+        // Champs principaux
+        call.setDateReceived(received);
+        call.setQueueName(parseStringSafely(nextLine));
+        call.setAgentNumber(parseDoubleSafely(nextLine, 2, "agent_number", lineNum));
+
+        // Champs de timing (peuvent être null)
+        call.setAnswered(parseDateSafely(nextLine, 3, "answered", lineNum, true));
+        call.setConsult(parseDateSafely(nextLine, 4, "consult", lineNum, true));
+        call.setTransfer(parseDateSafely(nextLine, 5, "transfer", lineNum, true));
+        call.setHangup(parseDateSafely(nextLine, 6, "hangup", lineNum, true));
+
+        // Champs calculés de date/heure
+        call.setYear(parseIntSafely(nextLine, 7, "year", lineNum));
+        call.setMonth(parseIntSafely(nextLine, 8, "month", lineNum));
+        call.setDay(parseIntSafely(nextLine, 9, "day", lineNum));
+        call.setDayOfWeek(parseIntSafely(nextLine, 10, "day_of_week", lineNum));
+        call.setHour(parseIntSafely(nextLine, 11, "hour", lineNum));
+        call.setMinute(parseIntSafely(nextLine, 12, "minute", lineNum));
+        call.setTimeOfDay(parseDoubleSafely(nextLine, 13, "time_of_day", lineNum));
+        return call;
+    }
+
+    /**
+     * Ouvre le fichier positionné au début de l'heure de {@code from} grâce à l'index temporel
+     */
+    private static Reader openAt(String filePath, TimeIndex index, LocalDateTime from) throws IOException {
+        FileChannel channel = FileChannel.open(Path.of(filePath), StandardOpenOption.READ);
+        channel.position(index.offsetFor(from));
+        return Channels.newReader(channel, StandardCharsets.UTF_8);
     }
 
     /**
@@ -69,15 +171,40 @@ public class CSVReaderUtil {
      * Format CSV: id,user_id,dnd_id,campaign_id,extension,last_call_id,startdatetime,enddatetime,agent_id,year,month,day,day_of_week,hour,minute,secondes,time_of_day,duration
      */
     public static List<Activity> readActivities(String filePath) throws Exception {
+        return readActivities(filePath, null, null);
+    }
+
+    /**
+     * Lecture des activités dont le début est dans [from, to) (null = pas de filtre)
+     * Le filtre porte sur la colonne startdatetime brute: les activités hors fenêtre ne sont
+     * jamais allouées.
+     */
+    public static List<Activity> readActivities(String filePath, LocalDateTime from, LocalDateTime to) throws Exception {
         List<Activity> activities = new ArrayList<>();
         int lineNum = 1;
-        try (CSVReader reader = new CSVReader(new FileReader(filePath))) {
+
+        TimeIndex index = (from != null || to != null) ? TimeIndex.loadOrBuild(filePath, 6, -1) : null;
+        boolean seek = index != null && index.isSorted();
+
+        try (CSVReader reader = new CSVReader(seek ? openAt(filePath, index, from) : new FileReader(filePath))) {
             String[] nextLine;
-            reader.readNext(); // Ignore l'en-tête
+            if (seek) {
+                lineNum = index.lineFor(from) - 1; // numérotation du fichier complet
+            } else {
+                reader.readNext(); // Ignore l'en-tête
+            }
 
             while ((nextLine = reader.readNext()) != null) {
                 lineNum++;
                 try {
+                    // Filtre sur la date de début avant tout décodage
+                    LocalDateTime start = parseDateSafely(nextLine, 6, "startdatetime", lineNum, false);
+                    if (to != null && !start.isBefore(to)) {
+                        if (seek) break; // fichier trié: fin de fenêtre
+                        continue;
+                    }
+                    if (from != null && start.isBefore(from)) continue;
+
                     Activity activity = new Activity();
 
                     // Champs principaux
@@ -89,7 +216,7 @@ public class CSVReaderUtil {
                     activity.setLastCallId(parseIntSafely(nextLine, 5, "last_call_id", lineNum));
 
                     // Champs de timing
-                    activity.setStartDateTime(parseDateSafely(nextLine, 6, "startdatetime", lineNum, false));
+                    activity.setStartDateTime(start);
                     activity.setEndDateTime(parseDateSafely(nextLine, 7, "enddatetime", lineNum, true));
                     activity.setAgentId(parseIntSafely(nextLine, 8, "agent_id", lineNum));
 
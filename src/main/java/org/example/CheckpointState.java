@@ -0,0 +1,116 @@
+package org.example;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * État propre au replay dans l'instantané d'un point de reprise ({@link ReplayCheckpoint}):
+ * empreinte des données, curseur d'entrée, réponses routées en attente, files (indices
+ * d'appels), agents. L'état par service (fenêtres, métriques, prédicteurs, statistiques)
+ * suit dans le même flux, écrit et relu par le replay.
+ */
+final class CheckpointState {
+
+    /**
+     * Agent à l'instant de l'instantané
+     */
+    record Agent(int agentId, boolean busy, double lastActivityTime) {
+    }
+
+    final int calls;                 // appels de la table (empreinte des données)
+    final String services;           // services suivis, séparés par des virgules
+    final int scheduledEvents;       // préprogrammés de l'exécution d'origine
+    final long cursor;               // préprogrammés déjà traités
+    final double time;               // temps simulé de l'instantané (heures)
+    final long processedEvents;
+    final List<VanadSSJReplay.RoutedAnswer> routes = new ArrayList<>(); // ordre de programmation
+    final List<int[]> queues = new ArrayList<>(); // par service suivi: indices d'appels, tête d'abord
+    final List<Agent> agents = new ArrayList<>(); // identifiants croissants
+
+    CheckpointState(int calls, String[] services, int scheduledEvents, long cursor, double time,
+                    long processedEvents) {
+        this(calls, String.join(",", services), scheduledEvents, cursor, time, processedEvents);
+    }
+
+    private CheckpointState(int calls, String services, int scheduledEvents, long cursor, double time,
+                            long processedEvents) {
+        this.calls = calls;
+        this.services = services;
+        this.scheduledEvents = scheduledEvents;
+        this.cursor = cursor;
+        this.time = time;
+        this.processedEvents = processedEvents;
+    }
+
+    void write(DataOutput out) throws IOException {
+        out.writeInt(calls);
+        out.writeUTF(services);
+        out.writeInt(scheduledEvents);
+        out.writeLong(cursor);
+        out.writeDouble(time);
+        out.writeLong(processedEvents);
+
+        out.writeInt(routes.size());
+        for (VanadSSJReplay.RoutedAnswer route : routes) {
+            out.writeInt(route.call());
+            out.writeInt(route.agent());
+            out.writeDouble(route.time());
+        }
+
+        for (int[] queue : queues) {
+            out.writeInt(queue.length);
+            for (int call : queue) {
+                out.writeInt(call);
+            }
+        }
+
+        out.writeInt(agents.size());
+        for (Agent agent : agents) {
+            out.writeInt(agent.agentId());
+            out.writeBoolean(agent.busy());
+            out.writeDouble(agent.lastActivityTime());
+        }
+    }
+
+    /**
+     * Relit l'instantané d'un replay sur {@code calls} appels et les services donnés; refusé
+     * (IllegalStateException) si les données ont changé depuis
+     */
+    static CheckpointState read(DataInput in, int calls, String[] services) throws IOException {
+        CheckpointState state = new CheckpointState(in.readInt(), in.readUTF(), in.readInt(), in.readLong(),
+                in.readDouble(), in.readLong());
+        if (state.calls != calls || !state.services.equals(String.join(",", services))) {
+            throw new IllegalStateException(String.format(
+                    "Point de reprise incompatible: %d appels sur %s, données actuelles %d appels sur %s",
+                    state.calls, state.services, calls, String.join(",", services)));
+        }
+
+        for (int i = in.readInt(); i > 0; i--) {
+            state.routes.add(new VanadSSJReplay.RoutedAnswer(in.readInt(), in.readInt(), in.readDouble()));
+        }
+        for (int s = 0; s < services.length; s++) {
+            int[] queue = new int[in.readInt()];
+            for (int i = 0; i < queue.length; i++) {
+                queue[i] = in.readInt();
+            }
+            state.queues.add(queue);
+        }
+        for (int i = in.readInt(); i > 0; i--) {
+            state.agents.add(new Agent(in.readInt(), in.readBoolean(), in.readDouble()));
+        }
+        return state;
+    }
+
+    /**
+     * Les événements reprogrammés doivent être ceux de l'exécution d'origine
+     */
+    void checkScheduled(int scheduled) {
+        if (scheduled != scheduledEvents) {
+            throw new IllegalStateException(String.format("Point de reprise incompatible: %d événements programmés, %d attendus",
+                    scheduled, scheduledEvents));
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package org.example;
+
+import org.example.model.Call;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mode ajout quotidien: chaque exécution repart de l'état de fin de journée de la précédente,
+ * ne rejoue que les nouveaux jours et ajoute leurs lignes aux datasets existants.
+ * Fichiers du dossier d'état:
+ * - vanad_day_state.bin: état à la coupure (minuit suivant le dernier jour rejoué), remplacé atomiquement
+ * - vanad_day_state.model: modèle de charge ajusté au premier passage, réutilisé ensuite
+ * L'état mémorise la longueur des datasets après ajout: un ajout interrompu avant l'écriture
+ * de l'état est tronqué au passage suivant, qui rejoue les mêmes jours.
+ */
+public class DailyAppend {
+
+    static final String STATE_FILE = "vanad_day_state.bin";
+    static final String MODEL_FILE = "vanad_day_state.model";
+    private static final int MAGIC = 0x564E4459; // "VNDY"
+    private static final int VERSION = 1;
+    private static final long NO_TIME = Long.MIN_VALUE;
+
+    private final Path directory;
+    private LocalDateTime startTime; // origine du temps simulé (premier passage)
+    private String[] services;
+    private LocalDateTime cutoff;    // fin du dernier jour rejoué
+    private final Map<String, Long> shardLengths = new LinkedHashMap<>();
+
+    public DailyAppend(Path directory) {
+        this.directory = directory;
+    }
+
+    boolean exists() {
+        return Files.exists(directory.resolve(STATE_FILE));
+    }
+
+    /**
+     * Relit l'état: en-tête chargé, flux positionné sur l'état propre au replay
+     */
+    DataInputStream load() throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(
+                Files.readAllBytes(directory.resolve(STATE_FILE))));
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("État quotidien illisible: " + directory.resolve(STATE_FILE));
+        }
+        startTime = LocalDateTime.parse(in.readUTF());
+        services = in.readUTF().split(",");
+        cutoff = LocalDateTime.parse(in.readUTF());
+        shardLengths.clear();
+        for (int i = in.readInt(); i > 0; i--) {
+            shardLengths.put(in.readUTF(), in.readLong());
+        }
+        return in;
+    }
+
+    /**
+     * Ramène les datasets à leur longueur validée (ajout précédent non suivi de l'état)
+     */
+    void truncateShards() throws IOException {
+        for (Map.Entry<String, Long> shard : shardLengths.entrySet()) {
+            Path file = Path.of(shard.getKey());
+            if (!Files.exists(file) || Files.size(file) < shard.getValue()) {
+                throw new IOException("Dataset plus court que l'état quotidien: " + file);
+            }
+            if (Files.size(file) > shard.getValue()) {
+                System.out.printf("Ajout non validé retiré de %s\n", file);
+                try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+                    channel.truncate(shard.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Écrit l'état à la coupure après l'ajout des lignes aux datasets {@code shards}
+     */
+    void save(LocalDateTime startTime, String[] services, LocalDateTime cutoff, List<String> shards,
+              ReplayCheckpoint.StateWriter state) throws IOException {
+        Files.createDirectories(directory);
+        this.startTime = startTime;
+        this.services = services.clone();
+        this.cutoff = cutoff;
+        shardLengths.clear();
+        for (String shard : shards) {
+            shardLengths.put(shard, Files.size(Path.of(shard)));
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 16);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeUTF(startTime.toString());
+            out.writeUTF(String.join(",", services));
+            out.writeUTF(cutoff.toString());
+            out.writeInt(shardLengths.size());
+            for (Map.Entry<String, Long> shard : shardLengths.entrySet()) {
+                out.writeUTF(shard.getKey());
+                out.writeLong(shard.getValue());
+            }
+            state.write(out);
+        }
+
+        Path temporary = directory.resolve(STATE_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.wrap(bytes.toByteArray()));
+            channel.force(false);
+        }
+        Files.move(temporary, directory.resolve(STATE_FILE),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Modèle de charge du premier passage (null s'il n'a pas encore été sauvegardé)
+     */
+    WorkloadModel loadModel() throws IOException {
+        Path modelFile = directory.resolve(MODEL_FILE);
+        return Files.exists(modelFile) ? WorkloadModel.load(modelFile, null) : null;
+    }
+
+    void saveModel(WorkloadModel model) throws IOException {
+        Files.createDirectories(directory);
+        model.save(directory.resolve(MODEL_FILE), new long[] {0L, 0L});
+    }
+
+    LocalDateTime getStartTime() {
+        return startTime;
+    }
+
+    String[] getServices() {
+        return services;
+    }
+
+    LocalDateTime getCutoff() {
+        return cutoff;
+    }
+
+    // ========================
+    // APPELS REPORTÉS (encore en cours à la coupure)
+    // ========================
+
+    static void writeCall(DataOutput out, Call call) throws IOException {
+        writeTime(out, call.getDateReceived());
+        out.writeUTF(call.getQueueName());
+        out.writeDouble(call.getAgentNumber() != null ? call.getAgentNumber() : Double.NaN);
+        writeTime(out, call.getAnswered());
+        writeTime(out, call.getConsult());
+        writeTime(out, call.getTransfer());
+        writeTime(out, call.getHangup());
+        for (Integer field : new Integer[] {call.getYear(), call.getMonth(), call.getDay(),
+                call.getDayOfWeek(), call.getHour(), call.getMinute()}) {
+            out.writeInt(field != null ? field : Integer.MIN_VALUE);
+        }
+        out.writeDouble(call.getTimeOfDay() != null ? call.getTimeOfDay() : Double.NaN);
+    }
+
+    static Call readCall(DataInput in) throws IOException {
+        Call call = new Call();
+        call.setDateReceived(readTime(in));
+        call.setQueueName(in.readUTF());
+        double agent = in.readDouble();
+        call.setAgentNumber(Double.isNaN(agent) ? null : agent);
+        call.setAnswered(readTime(in));
+        call.setConsult(readTime(in));
+        call.setTransfer(readTime(in));
+        call.setHangup(readTime(in));
+        call.setYear(readInteger(in));
+        call.setMonth(readInteger(in));
+        call.setDay(readInteger(in));
+        call.setDayOfWeek(readInteger(in));
+        call.setHour(readInteger(in));
+        call.setMinute(readInteger(in));
+        double timeOfDay = in.readDouble();
+        call.setTimeOfDay(Double.isNaN(timeOfDay) ? null : timeOfDay);
+        return call;
+    }
+
+    private static void writeTime(DataOutput out, LocalDateTime time) throws IOException {
+        if (time == null) {
+            out.writeLong(NO_TIME);
+        } else {
+            out.writeLong(time.toEpochSecond(ZoneOffset.UTC));
+            out.writeInt(time.getNano());
+        }
+    }
+
+    private static LocalDateTime readTime(DataInput in) throws IOException {
+        long seconds = in.readLong();
+        return seconds == NO_TIME ? null : LocalDateTime.ofEpochSecond(seconds, in.readInt(), ZoneOffset.UTC);
+    }
+
+    private static Integer readInteger(DataInput in) throws IOException {
+        int value = in.readInt();
+        return value == Integer.MIN_VALUE ? null : value;
+    }
+}
@@ -0,0 +1,13 @@
+package org.example;
+
+import java.io.IOException;
+
+/**
+ * Lignes du dataset accessibles par indice, dans l'ordre chronologique de capture. L'export
+ * mélange les indices et formate chaque ligne au moment de l'écrire: aucune liste de chaînes.
+ */
+@FunctionalInterface
+interface DatasetRows {
+
+    String row(int index) throws IOException;
+}
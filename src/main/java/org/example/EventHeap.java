@@ -0,0 +1,99 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * Tas binaire d'événements sur tableaux primitifs (temps, appel, agent, type)
+ * Ordre: temps croissant puis ordre d'insertion, comme la liste SSJ DoublyLinked
+ */
+final class EventHeap {
+
+    private double[] times = new double[64];
+    private long[] seqs = new long[64];
+    private int[] calls = new int[64];
+    private int[] agents = new int[64];
+    private byte[] types = new byte[64];
+    private int size = 0;
+    private long nextSeq = 0;
+
+    void add(double time, byte type, int call, int agent) {
+        if (size == times.length) {
+            int capacity = size * 2;
+            times = Arrays.copyOf(times, capacity);
+            seqs = Arrays.copyOf(seqs, capacity);
+            calls = Arrays.copyOf(calls, capacity);
+            agents = Arrays.copyOf(agents, capacity);
+            types = Arrays.copyOf(types, capacity);
+        }
+        int i = size++;
+        long seq = nextSeq++;
+
+        // Remontée
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!before(time, seq, times[parent], seqs[parent])) break;
+            move(parent, i);
+            i = parent;
+        }
+        set(i, time, seq, call, agent, type);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    // Tête du tas (non vide)
+    double topTime() { return times[0]; }
+    int topCall() { return calls[0]; }
+    int topAgent() { return agents[0]; }
+    byte topType() { return types[0]; }
+
+    void removeTop() {
+        int last = --size;
+        if (last == 0) return;
+
+        double time = times[last];
+        long seq = seqs[last];
+        int call = calls[last];
+        int agent = agents[last];
+        byte type = types[last];
+
+        // Descente
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= last) break;
+            if (child + 1 < last && before(times[child + 1], seqs[child + 1], times[child], seqs[child])) {
+                child++;
+            }
+            if (!before(times[child], seqs[child], time, seq)) break;
+            move(child, i);
+            i = child;
+        }
+        set(i, time, seq, call, agent, type);
+    }
+
+    private static boolean before(double time, long seq, double otherTime, long otherSeq) {
+        return time < otherTime || (time == otherTime && seq < otherSeq);
+    }
+
+    private void move(int from, int to) {
+        times[to] = times[from];
+        seqs[to] = seqs[from];
+        calls[to] = calls[from];
+        agents[to] = agents[from];
+        types[to] = types[from];
+    }
+
+    private void set(int i, double time, long seq, int call, int agent, byte type) {
+        times[i] = time;
+        seqs[i] = seq;
+        calls[i] = call;
+        agents[i] = agent;
+        types[i] = type;
+    }
+}
@@ -0,0 +1,346 @@
+package org.example;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Journal binaire séquentiel des événements d'un replay historique, pour recalculer les
+ * colonnes de prédicteurs et réexporter les datasets sans resimuler ({@link FeatureRederivation}).
+ * En-tête: services, origine du temps, agents compétents et état initial des files;
+ * puis un enregistrement de taille fixe par événement traité:
+ * - type, service, temps simulé (heures), clé d'ordre (départage des temps égaux à la fusion)
+ * - longueurs de toutes les files et agents disponibles du service, après l'événement
+ * - arrivée: instant reçu (secondes), attente de la tête de file, agents disponibles observés, W
+ * - raccroché: attente et durée de service observées (NaN si inconnues)
+ * Le modèle de charge (temps de service par défaut des prédicteurs) est écrit à côté (.model).
+ * Les journaux de composantes indépendantes ({@link SkillGraph}) se fusionnent par {@link #merge}.
+ */
+public class EventJournal {
+
+    static final String JOURNAL_FILE = "vanad_journal.bin";
+    static final byte ARRIVAL = 0;
+    static final byte ANSWERED = 1;
+    static final byte HANGUP = 2;
+    private static final int MAGIC = 0x564E4A52; // "VNJR"
+    private static final int VERSION = 2;
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    /**
+     * Taille d'un enregistrement pour {@code services} files suivies
+     */
+    static int recordSize(int services) {
+        return 1 + 1 + 8 + 8 + 4 + 4 * services + 8 + 8 + 8 + 4;
+    }
+
+    /**
+     * Modèle de charge associé au journal
+     */
+    static Path modelFile(Path journal) {
+        String name = journal.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return journal.resolveSibling((dot > 0 ? name.substring(0, dot) : name) + ".model");
+    }
+
+    // ========================
+    // ÉCRITURE (boucle d'événements)
+    // ========================
+
+    /**
+     * Écriture tamponnée: un enregistrement coûte quelques écritures dans un tampon direct
+     */
+    static class Writer implements Closeable {
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private final int services;
+        private long records = 0;
+
+        Writer(Path file, String[] services, LocalDateTime startTime, int[] competentAgents,
+               int[] queueLengths) throws IOException {
+            this.services = services.length;
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(startTime.toString());
+                out.writeUTF(String.join(",", services));
+                for (int i = 0; i < services.length; i++) {
+                    out.writeInt(competentAgents[i]);
+                    out.writeInt(queueLengths[i]);
+                }
+            }
+            buffer.putInt(bytes.size());
+            buffer.put(bytes.toByteArray());
+        }
+
+        void arrival(double time, long order, int service, int[] queueLengths, int availableAgents,
+                     long receivedSeconds, double headOfLineWait, int observedAgents, double waitTime)
+                throws IOException {
+            begin(ARRIVAL, time, order, service, queueLengths, availableAgents);
+            buffer.putLong(receivedSeconds).putDouble(headOfLineWait).putDouble(waitTime).putInt(observedAgents);
+        }
+
+        void answered(double time, long order, int service, int[] queueLengths, int availableAgents)
+                throws IOException {
+            begin(ANSWERED, time, order, service, queueLengths, availableAgents);
+            buffer.putLong(0L).putDouble(0.0).putDouble(0.0).putInt(0);
+        }
+
+        void hangup(double time, long order, int service, int[] queueLengths, int availableAgents,
+                    double waitTime, double serviceTime) throws IOException {
+            begin(HANGUP, time, order, service, queueLengths, availableAgents);
+            buffer.putLong(0L).putDouble(waitTime).putDouble(serviceTime).putInt(0);
+        }
+
+        private void begin(byte type, double time, long order, int service, int[] queueLengths,
+                           int availableAgents) throws IOException {
+            if (buffer.remaining() < recordSize(services)) {
+                drain();
+            }
+            buffer.put(type).put((byte) service).putDouble(time).putLong(order).putInt(availableAgents);
+            for (int i = 0; i < services; i++) {
+                buffer.putInt(queueLengths[i]);
+            }
+            records++;
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+
+        long getRecords() {
+            return records;
+        }
+
+        @Override
+        public void close() throws IOException {
+            drain();
+            channel.close();
+        }
+    }
+
+    // ========================
+    // LECTURE (projection mémoire)
+    // ========================
+
+    /**
+     * Visite d'un enregistrement; le tableau des files est réutilisé d'un appel à l'autre
+     */
+    interface Visitor {
+        void visit(Record record) throws IOException;
+    }
+
+    /**
+     * Enregistrement courant (instance réutilisée: aucune allocation par événement)
+     */
+    static final class Record {
+        byte type;
+        int service;
+        double time;
+        long order;
+        int availableAgents;
+        final int[] queueLengths;
+        final int[] previousQueueLengths; // état vu par l'événement (avant son traitement)
+        long receivedSeconds;
+        double headOfLineWait;
+        double waitTime;
+        double serviceTime;
+        int observedAgents;
+
+        Record(int services) {
+            queueLengths = new int[services];
+            previousQueueLengths = new int[services];
+        }
+
+        /**
+         * Champs propres à l'événement (hors longueurs de files)
+         */
+        void copyEvent(Record other) {
+            type = other.type;
+            service = other.service;
+            time = other.time;
+            order = other.order;
+            availableAgents = other.availableAgents;
+            receivedSeconds = other.receivedSeconds;
+            headOfLineWait = other.headOfLineWait;
+            waitTime = other.waitTime;
+            serviceTime = other.serviceTime;
+            observedAgents = other.observedAgents;
+        }
+    }
+
+    /**
+     * Journal relu: en-tête chargé, enregistrements parcourus par {@link #forEach}
+     */
+    static class Reader {
+        private final Path file;
+        private final String[] services;
+        private final LocalDateTime startTime;
+        private final int[] competentAgents;
+        private final int[] initialQueues;
+        private final long dataOffset;
+
+        Reader(Path file) throws IOException {
+            this.file = file;
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+                int headerSize = in.readInt();
+                if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                    throw new IOException("Journal illisible: " + file);
+                }
+                startTime = LocalDateTime.parse(in.readUTF());
+                services = in.readUTF().split(",");
+                competentAgents = new int[services.length];
+                initialQueues = new int[services.length];
+                for (int i = 0; i < services.length; i++) {
+                    competentAgents[i] = in.readInt();
+                    initialQueues[i] = in.readInt();
+                }
+                dataOffset = 4L + headerSize;
+            }
+        }
+
+        String[] getServices() {
+            return services;
+        }
+
+        LocalDateTime getStartTime() {
+            return startTime;
+        }
+
+        int getCompetentAgents(int service) {
+            return competentAgents[service];
+        }
+
+        /**
+         * Parcourt les enregistrements dans l'ordre du replay, par fenêtres projetées en mémoire
+         * (un enregistrement incomplet en fin de fichier, journal interrompu, est ignoré)
+         */
+        long forEach(Visitor visitor) throws IOException {
+            long count = 0;
+            try (Cursor cursor = new Cursor(this)) {
+                while (cursor.next()) {
+                    visitor.visit(cursor.record);
+                    count++;
+                }
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Lecture incrémentale d'un journal: un enregistrement par {@link #next}
+     */
+    private static final class Cursor implements Closeable {
+        private final FileChannel channel;
+        private final long dataOffset;
+        private final int services;
+        private final int size;
+        private final long total;
+        private final long window;   // enregistrements par projection
+        private MappedByteBuffer map;
+        private long read = 0;
+        private long mappedEnd = 0;
+        final Record record;
+
+        Cursor(Reader reader) throws IOException {
+            services = reader.services.length;
+            size = recordSize(services);
+            dataOffset = reader.dataOffset;
+            record = new Record(services);
+            System.arraycopy(reader.initialQueues, 0, record.queueLengths, 0, services);
+            channel = FileChannel.open(reader.file, StandardOpenOption.READ);
+            total = (channel.size() - dataOffset) / size;
+            window = Integer.MAX_VALUE / size;
+        }
+
+        boolean next() throws IOException {
+            if (read == total) return false;
+            if (read == mappedEnd) {
+                long records = Math.min(window, total - read);
+                map = channel.map(FileChannel.MapMode.READ_ONLY, dataOffset + read * size, records * size);
+                mappedEnd = read + records;
+            }
+            System.arraycopy(record.queueLengths, 0, record.previousQueueLengths, 0, services);
+            record.type = map.get();
+            record.service = map.get();
+            record.time = map.getDouble();
+            record.order = map.getLong();
+            record.availableAgents = map.getInt();
+            for (int s = 0; s < services; s++) {
+                record.queueLengths[s] = map.getInt();
+            }
+            record.receivedSeconds = map.getLong();
+            if (record.type == ARRIVAL) {
+                record.headOfLineWait = map.getDouble();
+                record.waitTime = map.getDouble();
+                record.serviceTime = Double.NaN;
+            } else {
+                record.headOfLineWait = 0.0;
+                record.waitTime = map.getDouble();
+                record.serviceTime = map.getDouble();
+            }
+            record.observedAgents = map.getInt();
+            read++;
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * Fusion k-voies, par (temps, clé d'ordre), des journaux de composantes disjointes (mêmes
+     * services en en-tête): chaque journal ne fait foi que pour les files de ses services
+     * ({@code ownedServices[i]}), le vecteur global des files est recomposé à chaque événement
+     */
+    static long merge(List<Reader> parts, int[][] ownedServices, Visitor visitor) throws IOException {
+        int services = parts.get(0).services.length;
+        Record merged = new Record(services);
+        List<Cursor> cursors = new ArrayList<>(parts.size());
+        try {
+            PriorityQueue<Integer> heads = new PriorityQueue<>(
+                    Comparator.comparingDouble((Integer i) -> cursors.get(i).record.time)
+                            .thenComparingLong(i -> cursors.get(i).record.order));
+            for (int i = 0; i < parts.size(); i++) {
+                Cursor cursor = new Cursor(parts.get(i));
+                cursors.add(cursor);
+                for (int s : ownedServices[i]) {
+                    merged.queueLengths[s] = parts.get(i).initialQueues[s];
+                }
+                if (cursor.next()) heads.add(i);
+            }
+
+            long count = 0;
+            while (!heads.isEmpty()) {
+                int i = heads.poll();
+                Record record = cursors.get(i).record;
+                System.arraycopy(merged.queueLengths, 0, merged.previousQueueLengths, 0, services);
+                merged.copyEvent(record);
+                for (int s : ownedServices[i]) {
+                    merged.queueLengths[s] = record.queueLengths[s];
+                }
+                visitor.visit(merged);
+                count++;
+                if (cursors.get(i).next()) heads.add(i);
+            }
+            return count;
+        } finally {
+            for (Cursor cursor : cursors) {
+                cursor.close();
+            }
+        }
+    }
+}
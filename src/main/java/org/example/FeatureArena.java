@@ -0,0 +1,151 @@
+package org.example;
+
+import org.example.model.SystemState;
+
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Arène primitive des états capturés: un enregistrement de largeur fixe par état, rangé dans
+ * trois tableaux (aucun objet, aucun en-tête par état):
+ * - 7 entiers: code du service (1..n, 0 si inconnu), qT, l1..l4, agents disponibles
+ * - 1 long: instant d'arrivée (secondes epoch, heure locale des données)
+ * - P + 1 doubles: prédicteurs (P_LES, P_Avg_LES puis les suivants), W
+ * Soit 36 + 8 (P + 1) octets: 60 pour LES et Avg-LES seuls, 84 avec les cinq prédicteurs par
+ * défaut, contre ~150 pour un SystemState conservé avec ses deux tableaux.
+ * Ajout en fin seulement; {@link #clear} garde la capacité (arène réutilisable).
+ */
+public final class FeatureArena {
+
+    static final int INT_LANES = 7;
+    private static final int SERVICE = 0;
+    private static final int QUEUE = 1;
+    private static final int OTHER_QUEUES = 2; // quatre voies: l1..l4
+    private static final int AGENTS = 6;
+    private static final int OTHER_LANES = 4;
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    private final int predictors;
+    private final int doubleLanes;
+    private int[] ints;
+    private long[] seconds;
+    private double[] doubles;
+    private int size = 0;
+
+    public FeatureArena(int predictors) {
+        this(predictors, DEFAULT_CAPACITY);
+    }
+
+    public FeatureArena(int predictors, int capacity) {
+        this.predictors = predictors;
+        this.doubleLanes = predictors + 1;
+        capacity = Math.max(1, capacity);
+        ints = new int[capacity * INT_LANES];
+        seconds = new long[capacity];
+        doubles = new double[capacity * doubleLanes];
+    }
+
+    /**
+     * Copie un état capturé (code de service déjà encodé); retourne l'indice de l'enregistrement
+     */
+    int add(SystemState state, int service) {
+        int record = reserve();
+        int i = record * INT_LANES;
+        ints[i + SERVICE] = service;
+        ints[i + QUEUE] = state.getQueueLength();
+        int[] others = state.getOtherQueuesLengths();
+        for (int k = 0; k < OTHER_LANES; k++) {
+            ints[i + OTHER_QUEUES + k] = k < others.length ? others[k] : 0;
+        }
+        ints[i + AGENTS] = state.getAvailableAgents();
+        seconds[record] = state.getArrivalTime().toEpochSecond(ZoneOffset.UTC);
+
+        int d = record * doubleLanes;
+        double[] values = state.getPredictorValues();
+        for (int p = 0; p < predictors; p++) {
+            doubles[d + p] = p == 0 ? state.getLesPredictor()
+                    : p == 1 ? state.getAvgLesPredictor()
+                    : values != null && p < values.length ? values[p] : 0.0;
+        }
+        doubles[d + predictors] = state.getActualWaitTime();
+        return record;
+    }
+
+    /**
+     * Copie un enregistrement d'une autre arène de même largeur
+     */
+    int copy(FeatureArena from, int record) {
+        if (from.predictors != predictors) {
+            throw new IllegalArgumentException("Largeurs d'arènes différentes");
+        }
+        int target = reserve();
+        System.arraycopy(from.ints, record * INT_LANES, ints, target * INT_LANES, INT_LANES);
+        seconds[target] = from.seconds[record];
+        System.arraycopy(from.doubles, record * doubleLanes, doubles, target * doubleLanes, doubleLanes);
+        return target;
+    }
+
+    private int reserve() {
+        if (size == seconds.length) {
+            int capacity = seconds.length * 2;
+            ints = Arrays.copyOf(ints, capacity * INT_LANES);
+            seconds = Arrays.copyOf(seconds, capacity);
+            doubles = Arrays.copyOf(doubles, capacity * doubleLanes);
+        }
+        return size++;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int predictorCount() {
+        return predictors;
+    }
+
+    public int service(int record) {
+        return ints[record * INT_LANES + SERVICE];
+    }
+
+    public int queueLength(int record) {
+        return ints[record * INT_LANES + QUEUE];
+    }
+
+    /**
+     * Longueur de la k-ième autre file (k dans 0..3)
+     */
+    public int otherQueue(int record, int k) {
+        return ints[record * INT_LANES + OTHER_QUEUES + k];
+    }
+
+    public int availableAgents(int record) {
+        return ints[record * INT_LANES + AGENTS];
+    }
+
+    public long epochSecond(int record) {
+        return seconds[record];
+    }
+
+    public int hour(int record) {
+        return (int) (Math.floorMod(seconds[record], 86_400L) / 3_600L);
+    }
+
+    /**
+     * Jour de la semaine ISO (1 = lundi); le 1er janvier 1970 était un jeudi
+     */
+    public int dayOfWeek(int record) {
+        return (int) Math.floorMod(Math.floorDiv(seconds[record], 86_400L) + 3, 7L) + 1;
+    }
+
+    public double predictor(int record, int p) {
+        return doubles[record * doubleLanes + p];
+    }
+
+    public double waitTime(int record) {
+        return doubles[record * doubleLanes + predictors];
+    }
+}
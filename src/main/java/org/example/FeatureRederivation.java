@@ -0,0 +1,24 @@
+package org.example;
+
+import java.nio.file.Path;
+import java.util.Map;
+
+/**
+ * Réexport des datasets depuis un journal d'événements (replay lancé avec --journal):
+ * seules les colonnes de prédicteurs sont recalculées, sans chargement ni simulation.
+ * À relancer après toute modification d'un prédicteur.
+ */
+public class FeatureRederivation {
+
+    public static void main(String[] args) {
+        // Options: --journal=vanad_journal.bin
+        System.out.println("=== VANAD RÉEXPORT DEPUIS LE JOURNAL ===");
+        Map<String, String> options = VanadSSJReplay.parseOptions(args);
+        try {
+            new VanadSSJReplay().rederive(Path.of(options.getOrDefault("journal", EventJournal.JOURNAL_FILE)));
+        } catch (Exception e) {
+            System.err.println("ERREUR: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+}
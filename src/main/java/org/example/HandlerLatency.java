@@ -0,0 +1,97 @@
+package org.example;
+
+import java.io.*;
+import java.util.Locale;
+
+/**
+ * Latences des gestionnaires d'événements du replay, par type d'événement
+ * et pour les sous-étapes chaudes (capture d'état, prédicteurs, routage).
+ * Activé par -Dvanad.latency=true: désactivé, ENABLED est une constante fausse
+ * et le JIT élimine les mesures (aucun coût, aucun histogramme alloué).
+ */
+public final class HandlerLatency {
+
+    public static final boolean ENABLED = Boolean.getBoolean("vanad.latency");
+
+    /**
+     * Points de mesure
+     */
+    public enum Probe {
+        ARRIVAL("CallArrivalEvent"),
+        ANSWERED("CallAnsweredEvent"),
+        HANGUP("CallHangupEvent"),
+        CAPTURE("captureSystemState"),
+        PREDICTORS("calculatePredictors"),
+        ROUTE("routeCall");
+
+        private final String label;
+
+        Probe(String label) {
+            this.label = label;
+        }
+    }
+
+    private final LatencyHistogram[] histograms;
+
+    public HandlerLatency() {
+        histograms = ENABLED ? new LatencyHistogram[Probe.values().length] : null;
+        if (ENABLED) {
+            for (int i = 0; i < histograms.length; i++) {
+                histograms[i] = new LatencyHistogram();
+            }
+        }
+    }
+
+    /**
+     * Début de mesure (0 si désactivé)
+     */
+    public static long start() {
+        return ENABLED ? System.nanoTime() : 0L;
+    }
+
+    public void stop(Probe probe, long start) {
+        if (ENABLED) {
+            histograms[probe.ordinal()].record(System.nanoTime() - start);
+        }
+    }
+
+    public void merge(HandlerLatency other) {
+        if (!ENABLED) return;
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i].merge(other.histograms[i]);
+        }
+    }
+
+    public LatencyHistogram histogram(Probe probe) {
+        return ENABLED ? histograms[probe.ordinal()] : new LatencyHistogram();
+    }
+
+    /**
+     * Rapport console en microsecondes
+     */
+    public void printReport() {
+        if (!ENABLED) return;
+        System.out.println("\n=== LATENCES DES GESTIONNAIRES (µs) ===");
+        System.out.printf("%-20s %10s %10s %10s %10s %10s\n", "Gestionnaire", "N", "p50", "p99", "p999", "max");
+        for (Probe probe : Probe.values()) {
+            LatencyHistogram h = histograms[probe.ordinal()];
+            System.out.printf(Locale.US, "%-20s %10d %10.2f %10.2f %10.2f %10.2f\n", probe.label, h.count(),
+                    h.quantile(0.5) / 1e3, h.quantile(0.99) / 1e3, h.quantile(0.999) / 1e3, h.max() / 1e3);
+        }
+    }
+
+    /**
+     * Export CSV: une ligne par point de mesure, valeurs en nanosecondes
+     */
+    public void exportCsv(String filename) throws IOException {
+        if (!ENABLED) return;
+        try (PrintWriter writer = new PrintWriter(new FileWriter(filename))) {
+            writer.println("handler,count,p50_ns,p99_ns,p999_ns,max_ns");
+            for (Probe probe : Probe.values()) {
+                LatencyHistogram h = histograms[probe.ordinal()];
+                writer.printf("%s,%d,%d,%d,%d,%d%n", probe.label, h.count(),
+                        h.quantile(0.5), h.quantile(0.99), h.quantile(0.999), h.max());
+            }
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package org.example;
+
+/**
+ * Histogramme de latences à buckets log-linéaires fixes (style HdrHistogram)
+ * Valeurs en nanosecondes: 128 sous-buckets par puissance de deux (erreur relative < 1%),
+ * tableau préalloué, aucune allocation par échantillon. Fusionnable.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BITS = 7;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final long MAX_TRACKABLE = 1L << 44; // ~4.9 heures
+    private static final int BUCKETS = bucketOf(MAX_TRACKABLE) + 1;
+
+    private final long[] counts = new long[BUCKETS];
+    private long total = 0;
+    private long max = 0;
+
+    public void record(long nanos) {
+        long value = Math.max(0, Math.min(nanos, MAX_TRACKABLE));
+        counts[bucketOf(value)]++;
+        total++;
+        if (value > max) max = value;
+    }
+
+    private static int bucketOf(long value) {
+        if (value < SUB_COUNT) return (int) value;
+        int shift = (63 - Long.numberOfLeadingZeros(value)) - SUB_BITS;
+        return SUB_COUNT + shift * SUB_COUNT + (int) ((value >>> shift) - SUB_COUNT);
+    }
+
+    /**
+     * Plus grande valeur équivalente du bucket (borne haute, comme HdrHistogram)
+     */
+    private static long highestValueOf(int bucket) {
+        if (bucket < SUB_COUNT) return bucket;
+        int shift = (bucket - SUB_COUNT) / SUB_COUNT;
+        long mantissa = SUB_COUNT + (bucket - SUB_COUNT) % SUB_COUNT;
+        return (mantissa << shift) + (1L << shift) - 1;
+    }
+
+    /**
+     * Quantile q dans [0, 1] en nanosecondes
+     */
+    public long quantile(double q) {
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(q * total));
+        long seen = 0;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += counts[b];
+            if (seen >= rank) {
+                return Math.min(max, highestValueOf(b));
+            }
+        }
+        return max;
+    }
+
+    public void merge(LatencyHistogram other) {
+        for (int b = 0; b < BUCKETS; b++) {
+            counts[b] += other.counts[b];
+        }
+        total += other.total;
+        max = Math.max(max, other.max);
+    }
+
+    public long count() {
+        return total;
+    }
+
+    public long max() {
+        return max;
+    }
+}
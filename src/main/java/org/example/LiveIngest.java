@@ -0,0 +1,426 @@
+package org.example;
+
+import org.example.model.Call;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ingestion en flux: les événements d'appels (réception, réponse, raccroché) arrivent un à un
+ * depuis l'entrée standard ou un fichier suivi (tail -f) et pilotent la même machine à états
+ * que le replay historique (noyau natif alimenté au fil de l'eau). Chaque ligne du dataset est
+ * écrite dès que W est connu (réponse ou abandon), avec l'encodage de l'entraînement.
+ *
+ * Format d'entrée (CSV, en-tête facultatif), appels reliés par leur identifiant:
+ *   event,call_id,time,queue_name,agent_number
+ *   received,42,2014-01-06 08:01:30,30181,
+ *   answered,42,2014-01-06 08:02:52,,8
+ *   hangup,42,2014-01-06 08:04:30,,
+ *
+ * Fenêtre de réordonnancement bornée: un événement est libéré quand le plus récent reçu le
+ * dépasse de la fenêtre, ou dès que le flux reste muet pendant la fenêtre (latence bornée).
+ * Un événement plus ancien que le dernier libéré passe à l'instant courant (compté en retard).
+ * Services et dotation viennent du fichier d'appels de référence (celui de l'entraînement).
+ */
+public class LiveIngest {
+
+    static final String OUTPUT_FILE = "vanad_live_ssj.csv";
+    private static final int QUEUE_CAPACITY = 4096;
+    private static final long TAIL_POLL_MILLIS = 100;
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    /**
+     * Événement lu, horodaté à la réception (latence d'ingestion)
+     */
+    private record LiveEvent(byte type, String callId, LocalDateTime time, String queue, Double agent,
+                             long receivedNanos) {
+    }
+
+    /**
+     * Événement retenu dans la fenêtre: ordre (temps, ordre de réception)
+     */
+    private record Held(double time, long seq, LiveEvent event) {
+    }
+
+    private static final LiveEvent END = new LiveEvent((byte) -1, null, null, null, null, 0L);
+
+    private final VanadSSJReplay replay;
+    private final double reorderHours;
+    private final long reorderNanos;
+    private final BlockingQueue<LiveEvent> incoming = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final PriorityQueue<Held> window = new PriorityQueue<>(
+            Comparator.comparingDouble(Held::time).thenComparingLong(Held::seq));
+    private final Set<String> services = new HashSet<>();
+    private final Map<String, Integer> callIds = new HashMap<>(); // appels en cours -> indice
+    private final Map<String, Double> heldReceived = new HashMap<>(); // réceptions encore dans la fenêtre
+    private final Map<String, Double> heldAnswered = new HashMap<>();
+    private final LatencyHistogram ingestLatency = new LatencyHistogram();
+
+    private LocalDateTime startTime;
+    private long seq = 0;
+    private double newest = Double.NEGATIVE_INFINITY; // temps brut le plus récent reçu
+    private double lastRaw = Double.NEGATIVE_INFINITY; // temps brut du dernier libéré
+    private double lastTime = 0.0;                     // temps espacé du dernier libéré
+    private int nextIndex = 0;
+    private boolean finished = false;
+
+    private long malformed = 0;  // thread de lecture, lu après sa fin
+    private long applied = 0;
+    private long late = 0;
+    private long ignored = 0;
+
+    public LiveIngest(VanadSSJReplay replay, double reorderSeconds) {
+        this.replay = replay;
+        this.reorderHours = reorderSeconds / 3600.0;
+        this.reorderNanos = (long) (reorderSeconds * 1e9);
+    }
+
+    public static void main(String[] args) {
+        // Options: --input=<fichier|-> (défaut: entrée standard) --follow (suivre le fichier)
+        //          --reorder=<secondes> (défaut 30) --output=vanad_live_ssj.csv
+        //          --calls=<fichier d'appels de référence> --services=<s1,s2,...>
+        //          --query-port=<port> (requêtes de prédiction HTTP locales)
+        //          --metrics-port=<port> (métriques Prometheus locales, /metrics)
+        //          --emit: écrit sur la sortie standard le flux d'événements de --calls
+        //                  (ordre du replay historique), pour rejouer un fichier en direct
+        Map<String, String> options = VanadSSJReplay.parseOptions(args);
+        String reference = options.getOrDefault("calls", "data/all_calls_2014_clean.csv");
+        List<QueryServer> servers = List.of();
+        try {
+            if (options.containsKey("emit")) {
+                emit(reference, new PrintStream(new BufferedOutputStream(System.out), false, StandardCharsets.UTF_8));
+                return;
+            }
+            System.out.println("=== VANAD INGESTION EN FLUX ===");
+            VanadSSJReplay replay = new VanadSSJReplay();
+            servers = QueryServer.open(options, replay);
+            LiveIngest ingest = new LiveIngest(replay, Double.parseDouble(options.getOrDefault("reorder", "30")));
+            String input = options.getOrDefault("input", "-");
+            ingest.execute(reference, options.get("services"),
+                    "-".equals(input) ? null : Path.of(input), options.containsKey("follow"),
+                    Path.of(options.getOrDefault("output", OUTPUT_FILE)));
+        } catch (Exception e) {
+            System.err.println("ERREUR: " + e.getMessage());
+            e.printStackTrace();
+        } finally {
+            servers.forEach(QueryServer::close);
+        }
+    }
+
+    /**
+     * Ingestion jusqu'à la fin du flux (fin de l'entrée standard ou du fichier non suivi)
+     */
+    public void execute(String referenceCalls, String serviceList, Path input, boolean follow,
+                        Path output) throws Exception {
+        String[] selected = serviceList != null ? serviceList.split(",")
+                : replay.selectTopServices(List.of(referenceCalls));
+        services.addAll(Arrays.asList(selected));
+        TimeIndex index = TimeIndex.loadOrBuild(referenceCalls, 0, 1, 2);
+        replay.setAgentRoster(index.getAgentQueues());
+        replay.setWorkloadModel(WorkloadModel.loadCached(
+                VanadSSJReplay.modelFileFor(referenceCalls), referenceCalls, selected));
+        replay.setVerbose(false);
+        replay.setLive(true);
+        System.out.printf("Services: %s, fenêtre de réordonnancement %.0f s, sortie %s\n",
+                Arrays.toString(selected), reorderHours * 3600.0, output);
+
+        Thread reader = new Thread(() -> readInput(input, follow), "live-reader");
+        reader.setDaemon(true);
+        reader.start();
+
+        LiveEvent first = incoming.take();
+        if (first == END) {
+            System.out.println("Flux vide");
+            return;
+        }
+        startTime = first.time();
+        hold(first);
+
+        long rows;
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(output, StandardCharsets.UTF_8))) {
+            writer.println(replay.datasetHeader());
+            writer.flush();
+            long[] written = {0};
+            replay.setStateSink((features, record) -> {
+                writer.println(replay.formatRow(features, record));
+                writer.flush(); // ligne disponible dès que W est connu
+                written[0]++;
+                if (replay.getMetrics() != null) replay.getMetrics().rowsWritten(1);
+            });
+            replay.preparePipelined(selected, startTime);
+            replay.runPipelined(this::refill);
+            rows = written[0];
+        }
+        reader.join();
+        printReport(rows);
+    }
+
+    // ========================
+    // LECTURE
+    // ========================
+
+    /**
+     * Thread de lecture: lignes complètes seulement (un fichier suivi peut finir en milieu de ligne)
+     */
+    private void readInput(Path input, boolean follow) {
+        try (Reader in = new InputStreamReader(input != null ? Files.newInputStream(input) : System.in,
+                StandardCharsets.UTF_8)) {
+            char[] buffer = new char[8192];
+            StringBuilder line = new StringBuilder();
+            while (true) {
+                int n = in.read(buffer);
+                if (n < 0) {
+                    if (!follow || input == null) break;
+                    Thread.sleep(TAIL_POLL_MILLIS);
+                    continue;
+                }
+                for (int i = 0; i < n; i++) {
+                    char c = buffer[i];
+                    if (c == '\n') {
+                        accept(line);
+                        line.setLength(0);
+                    } else if (c != '\r') {
+                        line.append(c);
+                    }
+                }
+            }
+            if (!line.isEmpty()) {
+                accept(line);
+            }
+        } catch (IOException e) {
+            System.err.printf("Lecture du flux interrompue: %s\n", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            try {
+                incoming.put(END);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void accept(CharSequence line) throws InterruptedException {
+        if (line.isEmpty() || line.toString().startsWith("event")) return;
+        if (line.toString().startsWith("row,")) return; // ligne de dataset d'une lecture cadencée
+        LiveEvent event = parse(line.toString(), System.nanoTime());
+        if (event == null) {
+            malformed++;
+        } else {
+            incoming.put(event); // file bornée: contre-pression sur la lecture
+        }
+    }
+
+    /**
+     * Décodage d'une ligne d'événement (null si illisible)
+     */
+    private static LiveEvent parse(String line, long receivedNanos) {
+        String[] fields = line.split(",", -1);
+        if (fields.length < 3) return null;
+        byte type = switch (fields[0].trim()) {
+            case "received" -> NativeReplayKernel.ARRIVAL;
+            case "answered" -> NativeReplayKernel.ANSWERED;
+            case "hangup" -> NativeReplayKernel.HANGUP;
+            default -> -1;
+        };
+        if (type < 0) return null;
+        try {
+            LocalDateTime time = LocalDateTime.parse(fields[2].trim(), FORMATTER);
+            String queue = fields.length > 3 && !fields[3].isBlank() ? fields[3].trim() : null;
+            Double agent = fields.length > 4 && !fields[4].isBlank() ? Double.valueOf(fields[4].trim()) : null;
+            if (type == NativeReplayKernel.ARRIVAL && queue == null) return null;
+            return new LiveEvent(type, fields[1].trim(), time, queue, agent, receivedNanos);
+        } catch (DateTimeParseException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // ========================
+    // FENÊTRE DE RÉORDONNANCEMENT
+    // ========================
+
+    private void hold(LiveEvent event) {
+        double time = VanadSSJReplay.hoursSince(startTime, event.time());
+        newest = Math.max(newest, time);
+        if (event.type() == NativeReplayKernel.ARRIVAL) {
+            heldReceived.merge(event.callId(), time, Math::min);
+        } else if (event.type() == NativeReplayKernel.ANSWERED) {
+            heldAnswered.merge(event.callId(), time, Math::min);
+        }
+        window.add(new Held(time, seq++, event));
+    }
+
+    /**
+     * Vrai si un événement antérieur du même appel, à temps égal, attend encore dans la fenêtre
+     * (lignes permutées dans la même seconde): l'événement repasse derrière lui
+     */
+    private boolean waitsForSameCall(Held held) {
+        byte type = held.event().type();
+        if (type == NativeReplayKernel.ARRIVAL) return false;
+        Double received = heldReceived.get(held.event().callId());
+        Double answered = type == NativeReplayKernel.HANGUP ? heldAnswered.get(held.event().callId()) : null;
+        return (received != null && received <= held.time()) || (answered != null && answered <= held.time());
+    }
+
+    /**
+     * Source du noyau (thread de simulation): attend des événements, libère ceux que la
+     * fenêtre a dépassés; false à la fin du flux, fenêtre vidée
+     */
+    private boolean refill(NativeReplayKernel kernel) throws InterruptedException {
+        while (!finished) {
+            LiveEvent event = window.isEmpty() ? incoming.take() : incoming.poll(reorderNanos, TimeUnit.NANOSECONDS);
+            double until;
+            if (event == null) {
+                until = Double.POSITIVE_INFINITY; // flux muet pendant la fenêtre
+            } else {
+                while (event != null && event != END) {
+                    hold(event);
+                    event = incoming.poll();
+                }
+                finished = event == END;
+                until = finished ? Double.POSITIVE_INFINITY : newest - reorderHours;
+            }
+            if (release(kernel, until) > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int release(NativeReplayKernel kernel, double until) {
+        int planned = 0;
+        while (!window.isEmpty() && window.peek().time() <= until) {
+            Held held = window.poll();
+            if (waitsForSameCall(held)) {
+                window.add(new Held(held.time(), seq++, held.event()));
+                continue;
+            }
+            if (held.event().type() == NativeReplayKernel.ARRIVAL) {
+                heldReceived.remove(held.event().callId());
+            } else if (held.event().type() == NativeReplayKernel.ANSWERED) {
+                heldAnswered.remove(held.event().callId());
+            }
+            if (apply(kernel, held)) planned++;
+        }
+        return planned;
+    }
+
+    /**
+     * Événement libéré: appel créé ou complété, puis programmé avec l'espacement minimal du replay
+     */
+    private boolean apply(NativeReplayKernel kernel, Held held) {
+        LiveEvent event = held.event();
+        int index;
+        switch (event.type()) {
+            case NativeReplayKernel.ARRIVAL -> {
+                if (!services.contains(event.queue()) || callIds.containsKey(event.callId())) {
+                    ignored++;
+                    return false;
+                }
+                index = nextIndex++;
+                callIds.put(event.callId(), index);
+                replay.appendCalls(List.of(new Call(event.time(), event.queue(), null)));
+            }
+            case NativeReplayKernel.ANSWERED -> {
+                Integer known = callIds.get(event.callId());
+                Call call = known == null ? null : replay.getHistoricalCalls().get(known);
+                if (call == null || call.getAnswered() != null || event.time().isBefore(call.getDateReceived())) {
+                    ignored++;
+                    return false;
+                }
+                index = known;
+                call.setAnswered(event.time());
+                call.setAgentNumber(event.agent());
+            }
+            default -> {
+                Integer known = callIds.remove(event.callId()); // dernier événement de l'appel
+                Call call = known == null ? null : replay.getHistoricalCalls().get(known);
+                if (call == null || event.time().isBefore(call.getDateReceived())) {
+                    ignored++;
+                    return false;
+                }
+                index = known;
+                call.setHangup(event.time());
+            }
+        }
+
+        if (held.time() < lastRaw) {
+            late++;
+        }
+        lastRaw = Math.max(lastRaw, held.time());
+        lastTime = Math.max(held.time(), lastTime + VanadSSJReplay.MIN_EVENT_INTERVAL);
+        kernel.plan(lastTime, event.type(), index);
+        applied++;
+        ingestLatency.record(System.nanoTime() - event.receivedNanos());
+        return true;
+    }
+
+    private void printReport(long rows) {
+        System.out.println("\n=== INGESTION EN FLUX ===");
+        System.out.printf("Événements: %d appliqués, %d en retard, %d ignorés (hors services, appel inconnu), %d illisibles\n",
+                applied, late, ignored, malformed);
+        System.out.printf("Latence d'ingestion (réception -> programmation): p50 %.2f ms, p99 %.2f ms, max %.2f ms\n",
+                ingestLatency.quantile(0.5) / 1e6, ingestLatency.quantile(0.99) / 1e6, ingestLatency.max() / 1e6);
+        System.out.printf("Lignes écrites: %d, appels sans issue à la fin du flux: %d\n",
+                rows, replay.getPendingStateCount());
+    }
+
+    // ========================
+    // ÉMISSION (rejeu d'un fichier en flux)
+    // ========================
+
+    /**
+     * Flux d'événements d'un fichier d'appels, dans l'ordre du replay historique
+     * (appels valides, tri stable par temps); l'indice de l'appel sert d'identifiant
+     */
+    static void emit(String callsFile, PrintStream out) throws Exception {
+        List<Call> calls = new ArrayList<>();
+        try (CSVReaderUtil.CallCursor cursor = new CSVReaderUtil.CallCursor(callsFile, null, null, null)) {
+            Call call;
+            while ((call = cursor.next()) != null) {
+                if (VanadSSJReplay.isValidCall(call)) calls.add(call);
+            }
+        }
+        calls.sort(Comparator.comparing(Call::getDateReceived));
+
+        List<Object[]> events = new ArrayList<>();
+        for (int i = 0; i < calls.size(); i++) {
+            Call call = calls.get(i);
+            events.add(new Object[] {call.getDateReceived(), "received", i});
+            if (call.getAnswered() != null && !call.getAnswered().isBefore(call.getDateReceived())) {
+                events.add(new Object[] {call.getAnswered(), "answered", i});
+            }
+            if (call.getHangup() != null && !call.getHangup().isBefore(call.getDateReceived())) {
+                events.add(new Object[] {call.getHangup(), "hangup", i});
+            }
+        }
+        events.sort(Comparator.comparing(event -> (LocalDateTime) event[0]));
+
+        out.println("event,call_id,time,queue_name,agent_number");
+        for (Object[] event : events) {
+            Call call = calls.get((Integer) event[2]);
+            String type = (String) event[1];
+            out.println(eventLine(type, (Integer) event[2], (LocalDateTime) event[0], call.getQueueName(),
+                    call.getAgentNumber() != null ? call.getAgentNumber().intValue() : null));
+        }
+        out.flush();
+    }
+
+    /**
+     * Ligne d'événement au format d'entrée (file à la réception, agent à la réponse)
+     */
+    static String eventLine(String type, int callId, LocalDateTime time, String queue, Integer agent) {
+        return String.format("%s,%d,%s,%s,%s", type, callId, FORMATTER.format(time),
+                type.equals("received") ? queue : "",
+                type.equals("answered") && agent != null ? String.valueOf(agent) : "");
+    }
+}
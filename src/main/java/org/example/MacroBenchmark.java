@@ -0,0 +1,413 @@
+package org.example;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.management.GcInfo;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.io.*;
+import java.lang.management.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Macro-benchmark de bout en bout: executeReplay complet sur jeux synthétiques à graine fixe
+ * (un mois, un an, cinq ans), avec exécutions de chauffe, puis comparaison à une référence
+ * enregistrée (benchmarks/macro_baseline.json, versionnée, noyau natif). Code de sortie 1 si le
+ * débit baisse ou si l'allocation par appel augmente au-delà de la tolérance, ou si la référence
+ * manque pour une taille mesurée ou vient d'un autre moteur: garde-fou avant déploiement.
+ */
+public class MacroBenchmark {
+
+    static final String RESULT_FILE = "macro_benchmark.json";
+    static final String DEFAULT_BASELINE = "benchmarks/macro_baseline.json";
+    private static final int START_YEAR = 2014;
+
+    /**
+     * Taille de jeu: années de données synthétiques et fenêtre de replay éventuelle
+     */
+    private record Size(String name, int years, LocalDateTime from, LocalDateTime to) {
+    }
+
+    private static final List<Size> SIZES = List.of(
+            new Size("month", 1, LocalDate.of(START_YEAR, 1, 1).atStartOfDay(),
+                    LocalDate.of(START_YEAR, 2, 1).atStartOfDay()),
+            new Size("year", 1, null, null),
+            new Size("5years", 5, null, null));
+
+    /**
+     * Mesures d'une taille (meilleure exécution mesurée)
+     */
+    record Result(String name, long calls, long events, double seconds, double eventsPerSec,
+                  double callsPerSec, long peakRssBytes, double allocatedBytesPerCall) {
+    }
+
+    private int warmup = 1;
+    private int runs = 3;
+    private boolean nativeKernel = true; // la liste d'événements SSJ est quadratique sur un an et plus
+
+    /**
+     * Point d'entrée: --sizes=month,year,5years --calls-per-day=2000 --seed=42 --data=bench_data
+     * --warmup=1 --runs=3 --engine=native|ssj --baseline=benchmarks/macro_baseline.json
+     * --max-regression=0.10 --update-baseline
+     * Avec --calls=... --activities=..., mesure des fichiers existants (taille « custom »).
+     */
+    public static void main(String[] args) {
+        System.out.println("=== VANAD MACRO-BENCHMARK ===");
+
+        Map<String, String> options = VanadSSJReplay.parseOptions(args);
+        try {
+            MacroBenchmark benchmark = new MacroBenchmark();
+            benchmark.warmup = Integer.parseInt(options.getOrDefault("warmup", "1"));
+            benchmark.runs = Math.max(1, Integer.parseInt(options.getOrDefault("runs", "3")));
+            benchmark.nativeKernel = !"ssj".equals(options.get("engine"));
+            String engine = benchmark.nativeKernel ? "native" : "ssj";
+
+            List<Result> results = new ArrayList<>();
+            if (options.containsKey("calls")) {
+                results.add(benchmark.measure("custom",
+                        MergedCallReader.resolveFiles(options.get("calls")),
+                        MergedCallReader.resolveFiles(options.getOrDefault("activities", "data/all_activities_2014_clean.csv")),
+                        null, null));
+            } else {
+                Path data = Path.of(options.getOrDefault("data", "bench_data"));
+                int callsPerDay = Integer.parseInt(options.getOrDefault("calls-per-day", "2000"));
+                long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+                for (String name : options.getOrDefault("sizes", "month,year,5years").split(",")) {
+                    Size size = SIZES.stream().filter(s -> s.name().equals(name.trim())).findFirst()
+                            .orElseThrow(() -> new IllegalArgumentException("Taille inconnue: " + name));
+                    Path dir = data.resolve("synthetic-c" + callsPerDay + "-s" + seed);
+                    ensureDataset(dir, size.years(), callsPerDay, seed);
+                    List<String> callsFiles = new ArrayList<>();
+                    List<String> activitiesFiles = new ArrayList<>();
+                    for (int year = START_YEAR; year < START_YEAR + size.years(); year++) {
+                        callsFiles.add(SyntheticDataGenerator.callsFileFor(dir, year).toString());
+                        activitiesFiles.add(dir.resolve("all_activities_" + year + "_clean.csv").toString());
+                    }
+                    results.add(benchmark.measure(size.name(), callsFiles, activitiesFiles, size.from(), size.to()));
+                }
+            }
+
+            printResults(results);
+            writeJson(results, engine, RESULT_FILE);
+
+            String baseline = options.getOrDefault("baseline", DEFAULT_BASELINE);
+            if (options.containsKey("update-baseline")) {
+                Path parent = Path.of(baseline).getParent();
+                if (parent != null) Files.createDirectories(parent);
+                writeJson(results, engine, baseline);
+            } else if (!compare(results, engine, baseline,
+                    Double.parseDouble(options.getOrDefault("max-regression", "0.10")))) {
+                System.exit(1);
+            }
+        } catch (Exception e) {
+            System.err.println("ERREUR: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Génère le jeu synthétique s'il manque une des années demandées
+     * (les jours sont tirés en séquence: les premières années ne changent pas)
+     */
+    private static void ensureDataset(Path dir, int years, int callsPerDay, long seed) throws Exception {
+        for (int year = START_YEAR; year < START_YEAR + years; year++) {
+            if (!Files.exists(SyntheticDataGenerator.callsFileFor(dir, year))) {
+                SyntheticDataGenerator generator = new SyntheticDataGenerator(10, 60, seed);
+                generator.setCallsPerDay(callsPerDay);
+                generator.generate(dir, START_YEAR, years);
+                return;
+            }
+        }
+    }
+
+    // ========================
+    // MESURES
+    // ========================
+
+    /**
+     * Chauffe puis exécutions mesurées; retient la plus rapide (la moins bruitée)
+     */
+    Result measure(String name, List<String> callsFiles, List<String> activitiesFiles,
+                   LocalDateTime from, LocalDateTime to) throws Exception {
+        System.out.printf("\n--- %s: %d chauffe(s), %d mesure(s) ---\n", name, warmup, runs);
+        for (int i = 0; i < warmup; i++) {
+            runOnce(name, callsFiles, activitiesFiles, from, to);
+        }
+        Result best = null;
+        for (int i = 0; i < runs; i++) {
+            Result result = runOnce(name, callsFiles, activitiesFiles, from, to);
+            if (best == null || result.seconds() < best.seconds()) {
+                best = result;
+            }
+        }
+        return best;
+    }
+
+    private Result runOnce(String name, List<String> callsFiles, List<String> activitiesFiles,
+                           LocalDateTime from, LocalDateTime to) throws Exception {
+        System.gc();
+        resetPeakRss();
+
+        VanadSSJReplay replay = new VanadSSJReplay();
+        replay.setVerbose(false);
+        replay.setNativeKernel(nativeKernel);
+        if (from != null || to != null) {
+            replay.setReplayWindow(from, to);
+        }
+
+        HeapAllocationMeter meter = new HeapAllocationMeter();
+        meter.start();
+        long start = System.nanoTime();
+        replay.executeReplay(callsFiles, activitiesFiles);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long allocated = meter.stop();
+
+        long calls = replay.getHistoricalCalls().size();
+        long events = replay.getProcessedEvents();
+        return new Result(name, calls, events, seconds, events / seconds, calls / seconds,
+                peakRss(), allocated < 0 ? -1 : (double) allocated / Math.max(1, calls));
+    }
+
+    /**
+     * Octets alloués par tous les threads de la JVM (fit parallèle du modèle, pipeline, composantes):
+     * croissance du tas sur la mesure plus octets libérés par chaque collection, lus dans les
+     * notifications GC. Les compteurs par thread ignoreraient les threads de travail.
+     */
+    private static final class HeapAllocationMeter implements NotificationListener {
+        private static final long NOTIFICATION_WAIT_NANOS = 2_000_000_000L;
+
+        private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+        private final Set<String> heapPools = new HashSet<>();
+        private long freed = 0;         // sous le verrou du moniteur (thread de notification)
+        private long notifications = 0;
+        private long heapStart;
+        private long collectionsStart;
+        private boolean supported = true;
+
+        HeapAllocationMeter() {
+            for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+                if (pool.getType() == MemoryType.HEAP) heapPools.add(pool.getName());
+            }
+        }
+
+        void start() {
+            for (GarbageCollectorMXBean collector : collectors) {
+                if (collector instanceof NotificationEmitter emitter) {
+                    emitter.addNotificationListener(this, null, null);
+                } else {
+                    supported = false;
+                }
+            }
+            collectionsStart = collections();
+            heapStart = memory.getHeapMemoryUsage().getUsed();
+        }
+
+        /**
+         * Octets alloués depuis start(), -1 si les notifications GC ne sont pas disponibles
+         */
+        long stop() {
+            long heapEnd = memory.getHeapMemoryUsage().getUsed();
+            long expected = collections() - collectionsStart;
+            long deadline = System.nanoTime() + NOTIFICATION_WAIT_NANOS;
+            long allocated;
+            synchronized (this) {
+                // notifications émises de façon asynchrone: attendre celles des dernières collections
+                while (notifications < expected && System.nanoTime() < deadline) {
+                    try {
+                        wait(10);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        break;
+                    }
+                }
+                allocated = heapEnd - heapStart + freed;
+            }
+            for (GarbageCollectorMXBean collector : collectors) {
+                if (collector instanceof NotificationEmitter emitter) {
+                    try {
+                        emitter.removeNotificationListener(this);
+                    } catch (ListenerNotFoundException e) {
+                        // déjà retiré
+                    }
+                }
+            }
+            return supported ? allocated : -1;
+        }
+
+        @Override
+        public synchronized void handleNotification(Notification notification, Object handback) {
+            if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                return;
+            }
+            GcInfo info = GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData()).getGcInfo();
+            long before = 0;
+            long after = 0;
+            for (String pool : heapPools) {
+                MemoryUsage usageBefore = info.getMemoryUsageBeforeGc().get(pool);
+                MemoryUsage usageAfter = info.getMemoryUsageAfterGc().get(pool);
+                if (usageBefore != null && usageAfter != null) {
+                    before += usageBefore.getUsed();
+                    after += usageAfter.getUsed();
+                }
+            }
+            freed += before - after;
+            notifications++;
+            notifyAll();
+        }
+
+        private long collections() {
+            long count = 0;
+            for (GarbageCollectorMXBean collector : collectors) {
+                count += Math.max(0, collector.getCollectionCount());
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Remet à zéro le pic de RSS (Linux: /proc/self/clear_refs), sans effet ailleurs
+     */
+    private static void resetPeakRss() {
+        try (Writer writer = new FileWriter("/proc/self/clear_refs")) {
+            writer.write("5");
+        } catch (IOException e) {
+            // pic cumulé depuis le démarrage de la JVM
+        }
+    }
+
+    /**
+     * Pic de mémoire résidente (VmHWM), -1 hors Linux
+     */
+    private static long peakRss() {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc/self/status"))) {
+                if (line.startsWith("VmHWM:")) {
+                    return Long.parseLong(line.replaceAll("[^0-9]", "")) * 1024;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // non disponible
+        }
+        return -1;
+    }
+
+    // ========================
+    // RÉSULTATS ET RÉFÉRENCE
+    // ========================
+
+    private static void printResults(List<Result> results) {
+        System.out.println("\n=== RÉSULTATS ===");
+        System.out.printf("%-8s %10s %10s %8s %12s %12s %10s %12s\n",
+                "Taille", "Appels", "Événements", "Mur(s)", "Évén./s", "Appels/s", "RSS(Mo)", "Alloué/appel");
+        for (Result r : results) {
+            System.out.printf(Locale.US, "%-8s %10d %10d %8.2f %12.0f %12.0f %10.1f %12.0f\n",
+                    r.name(), r.calls(), r.events(), r.seconds(), r.eventsPerSec(), r.callsPerSec(),
+                    r.peakRssBytes() / 1048576.0, r.allocatedBytesPerCall());
+        }
+    }
+
+    /**
+     * Une taille par ligne: la référence se relit sans bibliothèque JSON
+     */
+    static void writeJson(List<Result> results, String engine, String filename) throws IOException {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(filename))) {
+            writer.println("{");
+            writer.printf("  \"engine\": \"%s\",%n", engine);
+            writer.printf("  \"java_version\": \"%s\",%n", System.getProperty("java.version"));
+            writer.printf("  \"processors\": %d,%n", Runtime.getRuntime().availableProcessors());
+            writer.println("  \"sizes\": [");
+            for (int i = 0; i < results.size(); i++) {
+                Result r = results.get(i);
+                writer.printf(Locale.US, "    {\"name\": \"%s\", \"calls\": %d, \"events\": %d, \"seconds\": %.3f, "
+                                + "\"events_per_sec\": %.1f, \"calls_per_sec\": %.1f, \"peak_rss_bytes\": %d, "
+                                + "\"allocated_bytes_per_call\": %.1f}%s%n",
+                        r.name(), r.calls(), r.events(), r.seconds(), r.eventsPerSec(), r.callsPerSec(),
+                        r.peakRssBytes(), r.allocatedBytesPerCall(), i < results.size() - 1 ? "," : "");
+            }
+            writer.println("  ]");
+            writer.println("}");
+        }
+        System.out.printf("Résultats: %s\n", filename);
+    }
+
+    static Map<String, Map<String, Double>> readJson(String filename) throws IOException {
+        Pattern name = Pattern.compile("\"name\": \"([^\"]+)\"");
+        Pattern number = Pattern.compile("\"([a-z_]+)\": (-?[0-9.]+)");
+        Map<String, Map<String, Double>> sizes = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(Path.of(filename))) {
+            Matcher n = name.matcher(line);
+            if (!n.find()) continue;
+            Map<String, Double> values = new HashMap<>();
+            Matcher m = number.matcher(line);
+            while (m.find()) {
+                values.put(m.group(1), Double.parseDouble(m.group(2)));
+            }
+            sizes.put(n.group(1), values);
+        }
+        return sizes;
+    }
+
+    /**
+     * Garde-fou: débit (événements/s, appels/s) et allocation par appel contre la référence.
+     * Échec si la référence manque, vient d'un autre moteur ou n'a pas d'entrée pour une taille
+     * mesurée (--update-baseline pour l'enregistrer). Le pic de RSS est rapporté, non bloquant.
+     */
+    static boolean compare(List<Result> results, String engine, String baselineFile, double maxRegression)
+            throws IOException {
+        if (!Files.exists(Path.of(baselineFile))) {
+            System.out.printf("ÉCHEC: aucune référence (%s), relancer avec --update-baseline pour l'enregistrer\n",
+                    baselineFile);
+            return false;
+        }
+        Matcher recorded = Pattern.compile("\"engine\": \"([a-z]+)\"").matcher(Files.readString(Path.of(baselineFile)));
+        String baselineEngine = recorded.find() ? recorded.group(1) : "inconnu";
+        if (!baselineEngine.equals(engine)) {
+            System.out.printf("ÉCHEC: référence %s enregistrée avec le moteur %s, mesure avec %s\n",
+                    baselineFile, baselineEngine, engine);
+            return false;
+        }
+        Map<String, Map<String, Double>> baseline = readJson(baselineFile);
+        boolean ok = true;
+        System.out.printf("\n=== COMPARAISON À LA RÉFÉRENCE (tolérance %.0f%%) ===\n", maxRegression * 100);
+        for (Result r : results) {
+            Map<String, Double> reference = baseline.get(r.name());
+            if (reference == null) {
+                System.out.printf("%-8s absent de la référence  <-- ÉCHEC (--update-baseline)\n", r.name());
+                ok = false;
+                continue;
+            }
+            ok &= check(r.name(), "événements/s", r.eventsPerSec(), reference.get("events_per_sec"), maxRegression, true);
+            ok &= check(r.name(), "appels/s", r.callsPerSec(), reference.get("calls_per_sec"), maxRegression, true);
+            ok &= check(r.name(), "alloué/appel", r.allocatedBytesPerCall(),
+                    reference.get("allocated_bytes_per_call"), maxRegression, false);
+            Double rss = reference.get("peak_rss_bytes");
+            if (rss != null && rss > 0 && r.peakRssBytes() > 0) {
+                System.out.printf(Locale.US, "%-8s %-14s %+.1f%% (indicatif)\n", r.name(), "RSS",
+                        (r.peakRssBytes() / rss - 1) * 100);
+            }
+        }
+        System.out.println(ok ? "OK: aucune régression" : "ÉCHEC: régression ou référence manquante");
+        return ok;
+    }
+
+    private static boolean check(String size, String metric, double value, Double reference,
+                                 double maxRegression, boolean higherIsBetter) {
+        if (reference == null || reference <= 0 || value < 0) return true;
+        double change = value / reference - 1;
+        boolean regressed = higherIsBetter ? change < -maxRegression : change > maxRegression;
+        System.out.printf(Locale.US, "%-8s %-14s %+.1f%%%s\n", size, metric, change * 100,
+                regressed ? "  <-- RÉGRESSION" : "");
+        return !regressed;
+    }
+}
@@ -0,0 +1,138 @@
+package org.example;
+
+import org.example.CSVReaderUtil.CallCursor;
+import org.example.model.Call;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.*;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Fusion k-voies paresseuse de plusieurs fichiers d'appels triés (exports mensuels)
+ * Seul l'appel en tête de chaque fichier est en mémoire; ordre global par date_received.
+ */
+public class MergedCallReader implements Closeable {
+
+    private final PriorityQueue<Head> heap;
+    private final List<CallCursor> cursors = new ArrayList<>();
+    private LocalDateTime lastReceived;
+    private long outOfOrder = 0;
+
+    public MergedCallReader(List<String> files, Set<String> services,
+                            LocalDateTime from, LocalDateTime to) throws IOException {
+        // Égalité de dates: ordre des fichiers (stable comme une concaténation)
+        heap = new PriorityQueue<>(Math.max(1, files.size()),
+                Comparator.comparing((Head head) -> head.call.getDateReceived())
+                        .thenComparingInt(head -> head.fileIndex));
+        try {
+            for (int i = 0; i < files.size(); i++) {
+                CallCursor cursor = new CallCursor(files.get(i), services, from, to);
+                cursors.add(cursor);
+                Call first = cursor.next();
+                if (first != null) {
+                    heap.add(new Head(first, cursor, i));
+                }
+            }
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Prochain appel dans l'ordre chronologique global, null à la fin de tous les fichiers
+     */
+    public Call next() throws IOException {
+        Head head = heap.poll();
+        if (head == null) return null;
+
+        Call call = head.call;
+        Call following = head.cursor.next();
+        if (following != null) {
+            head.call = following;
+            heap.add(head);
+        }
+
+        // Un fichier non trié casse l'ordre global: signalé, l'ordre reste celui du tas
+        if (lastReceived != null && call.getDateReceived().isBefore(lastReceived)) {
+            outOfOrder++;
+        }
+        lastReceived = call.getDateReceived();
+        return call;
+    }
+
+    public long getOutOfOrder() {
+        return outOfOrder;
+    }
+
+    @Override
+    public void close() throws IOException {
+        IOException failure = null;
+        for (CallCursor cursor : cursors) {
+            try {
+                cursor.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        if (failure != null) throw failure;
+    }
+
+    /**
+     * Résout une liste de chemins séparés par des virgules, chacun pouvant être un glob
+     * (ex: data/calls_2014_*.csv); résultats triés par nom
+     */
+    public static List<String> resolveFiles(String patterns) throws IOException {
+        List<String> files = new ArrayList<>();
+        for (String pattern : patterns.split(",")) {
+            String trimmed = pattern.trim();
+            if (trimmed.isEmpty()) continue;
+
+            if (!trimmed.contains("*") && !trimmed.contains("?") && !trimmed.contains("[")) {
+                files.add(trimmed);
+                continue;
+            }
+
+            Path path = Path.of(trimmed);
+            Path dir = path.getParent() != null ? path.getParent() : Path.of(".");
+            PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + path.getFileName());
+            List<String> matches = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+                for (Path candidate : stream) {
+                    if (Files.isRegularFile(candidate) && matcher.matches(candidate.getFileName())
+                            && !isSidecar(candidate.getFileName().toString())) {
+                        matches.add(candidate.toString());
+                    }
+                }
+            }
+            Collections.sort(matches);
+            files.addAll(matches);
+        }
+        return files;
+    }
+
+    /**
+     * Fichiers annexes écrits à côté des fichiers d'appels (index temporel, cache du modèle),
+     * que les motifs du type calls_*.csv* ne doivent pas ramasser
+     */
+    private static boolean isSidecar(String name) {
+        return name.endsWith(".idx") || name.endsWith(".model");
+    }
+
+    /**
+     * Tête courante d'un fichier dans le tas
+     */
+    private static final class Head {
+        private Call call;
+        private final CallCursor cursor;
+        private final int fileIndex;
+
+        Head(Call call, CallCursor cursor, int fileIndex) {
+            this.call = call;
+            this.cursor = cursor;
+            this.fileIndex = fileIndex;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package org.example;
+
+import org.example.model.Call;
+import org.example.model.ReplicationResult;
+import umontreal.ssj.rng.MRG32k3a;
+import umontreal.ssj.rng.RandomStream;
+import umontreal.ssj.stat.Tally;
+import umontreal.ssj.util.Chrono;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Mode Monte Carlo: réplications indépendantes sur arrivées synthétiques
+ * Chaque réplication a son propre Simulator et ses propres sous-flux MRG32k3a
+ */
+public class MonteCarloReplay {
+
+    private static final double CONFIDENCE_LEVEL = 0.95;
+
+    private final WorkloadModel model;
+    private final int replications;
+    private final int horizonDays;
+    private final int threads;
+    private boolean exportDatasets = false;
+    private LocalDate startDate = null; // null: lundi de la semaine du premier appel historique
+    private final StreamingStatistics pooledStatistics;
+
+    public MonteCarloReplay(WorkloadModel model, int replications, int horizonDays, int threads) {
+        this.model = model;
+        this.replications = replications;
+        this.horizonDays = horizonDays;
+        this.threads = threads;
+        this.pooledStatistics = new StreamingStatistics(model.getServices());
+    }
+
+    /**
+     * Point d'entrée: ajustement sur l'historique puis réplications parallèles
+     * Arguments optionnels: nombre de réplications, horizon en jours, date de début (AAAA-MM-JJ)
+     */
+    public static void main(String[] args) {
+        System.out.println("=== VANAD MONTE CARLO AVEC SSJ ===");
+
+        int replications = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        int horizonDays = args.length > 1 ? Integer.parseInt(args[1]) : 7;
+        LocalDate startDate = args.length > 2 ? LocalDate.parse(args[2]) : null;
+
+        try {
+            VanadSSJReplay loader = new VanadSSJReplay();
+            String callsFile = "data/all_calls_2014_clean.csv";
+            loader.loadAndPrepareData(callsFile, "data/all_activities_2014_clean.csv");
+
+            WorkloadModel model = WorkloadModel.loadOrFit(VanadSSJReplay.modelFileFor(callsFile), callsFile,
+                    loader.getHistoricalCalls(), loader.getTopServices());
+            MonteCarloReplay monteCarlo = new MonteCarloReplay(model, replications, horizonDays,
+                    Runtime.getRuntime().availableProcessors());
+            monteCarlo.setExportDatasets(true);
+            monteCarlo.setStartDate(startDate);
+            monteCarlo.run(loader.getHistoricalCalls());
+        } catch (Exception e) {
+            System.err.println("ERREUR: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Exécute toutes les réplications et affiche les intervalles de confiance
+     * Les compétences agents sont reprises de l'historique; sans date de début imposée, les
+     * réplications commencent le lundi de la semaine du premier appel historique (reproductible)
+     */
+    public List<ReplicationResult> run(List<Call> historicalCalls) throws InterruptedException, ExecutionException {
+        Chrono chrono = new Chrono();
+        LocalDateTime start = replicationStart(historicalCalls);
+
+        // Agents historiques (appels traités) pour reconstituer les compétences
+        List<Call> agentCalls = historicalCalls.stream()
+                .filter(call -> call.getAgentNumber() != null)
+                .toList();
+
+        // Flux créés séquentiellement: la réplication r utilise le sous-flux r
+        RandomStream arrivalBase = new MRG32k3a("arrivals");
+        RandomStream serviceBase = new MRG32k3a("services");
+        RandomStream patienceBase = new MRG32k3a("patience");
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<ReplicationResult>> futures = new ArrayList<>();
+        try {
+            for (int r = 0; r < replications; r++) {
+                RandomStream arrivals = ((MRG32k3a) arrivalBase).clone();
+                RandomStream services = ((MRG32k3a) serviceBase).clone();
+                RandomStream patience = ((MRG32k3a) patienceBase).clone();
+                arrivalBase.resetNextSubstream();
+                serviceBase.resetNextSubstream();
+                patienceBase.resetNextSubstream();
+
+                int replication = r;
+                futures.add(executor.submit(() ->
+                        runReplication(replication, start, agentCalls, arrivals, services, patience)));
+            }
+
+            List<ReplicationResult> results = new ArrayList<>();
+            for (Future<ReplicationResult> future : futures) {
+                results.add(future.get());
+            }
+
+            printAggregatedStatistics(results);
+            System.out.printf("Monte Carlo terminé en %.2f secondes (%d réplications, %d threads)\n",
+                    chrono.getSeconds(), replications, threads);
+            return results;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * Début des réplications: date imposée, sinon lundi de la semaine du premier appel historique
+     */
+    private LocalDateTime replicationStart(List<Call> historicalCalls) {
+        LocalDate date = startDate;
+        if (date == null) {
+            date = historicalCalls.stream()
+                    .map(Call::getDateReceived)
+                    .min(Comparator.naturalOrder())
+                    .orElseThrow(() -> new IllegalStateException("Aucun appel historique pour dater les réplications"))
+                    .toLocalDate()
+                    .with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        }
+        return date.atStartOfDay();
+    }
+
+    /**
+     * Une réplication: génération des arrivées puis simulation avec routage LIA
+     */
+    private ReplicationResult runReplication(int replication, LocalDateTime start, List<Call> agentCalls,
+                                             RandomStream arrivals, RandomStream services,
+                                             RandomStream patience) throws Exception {
+        List<Call> synthetic = model.generate(start, horizonDays, arrivals, services, patience);
+
+        VanadSSJReplay replay = new VanadSSJReplay();
+        replay.setSimulatedRouting(true);
+        replay.setVerbose(false);
+        replay.setWorkloadModel(model);
+        replay.setRetainStates(exportDatasets);
+        replay.prepare(synthetic, model.getServices());
+        replay.setAgentSourceCalls(agentCalls);
+        replay.runSimulation();
+
+        if (exportDatasets) {
+            replay.exportCapturedStates(String.format("vanad_mc_rep%03d.csv", replication));
+        }
+        synchronized (pooledStatistics) {
+            pooledStatistics.merge(replay.getStatistics());
+        }
+        return replay.summarize(replication);
+    }
+
+    /**
+     * Statistiques agrégées avec intervalles de confiance de Student
+     */
+    private void printAggregatedStatistics(List<ReplicationResult> results) {
+        Tally waitTally = new Tally("Temps d'attente moyen (sec)");
+        Tally queueTally = new Tally("Longueur file moyenne");
+        Tally abandonTally = new Tally("Taux d'abandon");
+        Tally callsTally = new Tally("Appels par réplication");
+        Map<String, Tally> serviceTallies = new LinkedHashMap<>();
+        for (String service : model.getServices()) {
+            serviceTallies.put(service, new Tally("Attente service " + service));
+        }
+
+        for (ReplicationResult result : results) {
+            waitTally.add(result.avgWait());
+            queueTally.add(result.avgQueue());
+            abandonTally.add(result.abandonRate());
+            callsTally.add(result.calls());
+            result.serviceAvgWait().forEach((service, wait) -> serviceTallies.get(service).add(wait));
+        }
+
+        System.out.println("\n=== STATISTIQUES MONTE CARLO ===");
+        System.out.printf("Réplications: %d, horizon: %d jours\n", results.size(), horizonDays);
+        for (Tally tally : List.of(callsTally, waitTally, queueTally, abandonTally)) {
+            printTally(tally);
+        }
+        serviceTallies.values().forEach(this::printTally);
+
+        System.out.println("\n--- Distribution agrégée (toutes réplications) ---");
+        pooledStatistics.printReport();
+    }
+
+    private void printTally(Tally tally) {
+        if (tally.numberObs() < 2) {
+            System.out.printf("%s: %.2f\n", tally.getName(), tally.average());
+            return;
+        }
+        System.out.printf("%s: %s\n", tally.getName(), tally.formatCIStudent(CONFIDENCE_LEVEL, 2));
+    }
+
+    public void setExportDatasets(boolean exportDatasets) {
+        this.exportDatasets = exportDatasets;
+    }
+
+    public void setStartDate(LocalDate startDate) {
+        this.startDate = startDate;
+    }
+}
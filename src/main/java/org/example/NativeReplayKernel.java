@@ -0,0 +1,201 @@
+package org.example;
+
+import java.util.Arrays;
+import java.util.function.DoubleConsumer;
+
+/**
+ * Noyau de replay natif: boucle d'événements monomorphe sur temps primitifs
+ * Les événements historiques (arrivée, réponse, raccroché) sont préprogrammés en ordre
+ * croissant dans des tableaux parallèles; les réponses routées en cours de replay passent
+ * par un tas binaire primitif. Aucun objet n'est alloué par événement.
+ * Même ordre que la liste SSJ DoublyLinked: temps croissant, puis ordre de programmation.
+ */
+public class NativeReplayKernel {
+
+    public static final byte ARRIVAL = 0;
+    public static final byte ANSWERED = 1;
+    public static final byte HANGUP = 2;
+
+    /** Agent non imposé: celui des données historiques */
+    public static final int NO_AGENT = -1;
+
+    /**
+     * Gestionnaires des trois types d'événements (indices dans la table d'appels)
+     */
+    public interface EventHandler {
+        void arrival(int call);
+        void answered(int call, int agent);
+        void hangup(int call);
+    }
+
+    /**
+     * Source de la suite des événements préprogrammés (mode pipeline)
+     * Appelée quand le tampon est épuisé; false à la fin du flux.
+     */
+    public interface EventFeed {
+        boolean refill(NativeReplayKernel kernel) throws InterruptedException;
+    }
+
+    /**
+     * Visiteur des événements restants après un arrêt (agent NO_AGENT pour les préprogrammés)
+     */
+    public interface PendingVisitor {
+        void visit(double time, byte type, int call, int agent);
+    }
+
+    // === FLUX PRÉPROGRAMMÉ (temps croissants) ===
+    private double[] plannedTimes = new double[1024];
+    private int[] plannedCalls = new int[1024];
+    private byte[] plannedTypes = new byte[1024];
+    private int plannedSize = 0;
+    private int cursor = 0;
+    private double lastPlanned = Double.NEGATIVE_INFINITY;
+    private long plannedTotal = 0;
+
+    // === ÉVÉNEMENTS DYNAMIQUES ===
+    private final EventHeap heap = new EventHeap();
+
+    private double now = 0.0;
+    private boolean stopped = false;
+
+    // === BARRIÈRE (points de reprise) ===
+    private double barrier = Double.POSITIVE_INFINITY;
+    private DoubleConsumer barrierAction;
+
+    /**
+     * Programme un événement historique; les temps doivent être non décroissants
+     */
+    public void plan(double time, byte type, int call) {
+        if (time < lastPlanned) {
+            throw new IllegalArgumentException("Événements préprogrammés hors ordre à t=" + time);
+        }
+        if (plannedSize == plannedTimes.length) {
+            int capacity = plannedSize * 2;
+            plannedTimes = Arrays.copyOf(plannedTimes, capacity);
+            plannedCalls = Arrays.copyOf(plannedCalls, capacity);
+            plannedTypes = Arrays.copyOf(plannedTypes, capacity);
+        }
+        plannedTimes[plannedSize] = time;
+        plannedCalls[plannedSize] = call;
+        plannedTypes[plannedSize] = type;
+        plannedSize++;
+        plannedTotal++;
+        lastPlanned = time;
+    }
+
+    /**
+     * Programme un événement après un délai relatif (comme Event.schedule de SSJ)
+     */
+    public void schedule(double delay, byte type, int call, int agent) {
+        heap.add(now + delay, type, call, agent);
+    }
+
+    /**
+     * Action exécutée une fois, entre deux événements, avant le premier événement de temps
+     * >= {@code time} (temps de cet événement en argument); l'action peut réarmer la barrière
+     */
+    public void setBarrier(double time, DoubleConsumer action) {
+        this.barrier = time;
+        this.barrierAction = action;
+    }
+
+    /**
+     * Exécute tous les événements préprogrammés jusqu'à épuisement (ou stop)
+     */
+    public void run(EventHandler handler) {
+        try {
+            run(handler, null);
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e); // impossible sans source
+        }
+    }
+
+    /**
+     * Exécution alimentée au fil de l'eau: le tampon préprogrammé est vidé puis rechargé
+     * par la source, qui bloque tant que la suite n'est pas disponible
+     */
+    public void run(EventHandler handler, EventFeed feed) throws InterruptedException {
+        stopped = false;
+        boolean feedDone = feed == null;
+        while (!stopped) {
+            // Un événement dynamique ne passe qu'une fois le prochain préprogrammé connu
+            if (cursor == plannedSize && !feedDone) {
+                cursor = 0;
+                plannedSize = 0;
+                feedDone = !feed.refill(this);
+                continue;
+            }
+
+            // Égalité de temps: les préprogrammés passent avant (programmés avant le départ)
+            boolean fromPlan = cursor < plannedSize
+                    && (heap.isEmpty() || plannedTimes[cursor] <= heap.topTime());
+
+            if (fromPlan || !heap.isEmpty()) {
+                double next = fromPlan ? plannedTimes[cursor] : heap.topTime();
+                if (next >= barrier) {
+                    barrier = Double.POSITIVE_INFINITY;
+                    barrierAction.accept(next);
+                    continue;
+                }
+            }
+
+            if (fromPlan) {
+                now = plannedTimes[cursor];
+                int call = plannedCalls[cursor];
+                byte type = plannedTypes[cursor];
+                cursor++;
+                dispatch(handler, type, call, NO_AGENT);
+            } else if (!heap.isEmpty()) {
+                now = heap.topTime();
+                int call = heap.topCall();
+                int agent = heap.topAgent();
+                byte type = heap.topType();
+                heap.removeTop();
+                dispatch(handler, type, call, agent);
+            } else {
+                break;
+            }
+        }
+    }
+
+    private static void dispatch(EventHandler handler, byte type, int call, int agent) {
+        switch (type) {
+            case ARRIVAL -> handler.arrival(call);
+            case ANSWERED -> handler.answered(call, agent);
+            case HANGUP -> handler.hangup(call);
+            default -> throw new IllegalStateException("Type d'événement inconnu: " + type);
+        }
+    }
+
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Vide les événements restants après un arrêt: préprogrammés, puis dynamiques
+     * dans leur ordre d'exécution
+     */
+    public void drainPending(PendingVisitor visitor) {
+        for (; cursor < plannedSize; cursor++) {
+            visitor.visit(plannedTimes[cursor], plannedTypes[cursor], plannedCalls[cursor], NO_AGENT);
+        }
+        while (!heap.isEmpty()) {
+            visitor.visit(heap.topTime(), heap.topType(), heap.topCall(), heap.topAgent());
+            heap.removeTop();
+        }
+    }
+
+    /**
+     * Temps simulé courant (heures depuis le début du replay)
+     */
+    public double time() {
+        return now;
+    }
+
+    /**
+     * Nombre total d'événements préprogrammés depuis la création
+     */
+    public long plannedCount() {
+        return plannedTotal;
+    }
+}
@@ -0,0 +1,156 @@
+package org.example;
+
+import java.io.*;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Lecture cadencée sur l'horloge murale (tests de charge des consommateurs temps réel):
+ * l'événement au temps simulé t est traité à l'instant réel origine + (t - t0) / accélération
+ * (1: temps réel, 600: une heure en six secondes).
+ * Attente en deux temps: LockSupport.parkNanos jusqu'à {@link #SPIN_NANOS} de l'échéance
+ * (réveil de l'ordonnanceur imprécis), puis attente active jusqu'à l'échéance.
+ * Les événements (format d'entrée de {@link LiveIngest}) et les lignes du dataset ("row,...")
+ * partent vers un fichier ou une socket TCP, vidés à chaque ligne.
+ * Retard sur l'échéance et gigue (écart de retard entre événements consécutifs) sont mesurés.
+ */
+public final class PacedPlayback implements Closeable {
+
+    static final String OUTPUT_FILE = "vanad_playback.csv";
+    static final long SPIN_NANOS = 200_000L; // marge d'attente active avant l'échéance
+    static final long LATE_NANOS = 1_000_000L; // au-delà: événement compté en retard
+
+    private final double speedup;
+    private final String target;
+    private final Socket socket;   // null: sortie fichier
+    private final PrintWriter out;
+    private final LatencyHistogram lag = new LatencyHistogram();
+    private final LatencyHistogram jitter = new LatencyHistogram();
+
+    private long originNanos;
+    private double originHours = Double.NaN;
+    private double lastHours;
+    private long lastNanos;
+    private long lastLag;
+    private long late = 0;
+    private long events = 0;
+    private long rows = 0;
+
+    private PacedPlayback(double speedup, String target, Socket socket, Writer writer) {
+        if (!(speedup > 0)) {
+            throw new IllegalArgumentException("Accélération invalide: " + speedup);
+        }
+        this.speedup = speedup;
+        this.target = target;
+        this.socket = socket;
+        this.out = new PrintWriter(new BufferedWriter(writer));
+    }
+
+    /**
+     * Sortie vers un fichier, ou vers une socket TCP pour une cible de la forme tcp://hôte:port
+     */
+    public static PacedPlayback open(double speedup, String target) throws IOException {
+        if (target.startsWith("tcp://")) {
+            String address = target.substring("tcp://".length());
+            int colon = address.lastIndexOf(':');
+            if (colon < 0) {
+                throw new IllegalArgumentException("Cible TCP sans port: " + target);
+            }
+            Socket socket = new Socket(address.substring(0, colon), Integer.parseInt(address.substring(colon + 1)));
+            socket.setTcpNoDelay(true); // une ligne par événement: pas d'attente de Nagle
+            return new PacedPlayback(speedup, target, socket,
+                    new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+        }
+        return new PacedPlayback(speedup, target, null, Files.newBufferedWriter(Path.of(target), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * En-têtes des événements et des lignes du dataset
+     */
+    void begin(String datasetHeader) {
+        out.println("event,call_id,time,queue_name,agent_number");
+        out.println("row," + datasetHeader);
+        out.flush();
+    }
+
+    /**
+     * Attend l'échéance murale du temps simulé {@code hours} (le premier appel fixe l'origine)
+     */
+    void await(double hours) {
+        if (Double.isNaN(originHours)) {
+            originHours = hours;
+            originNanos = System.nanoTime();
+        }
+        long deadline = originNanos + (long) ((hours - originHours) * 3.6e12 / speedup);
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > SPIN_NANOS) {
+            LockSupport.parkNanos(remaining - SPIN_NANOS);
+        }
+        while (System.nanoTime() - deadline < 0) {
+            Thread.onSpinWait();
+        }
+
+        lastNanos = System.nanoTime();
+        long delay = lastNanos - deadline;
+        lag.record(delay);
+        if (events > 0) jitter.record(Math.abs(delay - lastLag));
+        if (delay > LATE_NANOS) late++;
+        lastLag = delay;
+        lastHours = hours;
+        events++;
+    }
+
+    /**
+     * Événement émis au format d'entrée de {@link LiveIngest}
+     */
+    void event(String type, int callId, LocalDateTime time, String queue, Integer agent) {
+        out.println(LiveIngest.eventLine(type, callId, time, queue, agent));
+        out.flush();
+    }
+
+    /**
+     * Ligne du dataset capturée
+     */
+    void row(String row) {
+        out.append("row,").append(row).println();
+        out.flush();
+        rows++;
+    }
+
+    public LatencyHistogram getLag() {
+        return lag;
+    }
+
+    public LatencyHistogram getJitter() {
+        return jitter;
+    }
+
+    public void printReport() {
+        double wall = events > 0 ? (lastNanos - originNanos) / 1e9 : 0.0;
+        double simulated = events > 0 ? (lastHours - originHours) * 3600.0 : 0.0;
+        System.out.printf(Locale.US, "\n=== LECTURE CADENCÉE (%.0fx) vers %s ===\n", speedup, target);
+        System.out.printf(Locale.US, "Événements: %d, lignes: %d, en retard (> %.1f ms): %d\n",
+                events, rows, LATE_NANOS / 1e6, late);
+        System.out.printf(Locale.US, "Durée: %.2f s réelles pour %.0f s simulées (accélération effective %.1fx)\n",
+                wall, simulated, wall > 0 ? simulated / wall : 0.0);
+        System.out.printf("%-10s %10s %10s %10s %10s\n", "(µs)", "p50", "p99", "p999", "max");
+        printQuantiles("retard", lag);
+        printQuantiles("gigue", jitter);
+    }
+
+    private static void printQuantiles(String name, LatencyHistogram h) {
+        System.out.printf(Locale.US, "%-10s %10.1f %10.1f %10.1f %10.1f\n", name,
+                h.quantile(0.5) / 1e3, h.quantile(0.99) / 1e3, h.quantile(0.999) / 1e3, h.max() / 1e3);
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+        if (socket != null) socket.close();
+    }
+}
@@ -0,0 +1,241 @@
+package org.example;
+
+import java.io.*;
+import java.lang.management.*;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Empreinte par phase d'une exécution: temps mur, temps CPU (processus et thread courant),
+ * octets alloués par le thread courant, collections GC et pauses, pic de tas.
+ * Les phases sont séquentielles; rapport console et JSON à côté des datasets.
+ */
+public class PhaseProfiler {
+
+    private final boolean enabled;
+    private final List<PhaseResult> results = new ArrayList<>();
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    private final Map<String, Object> attributes = new LinkedHashMap<>();
+
+    private final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    private final OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+    private final List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+
+    public PhaseProfiler(boolean enabled) {
+        this.enabled = enabled;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                heapPools.add(pool);
+            }
+        }
+    }
+
+    /**
+     * Bloc mesuré comme une phase
+     */
+    @FunctionalInterface
+    public interface Body<E extends Exception> {
+        void run() throws E;
+    }
+
+    /**
+     * Exécute le bloc comme une phase; la phase est enregistrée même si le bloc échoue
+     */
+    public <E extends Exception> void measure(String name, Body<E> body) throws E {
+        if (!enabled) {
+            body.run();
+            return;
+        }
+        Phase phase = new Phase(name);
+        try {
+            body.run();
+        } finally {
+            phase.end();
+        }
+    }
+
+    /**
+     * Information de contexte ajoutée au rapport (moteur, fichiers...)
+     */
+    public void attribute(String key, Object value) {
+        attributes.put(key, value);
+    }
+
+    public List<PhaseResult> getResults() {
+        return results;
+    }
+
+    // ========================
+    // MESURES
+    // ========================
+
+    private long processCpuNanos() {
+        if (os instanceof com.sun.management.OperatingSystemMXBean sunOs) {
+            return sunOs.getProcessCpuTime();
+        }
+        return -1;
+    }
+
+    private long threadCpuNanos() {
+        return threads.isCurrentThreadCpuTimeSupported() ? threads.getCurrentThreadCpuTime() : -1;
+    }
+
+    private long threadAllocatedBytes() {
+        if (threads instanceof com.sun.management.ThreadMXBean sunThreads
+                && sunThreads.isThreadAllocatedMemorySupported()) {
+            return sunThreads.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    private long gcCount() {
+        long count = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            count += Math.max(0, collector.getCollectionCount());
+        }
+        return count;
+    }
+
+    private long gcMillis() {
+        long millis = 0;
+        for (GarbageCollectorMXBean collector : collectors) {
+            millis += Math.max(0, collector.getCollectionTime());
+        }
+        return millis;
+    }
+
+    private void resetPeaks() {
+        for (MemoryPoolMXBean pool : heapPools) {
+            pool.resetPeakUsage();
+        }
+    }
+
+    /**
+     * Somme des pics des pools de tas (borne haute: les pics ne sont pas simultanés)
+     */
+    private long peakHeap() {
+        long peak = 0;
+        for (MemoryPoolMXBean pool : heapPools) {
+            MemoryUsage usage = pool.getPeakUsage();
+            if (usage != null) peak += usage.getUsed();
+        }
+        return peak;
+    }
+
+    /**
+     * Phase en cours de mesure
+     */
+    private final class Phase {
+        private final String name;
+        private final long wallStart = System.nanoTime();
+        private final long cpuStart = processCpuNanos();
+        private final long threadCpuStart = threadCpuNanos();
+        private final long allocatedStart = threadAllocatedBytes();
+        private final long gcCountStart = gcCount();
+        private final long gcMillisStart = gcMillis();
+
+        private Phase(String name) {
+            this.name = name;
+            resetPeaks();
+        }
+
+        void end() {
+            results.add(new PhaseResult(name,
+                    (System.nanoTime() - wallStart) / 1e6,
+                    delta(processCpuNanos(), cpuStart) / 1e6,
+                    delta(threadCpuNanos(), threadCpuStart) / 1e6,
+                    delta(threadAllocatedBytes(), allocatedStart),
+                    gcCount() - gcCountStart,
+                    gcMillis() - gcMillisStart,
+                    peakHeap()));
+        }
+
+        private long delta(long end, long start) {
+            return end < 0 || start < 0 ? -1 : end - start;
+        }
+    }
+
+    /**
+     * Mesures d'une phase (durées en millisecondes, -1 si non supporté par la JVM)
+     */
+    public record PhaseResult(String name, double wallMs, double cpuMs, double threadCpuMs,
+                              long allocatedBytes, long gcCount, long gcPauseMs, long peakHeapBytes) {
+    }
+
+    // ========================
+    // RAPPORTS
+    // ========================
+
+    private PhaseResult total() {
+        double wall = 0, cpu = 0, threadCpu = 0;
+        long allocated = 0, count = 0, pause = 0, peak = 0;
+        for (PhaseResult r : results) {
+            wall += r.wallMs();
+            cpu += Math.max(0, r.cpuMs());
+            threadCpu += Math.max(0, r.threadCpuMs());
+            allocated += Math.max(0, r.allocatedBytes());
+            count += r.gcCount();
+            pause += r.gcPauseMs();
+            peak = Math.max(peak, r.peakHeapBytes());
+        }
+        return new PhaseResult("total", wall, cpu, threadCpu, allocated, count, pause, peak);
+    }
+
+    public void printReport() {
+        if (!enabled) return;
+        System.out.println("\n=== EMPREINTE PAR PHASE ===");
+        System.out.printf("%-12s %10s %10s %10s %12s %6s %8s %10s\n",
+                "Phase", "Mur(ms)", "CPU(ms)", "Thread(ms)", "Alloué(Mo)", "GC", "Pause", "Pic(Mo)");
+        List<PhaseResult> rows = new ArrayList<>(results);
+        rows.add(total());
+        for (PhaseResult r : rows) {
+            System.out.printf(Locale.US, "%-12s %10.1f %10.1f %10.1f %12.1f %6d %8d %10.1f\n",
+                    r.name(), r.wallMs(), r.cpuMs(), r.threadCpuMs(), r.allocatedBytes() / 1048576.0,
+                    r.gcCount(), r.gcPauseMs(), r.peakHeapBytes() / 1048576.0);
+        }
+    }
+
+    /**
+     * Rapport JSON: contexte de la JVM, phases dans l'ordre d'exécution et total
+     */
+    public void writeJson(String filename) throws IOException {
+        if (!enabled) return;
+        Runtime runtime = Runtime.getRuntime();
+        try (PrintWriter writer = new PrintWriter(new FileWriter(filename))) {
+            writer.println("{");
+            writer.printf("  \"started_at\": \"%s\",%n", startedAt);
+            writer.printf("  \"java_version\": \"%s\",%n", escape(System.getProperty("java.version")));
+            writer.printf("  \"processors\": %d,%n", runtime.availableProcessors());
+            writer.printf("  \"max_heap_bytes\": %d,%n", runtime.maxMemory());
+            writer.printf("  \"collectors\": [%s],%n", String.join(", ",
+                    collectors.stream().map(c -> "\"" + escape(c.getName()) + "\"").toList()));
+            for (Map.Entry<String, Object> entry : attributes.entrySet()) {
+                Object value = entry.getValue();
+                writer.printf("  \"%s\": %s,%n", escape(entry.getKey()), value instanceof Number
+                        ? value : "\"" + escape(String.valueOf(value)) + "\"");
+            }
+            writer.println("  \"phases\": [");
+            for (int i = 0; i < results.size(); i++) {
+                writer.print("    " + toJson(results.get(i)));
+                writer.println(i < results.size() - 1 ? "," : "");
+            }
+            writer.println("  ],");
+            writer.println("  \"total\": " + toJson(total()));
+            writer.println("}");
+        }
+        System.out.printf("Rapport d'exécution: %s\n", filename);
+    }
+
+    private static String toJson(PhaseResult r) {
+        return String.format(Locale.US,
+                "{\"name\": \"%s\", \"wall_ms\": %.3f, \"cpu_ms\": %.3f, \"thread_cpu_ms\": %.3f, "
+                        + "\"allocated_bytes\": %d, \"gc_count\": %d, \"gc_pause_ms\": %d, \"peak_heap_bytes\": %d}",
+                escape(r.name()), r.wallMs(), r.cpuMs(), r.threadCpuMs(),
+                r.allocatedBytes(), r.gcCount(), r.gcPauseMs(), r.peakHeapBytes());
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
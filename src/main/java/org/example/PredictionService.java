@@ -0,0 +1,34 @@
+package org.example;
+
+/**
+ * API de requête concurrente: la boucle d'événements publie un {@link PredictionSnapshot}
+ * immuable par une seule écriture volatile après chaque événement; les lecteurs, quel que soit
+ * leur nombre, lisent la dernière publication sans verrou ni allocation.
+ */
+public class PredictionService {
+
+    private volatile PredictionSnapshot current;
+
+    /**
+     * Publication par la boucle d'événements (écrivain unique)
+     */
+    void publish(PredictionSnapshot snapshot) {
+        current = snapshot;
+    }
+
+    /**
+     * Dernier instantané publié (null avant le premier événement)
+     */
+    public PredictionSnapshot current() {
+        return current;
+    }
+
+    /**
+     * Variables et prédictions pour un appel arrivant maintenant sur le service
+     * (null si rien n'est publié ou si le service n'est pas suivi)
+     */
+    public PredictionSnapshot.ServiceView predict(String service) {
+        PredictionSnapshot snapshot = current;
+        return snapshot == null ? null : snapshot.service(service);
+    }
+}
@@ -0,0 +1,124 @@
+package org.example;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Instantané immuable de l'état par service, publié par la boucle d'événements après chaque
+ * événement: variables du dataset (sans W) et prédictions pour un appel qui arriverait maintenant.
+ * Lu sans verrou par n'importe quel thread ({@link PredictionService}).
+ */
+public final class PredictionSnapshot {
+
+    private final long sequence;      // événements traités à la publication
+    private final LocalDateTime clock; // instant simulé
+    private final Map<String, ServiceView> services;
+
+    PredictionSnapshot(long sequence, LocalDateTime clock, Map<String, ServiceView> services) {
+        this.sequence = sequence;
+        this.clock = clock;
+        this.services = Map.copyOf(services);
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public LocalDateTime getClock() {
+        return clock;
+    }
+
+    /**
+     * Vue d'un service (null si le service n'est pas suivi)
+     */
+    public ServiceView service(String service) {
+        return services.get(service);
+    }
+
+    public String toJson() {
+        StringBuilder json = new StringBuilder(256 * (services.size() + 1));
+        json.append("{\"sequence\":").append(sequence)
+                .append(",\"time\":\"").append(clock).append("\",\"services\":[");
+        String separator = "";
+        for (ServiceView view : services.values().stream()
+                .sorted((a, b) -> Integer.compare(a.code, b.code)).toList()) {
+            json.append(separator).append(view.toJson());
+            separator = ",";
+        }
+        return json.append("]}").toString();
+    }
+
+    /**
+     * Variables d'un appel arrivant sur le service: mêmes colonnes que le dataset (T, qT, l1-l4,
+     * t_hour, t_day_of_week, s, prédicteurs)
+     */
+    public static final class ServiceView {
+        private final String service;
+        private final int code;
+        private final int queueLength;
+        private final int[] otherQueues;
+        private final int hour;
+        private final int dayOfWeek;
+        private final int availableAgents;
+        private final String[] predictorNames;
+        private final double[] predictions;
+        private String json; // calculé à la première demande (course bénigne, chaîne immuable)
+
+        ServiceView(String service, int code, int queueLength, int[] otherQueues, LocalDateTime clock,
+                    int availableAgents, String[] predictorNames, double[] predictions) {
+            this.service = service;
+            this.code = code;
+            this.queueLength = queueLength;
+            this.otherQueues = otherQueues.clone();
+            this.hour = clock.getHour();
+            this.dayOfWeek = clock.getDayOfWeek().getValue();
+            this.availableAgents = availableAgents;
+            this.predictorNames = predictorNames;
+            this.predictions = predictions.clone();
+        }
+
+        public String getService() { return service; }
+        public int getCode() { return code; }
+        public int getQueueLength() { return queueLength; }
+        public int getOtherQueueLength(int index) { return otherQueues[index]; }
+        public int getHour() { return hour; }
+        public int getDayOfWeek() { return dayOfWeek; }
+        public int getAvailableAgents() { return availableAgents; }
+        public double getLes() { return predictions[0]; }
+        public double getAvgLes() { return predictions[1]; }
+
+        /**
+         * Prédiction d'une colonne (NaN si le prédicteur est inconnu)
+         */
+        public double getPrediction(String name) {
+            for (int i = 0; i < predictorNames.length; i++) {
+                if (predictorNames[i].equals(name)) return predictions[i];
+            }
+            return Double.NaN;
+        }
+
+        public String toJson() {
+            String cached = json;
+            if (cached == null) {
+                StringBuilder out = new StringBuilder(256);
+                out.append(String.format(Locale.US,
+                        "{\"service\":\"%s\",\"T\":%d,\"qT\":%d,\"l1\":%d,\"l2\":%d,\"l3\":%d,\"l4\":%d,"
+                                + "\"t_hour\":%d,\"t_day_of_week\":%d,\"s\":%d",
+                        service, code, queueLength, otherQueues[0], otherQueues[1], otherQueues[2],
+                        otherQueues[3], hour, dayOfWeek, availableAgents));
+                for (int i = 0; i < predictorNames.length; i++) {
+                    out.append(String.format(Locale.US, ",\"%s\":%.2f", predictorNames[i], predictions[i]));
+                }
+                cached = out.append('}').toString();
+                json = cached;
+            }
+            return cached;
+        }
+
+        @Override
+        public String toString() {
+            return toJson();
+        }
+    }
+}
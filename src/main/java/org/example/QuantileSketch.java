@@ -0,0 +1,135 @@
+package org.example;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Sketch de quantiles à erreur relative bornée (buckets logarithmiques, style DDSketch)
+ * Mémoire bornée indépendamment du nombre d'observations, fusion exacte entre sketches
+ */
+public class QuantileSketch {
+
+    private static final double RELATIVE_ACCURACY = 0.01;
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    private static final double MIN_VALUE = 1e-2;   // en deçà: compté comme zéro
+    private static final double MAX_VALUE = 1e6;    // au-delà: dernier bucket
+    private static final int OFFSET = -(int) Math.ceil(Math.log(MIN_VALUE) / LOG_GAMMA);
+    private static final int BUCKETS = (int) Math.ceil(Math.log(MAX_VALUE) / LOG_GAMMA) + OFFSET + 1;
+
+    private long[] counts;      // alloué à la première valeur positive
+    private long zeroCount = 0;
+    private long total = 0;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public void add(double value) {
+        total++;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+
+        if (value < MIN_VALUE) {
+            zeroCount++;
+            return;
+        }
+        if (counts == null) {
+            counts = new long[BUCKETS];
+        }
+        counts[bucketOf(value)]++;
+    }
+
+    private static int bucketOf(double value) {
+        int index = (int) Math.ceil(Math.log(Math.min(value, MAX_VALUE)) / LOG_GAMMA) + OFFSET;
+        return Math.max(0, Math.min(BUCKETS - 1, index));
+    }
+
+    /**
+     * Valeur représentative d'un bucket (milieu relatif)
+     */
+    private static double valueOf(int bucket) {
+        return 2 * Math.pow(GAMMA, bucket - OFFSET) / (GAMMA + 1);
+    }
+
+    /**
+     * Quantile q dans [0, 1], erreur relative <= 1%
+     */
+    public double quantile(double q) {
+        if (total == 0) return 0.0;
+
+        long rank = (long) Math.floor(q * (total - 1));
+        if (rank < zeroCount) return Math.max(0, min);
+
+        long seen = zeroCount;
+        for (int b = 0; b < BUCKETS; b++) {
+            seen += counts[b];
+            if (seen > rank) {
+                return Math.max(min, Math.min(max, valueOf(b)));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Fusion exacte d'un autre sketch (réplications, threads)
+     */
+    public void merge(QuantileSketch other) {
+        if (other.total == 0) return;
+        if (other.counts != null) {
+            if (counts == null) {
+                counts = new long[BUCKETS];
+            }
+            for (int b = 0; b < BUCKETS; b++) {
+                counts[b] += other.counts[b];
+            }
+        }
+        zeroCount += other.zeroCount;
+        total += other.total;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    public long count() {
+        return total;
+    }
+
+    public double max() {
+        return total == 0 ? 0.0 : max;
+    }
+
+    /**
+     * Sauvegarde compacte: seuls les buckets non vides sont écrits (indice, effectif)
+     */
+    public void writeState(DataOutput out) throws IOException {
+        out.writeLong(total);
+        out.writeLong(zeroCount);
+        out.writeDouble(min);
+        out.writeDouble(max);
+        int used = 0;
+        if (counts != null) {
+            for (long count : counts) {
+                if (count != 0) used++;
+            }
+        }
+        out.writeInt(used);
+        for (int b = 0; used > 0 && b < BUCKETS; b++) {
+            if (counts[b] != 0) {
+                out.writeShort(b);
+                out.writeLong(counts[b]);
+            }
+        }
+    }
+
+    public void readState(DataInput in) throws IOException {
+        total = in.readLong();
+        zeroCount = in.readLong();
+        min = in.readDouble();
+        max = in.readDouble();
+        int used = in.readInt();
+        counts = used > 0 ? new long[BUCKETS] : null;
+        for (int i = 0; i < used; i++) {
+            int bucket = in.readShort();
+            counts[bucket] = in.readLong();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package org.example;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Point d'accès HTTP local (127.0.0.1) au moteur en cours:
+ * - GET /predict?service=30175: variables et prédictions d'un appel arrivant maintenant
+ * - GET /snapshot: tous les services
+ * - GET /metrics: compteurs et jauges du replay au format texte Prometheus
+ * Réponses servies depuis l'instantané et les compteurs courants, sans verrou; threads démons.
+ */
+public class QueryServer implements Closeable {
+
+    private static final int THREADS = Math.max(2, Runtime.getRuntime().availableProcessors());
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final PredictionService predictions;
+    private final ReplayMetrics metrics;
+
+    public QueryServer(int port, PredictionService predictions) throws IOException {
+        this(port, predictions, null);
+    }
+
+    /**
+     * Contextes /predict et /snapshot si {@code predictions} est fourni, /metrics si {@code metrics} l'est
+     */
+    public QueryServer(int port, PredictionService predictions, ReplayMetrics metrics) throws IOException {
+        this.predictions = predictions;
+        this.metrics = metrics;
+        // en-têtes et corps sont écrits séparément: sans TCP_NODELAY, chaque réponse
+        // keep-alive attend l'acquittement différé du client (~40 ms)
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 128);
+        executor = Executors.newFixedThreadPool(THREADS, task -> {
+            Thread thread = new Thread(task, "query-http");
+            thread.setDaemon(true);
+            return thread;
+        });
+        server.setExecutor(executor);
+        if (predictions != null) {
+            server.createContext("/predict", this::handlePredict);
+            server.createContext("/snapshot", this::handleSnapshot);
+        }
+        if (metrics != null) {
+            server.createContext("/metrics", this::handleMetrics);
+        }
+        server.start();
+        if (predictions != null) {
+            System.out.printf("Requêtes de prédiction: http://127.0.0.1:%d/predict?service=<file>\n", getPort());
+        }
+        if (metrics != null) {
+            System.out.printf("Métriques: http://127.0.0.1:%d/metrics\n", getPort());
+        }
+    }
+
+    /**
+     * Serveurs demandés par --query-port et --metrics-port (un seul si les ports sont égaux),
+     * branchés sur le replay; à fermer en fin d'exécution
+     */
+    static List<QueryServer> open(Map<String, String> options, VanadSSJReplay replay) throws IOException {
+        PredictionService predictions = null;
+        ReplayMetrics metrics = null;
+        if (options.containsKey("query-port")) {
+            predictions = new PredictionService();
+            replay.setPredictionService(predictions);
+        }
+        if (options.containsKey("metrics-port")) {
+            metrics = new ReplayMetrics();
+            replay.setMetrics(metrics);
+        }
+
+        List<QueryServer> servers = new ArrayList<>(2);
+        try {
+            if (predictions != null && metrics != null
+                    && options.get("query-port").equals(options.get("metrics-port"))) {
+                servers.add(new QueryServer(Integer.parseInt(options.get("query-port")), predictions, metrics));
+            } else {
+                if (predictions != null) {
+                    servers.add(new QueryServer(Integer.parseInt(options.get("query-port")), predictions, null));
+                }
+                if (metrics != null) {
+                    servers.add(new QueryServer(Integer.parseInt(options.get("metrics-port")), null, metrics));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            servers.forEach(QueryServer::close);
+            throw e;
+        }
+        return servers;
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handlePredict(HttpExchange exchange) throws IOException {
+        String service = parameter(exchange.getRequestURI().getRawQuery(), "service");
+        PredictionSnapshot snapshot = predictions.current();
+        if (snapshot == null) {
+            respond(exchange, 503, "{\"error\":\"aucun état publié\"}");
+        } else if (service == null) {
+            respond(exchange, 400, "{\"error\":\"paramètre service manquant\"}");
+        } else {
+            PredictionSnapshot.ServiceView view = snapshot.service(service);
+            if (view == null) {
+                respond(exchange, 404, "{\"error\":\"service inconnu\"}");
+            } else {
+                respond(exchange, 200, view.toJson());
+            }
+        }
+    }
+
+    private void handleSnapshot(HttpExchange exchange) throws IOException {
+        PredictionSnapshot snapshot = predictions.current();
+        if (snapshot == null) {
+            respond(exchange, 503, "{\"error\":\"aucun état publié\"}");
+        } else {
+            respond(exchange, 200, snapshot.toJson());
+        }
+    }
+
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        respond(exchange, 200, "text/plain; version=0.0.4; charset=utf-8", metrics.toPrometheus());
+    }
+
+    private static String parameter(String query, String name) {
+        if (query == null) return null;
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && pair.substring(0, eq).equals(name)) {
+                return pair.substring(eq + 1);
+            }
+        }
+        return null;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        respond(exchange, status, "application/json; charset=utf-8", body);
+    }
+
+    private static void respond(HttpExchange exchange, int status, String contentType, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,108 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * Tas binaire indexé des têtes de file: un élément par service non vide, clé = instant
+ * d'arrivée de l'appel en tête (égalité: indice de service le plus petit).
+ * Le replay en tient un par ensemble distinct de compétences d'agents: chaque changement de
+ * tête (ajout, retrait, prise en charge) met à jour les tas contenant le service en
+ * O(log services), et l'agent libéré lit l'appel le plus ancien de ses files à la racine.
+ */
+final class QueueHeadHeap {
+
+    private final double[] keys;      // par service
+    private final int[] heap;         // services, ordre du tas
+    private final int[] positions;    // service -> position dans le tas (-1: file vide)
+    private int size = 0;
+
+    QueueHeadHeap(int services) {
+        keys = new double[services];
+        heap = new int[services];
+        positions = new int[services];
+        Arrays.fill(positions, -1);
+    }
+
+    /**
+     * Nouvelle tête du service (file non vide)
+     */
+    void update(int service, double headTime) {
+        int i = positions[service];
+        if (i < 0) {
+            i = size++;
+            heap[i] = service;
+            positions[service] = i;
+            keys[service] = headTime;
+            siftUp(i);
+        } else {
+            double previous = keys[service];
+            keys[service] = headTime;
+            if (before(service, previous, service)) {
+                siftDown(i); // tête plus récente
+            } else {
+                siftUp(i);
+            }
+        }
+    }
+
+    /**
+     * File du service vidée
+     */
+    void remove(int service) {
+        int i = positions[service];
+        if (i < 0) return;
+        positions[service] = -1;
+        int last = --size;
+        if (i == last) return;
+        int moved = heap[last];
+        heap[i] = moved;
+        positions[moved] = i;
+        siftDown(i);
+        siftUp(positions[moved]);
+    }
+
+    /**
+     * Service dont la tête attend depuis le plus longtemps (-1 si toutes les files sont vides)
+     */
+    int peek() {
+        return size == 0 ? -1 : heap[0];
+    }
+
+    private boolean before(int a, double keyA, int b) {
+        return keyA < keys[b] || (keyA == keys[b] && a < b);
+    }
+
+    private boolean before(int a, int b) {
+        return before(a, keys[a], b);
+    }
+
+    private void siftUp(int i) {
+        int service = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!before(service, heap[parent])) break;
+            heap[i] = heap[parent];
+            positions[heap[i]] = i;
+            i = parent;
+        }
+        heap[i] = service;
+        positions[service] = i;
+    }
+
+    private void siftDown(int i) {
+        int service = heap[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) break;
+            if (child + 1 < size && before(heap[child + 1], heap[child])) {
+                child++;
+            }
+            if (!before(heap[child], service)) break;
+            heap[i] = heap[child];
+            positions[heap[i]] = i;
+            i = child;
+        }
+        heap[i] = service;
+        positions[service] = i;
+    }
+}
@@ -0,0 +1,160 @@
+package org.example;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+
+/**
+ * Points de reprise périodiques d'un replay (toutes les N heures simulées)
+ * Deux fichiers dans le dossier de reprise:
+ * - vanad_checkpoint.bin: instantané binaire de l'état (remplacé atomiquement, toujours complet)
+ * - vanad_checkpoint_rows.csv: lignes du dataset déjà produites, en ajout seul; l'instantané
+ *   en mémorise la longueur validée, l'excédent éventuel (arrêt entre les deux écritures) est tronqué
+ */
+public class ReplayCheckpoint {
+
+    static final String SNAPSHOT_FILE = "vanad_checkpoint.bin";
+    static final String ROWS_FILE = "vanad_checkpoint_rows.csv";
+    private static final int MAGIC = 0x564E434B; // "VNCK"
+    private static final int VERSION = 1;
+
+    /**
+     * Écriture de l'état propre au replay, à la suite de l'en-tête
+     */
+    interface StateWriter {
+        void write(DataOutput out) throws IOException;
+    }
+
+    private final Path directory;
+    private double intervalHours;
+    private double nextDue;
+    private long rowsBytes = 0;
+    private long rowsCount = 0;
+
+    private int written = 0;
+    private long writeNanos = 0;
+    private long lastSnapshotBytes = 0;
+
+    public ReplayCheckpoint(Path directory, double intervalHours) {
+        if (intervalHours <= 0) {
+            throw new IllegalArgumentException("Intervalle de reprise invalide: " + intervalHours);
+        }
+        this.directory = directory;
+        this.intervalHours = intervalHours;
+        this.nextDue = intervalHours;
+    }
+
+    /**
+     * Vrai si le prochain événement franchit l'échéance du point de reprise
+     */
+    boolean isDue(double nextEventTime) {
+        return nextEventTime >= nextDue;
+    }
+
+    double nextDue() {
+        return nextDue;
+    }
+
+    boolean exists() {
+        return Files.exists(directory.resolve(SNAPSHOT_FILE));
+    }
+
+    /**
+     * Ajoute les nouvelles lignes puis remplace l'instantané; l'échéance suivante est
+     * le premier multiple de l'intervalle strictement après {@code nextEventTime}
+     */
+    void save(int newRows, DatasetRows rows, double nextEventTime, StateWriter state) throws IOException {
+        long start = System.nanoTime();
+        Files.createDirectories(directory);
+
+        Path rowsFile = directory.resolve(ROWS_FILE);
+        try (FileChannel channel = FileChannel.open(rowsFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            channel.position(rowsBytes); // écrase un excédent non validé
+            Writer writer = new BufferedWriter(Channels.newWriter(channel, StandardCharsets.UTF_8));
+            for (int row = 0; row < newRows; row++) {
+                writer.write(rows.row(row));
+                writer.write('\n');
+            }
+            writer.flush();
+            channel.truncate(channel.position());
+            channel.force(false);
+            rowsBytes = channel.position();
+        }
+        rowsCount += newRows;
+        nextDue = (Math.floor(nextEventTime / intervalHours) + 1) * intervalHours;
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(1 << 16);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeDouble(intervalHours);
+            out.writeDouble(nextDue);
+            out.writeLong(rowsBytes);
+            out.writeLong(rowsCount);
+            state.write(out);
+        }
+
+        Path temporary = directory.resolve(SNAPSHOT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.wrap(bytes.toByteArray()));
+            channel.force(false);
+        }
+        Files.move(temporary, directory.resolve(SNAPSHOT_FILE),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+        lastSnapshotBytes = bytes.size();
+        written++;
+        writeNanos += System.nanoTime() - start;
+    }
+
+    /**
+     * Relit le dernier instantané: en-tête chargé, lignes validées (non chargées: elles restent
+     * sur disque jusqu'à l'export), flux positionné sur l'état propre au replay.
+     * L'intervalle enregistré est conservé.
+     */
+    DataInputStream load() throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(
+                Files.readAllBytes(directory.resolve(SNAPSHOT_FILE))));
+        if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+            throw new IOException("Point de reprise illisible: " + directory.resolve(SNAPSHOT_FILE));
+        }
+        intervalHours = in.readDouble();
+        nextDue = in.readDouble();
+        rowsBytes = in.readLong();
+        rowsCount = in.readLong();
+
+        if (rowsBytes > 0) {
+            try (FileChannel channel = FileChannel.open(directory.resolve(ROWS_FILE), StandardOpenOption.WRITE)) {
+                channel.truncate(rowsBytes);
+            }
+        }
+        openRows().close(); // compte des lignes vérifié
+        return in;
+    }
+
+    /**
+     * Lignes du dataset déversées aux points de reprise (y compris celles d'avant la reprise),
+     * lues par indice depuis le fichier en ajout seul
+     */
+    RowShard openRows() throws IOException {
+        return RowShard.open(directory.resolve(ROWS_FILE), rowsBytes, rowsCount);
+    }
+
+    /**
+     * Supprime les fichiers de reprise (replay terminé et exporté)
+     */
+    void clear() throws IOException {
+        Files.deleteIfExists(directory.resolve(SNAPSHOT_FILE));
+        Files.deleteIfExists(directory.resolve(ROWS_FILE));
+    }
+
+    public void printReport() {
+        if (written == 0) return;
+        System.out.printf("Points de reprise: %d écrits en %.1f ms (dernier instantané: %.1f Ko)\n",
+                written, writeNanos / 1e6, lastSnapshotBytes / 1024.0);
+    }
+}
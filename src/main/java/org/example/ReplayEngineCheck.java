@@ -0,0 +1,141 @@
+package org.example;
+
+import umontreal.ssj.util.Chrono;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Vérification du noyau natif contre SSJ (moteur de référence) et mesure de débit
+ * Les deux moteurs rejouent la même table d'appels; les états capturés doivent être
+ * identiques champ à champ, prédicteurs compris. Débit en événements par seconde CPU.
+ */
+public class ReplayEngineCheck {
+
+    private final WorkloadModel model;
+    private final VanadSSJReplay loader;
+
+    public ReplayEngineCheck(VanadSSJReplay loader, WorkloadModel model) {
+        this.loader = loader;
+        this.model = model;
+    }
+
+    /**
+     * Point d'entrée: --calls=... --activities=... --runs=5
+     */
+    public static void main(String[] args) {
+        System.out.println("=== VANAD VÉRIFICATION DES MOTEURS DE REPLAY ===");
+
+        Map<String, String> options = VanadSSJReplay.parseOptions(args);
+        String callsFile = options.getOrDefault("calls", "data/all_calls_2014_clean.csv");
+        int runs = Integer.parseInt(options.getOrDefault("runs", "5"));
+
+        try {
+            VanadSSJReplay loader = new VanadSSJReplay();
+            loader.loadAndPrepareData(callsFile,
+                    options.getOrDefault("activities", "data/all_activities_2014_clean.csv"));
+            WorkloadModel model = WorkloadModel.loadOrFit(VanadSSJReplay.modelFileFor(callsFile), callsFile,
+                    loader.getHistoricalCalls(), loader.getTopServices());
+
+            ReplayEngineCheck check = new ReplayEngineCheck(loader, model);
+            boolean identical = check.verify();
+            check.benchmark(runs);
+            if (!identical) {
+                System.exit(1);
+            }
+        } catch (Exception e) {
+            System.err.println("ERREUR: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    private VanadSSJReplay run(boolean nativeKernel, boolean retainStates) {
+        VanadSSJReplay replay = new VanadSSJReplay();
+        replay.setNativeKernel(nativeKernel);
+        replay.setVerbose(false);
+        replay.setWorkloadModel(model);
+        replay.setRetainStates(retainStates);
+        replay.prepare(loader.getHistoricalCalls(), loader.getTopServices());
+        replay.runSimulation();
+        return replay;
+    }
+
+    /**
+     * Compare les datasets des deux moteurs (ordre chronologique de capture)
+     */
+    public boolean verify() {
+        FeatureArena reference = capture(false);
+        FeatureArena candidate = capture(true);
+
+        String mismatch = mismatch(reference, candidate);
+        if (mismatch != null) {
+            System.out.println("ÉCHEC: " + mismatch);
+            return false;
+        }
+        System.out.printf("OK: %d états identiques entre SSJ et le noyau natif\n", reference.size());
+        return true;
+    }
+
+    /**
+     * Dataset capturé par un moteur
+     */
+    FeatureArena capture(boolean nativeKernel) {
+        return run(nativeKernel, true).getCapturedStates();
+    }
+
+    /**
+     * Première divergence entre le dataset SSJ et celui du noyau natif (null si identiques)
+     */
+    static String mismatch(FeatureArena reference, FeatureArena candidate) {
+        if (reference.size() != candidate.size()) {
+            return String.format("%d états SSJ, %d états noyau natif", reference.size(), candidate.size());
+        }
+        for (int i = 0; i < reference.size(); i++) {
+            String difference = difference(reference, candidate, i);
+            if (difference != null) {
+                return String.format("état %d (%s) diffère sur %s",
+                        i, LocalDateTime.ofEpochSecond(reference.epochSecond(i), 0, ZoneOffset.UTC), difference);
+            }
+        }
+        return null;
+    }
+
+    private static String difference(FeatureArena a, FeatureArena b, int i) {
+        if (a.service(i) != b.service(i)) return "service";
+        if (a.epochSecond(i) != b.epochSecond(i)) return "arrivée";
+        if (a.queueLength(i) != b.queueLength(i)) return "qT";
+        for (int k = 0; k < 4; k++) {
+            if (a.otherQueue(i, k) != b.otherQueue(i, k)) return "autres files";
+        }
+        if (a.availableAgents(i) != b.availableAgents(i)) return "agents disponibles";
+        for (int p = 0; p < a.predictorCount(); p++) {
+            if (Double.compare(a.predictor(i, p), b.predictor(i, p)) != 0) return "prédicteurs";
+        }
+        if (Double.compare(a.waitTime(i), b.waitTime(i)) != 0) return "W";
+        return null;
+    }
+
+    /**
+     * Débit de chaque moteur (une exécution de chauffe, puis moyenne sur {@code runs})
+     */
+    public void benchmark(int runs) {
+        double ssj = throughput(false, runs);
+        double kernel = throughput(true, runs);
+        System.out.printf("Débit SSJ: %.0f événements/s\n", ssj);
+        System.out.printf("Débit noyau natif: %.0f événements/s (x%.2f)\n", kernel, kernel / ssj);
+    }
+
+    private double throughput(boolean nativeKernel, int runs) {
+        run(nativeKernel, false); // chauffe JIT
+
+        long events = 0;
+        Chrono chrono = new Chrono();
+        for (int r = 0; r < runs; r++) {
+            events += run(nativeKernel, false).getProcessedEvents();
+        }
+        double seconds = chrono.getSeconds();
+        return seconds > 0 ? events / seconds : 0.0;
+    }
+}
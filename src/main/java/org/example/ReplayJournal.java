@@ -0,0 +1,103 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * Journal des événements tenu pendant un replay ({@link EventJournal}): ouverture, un
+ * enregistrement par événement traité avec les longueurs des files relues au moment de
+ * l'écrire, fermeture. Une erreur d'écriture interrompt le replay.
+ */
+final class ReplayJournal {
+
+    private final Path file;
+    private final IntUnaryOperator queueLength; // indice du service -> longueur de sa file
+    private final int[] queueLengths;           // longueurs des files après l'événement (tableau réutilisé)
+    private final EventJournal.Writer writer;
+
+    /**
+     * Journal seul (composante: le modèle de charge est celui de l'orchestrateur)
+     */
+    ReplayJournal(Path file, String[] services, LocalDateTime startTime, int[] competentAgents,
+                  IntUnaryOperator queueLength) {
+        this.file = file;
+        this.queueLength = queueLength;
+        this.queueLengths = new int[services.length];
+        try {
+            writer = new EventJournal.Writer(file, services, startTime, competentAgents, queueLengths());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ouverture du journal impossible: " + file, e);
+        }
+    }
+
+    /**
+     * Journal d'un replay complet: le modèle de charge est écrit à côté (supprimé sans modèle)
+     */
+    static ReplayJournal open(Path file, String[] services, LocalDateTime startTime, int[] competentAgents,
+                              IntUnaryOperator queueLength, WorkloadModel model) {
+        try {
+            Path modelFile = EventJournal.modelFile(file);
+            if (model != null) {
+                model.save(modelFile, new long[] {0L, 0L});
+            } else {
+                Files.deleteIfExists(modelFile);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ouverture du journal impossible: " + file, e);
+        }
+        return new ReplayJournal(file, services, startTime, competentAgents, queueLength);
+    }
+
+    void arrival(double time, long order, int service, int availableAgents, long receivedSeconds,
+                 double headOfLineWait, int observedAgents, double waitTime) {
+        try {
+            writer.arrival(time, order, service, queueLengths(), availableAgents, receivedSeconds,
+                    headOfLineWait, observedAgents, waitTime);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Écriture du journal impossible: " + file, e);
+        }
+    }
+
+    void answered(double time, long order, int service, int availableAgents) {
+        try {
+            writer.answered(time, order, service, queueLengths(), availableAgents);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Écriture du journal impossible: " + file, e);
+        }
+    }
+
+    void hangup(double time, long order, int service, int availableAgents, double waitTime, double serviceTime) {
+        try {
+            writer.hangup(time, order, service, queueLengths(), availableAgents, waitTime, serviceTime);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Écriture du journal impossible: " + file, e);
+        }
+    }
+
+    /**
+     * Vide le tampon et ferme le fichier; nombre d'événements journalisés
+     */
+    long close() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Écriture du journal impossible: " + file, e);
+        }
+        return writer.getRecords();
+    }
+
+    Path getFile() {
+        return file;
+    }
+
+    private int[] queueLengths() {
+        for (int i = 0; i < queueLengths.length; i++) {
+            queueLengths[i] = queueLength.applyAsInt(i);
+        }
+        return queueLengths;
+    }
+}
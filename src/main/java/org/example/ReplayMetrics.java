@@ -0,0 +1,174 @@
+package org.example;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Métriques d'un replay en cours, exposées au format texte Prometheus ({@link QueryServer}, /metrics).
+ * Chaque compteur a un seul écrivain (la boucle d'événements, ou l'étage d'écriture pour les lignes):
+ * mises à jour par écriture ordonnée (lazySet), sans verrou ni CAS; la lecture se fait depuis
+ * n'importe quel thread. Mémoire et GC sont lus à la demande via les MXBeans.
+ */
+public final class ReplayMetrics {
+
+    static final long GAUGE_REFRESH_NANOS = 1_000_000L; // jauges par service: au plus 1 ms de retard
+
+    /**
+     * Types d'événements comptés
+     */
+    public enum EventType {
+        ARRIVAL("arrival"),
+        ANSWERED("answered"),
+        HANGUP("hangup"),
+        SIMULATED_ARRIVAL("simulated_arrival"),
+        SERVICE_END("service_end"),
+        ABANDON("abandon");
+
+        private final String label;
+
+        EventType(String label) {
+            this.label = label;
+        }
+    }
+
+    /**
+     * Services suivis, fixés au démarrage du replay (publiés par une écriture volatile)
+     */
+    private record Services(String[] names, Map<String, Integer> index, LocalDateTime startTime,
+                            long startNanos, AtomicLongArray queueLengths, AtomicLongArray availableAgents) {
+    }
+
+    private final AtomicLongArray events = new AtomicLongArray(EventType.values().length);
+    private final AtomicLong simulatedHours = new AtomicLong(Double.doubleToRawLongBits(0.0));
+    private final AtomicLong statesCaptured = new AtomicLong();
+    private final AtomicLong rowsWritten = new AtomicLong();
+    private volatile Services services;
+
+    /**
+     * Démarrage du replay: services suivis et origine du temps simulé
+     */
+    void bind(String[] serviceNames, LocalDateTime startTime) {
+        Map<String, Integer> index = new HashMap<>(serviceNames.length * 2);
+        for (int i = 0; i < serviceNames.length; i++) {
+            index.put(serviceNames[i], i);
+        }
+        services = new Services(serviceNames.clone(), index, startTime, System.nanoTime(),
+                new AtomicLongArray(serviceNames.length), new AtomicLongArray(serviceNames.length));
+    }
+
+    /**
+     * Événement traité à l'instant simulé {@code hours}
+     */
+    void recordEvent(EventType type, double hours) {
+        int i = type.ordinal();
+        events.lazySet(i, events.get(i) + 1);
+        simulatedHours.lazySet(Double.doubleToRawLongBits(hours));
+    }
+
+    /**
+     * File et agents disponibles d'un service (ignoré si le service n'est pas suivi)
+     */
+    void updateService(String service, int queueLength, int availableAgents) {
+        Services current = services;
+        Integer i = current != null ? current.index().get(service) : null;
+        if (i == null) return;
+        current.queueLengths().lazySet(i, queueLength);
+        current.availableAgents().lazySet(i, availableAgents);
+    }
+
+    void stateCaptured() {
+        statesCaptured.lazySet(statesCaptured.get() + 1);
+    }
+
+    void rowsWritten(long rows) {
+        rowsWritten.lazySet(rowsWritten.get() + rows);
+    }
+
+    public long getEvents(EventType type) {
+        return events.get(type.ordinal());
+    }
+
+    public long getStatesCaptured() {
+        return statesCaptured.get();
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten.get();
+    }
+
+    /**
+     * Exposition au format texte Prometheus (version 0.0.4)
+     */
+    public String toPrometheus() {
+        StringBuilder out = new StringBuilder(2048);
+        Services current = services;
+
+        header(out, "vanad_events_total", "counter", "Événements traités par type");
+        for (EventType type : EventType.values()) {
+            out.append("vanad_events_total{type=\"").append(type.label).append("\"} ")
+                    .append(events.get(type.ordinal())).append('\n');
+        }
+
+        double hours = Double.longBitsToDouble(simulatedHours.get());
+        header(out, "vanad_simulated_elapsed_seconds", "gauge", "Temps simulé écoulé depuis le début du replay");
+        sample(out, "vanad_simulated_elapsed_seconds", hours * 3600.0);
+        if (current != null && current.startTime() != null) {
+            header(out, "vanad_simulated_time_seconds", "gauge", "Horloge simulée (secondes Unix, heure locale des données)");
+            sample(out, "vanad_simulated_time_seconds",
+                    current.startTime().toEpochSecond(ZoneOffset.UTC) + hours * 3600.0);
+        }
+        header(out, "vanad_wall_elapsed_seconds", "gauge", "Temps réel écoulé depuis le début du replay");
+        sample(out, "vanad_wall_elapsed_seconds",
+                current != null ? (System.nanoTime() - current.startNanos()) / 1e9 : 0.0);
+
+        if (current != null) {
+            header(out, "vanad_queue_length", "gauge", "Appels en file par service");
+            for (int i = 0; i < current.names().length; i++) {
+                out.append("vanad_queue_length{service=\"").append(current.names()[i]).append("\"} ")
+                        .append(current.queueLengths().get(i)).append('\n');
+            }
+            header(out, "vanad_available_agents", "gauge", "Agents compétents disponibles par service");
+            for (int i = 0; i < current.names().length; i++) {
+                out.append("vanad_available_agents{service=\"").append(current.names()[i]).append("\"} ")
+                        .append(current.availableAgents().get(i)).append('\n');
+            }
+        }
+
+        header(out, "vanad_states_captured_total", "counter", "États valides capturés");
+        out.append("vanad_states_captured_total ").append(statesCaptured.get()).append('\n');
+        header(out, "vanad_rows_written_total", "counter", "Lignes de dataset écrites");
+        out.append("vanad_rows_written_total ").append(rowsWritten.get()).append('\n');
+
+        header(out, "vanad_heap_used_bytes", "gauge", "Tas utilisé");
+        out.append("vanad_heap_used_bytes ")
+                .append(ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed()).append('\n');
+        header(out, "vanad_gc_collections_total", "counter", "Collections par ramasse-miettes");
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            out.append("vanad_gc_collections_total{gc=\"").append(gc.getName()).append("\"} ")
+                    .append(Math.max(0, gc.getCollectionCount())).append('\n');
+        }
+        header(out, "vanad_gc_time_seconds_total", "counter", "Temps passé en GC par ramasse-miettes");
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            out.append("vanad_gc_time_seconds_total{gc=\"").append(gc.getName()).append("\"} ")
+                    .append(String.format(Locale.US, "%.3f", Math.max(0, gc.getCollectionTime()) / 1000.0))
+                    .append('\n');
+        }
+        return out.toString();
+    }
+
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, double value) {
+        out.append(name).append(' ').append(String.format(Locale.US, "%.3f", value)).append('\n');
+    }
+}
@@ -0,0 +1,402 @@
+package org.example;
+
+import org.example.model.Call;
+
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Replay en pipeline: mise en lots des appels, génération des événements, simulation et
+ * encodage du dataset sur quatre threads reliés par des files bornées (contre-pression). Le
+ * temps total tend vers celui de l'étage le plus lent au lieu de la somme des étapes.
+ * La simulation reste sur un seul thread (noyau natif alimenté au fil de l'eau); l'ordre des
+ * événements et le dataset sont ceux du replay séquentiel. Les appels retenus sont décodés
+ * avant les étages: modèle de charge (cache ou ajustement) et dotation en dépendent comme dans
+ * le replay séquentiel. Les lignes encodées sont déversées au fil de l'eau dans un fichier
+ * relu par indice au mélange final. Condition: fichiers triés par date (sinon repli sur le
+ * replay séquentiel).
+ */
+public class ReplayPipeline {
+
+    private static final int BATCH_SIZE = 1024;
+    private static final int QUEUE_CAPACITY = 16;
+    static final String ROWS_FILE = "vanad_pipeline_rows.csv"; // lignes encodées, supprimé après l'export
+
+    // Marqueurs de fin de flux (comparés par identité)
+    private static final List<Call> END_OF_CALLS = new ArrayList<>();
+    private static final FeatureArena END_OF_STATES = new FeatureArena(0, 1);
+
+    private final VanadSSJReplay replay;
+    private final BlockingQueue<List<Call>> callBatches = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final BlockingQueue<EventBatch> eventBatches = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final BlockingQueue<FeatureArena> stateBatches = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private long rowCount = 0; // étage d'encodage uniquement
+    private double lastEventTime = 0.0; // étage de programmation uniquement
+
+    public ReplayPipeline(VanadSSJReplay replay) {
+        this.replay = replay;
+    }
+
+    /**
+     * Exécution complète en pipeline, mêmes fichiers de sortie que {@link VanadSSJReplay#executeReplay}
+     */
+    public void execute(List<String> callsFiles, List<String> activitiesFiles) throws Exception {
+        long start = System.nanoTime();
+        for (String callsFile : callsFiles) {
+            if (!TimeIndex.loadOrBuild(callsFile, 0, 1, 2).isSorted()) {
+                System.out.printf("%s n'est pas trié par date: replay séquentiel\n", callsFile);
+                replay.executeReplay(callsFiles, activitiesFiles);
+                return;
+            }
+        }
+
+        System.out.println("Chargement des données historiques (pipeline)...");
+        PhaseProfiler profiler = new PhaseProfiler(true);
+        profiler.attribute("engine", "pipeline");
+        profiler.attribute("calls_files", String.join(";", callsFiles));
+
+        Path rowsFile = Path.of(ROWS_FILE);
+        try {
+            long rowCount;
+            try (Writer rows = Files.newBufferedWriter(rowsFile, StandardCharsets.UTF_8)) {
+                rowCount = run(callsFiles, activitiesFiles, profiler, rows);
+            }
+            profiler.measure("export", () -> {
+                try (RowShard rows = RowShard.open(rowsFile, Files.size(rowsFile), rowCount)) {
+                    replay.exportRows(rows.size(), rows, false);
+                }
+            });
+        } finally {
+            Files.deleteIfExists(rowsFile);
+        }
+
+        System.out.printf("Replay terminé en %.2f secondes (pipeline)\n", (System.nanoTime() - start) / 1e9);
+        profiler.attribute("events", replay.getProcessedEvents());
+        profiler.printReport();
+        profiler.writeJson(VanadSSJReplay.RUN_REPORT_FILE);
+        replay.getLatency().printReport();
+        replay.getLatency().exportCsv(VanadSSJReplay.LATENCY_FILE);
+    }
+
+    /**
+     * Décodage des appels retenus, modèle de charge, puis étages; les lignes du dataset sont
+     * écrites dans {@code rows} en ordre chronologique. Retourne le nombre de lignes.
+     */
+    long run(List<String> callsFiles, List<String> activitiesFiles, PhaseProfiler profiler, Writer rows)
+            throws Exception {
+        long start = System.nanoTime();
+        LocalDateTime from = replay.getReplayFrom();
+        LocalDateTime to = replay.getReplayTo();
+        List<Call> calls = new ArrayList<>();
+        profiler.measure("load", () -> {
+            Set<String> selected = new HashSet<>(Arrays.asList(replay.selectTopServices(callsFiles)));
+            try (MergedCallReader reader = new MergedCallReader(callsFiles, selected, from, to)) {
+                Call call;
+                while ((call = reader.next()) != null) {
+                    if (VanadSSJReplay.isValidCall(call)) calls.add(call);
+                }
+            }
+        });
+        if (calls.isEmpty()) {
+            throw new IllegalStateException("Aucun appel valide");
+        }
+        replay.setAgentSourceCalls(calls); // dotation déduite des appels de la fenêtre
+        String[] services = replay.getTopServices();
+
+        boolean cacheable = callsFiles.size() == 1 && from == null && to == null;
+        profiler.measure("model", () -> {
+            replay.setWorkloadModel(cacheable
+                    ? WorkloadModel.loadOrFit(VanadSSJReplay.modelFileFor(callsFiles.get(0)), callsFiles.get(0), calls, services)
+                    : WorkloadModel.fit(calls, services));
+        });
+
+        LocalDateTime startTime = calls.get(0).getDateReceived();
+        replay.preparePipelined(services, startTime);
+        System.out.printf("Services: %s, début %s\n", Arrays.toString(services), startTime);
+
+        profiler.measure("pipeline", () -> {
+            Stage loader = new Stage("lecture");
+            Stage scheduler = new Stage("programmation");
+            Stage simulator = new Stage("simulation");
+            Stage writer = new Stage("encodage");
+            runStages(List.of(
+                    () -> loader.run(() -> load(loader, calls, activitiesFiles, from, to)),
+                    () -> scheduler.run(() -> schedule(scheduler, startTime)),
+                    () -> simulator.run(() -> simulate(simulator)),
+                    () -> writer.run(() -> encode(writer, rows))));
+
+            List<Stage> stages = List.of(loader, scheduler, simulator, writer);
+            printStages(stages, System.nanoTime() - start);
+            for (Stage stage : stages) {
+                profiler.attribute("stage_" + stage.name + "_active_s", stage.busySeconds());
+            }
+        });
+        return rowCount;
+    }
+
+    /**
+     * Lance les étages sur des threads dédiés; au premier échec les autres sont interrompus
+     */
+    private static void runStages(List<Callable<Void>> stages) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(stages.size());
+        CompletionService<Void> completion = new ExecutorCompletionService<>(executor);
+        try {
+            for (Callable<Void> stage : stages) {
+                completion.submit(stage);
+            }
+            for (int i = 0; i < stages.size(); i++) {
+                try {
+                    completion.take().get();
+                } catch (ExecutionException e) {
+                    executor.shutdownNow();
+                    Throwable cause = e.getCause();
+                    throw cause instanceof Exception exception ? exception : new IllegalStateException(cause);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // ========================
+    // ÉTAGES
+    // ========================
+
+    /**
+     * Étage 1: appels retenus transmis par lots
+     */
+    private void load(Stage stage, List<Call> calls, List<String> activitiesFiles,
+                      LocalDateTime from, LocalDateTime to) throws Exception {
+        for (int first = 0; first < calls.size(); first += BATCH_SIZE) {
+            stage.put(callBatches, calls.subList(first, Math.min(calls.size(), first + BATCH_SIZE)));
+        }
+        stage.put(callBatches, END_OF_CALLS);
+
+        // Les activités ne servent qu'au décompte: lues pendant que la simulation avance
+        long activities = 0;
+        for (String activitiesFile : activitiesFiles) {
+            activities += CSVReaderUtil.readActivities(activitiesFile, from, to).size();
+        }
+        System.out.printf("Activités agents: %d\n", activities);
+    }
+
+    /**
+     * Étage 2: événements arrivée/réponse/raccroché remis dans l'ordre du tri séquentiel
+     * Les appels arrivent par date de réception: un événement en attente est libéré dès que
+     * son temps ne dépasse pas l'arrivée courante (tous les suivants sont au moins aussi tardifs)
+     */
+    private void schedule(Stage stage, LocalDateTime startTime) throws Exception {
+        EventHeap pending = new EventHeap();
+        EventBatch out = new EventBatch();
+        int nextIndex = 0;
+
+        List<Call> batch;
+        while ((batch = stage.take(callBatches)) != END_OF_CALLS) {
+            for (Call call : batch) {
+                double arrivalTime = VanadSSJReplay.hoursSince(startTime, call.getDateReceived());
+                release(pending, arrivalTime, out);
+
+                int index = nextIndex++;
+                out.calls.add(call);
+                pending.add(arrivalTime, NativeReplayKernel.ARRIVAL, index, NativeReplayKernel.NO_AGENT);
+                if (call.getAnswered() != null) {
+                    double answerTime = VanadSSJReplay.hoursSince(startTime, call.getAnswered());
+                    if (answerTime >= arrivalTime) {
+                        pending.add(answerTime, NativeReplayKernel.ANSWERED, index, NativeReplayKernel.NO_AGENT);
+                    }
+                }
+                if (call.getHangup() != null) {
+                    double hangupTime = VanadSSJReplay.hoursSince(startTime, call.getHangup());
+                    if (hangupTime >= arrivalTime) {
+                        pending.add(hangupTime, NativeReplayKernel.HANGUP, index, NativeReplayKernel.NO_AGENT);
+                    }
+                }
+            }
+            stage.put(eventBatches, out);
+            out = new EventBatch();
+        }
+
+        release(pending, Double.POSITIVE_INFINITY, out);
+        stage.put(eventBatches, out);
+        stage.put(eventBatches, EventBatch.END);
+    }
+
+    private void release(EventHeap pending, double until, EventBatch out) {
+        while (!pending.isEmpty() && pending.topTime() <= until) {
+            // Même espacement minimal que le replay séquentiel
+            double eventTime = Math.max(pending.topTime(), lastEventTime + VanadSSJReplay.MIN_EVENT_INTERVAL);
+            out.add(eventTime, pending.topType(), pending.topCall());
+            lastEventTime = eventTime;
+            pending.removeTop();
+        }
+    }
+
+    /**
+     * Étage 3: simulation sur un seul thread, états valides transmis par lots
+     */
+    private void simulate(Stage stage) throws Exception {
+        StateSink sink = new StateSink(stage);
+        replay.setStateSink(sink);
+
+        replay.runPipelined(kernel -> {
+            EventBatch batch = stage.take(eventBatches);
+            if (batch == EventBatch.END) return false;
+            replay.appendCalls(batch.calls);
+            for (int i = 0; i < batch.size; i++) {
+                kernel.plan(batch.times[i], batch.types[i], batch.callIndices[i]);
+            }
+            return true;
+        });
+
+        sink.flush();
+        stage.put(stateBatches, END_OF_STATES);
+    }
+
+    /**
+     * Étage 4: encodage CSV des états, écrits dans l'ordre chronologique au fil de la simulation;
+     * le mélange et la division train/test relisent ces lignes par indice à la fin
+     */
+    private void encode(Stage stage, Writer rows) throws Exception {
+        FeatureArena batch;
+        while ((batch = stage.take(stateBatches)) != END_OF_STATES) {
+            for (int record = 0; record < batch.size(); record++) {
+                String row = replay.formatRow(batch, record);
+                rows.write(row);
+                rows.write('\n');
+                rowCount++;
+            }
+        }
+    }
+
+    private static void printStages(List<Stage> stages, long wallNanos) {
+        double slowest = 0.0;
+        double sum = 0.0;
+        for (Stage stage : stages) {
+            System.out.printf("Étage %-14s actif %.2f s, en attente %.2f s\n",
+                    stage.name, stage.busySeconds(), stage.blockedNanos / 1e9);
+            slowest = Math.max(slowest, stage.busySeconds());
+            sum += stage.busySeconds();
+        }
+        System.out.printf("Pipeline: %.2f s (étage le plus lent %.2f s, somme des étages %.2f s)\n",
+                wallNanos / 1e9, slowest, sum);
+    }
+
+    // ========================
+    // CLASSES UTILITAIRES
+    // ========================
+
+    /**
+     * Copie les enregistrements émis par la simulation dans des lots (arènes) pour l'étage d'encodage
+     */
+    private final class StateSink implements ObjIntConsumer<FeatureArena> {
+        private final Stage stage;
+        private FeatureArena batch;
+
+        StateSink(Stage stage) {
+            this.stage = stage;
+        }
+
+        @Override
+        public void accept(FeatureArena features, int record) {
+            if (batch == null) {
+                batch = new FeatureArena(features.predictorCount(), BATCH_SIZE);
+            }
+            batch.copy(features, record);
+            if (batch.size() == BATCH_SIZE) {
+                try {
+                    flush();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Pipeline interrompu", e);
+                }
+            }
+        }
+
+        void flush() throws InterruptedException {
+            if (batch == null || batch.size() == 0) return;
+            stage.put(stateBatches, batch);
+            batch = null; // lot transmis: l'étage d'encodage en est seul propriétaire
+        }
+    }
+
+    /**
+     * Lot d'événements ordonnés et appels nouvellement référencés
+     */
+    private static final class EventBatch {
+        static final EventBatch END = new EventBatch();
+
+        final List<Call> calls = new ArrayList<>();
+        double[] times = new double[BATCH_SIZE * 3];
+        byte[] types = new byte[BATCH_SIZE * 3];
+        int[] callIndices = new int[BATCH_SIZE * 3];
+        int size = 0;
+
+        void add(double time, byte type, int call) {
+            if (size == times.length) {
+                times = Arrays.copyOf(times, size * 2);
+                types = Arrays.copyOf(types, size * 2);
+                callIndices = Arrays.copyOf(callIndices, size * 2);
+            }
+            times[size] = time;
+            types[size] = type;
+            callIndices[size] = call;
+            size++;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Body {
+        void run() throws Exception;
+    }
+
+    /**
+     * Chronométrage d'un étage: temps total et temps bloqué sur les files
+     */
+    private static final class Stage {
+        private final String name;
+        private long totalNanos = 0;
+        private long blockedNanos = 0;
+
+        Stage(String name) {
+            this.name = name;
+        }
+
+        Void run(Body body) throws Exception {
+            long start = System.nanoTime();
+            try {
+                body.run();
+                return null;
+            } finally {
+                totalNanos = System.nanoTime() - start;
+            }
+        }
+
+        <T> T take(BlockingQueue<T> queue) throws InterruptedException {
+            long start = System.nanoTime();
+            try {
+                return queue.take();
+            } finally {
+                blockedNanos += System.nanoTime() - start;
+            }
+        }
+
+        <T> void put(BlockingQueue<T> queue, T value) throws InterruptedException {
+            long start = System.nanoTime();
+            try {
+                queue.put(value);
+            } finally {
+                blockedNanos += System.nanoTime() - start;
+            }
+        }
+
+        double busySeconds() {
+            return (totalNanos - blockedNanos) / 1e9;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package org.example;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Lecture par indice d'un fichier de lignes en ajout seul (points de reprise, pipeline): le fichier est
+ * projeté en mémoire par segments et seul le début de chaque ligne est gardé (8 octets par
+ * ligne), les lignes étant décodées au moment de l'export.
+ */
+final class RowShard implements DatasetRows, Closeable {
+
+    private static final long SEGMENT = 1L << 30;
+    private static final int OVERLAP = 1 << 16; // une ligne commencée dans un segment y finit
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final long[] offsets; // début de chaque ligne, puis fin de la dernière
+
+    private RowShard(FileChannel channel, MappedByteBuffer[] segments, long[] offsets) {
+        this.channel = channel;
+        this.segments = segments;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Ouvre les {@code validBytes} premiers octets du fichier, qui doivent contenir exactement
+     * {@code expectedRows} lignes terminées par '\n'
+     */
+    static RowShard open(Path file, long validBytes, long expectedRows) throws IOException {
+        if (expectedRows > Integer.MAX_VALUE - 1) {
+            throw new IOException("Trop de lignes de reprise: " + expectedRows);
+        }
+        if (validBytes == 0) {
+            if (expectedRows != 0) {
+                throw new IOException(String.format("Lignes de reprise incohérentes: 0 lues, %d attendues", expectedRows));
+            }
+            return new RowShard(null, new MappedByteBuffer[0], new long[] {0});
+        }
+
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            if (channel.size() < validBytes) {
+                throw new IOException(String.format("Lignes de reprise tronquées: %d octets, %d attendus",
+                        channel.size(), validBytes));
+            }
+            MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((validBytes - 1) / SEGMENT + 1)];
+            for (int i = 0; i < segments.length; i++) {
+                long start = i * SEGMENT;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start,
+                        Math.min(SEGMENT + OVERLAP, validBytes - start));
+            }
+
+            long[] offsets = new long[(int) expectedRows + 1];
+            int rows = 0;
+            for (int i = 0; i < segments.length; i++) {
+                MappedByteBuffer segment = segments[i];
+                int end = (int) Math.min(SEGMENT, validBytes - i * SEGMENT);
+                for (int position = 0; position < end; position++) {
+                    if (segment.get(position) != '\n') continue;
+                    if (rows == expectedRows) {
+                        throw new IOException(String.format("Lignes de reprise incohérentes: plus de %d lues", expectedRows));
+                    }
+                    offsets[++rows] = i * SEGMENT + position + 1;
+                }
+            }
+            if (rows != expectedRows || offsets[rows] != validBytes) {
+                throw new IOException(String.format("Lignes de reprise incohérentes: %d lues, %d attendues",
+                        rows, expectedRows));
+            }
+            for (int row = 0; row < rows; row++) {
+                if (offsets[row + 1] - 1 - offsets[row] > OVERLAP) {
+                    throw new IOException("Ligne de reprise trop longue: " + (row + 1));
+                }
+            }
+            return new RowShard(channel, segments, offsets);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    int size() {
+        return offsets.length - 1;
+    }
+
+    @Override
+    public String row(int index) {
+        long start = offsets[index];
+        MappedByteBuffer segment = segments[(int) (start / SEGMENT)];
+        byte[] bytes = new byte[(int) (offsets[index + 1] - 1 - start)];
+        segment.get((int) (start % SEGMENT), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) channel.close();
+    }
+}
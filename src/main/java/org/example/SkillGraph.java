@@ -0,0 +1,97 @@
+package org.example;
+
+import org.example.model.Call;
+
+import java.util.*;
+
+/**
+ * Graphe biparti services–agents du replay historique: arête entre un service suivi et
+ * chaque agent compétent, et entre la file d'un appel et l'agent qui l'a pris.
+ * Deux composantes connexes ne partagent ni file ni agent: routage et disponibilités de
+ * l'une ne dépendent pas de l'autre, elles se rejouent indépendamment.
+ */
+final class SkillGraph {
+
+    /**
+     * Composante connexe: indices de services (croissants) et agents (identifiants croissants)
+     */
+    record Component(int[] services, int[] agents) {
+    }
+
+    private SkillGraph() {
+    }
+
+    /**
+     * Composantes contenant au moins un service, ordonnées par leur plus petit indice de service
+     */
+    static List<Component> components(String[] services, Collection<VanadSSJReplay.AgentState> agents,
+                                      List<Call> calls) {
+        Map<String, Integer> serviceIndex = new HashMap<>(services.length * 2);
+        for (int i = 0; i < services.length; i++) {
+            serviceIndex.put(services[i], i);
+        }
+        int[] agentIds = agents.stream().mapToInt(VanadSSJReplay.AgentState::getAgentId).sorted().toArray();
+        Map<Integer, Integer> agentNode = new HashMap<>(agentIds.length * 2);
+        for (int a = 0; a < agentIds.length; a++) {
+            agentNode.put(agentIds[a], services.length + a);
+        }
+
+        // Union-find: services 0..S-1, puis agents
+        int[] parent = new int[services.length + agentIds.length];
+        for (int i = 0; i < parent.length; i++) {
+            parent[i] = i;
+        }
+        for (VanadSSJReplay.AgentState agent : agents) {
+            int node = agentNode.get(agent.getAgentId());
+            for (int s = 0; s < services.length; s++) {
+                if (agent.canHandle(services[s])) union(parent, s, node);
+            }
+        }
+        for (Call call : calls) {
+            if (call.getAgentNumber() == null) continue;
+            Integer service = serviceIndex.get(call.getQueueName());
+            Integer node = agentNode.get(call.getAgentNumber().intValue());
+            if (service != null && node != null) union(parent, service, node);
+        }
+
+        Map<Integer, Integer> componentOfRoot = new HashMap<>();
+        List<List<Integer>> serviceLists = new ArrayList<>();
+        List<List<Integer>> agentLists = new ArrayList<>();
+        for (int s = 0; s < services.length; s++) {
+            int component = componentOfRoot.computeIfAbsent(find(parent, s), root -> {
+                serviceLists.add(new ArrayList<>());
+                agentLists.add(new ArrayList<>());
+                return serviceLists.size() - 1;
+            });
+            serviceLists.get(component).add(s);
+        }
+        for (int a = 0; a < agentIds.length; a++) {
+            Integer component = componentOfRoot.get(find(parent, services.length + a));
+            if (component != null) agentLists.get(component).add(agentIds[a]); // agents sans service suivi ignorés
+        }
+
+        List<Component> components = new ArrayList<>(serviceLists.size());
+        for (int c = 0; c < serviceLists.size(); c++) {
+            components.add(new Component(
+                    serviceLists.get(c).stream().mapToInt(Integer::intValue).toArray(),
+                    agentLists.get(c).stream().mapToInt(Integer::intValue).toArray()));
+        }
+        return components;
+    }
+
+    private static int find(int[] parent, int node) {
+        while (parent[node] != node) {
+            parent[node] = parent[parent[node]]; // compression par division
+            node = parent[node];
+        }
+        return node;
+    }
+
+    private static void union(int[] parent, int a, int b) {
+        int rootA = find(parent, a);
+        int rootB = find(parent, b);
+        if (rootA != rootB) {
+            parent[Math.max(rootA, rootB)] = Math.min(rootA, rootB);
+        }
+    }
+}
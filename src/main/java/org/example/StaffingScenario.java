@@ -0,0 +1,143 @@
+package org.example;
+
+import org.example.VanadSSJReplay.AgentState;
+
+import java.util.*;
+
+/**
+ * Scénario de dotation "what-if" appliqué aux agents reconstitués de l'historique
+ * Format texte (une ligne par scénario, séparateur ';'):
+ *   nom; add=3:30175,30560; remove=2:30172; skills=12:30175,30066; cap=9:20
+ */
+public class StaffingScenario {
+
+    private final String name;
+    private final List<Integer> addCounts = new ArrayList<>();
+    private final List<Set<String>> addSkills = new ArrayList<>();
+    private final Map<String, Integer> removals = new LinkedHashMap<>(); // compétence -> nombre
+    private final Map<Integer, Set<String>> skillChanges = new LinkedHashMap<>();
+    private final int[] hourlyCaps = new int[24];                      // 0 = pas de plafond
+    private boolean capped = false;                                    // au moins un plafond horaire
+
+    public StaffingScenario(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Lecture d'un scénario depuis sa représentation texte
+     */
+    public static StaffingScenario parse(String line) {
+        String[] parts = line.split(";");
+        StaffingScenario scenario = new StaffingScenario(parts[0].trim());
+
+        for (int i = 1; i < parts.length; i++) {
+            String part = parts[i].trim();
+            if (part.isEmpty()) continue;
+
+            int eq = part.indexOf('=');
+            int colon = part.indexOf(':');
+            if (eq < 0 || colon < eq) {
+                throw new IllegalArgumentException("Modification invalide: '" + part + "'");
+            }
+            String key = part.substring(0, eq).trim();
+            String left = part.substring(eq + 1, colon).trim();
+            String right = part.substring(colon + 1).trim();
+
+            switch (key) {
+                case "add" -> scenario.addAgents(Integer.parseInt(left), parseSkills(right));
+                case "remove" -> scenario.removeAgents(Integer.parseInt(left), right);
+                case "skills" -> scenario.changeSkills(Integer.parseInt(left), parseSkills(right));
+                case "cap" -> scenario.capConcurrentAgents(Integer.parseInt(left), Integer.parseInt(right));
+                default -> throw new IllegalArgumentException("Modification inconnue: '" + key + "'");
+            }
+        }
+        return scenario;
+    }
+
+    private static Set<String> parseSkills(String list) {
+        Set<String> skills = new LinkedHashSet<>();
+        for (String skill : list.split(",")) {
+            if (!skill.isBlank()) skills.add(skill.trim());
+        }
+        return skills;
+    }
+
+    // === MODIFICATIONS ===
+
+    public StaffingScenario addAgents(int count, Set<String> skills) {
+        addCounts.add(count);
+        addSkills.add(new HashSet<>(skills));
+        return this;
+    }
+
+    public StaffingScenario removeAgents(int count, String skill) {
+        removals.merge(skill, count, Integer::sum);
+        return this;
+    }
+
+    public StaffingScenario changeSkills(int agentId, Set<String> skills) {
+        skillChanges.put(agentId, new HashSet<>(skills));
+        return this;
+    }
+
+    public StaffingScenario capConcurrentAgents(int hourOfDay, int maxAgents) {
+        hourlyCaps[hourOfDay] = maxAgents;
+        capped = Arrays.stream(hourlyCaps).anyMatch(cap -> cap > 0);
+        return this;
+    }
+
+    /**
+     * Applique les modifications à l'ensemble d'agents d'un replay
+     * Ordre: changements de compétences, retraits (plus grands identifiants d'abord), ajouts
+     */
+    void apply(Map<Integer, AgentState> agents) {
+        skillChanges.forEach((agentId, skills) -> {
+            AgentState agent = agents.get(agentId);
+            if (agent != null) {
+                agents.put(agentId, new AgentState(agentId, skills));
+            }
+        });
+
+        removals.forEach((skill, count) -> agents.values().stream()
+                .filter(agent -> agent.canHandle(skill))
+                .map(AgentState::getAgentId)
+                .sorted(Comparator.reverseOrder())
+                .limit(count)
+                .toList()
+                .forEach(agents::remove));
+
+        int nextId = agents.keySet().stream().mapToInt(Integer::intValue).max().orElse(0) + 1;
+        for (int i = 0; i < addCounts.size(); i++) {
+            for (int n = 0; n < addCounts.get(i); n++) {
+                agents.put(nextId, new AgentState(nextId, addSkills.get(i)));
+                nextId++;
+            }
+        }
+    }
+
+    /**
+     * Vrai si un agent supplémentaire peut être occupé à cette heure
+     */
+    boolean allowsBusyAgent(int hourOfDay, int busyAgents) {
+        int cap = hourlyCaps[hourOfDay];
+        return cap <= 0 || busyAgents < cap;
+    }
+
+    boolean hasCaps() {
+        return capped;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String toString() {
+        return "StaffingScenario{" +
+                "name='" + name + '\'' +
+                ", removals=" + removals +
+                ", skillChanges=" + skillChanges.keySet() +
+                ", hourlyCaps=" + Arrays.toString(hourlyCaps) +
+                '}';
+    }
+}
@@ -0,0 +1,215 @@
+package org.example;
+
+import java.io.*;
+import java.util.*;
+
+/**
+ * Statistiques en ligne par service × heure de la journée
+ * Moyenne/variance de Welford et sketch de quantiles pour l'attente et la file.
+ * Mémoire bornée quel que soit l'horizon; fusionnable entre exécutions parallèles.
+ */
+public class StreamingStatistics {
+
+    private static final int HOURS = 24;
+
+    private final String[] services;
+    private final Map<String, Integer> index = new HashMap<>();
+    private final Cell[][] cells; // [service][heure]
+
+    public StreamingStatistics(String[] services) {
+        this.services = services.clone();
+        this.cells = new Cell[services.length][HOURS];
+        for (int s = 0; s < services.length; s++) {
+            index.put(services[s], s);
+            for (int h = 0; h < HOURS; h++) {
+                cells[s][h] = new Cell();
+            }
+        }
+    }
+
+    /**
+     * Enregistre un état capturé, lu dans l'arène (code de service = indice + 1, mêmes services)
+     */
+    public void record(FeatureArena features, int record) {
+        int s = features.service(record) - 1;
+        if (s < 0 || s >= services.length) return;
+        cells[s][features.hour(record)].add(features.waitTime(record), features.queueLength(record));
+    }
+
+    /**
+     * Fusion des statistiques d'une autre exécution sur les mêmes services
+     */
+    public void merge(StreamingStatistics other) {
+        for (int s = 0; s < services.length; s++) {
+            Integer o = other.index.get(services[s]);
+            if (o == null) continue;
+            for (int h = 0; h < HOURS; h++) {
+                cells[s][h].merge(other.cells[o][h]);
+            }
+        }
+    }
+
+    /**
+     * Sauvegarde de toutes les cellules (point de reprise), dans l'ordre des services
+     */
+    public void writeState(DataOutput out) throws IOException {
+        for (Cell[] serviceCells : cells) {
+            for (Cell cell : serviceCells) {
+                cell.wait.writeState(out);
+                cell.queue.writeState(out);
+                cell.waitSketch.writeState(out);
+                cell.queueSketch.writeState(out);
+            }
+        }
+    }
+
+    public void readState(DataInput in) throws IOException {
+        for (Cell[] serviceCells : cells) {
+            for (Cell cell : serviceCells) {
+                cell.wait.readState(in);
+                cell.queue.readState(in);
+                cell.waitSketch.readState(in);
+                cell.queueSketch.readState(in);
+            }
+        }
+    }
+
+    // === AGRÉGATS ===
+
+    public Cell total() {
+        Cell total = new Cell();
+        for (Cell[] serviceCells : cells) {
+            for (Cell cell : serviceCells) total.merge(cell);
+        }
+        return total;
+    }
+
+    public Cell service(String service) {
+        Cell total = new Cell();
+        Integer s = index.get(service);
+        if (s != null) {
+            for (Cell cell : cells[s]) total.merge(cell);
+        }
+        return total;
+    }
+
+    public Cell cell(String service, int hourOfDay) {
+        Integer s = index.get(service);
+        return s == null ? new Cell() : cells[s][hourOfDay];
+    }
+
+    /**
+     * Rapport console: global et par service
+     */
+    public void printReport() {
+        Cell total = total();
+        System.out.printf("États capturés: %d\n", total.wait.count());
+        System.out.printf("Temps d'attente moyen: %.2f sec (%.2f min)\n", total.wait.mean(), total.wait.mean() / 60);
+        System.out.printf("Temps d'attente p50/p90/p99: %.2f / %.2f / %.2f sec\n",
+                total.waitSketch.quantile(0.5), total.waitSketch.quantile(0.9), total.waitSketch.quantile(0.99));
+        System.out.printf("Longueur file moyenne: %.2f (p90 %.0f, max %.0f)\n",
+                total.queue.mean(), total.queueSketch.quantile(0.9), total.queueSketch.max());
+
+        for (String service : services) {
+            Cell cell = service(service);
+            System.out.printf("Service %s: %d échantillons, %.2f sec attente moyenne (σ %.2f, p50 %.2f, p90 %.2f, p99 %.2f)\n",
+                    service, cell.wait.count(), cell.wait.mean(), cell.wait.stdDev(),
+                    cell.waitSketch.quantile(0.5), cell.waitSketch.quantile(0.9), cell.waitSketch.quantile(0.99));
+        }
+    }
+
+    /**
+     * Export CSV détaillé par service × heure de la journée
+     */
+    public void exportHourly(String filename) throws IOException {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(filename))) {
+            writer.println("service,hour,count,wait_mean,wait_std,wait_p50,wait_p90,wait_p99,queue_mean,queue_std,queue_p90");
+            for (String service : services) {
+                for (int h = 0; h < HOURS; h++) {
+                    Cell cell = cell(service, h);
+                    if (cell.wait.count() == 0) continue;
+                    writer.printf(Locale.US, "%s,%d,%d,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f,%.0f%n",
+                            service, h, cell.wait.count(),
+                            cell.wait.mean(), cell.wait.stdDev(),
+                            cell.waitSketch.quantile(0.5), cell.waitSketch.quantile(0.9), cell.waitSketch.quantile(0.99),
+                            cell.queue.mean(), cell.queue.stdDev(), cell.queueSketch.quantile(0.9));
+                }
+            }
+        }
+    }
+
+    // ========================
+    // CLASSES UTILITAIRES
+    // ========================
+
+    /**
+     * Cellule service × heure: attente et longueur de file
+     */
+    public static class Cell {
+        final Welford wait = new Welford();
+        final Welford queue = new Welford();
+        final QuantileSketch waitSketch = new QuantileSketch();
+        final QuantileSketch queueSketch = new QuantileSketch();
+
+        void add(double waitTime, int queueLength) {
+            wait.add(waitTime);
+            queue.add(queueLength);
+            waitSketch.add(waitTime);
+            queueSketch.add(queueLength);
+        }
+
+        void merge(Cell other) {
+            wait.merge(other.wait);
+            queue.merge(other.queue);
+            waitSketch.merge(other.waitSketch);
+            queueSketch.merge(other.queueSketch);
+        }
+
+        public long count() { return wait.count(); }
+        public double meanWait() { return wait.mean(); }
+        public double meanQueue() { return queue.mean(); }
+        public double waitQuantile(double q) { return waitSketch.quantile(q); }
+    }
+
+    /**
+     * Moyenne et variance en ligne (Welford), fusion de Chan et al.
+     */
+    static class Welford {
+        private long n = 0;
+        private double mean = 0.0;
+        private double m2 = 0.0;
+
+        void add(double x) {
+            n++;
+            double delta = x - mean;
+            mean += delta / n;
+            m2 += delta * (x - mean);
+        }
+
+        void merge(Welford other) {
+            if (other.n == 0) return;
+            long total = n + other.n;
+            double delta = other.mean - mean;
+            mean += delta * other.n / total;
+            m2 += other.m2 + delta * delta * n * other.n / total;
+            n = total;
+        }
+
+        void writeState(DataOutput out) throws IOException {
+            out.writeLong(n);
+            out.writeDouble(mean);
+            out.writeDouble(m2);
+        }
+
+        void readState(DataInput in) throws IOException {
+            n = in.readLong();
+            mean = in.readDouble();
+            m2 = in.readDouble();
+        }
+
+        long count() { return n; }
+        double mean() { return mean; }
+        double variance() { return n > 1 ? m2 / (n - 1) : 0.0; }
+        double stdDev() { return Math.sqrt(variance()); }
+    }
+}
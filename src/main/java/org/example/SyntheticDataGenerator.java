@@ -0,0 +1,363 @@
+package org.example;
+
+import umontreal.ssj.rng.MRG32k3a;
+import umontreal.ssj.rng.RandomStream;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Générateur de fichiers d'appels et d'activités synthétiques au format VANAD
+ * (mêmes colonnes que CSVReaderUtil), pour les tests de charge du chargement et du replay.
+ * Un fichier d'appels et un fichier d'activités par année: all_calls_AAAA_clean.csv.
+ * Chaque jour est tiré sur son propre sous-flux MRG32k3a: le résultat ne dépend que
+ * de la graine, pas du nombre de threads. Les jours sont formatés en parallèle et écrits
+ * dans l'ordre, avec un nombre borné de jours en mémoire.
+ */
+public class SyntheticDataGenerator {
+
+    private static final int OPEN_HOUR = 8;
+    private static final int CLOSE_HOUR = 20;
+    private static final double MEAN_WAIT = 30.0;       // secondes
+    private static final double MEAN_SERVICE = 240.0;
+    private static final double MEAN_PATIENCE = 60.0;
+    private static final double WEEKEND_FACTOR = 0.4;
+
+    private final int serviceCount;
+    private final int agentCount;
+    private final long seed;
+    private double skillOverlap = 0.2;
+    private int callsPerDay = 2000;
+    private double abandonRate = 0.1;
+    private int threads = Runtime.getRuntime().availableProcessors();
+
+    private String[] services;
+    private double[] serviceWeights;       // popularité cumulée (loi de Zipf)
+    private int[][] agentsByService;       // agents compétents par service
+    private long totalCalls;
+
+    public SyntheticDataGenerator(int serviceCount, int agentCount, long seed) {
+        if (serviceCount < 1 || agentCount < 1) {
+            throw new IllegalArgumentException("Il faut au moins un service et un agent");
+        }
+        this.serviceCount = serviceCount;
+        this.agentCount = agentCount;
+        this.seed = seed;
+    }
+
+    /**
+     * Point d'entrée: --output=data_synth --services=10 --agents=60 --overlap=0.2
+     * --calls-per-day=2000 --abandon=0.1 --years=1 --start-year=2014 --seed=42 --threads=8
+     */
+    public static void main(String[] args) {
+        System.out.println("=== VANAD GÉNÉRATEUR DE DONNÉES SYNTHÉTIQUES ===");
+
+        Map<String, String> options = VanadSSJReplay.parseOptions(args);
+        try {
+            SyntheticDataGenerator generator = new SyntheticDataGenerator(
+                    Integer.parseInt(options.getOrDefault("services", "10")),
+                    Integer.parseInt(options.getOrDefault("agents", "60")),
+                    Long.parseLong(options.getOrDefault("seed", "42")));
+            generator.setSkillOverlap(Double.parseDouble(options.getOrDefault("overlap", "0.2")));
+            generator.setCallsPerDay(Integer.parseInt(options.getOrDefault("calls-per-day", "2000")));
+            generator.setAbandonRate(Double.parseDouble(options.getOrDefault("abandon", "0.1")));
+            if (options.containsKey("threads")) {
+                generator.setThreads(Integer.parseInt(options.get("threads")));
+            }
+            generator.generate(Path.of(options.getOrDefault("output", "data_synth")),
+                    Integer.parseInt(options.getOrDefault("start-year", "2014")),
+                    Integer.parseInt(options.getOrDefault("years", "1")));
+        } catch (Exception e) {
+            System.err.println("ERREUR: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    // ========================
+    // CONFIGURATION
+    // ========================
+
+    /**
+     * Probabilité qu'un agent couvre chacun des services autres que son service principal
+     */
+    public void setSkillOverlap(double skillOverlap) {
+        this.skillOverlap = skillOverlap;
+    }
+
+    /**
+     * Volume moyen d'un jour ouvré (réduit le week-end)
+     */
+    public void setCallsPerDay(int callsPerDay) {
+        this.callsPerDay = callsPerDay;
+    }
+
+    public void setAbandonRate(double abandonRate) {
+        this.abandonRate = abandonRate;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = Math.max(1, threads);
+    }
+
+    public String[] getServices() {
+        return services.clone();
+    }
+
+    // ========================
+    // GÉNÉRATION
+    // ========================
+
+    /**
+     * Écrit {@code years} années consécutives dans {@code outputDir}; retourne le nombre d'appels
+     */
+    public long generate(Path outputDir, int startYear, int years) throws Exception {
+        Files.createDirectories(outputDir);
+        long wallStart = System.nanoTime(); // Chrono mesure le CPU du thread appelant, pas les écrivains
+
+        RandomStream cursor = new MRG32k3a();
+        ((MRG32k3a) cursor).setSeed(seedOf(seed));
+        initializeCatalog(cursor);
+        totalCalls = 0;
+        cursor.resetNextSubstream();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long activityId = 1;
+        try {
+            for (int year = startYear; year < startYear + years; year++) {
+                Path callsFile = callsFileFor(outputDir, year);
+                Path activitiesFile = outputDir.resolve("all_activities_" + year + "_clean.csv");
+                try (OutputStream callsOut = new BufferedOutputStream(Files.newOutputStream(callsFile), 1 << 20);
+                     OutputStream activitiesOut = new BufferedOutputStream(Files.newOutputStream(activitiesFile), 1 << 20)) {
+                    callsOut.write(("date_received,queue_name,agent_number,answered,consult,transfer,hangup,"
+                            + "year,month,day,day_of_week,hour,minute,time_of_day\n").getBytes(StandardCharsets.UTF_8));
+                    activitiesOut.write(("id,user_id,dnd_id,campaign_id,extension,last_call_id,startdatetime,enddatetime,"
+                            + "agent_id,year,month,day,day_of_week,hour,minute,secondes,time_of_day,duration\n")
+                            .getBytes(StandardCharsets.UTF_8));
+
+                    // Fenêtre bornée de jours en cours de formatage, écrits dans l'ordre
+                    Deque<Future<DayChunk>> pending = new ArrayDeque<>();
+                    for (LocalDate day = LocalDate.of(year, 1, 1); day.getYear() == year; day = day.plusDays(1)) {
+                        RandomStream dayStream = ((MRG32k3a) cursor).clone();
+                        cursor.resetNextSubstream();
+                        LocalDate date = day;
+                        pending.add(executor.submit(() -> generateDay(date, dayStream)));
+                        if (pending.size() >= threads * 2) {
+                            activityId = pending.poll().get().write(callsOut, activitiesOut, activityId);
+                        }
+                    }
+                    while (!pending.isEmpty()) {
+                        activityId = pending.poll().get().write(callsOut, activitiesOut, activityId);
+                    }
+                }
+                System.out.printf("Année %d écrite: %s\n", year, callsFile);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        double seconds = (System.nanoTime() - wallStart) / 1e9;
+        System.out.printf("Appels générés: %d en %.1f s (%.0f appels/s)\n", totalCalls, seconds,
+                seconds > 0 ? totalCalls / seconds : 0.0);
+        return totalCalls;
+    }
+
+    public static Path callsFileFor(Path outputDir, int year) {
+        return outputDir.resolve("all_calls_" + year + "_clean.csv");
+    }
+
+    /**
+     * Services, popularités et compétences des agents (tirés une fois, avant les jours)
+     */
+    private void initializeCatalog(RandomStream stream) {
+        services = new String[serviceCount];
+        serviceWeights = new double[serviceCount];
+        double total = 0.0;
+        for (int s = 0; s < serviceCount; s++) {
+            services[s] = String.valueOf(30001 + s);
+            total += 1.0 / (s + 1);
+            serviceWeights[s] = total;
+        }
+        for (int s = 0; s < serviceCount; s++) {
+            serviceWeights[s] /= total;
+        }
+
+        List<List<Integer>> skilled = new ArrayList<>();
+        for (int s = 0; s < serviceCount; s++) {
+            skilled.add(new ArrayList<>());
+        }
+        for (int agent = 1; agent <= agentCount; agent++) {
+            int primary = (agent - 1) % serviceCount;
+            for (int s = 0; s < serviceCount; s++) {
+                if (s == primary || stream.nextDouble() < skillOverlap) {
+                    skilled.get(s).add(agent);
+                }
+            }
+        }
+        agentsByService = new int[serviceCount][];
+        for (int s = 0; s < serviceCount; s++) {
+            agentsByService[s] = skilled.get(s).stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    /**
+     * Un jour: arrivées triées entre OPEN_HOUR et CLOSE_HOUR (pic en milieu de journée),
+     * une session d'activité par agent
+     */
+    private DayChunk generateDay(LocalDate day, RandomStream stream) {
+        boolean weekend = day.getDayOfWeek().getValue() >= 6;
+        int count = (int) Math.round(callsPerDay * (weekend ? WEEKEND_FACTOR : 1.0) * (0.9 + 0.2 * stream.nextDouble()));
+
+        int[] arrivals = new int[count];
+        for (int i = 0; i < count; i++) {
+            arrivals[i] = arrivalSecond(stream);
+        }
+        Arrays.sort(arrivals);
+
+        DayFormatter format = new DayFormatter(day);
+        StringBuilder calls = new StringBuilder(count * 110);
+        for (int received : arrivals) {
+            int s = pickService(stream.nextDouble());
+            int[] skilled = agentsByService[s];
+            boolean abandoned = skilled.length == 0 || stream.nextDouble() < abandonRate;
+
+            format.dateTime(calls, received).append(',').append(services[s]).append(',');
+            if (abandoned) {
+                int hangup = received + 1 + (int) exponential(stream, MEAN_PATIENCE);
+                calls.append(",,,,");
+                format.dateTime(calls, hangup);
+            } else {
+                int answered = received + (int) Math.min(exponential(stream, MEAN_WAIT), 7000);
+                int hangup = answered + 10 + (int) Math.min(exponential(stream, MEAN_SERVICE), 3500);
+                calls.append(skilled[(int) (stream.nextDouble() * skilled.length)]).append(',');
+                format.dateTime(calls, answered).append(",,,");
+                format.dateTime(calls, hangup);
+            }
+            format.calendar(calls, received).append(',').append(received / 3600 + (received / 60 % 60) / 60.0).append('\n');
+        }
+
+        String[] activities = new String[agentCount];
+        for (int agent = 1; agent <= agentCount; agent++) {
+            int start = OPEN_HOUR * 3600 + (int) (stream.nextDouble() * 4 * 3600);
+            int duration = 4 * 3600 + (int) (stream.nextDouble() * 4 * 3600);
+            StringBuilder row = new StringBuilder(128);
+            row.append(agent).append(",3,1,").append(100 + agent).append(",0,");
+            format.dateTime(row, start).append(',');
+            format.dateTime(row, start + duration).append(',').append(agent);
+            format.calendar(row, start).append(',').append(start % 60).append(',')
+                    .append(start / 3600 + (start / 60 % 60) / 60.0).append(',').append(duration).append('\n');
+            activities[agent - 1] = row.toString();
+        }
+        return new DayChunk(calls.toString().getBytes(StandardCharsets.UTF_8), count, activities);
+    }
+
+    /**
+     * Seconde d'arrivée dans la journée, intensité en cloche entre l'ouverture et la fermeture
+     */
+    private static int arrivalSecond(RandomStream stream) {
+        double open = (CLOSE_HOUR - OPEN_HOUR) * 3600.0;
+        while (true) {
+            double t = stream.nextDouble();
+            if (stream.nextDouble() < 0.3 + 0.7 * Math.sin(Math.PI * t)) {
+                return OPEN_HOUR * 3600 + (int) (t * open);
+            }
+        }
+    }
+
+    private int pickService(double u) {
+        int s = Arrays.binarySearch(serviceWeights, u);
+        return Math.min(serviceCount - 1, s >= 0 ? s : -s - 1);
+    }
+
+    private static double exponential(RandomStream stream, double mean) {
+        return -mean * Math.log(1.0 - stream.nextDouble());
+    }
+
+    /**
+     * Graine MRG32k3a valide dérivée de la graine utilisateur
+     */
+    private static long[] seedOf(long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        long[] state = new long[6];
+        for (int i = 0; i < 6; i++) {
+            state[i] = 1 + random.nextLong(i < 3 ? 4294967086L : 4294944442L);
+        }
+        return state;
+    }
+
+    /**
+     * Lignes d'un jour; les identifiants d'activité sont attribués à l'écriture (ordre du fichier)
+     */
+    private final class DayChunk {
+        private final byte[] calls;
+        private final int callCount;
+        private final String[] activities;
+
+        DayChunk(byte[] calls, int callCount, String[] activities) {
+            this.calls = calls;
+            this.callCount = callCount;
+            this.activities = activities;
+        }
+
+        /**
+         * Écrit le jour et retourne le prochain identifiant d'activité
+         */
+        long write(OutputStream callsOut, OutputStream activitiesOut, long firstActivityId) throws IOException {
+            callsOut.write(calls);
+            long id = firstActivityId;
+            for (String row : activities) {
+                activitiesOut.write((id++ + "," + row).getBytes(StandardCharsets.UTF_8));
+            }
+            totalCalls += callCount;
+            return id;
+        }
+    }
+
+    /**
+     * Formatage rapide des dates d'un jour à partir de la seconde dans la journée
+     * (les horaires ne dépassent jamais minuit: fermeture à 20h, attente et service bornés)
+     */
+    private static final class DayFormatter {
+        private final LocalDate day;
+        private final String datePrefix;
+        private final String calendarPrefix;
+
+        DayFormatter(LocalDate day) {
+            this.day = day;
+            this.datePrefix = day + " ";
+            this.calendarPrefix = "," + day.getYear() + "," + day.getMonthValue() + "," + day.getDayOfMonth()
+                    + "," + day.getDayOfWeek().getValue() + ",";
+        }
+
+        StringBuilder dateTime(StringBuilder out, int second) {
+            if (second >= 86400) {
+                return out.append(day.plusDays(second / 86400)).append(' ').append(clock(second % 86400));
+            }
+            return out.append(datePrefix).append(clock(second));
+        }
+
+        /**
+         * Colonnes year,month,day,day_of_week,hour,minute (précédées d'une virgule)
+         */
+        StringBuilder calendar(StringBuilder out, int second) {
+            return out.append(calendarPrefix).append(second / 3600).append(',').append(second / 60 % 60);
+        }
+
+        private static String clock(int second) {
+            char[] c = {'0', '0', ':', '0', '0', ':', '0', '0'};
+            int h = second / 3600, m = second / 60 % 60, s = second % 60;
+            c[0] += (char) (h / 10);
+            c[1] += (char) (h % 10);
+            c[3] += (char) (m / 10);
+            c[4] += (char) (m % 10);
+            c[6] += (char) (s / 10);
+            c[7] += (char) (s % 10);
+            return new String(c);
+        }
+    }
+}
@@ -0,0 +1,412 @@
+package org.example;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Index temporel sur disque d'un fichier CSV trié par date (fichier compagnon .idx)
+ * Associe chaque heure à l'offset en octets et au numéro de sa première ligne et à son nombre de lignes,
+ * et conserve les volumes par file et les files traitées par chaque agent.
+ * Reconstruit automatiquement si la source ou les colonnes demandées changent.
+ * Le fichier n'est déclaré trié (seek possible) que si toutes ses lignes sont en ordre
+ * chronologique, à la seconde près: un désordre à l'intérieur d'une heure suffit à l'exclure.
+ */
+public class TimeIndex {
+
+    private static final int MAGIC = 0x56544958; // "VTIX"
+    private static final int FORMAT_VERSION = 4;
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final long sourceSize;
+    private final long sourceModified;
+    private final int dateColumn;       // colonne de date indexée
+    private final int queueColumn;      // colonne de file indexée (-1: aucune)
+    private final int agentColumn;      // colonne agent indexée (-1: aucune)
+    private final long dataStart;       // offset de la première ligne après l'en-tête
+    private final boolean sorted;       // lignes en ordre chronologique (seek possible)
+    private final long[] hourKeys;      // heures epoch croissantes
+    private final long[] offsets;       // offset de la première ligne de chaque heure
+    private final int[] firstLines;     // numéro (1 = en-tête) de la première ligne de chaque heure
+    private final int[] rowCounts;      // lignes par heure
+    private final Map<String, Long> queueVolumes;
+    private final Map<Integer, Set<String>> agentQueues;
+
+    private TimeIndex(long sourceSize, long sourceModified, int dateColumn, int queueColumn, int agentColumn,
+                      long dataStart, boolean sorted,
+                      long[] hourKeys, long[] offsets, int[] firstLines, int[] rowCounts,
+                      Map<String, Long> queueVolumes, Map<Integer, Set<String>> agentQueues) {
+        this.sourceSize = sourceSize;
+        this.sourceModified = sourceModified;
+        this.dateColumn = dateColumn;
+        this.queueColumn = queueColumn;
+        this.agentColumn = agentColumn;
+        this.dataStart = dataStart;
+        this.sorted = sorted;
+        this.hourKeys = hourKeys;
+        this.offsets = offsets;
+        this.firstLines = firstLines;
+        this.rowCounts = rowCounts;
+        this.queueVolumes = queueVolumes;
+        this.agentQueues = agentQueues;
+    }
+
+    /**
+     * Charge l'index compagnon s'il est à jour, sinon le reconstruit et le sauvegarde
+     *
+     * @param dateColumn  colonne de date indexée (yyyy-MM-dd HH:mm:ss)
+     * @param queueColumn colonne de file dont on compte les volumes (-1: aucune)
+     */
+    public static TimeIndex loadOrBuild(String sourceFile, int dateColumn, int queueColumn) throws IOException {
+        return loadOrBuild(sourceFile, dateColumn, queueColumn, -1);
+    }
+
+    /**
+     * Variante indexant aussi les files traitées par chaque agent
+     *
+     * @param agentColumn colonne du numéro d'agent (-1: aucune); un index construit
+     *                    sur une autre colonne est reconstruit
+     */
+    public static TimeIndex loadOrBuild(String sourceFile, int dateColumn, int queueColumn,
+                                        int agentColumn) throws IOException {
+        Path indexFile = Path.of(sourceFile + ".idx");
+        File source = new File(sourceFile);
+
+        if (Files.exists(indexFile)) {
+            try {
+                TimeIndex index = load(indexFile);
+                if (index.sourceSize == source.length() && index.sourceModified == source.lastModified()
+                        && index.dateColumn == dateColumn && index.queueColumn == queueColumn
+                        && (agentColumn < 0 || index.agentColumn == agentColumn)) {
+                    return index;
+                }
+            } catch (IOException e) {
+                System.err.printf("Index illisible (%s), reconstruction\n", e.getMessage());
+            }
+        }
+
+        TimeIndex index = build(source, dateColumn, queueColumn, agentColumn);
+        try {
+            index.save(indexFile);
+            System.out.printf("Index temporel construit: %s (%d heures)\n", indexFile, index.hourKeys.length);
+        } catch (IOException e) {
+            System.err.printf("Impossible de sauvegarder l'index: %s\n", e.getMessage());
+        }
+        return index;
+    }
+
+    /**
+     * Construction en une passe sur les octets: seules les colonnes date et file sont examinées
+     */
+    static TimeIndex build(File source, int dateColumn, int queueColumn, int agentColumn) throws IOException {
+        Builder builder = new Builder(dateColumn, queueColumn, agentColumn);
+        long dataStart = 0;
+
+        try (InputStream in = new BufferedInputStream(new FileInputStream(source), BUFFER_SIZE)) {
+            byte[] line = new byte[1024];
+            int length = 0;
+            long offset = 0;          // offset courant dans le fichier
+            long lineStart = 0;       // offset du début de la ligne courante
+            boolean header = true;
+
+            int b;
+            while ((b = in.read()) != -1) {
+                offset++;
+                if (b != '\n') {
+                    if (length == line.length) line = Arrays.copyOf(line, length * 2);
+                    line[length++] = (byte) b;
+                    continue;
+                }
+
+                if (header) {
+                    header = false;
+                    dataStart = offset;
+                } else {
+                    builder.accept(line, length, lineStart);
+                }
+                length = 0;
+                lineStart = offset;
+            }
+            // Dernière ligne sans saut de ligne final
+            if (length > 0 && !header) {
+                builder.accept(line, length, lineStart);
+            }
+        }
+
+        return builder.toIndex(source, dataStart);
+    }
+
+    /**
+     * Accumulateur de construction: une entrée par heure rencontrée
+     */
+    private static final class Builder {
+        private final int dateColumn;
+        private final int queueColumn;
+        private final int agentColumn;
+        private final List<long[]> entries = new ArrayList<>(); // {heure, offset, lignes, première ligne}
+        private final Map<String, long[]> volumes = new HashMap<>();
+        private final Map<Integer, Set<String>> agentQueues = new HashMap<>();
+        private boolean sorted = true;
+        private long lastSecond = Long.MIN_VALUE;
+        private long[] current;
+        private int lineNumber = 1; // en-tête
+
+        Builder(int dateColumn, int queueColumn, int agentColumn) {
+            this.dateColumn = dateColumn;
+            this.queueColumn = queueColumn;
+            this.agentColumn = agentColumn;
+        }
+
+        void accept(byte[] line, int length, long lineStart) {
+            lineNumber++;
+            long second = parseEpochSecond(line, length, dateColumn);
+            if (second == Long.MIN_VALUE) return;
+            if (second < lastSecond) sorted = false; // ordre vérifié ligne à ligne, pas seulement par heure
+            lastSecond = second;
+
+            long hour = Math.floorDiv(second, 3600L);
+            if (current == null || hour != current[0]) {
+                current = new long[] {hour, lineStart, 0, lineNumber};
+                entries.add(current);
+            }
+            current[2]++;
+
+            if (queueColumn >= 0) {
+                String queue = field(line, length, queueColumn);
+                if (!queue.isEmpty()) {
+                    volumes.computeIfAbsent(queue, q -> new long[1])[0]++;
+                    int agent = agentColumn >= 0 ? parseAgent(field(line, length, agentColumn)) : -1;
+                    if (agent >= 0) agentQueues.computeIfAbsent(agent, a -> new HashSet<>()).add(queue);
+                }
+            }
+        }
+
+        TimeIndex toIndex(File source, long dataStart) {
+            int n = entries.size();
+            long[] hourKeys = new long[n];
+            long[] offsets = new long[n];
+            int[] firstLines = new int[n];
+            int[] rowCounts = new int[n];
+            for (int i = 0; i < n; i++) {
+                hourKeys[i] = entries.get(i)[0];
+                offsets[i] = entries.get(i)[1];
+                rowCounts[i] = (int) entries.get(i)[2];
+                firstLines[i] = (int) entries.get(i)[3];
+            }
+
+            // Non trié: les clés ne sont plus recherchables par dichotomie
+            if (!sorted) {
+                hourKeys = new long[0];
+                offsets = new long[0];
+                firstLines = new int[0];
+                rowCounts = new int[0];
+            }
+
+            Map<String, Long> queueVolumes = new HashMap<>();
+            volumes.forEach((queue, count) -> queueVolumes.put(queue, count[0]));
+            return new TimeIndex(source.length(), source.lastModified(), dateColumn, queueColumn, agentColumn,
+                    dataStart, sorted, hourKeys, offsets, firstLines, rowCounts, queueVolumes, agentQueues);
+        }
+    }
+
+    /**
+     * Extrait un champ (sans guillemets) d'une ligne CSV brute
+     */
+    private static String field(byte[] line, int length, int column) {
+        int start = 0;
+        for (int c = 0; c < column; c++) {
+            while (start < length && line[start] != ',') start++;
+            if (start == length) return "";
+            start++;
+        }
+        int end = start;
+        while (end < length && line[end] != ',' && line[end] != '\r') end++;
+
+        String value = new String(line, start, end - start, StandardCharsets.UTF_8).trim();
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            value = value.substring(1, value.length() - 1).trim();
+        }
+        return value;
+    }
+
+    /**
+     * Seconde epoch d'une date "yyyy-MM-dd HH:mm:ss" (minutes et secondes facultatives,
+     * Long.MIN_VALUE si absente ou invalide)
+     */
+    private static long parseEpochSecond(byte[] line, int length, int column) {
+        String value = field(line, length, column);
+        if (value.length() < 13) return Long.MIN_VALUE;
+        try {
+            int year = Integer.parseInt(value, 0, 4, 10);
+            int month = Integer.parseInt(value, 5, 7, 10);
+            int day = Integer.parseInt(value, 8, 10, 10);
+            int hour = Integer.parseInt(value, 11, 13, 10);
+            int minute = value.length() >= 16 ? Integer.parseInt(value, 14, 16, 10) : 0;
+            int second = value.length() >= 19 ? Integer.parseInt(value, 17, 19, 10) : 0;
+            return ((LocalDate.of(year, month, day).toEpochDay() * 24 + hour) * 60 + minute) * 60 + second;
+        } catch (RuntimeException e) {
+            return Long.MIN_VALUE;
+        }
+    }
+
+    /**
+     * Numéro d'agent ("8" ou "8.0"), -1 si absent ou invalide
+     */
+    private static int parseAgent(String value) {
+        if (value.isEmpty()) return -1;
+        try {
+            return (int) Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static long epochHour(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) / 3600;
+    }
+
+    // === REQUÊTES ===
+
+    /**
+     * Offset de la première ligne dont l'heure est >= celle de {@code from}
+     * (début des données si from est null, taille du fichier au-delà de la fin)
+     */
+    public long offsetFor(LocalDateTime from) {
+        if (from == null) return dataStart;
+        int i = firstHourAtOrAfter(epochHour(from));
+        return i < hourKeys.length ? offsets[i] : sourceSize;
+    }
+
+    /**
+     * Numéro de la ligne située à {@link #offsetFor} (1 = en-tête), pour les messages d'erreur
+     * d'une lecture qui commence au milieu du fichier
+     */
+    public int lineFor(LocalDateTime from) {
+        if (from == null) return 2;
+        int i = firstHourAtOrAfter(epochHour(from));
+        if (i < hourKeys.length) return firstLines[i];
+        int last = hourKeys.length - 1; // au-delà de la fin: après la dernière heure
+        return last < 0 ? 2 : firstLines[last] + rowCounts[last];
+    }
+
+    /**
+     * Nombre de lignes dans les heures couvrant [from, to)
+     */
+    public long rowCount(LocalDateTime from, LocalDateTime to) {
+        int first = from == null ? 0 : firstHourAtOrAfter(epochHour(from));
+        int last = to == null ? hourKeys.length : firstHourAtOrAfter(epochHour(to.minusNanos(1)) + 1);
+        long rows = 0;
+        for (int i = first; i < last; i++) rows += rowCounts[i];
+        return rows;
+    }
+
+    private int firstHourAtOrAfter(long hour) {
+        int i = Arrays.binarySearch(hourKeys, hour);
+        return i >= 0 ? i : -i - 1;
+    }
+
+    public boolean isSorted() {
+        return sorted;
+    }
+
+    public long getDataStart() {
+        return dataStart;
+    }
+
+    public Map<String, Long> getQueueVolumes() {
+        return queueVolumes;
+    }
+
+    /**
+     * Files traitées par chaque agent sur tout le fichier (vide sans colonne agent)
+     */
+    public Map<Integer, Set<String>> getAgentQueues() {
+        return agentQueues;
+    }
+
+    // === PERSISTANCE ===
+
+    void save(Path indexFile) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(indexFile)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(sourceSize);
+            out.writeLong(sourceModified);
+            out.writeInt(dateColumn);
+            out.writeInt(queueColumn);
+            out.writeInt(agentColumn);
+            out.writeLong(dataStart);
+            out.writeBoolean(sorted);
+            out.writeInt(hourKeys.length);
+            for (int i = 0; i < hourKeys.length; i++) {
+                out.writeLong(hourKeys[i]);
+                out.writeLong(offsets[i]);
+                out.writeInt(firstLines[i]);
+                out.writeInt(rowCounts[i]);
+            }
+            out.writeInt(queueVolumes.size());
+            for (Map.Entry<String, Long> entry : queueVolumes.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeLong(entry.getValue());
+            }
+            out.writeInt(agentQueues.size());
+            for (Map.Entry<Integer, Set<String>> entry : agentQueues.entrySet()) {
+                out.writeInt(entry.getKey());
+                out.writeInt(entry.getValue().size());
+                for (String queue : entry.getValue()) out.writeUTF(queue);
+            }
+        }
+    }
+
+    static TimeIndex load(Path indexFile) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(indexFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                throw new IOException("format d'index inconnu");
+            }
+            long sourceSize = in.readLong();
+            long sourceModified = in.readLong();
+            int dateColumn = in.readInt();
+            int queueColumn = in.readInt();
+            int agentColumn = in.readInt();
+            long dataStart = in.readLong();
+            boolean sorted = in.readBoolean();
+
+            int n = in.readInt();
+            long[] hourKeys = new long[n];
+            long[] offsets = new long[n];
+            int[] firstLines = new int[n];
+            int[] rowCounts = new int[n];
+            for (int i = 0; i < n; i++) {
+                hourKeys[i] = in.readLong();
+                offsets[i] = in.readLong();
+                firstLines[i] = in.readInt();
+                rowCounts[i] = in.readInt();
+            }
+
+            int queues = in.readInt();
+            Map<String, Long> queueVolumes = new HashMap<>();
+            for (int i = 0; i < queues; i++) {
+                queueVolumes.put(in.readUTF(), in.readLong());
+            }
+
+            int agentCount = in.readInt();
+            Map<Integer, Set<String>> agentQueues = new HashMap<>();
+            for (int i = 0; i < agentCount; i++) {
+                int agent = in.readInt();
+                int skills = in.readInt();
+                Set<String> queuesOfAgent = new HashSet<>();
+                for (int k = 0; k < skills; k++) queuesOfAgent.add(in.readUTF());
+                agentQueues.put(agent, queuesOfAgent);
+            }
+            return new TimeIndex(sourceSize, sourceModified, dateColumn, queueColumn, agentColumn,
+                    dataStart, sorted, hourKeys, offsets, firstLines, rowCounts, queueVolumes, agentQueues);
+        }
+    }
+}
@@ -4,11 +4,18 @@ import umontreal.ssj.simevents.*;
 import umontreal.ssj.simevents.eventlist.*;
 import umontreal.ssj.util.Chrono;
 import org.example.model.*;
+import org.example.predictor.*;
 
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.ObjIntConsumer;
 import java.util.stream.Collectors;
 
 /**
@@ -19,28 +26,111 @@ public class VanadSSJReplay extends Simulator {
 
     // === CONFIGURATION ===
     private static final int MAX_WAIT_TIME = 7200; // 2 heures max
-    private static final int RECENT_METRICS_SIZE = 200;
+    static final int RECENT_METRICS_SIZE = 200;
     private static final double TRAINING_SPLIT = 0.8;
-    private static final double MIN_EVENT_INTERVAL = 0.001; // 3.6 secondes minimum entre événements
+    static final double MIN_EVENT_INTERVAL = 0.001; // 3.6 secondes minimum entre événements
+    static final String RUN_REPORT_FILE = "vanad_run_report.json";
+    static final String LATENCY_FILE = "vanad_latency_ssj.csv";
+    static final String TRAINING_FILE = "vanad_training_ssj.csv";
+    static final String TEST_FILE = "vanad_test_ssj.csv";
     private final Map<Integer, Double> agentLastActivityTime = new HashMap<>();
 
     // === DONNÉES ===
     private List<Call> historicalCalls;
     private String[] topServices;
     private LocalDateTime simulationStartTime;
+    private WorkloadModel workloadModel; // modèle ajusté (valeurs par défaut des prédicteurs)
+    private LocalDateTime replayFrom;    // fenêtre de replay [from, to), null = non bornée
+    private LocalDateTime replayTo;
+    private final Map<String, Integer> serviceCodes = new HashMap<>();
+    private double[] modelServiceTimes; // par code de service - 1, résolu depuis le modèle ajusté
+    private int busyAgents = 0;         // agents occupés (plafonds horaires des scénarios)
 
     // === ÉTAT SYSTÈME ===
     private final Map<String, LinkedList<Call>> queues = new HashMap<>();
+    private final Map<Integer, QueueHeadHeap> agentQueueHeads = new HashMap<>(); // agent -> tas de ses files
+    private QueueHeadHeap[][] queueHeadsByService; // tas contenant chaque service
     private final Map<Integer, AgentState> agents = new HashMap<>();
     private final Map<String, CircularBuffer<Double>> recentWaitTimes = new HashMap<>();
     private final Map<String, CircularBuffer<Double>> recentServiceTimes = new HashMap<>();
+    private final Map<String, Integer> competentAgents = new HashMap<>();
+
+    // === PRÉDICTEURS (LES et Avg-LES en tête: colonnes P_LES, P_Avg_LES) ===
+    private final List<WaitPredictor> predictors = new ArrayList<>(List.of(
+            new LesPredictor(RECENT_METRICS_SIZE),
+            new AvgLesPredictor(RECENT_METRICS_SIZE),
+            new HolPredictor(),
+            new QueueLengthPredictor(),
+            new EwLesPredictor(0.1)));
+    private final PredictorContext predictorContext = new PredictorContext();
 
     // === COLLECTE DONNÉES ===
-    private final List<SystemState> capturedStates = new ArrayList<>();
+    private FeatureArena capturedStates;      // enregistrements primitifs de largeur fixe
+    private final SystemState scratchState = new SystemState(); // capture réutilisée (état non conservé)
     private final Map<String, ServiceMetrics> serviceMetrics = new HashMap<>();
+    private StreamingStatistics statistics;   // statistiques en ligne (mémoire bornée)
+    private boolean retainStates = true;      // conserver les états pour l'export du dataset
+    private ObjIntConsumer<FeatureArena> stateSink; // mode pipeline: enregistrements transmis à l'écriture
+    private PredictionService predictionService; // instantané publié après chaque événement (null = aucun)
+    private String[] predictorNames;
+    private final SystemState snapshotState = new SystemState(); // instantanés: tampons réutilisés
+    private final Map<String, PredictionSnapshot.ServiceView> snapshotViews = new HashMap<>();
+    private int[] snapshotQueues;
+    private int[] snapshotAvailable;
+    private double[] snapshotPredictions;
+    private ReplayMetrics metrics;            // compteurs exposés en /metrics (null = désactivées)
+    private long gaugesRefreshed;             // System.nanoTime() du dernier rafraîchissement des jauges
+    private Path journalFile;                 // journal des événements (null = désactivé)
+    private ReplayJournal journal;
+    private PacedPlayback playback;           // lecture cadencée sur l'horloge murale (null = au plus vite)
+
+    // === REPLAY PARALLÈLE PAR COMPOSANTES ===
+    private boolean parallel = false;
+    private List<SkillGraph.Component> skillComponents = List.of();
+    private VanadSSJReplay[] componentReplays;   // null = replay séquentiel
+    private ComponentPlan componentPlan;         // replay d'une composante: préprogrammés et clés d'ordre
+    private final Map<Call, Long> routedOrders = new IdentityHashMap<>(); // réponse routée -> clé d'ordre
+
+    // === MODE SIMULÉ (routage LIA au lieu des réponses historiques) ===
+    private boolean simulatedRouting = false;
+    private boolean verbose = true;
+    private boolean live = false;             // flux: W fixé à la réponse ou à l'abandon observés
+    private final Map<Call, SystemState> pendingStates = new IdentityHashMap<>();
+    private final Map<Call, Event> pendingAbandons = new IdentityHashMap<>();
+    private int abandonedCalls = 0;
+    private List<Call> agentSourceCalls; // appels dont on déduit les compétences (défaut: historicalCalls)
+    private StaffingScenario scenario;   // dotation modifiée (what-if)
+    private Map<Integer, Set<String>> agentRoster; // compétences connues d'avance (index temporel)
+
+    // === MOTEUR (SSJ par défaut, référence; noyau natif en option) ===
+    private boolean nativeKernel = false;
+    private NativeReplayKernel kernel;
+    private Map<Call, Integer> callIndices; // appel -> indice, pour les réponses routées (noyau natif)
+
+    // === POINTS DE REPRISE ===
+    private ReplayCheckpoint checkpoint;       // null = désactivés
+    private boolean resume = false;
+    private long plannedConsumed = 0;          // curseur d'entrée: événements préprogrammés traités
+    private long resumeCursor = 0;             // préprogrammés déjà traités avant la reprise
+    private CheckpointState resumedState;      // instantané relu, restauré après la programmation
+    private final Map<Call, RoutedAnswer> pendingRoutes = new LinkedHashMap<>(); // ordre de programmation
+
+    // === AJOUT QUOTIDIEN ===
+    private DailyAppend dailyAppend;           // null = désactivé
+    private LocalDateTime appendCutoffTime;    // minuit suivant le dernier jour rejoué
+    private double appendCutoff = Double.POSITIVE_INFINITY; // même coupure en heures simulées
+    private double chainStart = 0.0;           // espacement repris de l'exécution précédente
+    private double lastPlannedTime = 0.0;      // dernier préprogrammé traité
+    private int carriedCount = 0;              // appels reportés, en tête de table
+    private final List<ScheduledEvent> carriedEvents = new ArrayList<>(); // préprogrammés reportés (temps bruts)
+    private AppendState carriedState;          // état relu de la veille (null au premier passage)
+    private DataInputStream appendState;       // suite de l'état relu, restaurée après la programmation
 
     private Chrono chronometer;
+    private PhaseProfiler profiler = new PhaseProfiler(false); // activé par executeReplay
+    private final HandlerLatency latency = new HandlerLatency(); // -Dvanad.latency=true
     private int totalScheduledEvents = 0; // Compteur manuel des événements
+    private long processedEvents = 0;
 
     /**
      * Point d'entrée principal
@@ -48,24 +138,118 @@ public class VanadSSJReplay extends Simulator {
     public static void main(String[] args) {
         System.out.println("=== VANAD REPLAY AVEC SSJ SIMEVENTS ===");
 
+        // Options: --from=yyyy-MM-dd --to=yyyy-MM-dd (exclue)
+        //          --calls=<fichiers ou glob> --activities=<fichiers ou glob>
+        //          --engine=ssj|native  --pipeline (étages concurrents, noyau natif)
+        //          --checkpoint=<heures simulées> --checkpoint-dir=checkpoints --resume
+        //          --append=<dossier d'état> (ajout quotidien aux datasets existants)
+        //          --query-port=<port> (requêtes de prédiction HTTP locales pendant le replay)
+        //          --metrics-port=<port> (métriques Prometheus locales, /metrics)
+        //          --journal[=<fichier>] (journal binaire des événements, relu par FeatureRederivation)
+        //          --parallel (composantes services–agents indépendantes rejouées sur plusieurs threads)
+        //          --playback=<accélération> --playback-out=<fichier|tcp://hôte:port>
+        //                  (lecture cadencée: événements et lignes émis au rythme des données)
+        Map<String, String> options = parseOptions(args);
+
+        List<QueryServer> servers = List.of();
+        PacedPlayback playback = null;
         try {
             VanadSSJReplay replay = new VanadSSJReplay();
-            replay.executeReplay("data/all_calls_2014_clean.csv", "data/all_activities_2014_clean.csv");
+            servers = QueryServer.open(options, replay);
+            replay.setNativeKernel("native".equals(options.get("engine")));
+            replay.setParallel(options.containsKey("parallel"));
+            if (options.containsKey("playback")) {
+                playback = PacedPlayback.open(Double.parseDouble(options.get("playback")),
+                        options.getOrDefault("playback-out", PacedPlayback.OUTPUT_FILE));
+                replay.setPlayback(playback);
+            }
+            if (options.containsKey("journal")) {
+                String journal = options.get("journal");
+                replay.setJournal(Path.of("true".equals(journal) ? EventJournal.JOURNAL_FILE : journal));
+            }
+            if (options.containsKey("checkpoint") || options.containsKey("resume")) {
+                replay.setCheckpoint(new ReplayCheckpoint(Path.of(options.getOrDefault("checkpoint-dir", "checkpoints")),
+                        Double.parseDouble(options.getOrDefault("checkpoint", "24"))), options.containsKey("resume"));
+            }
+            if (options.containsKey("from") || options.containsKey("to")) {
+                replay.setReplayWindow(
+                        options.containsKey("from") ? LocalDate.parse(options.get("from")).atStartOfDay() : null,
+                        options.containsKey("to") ? LocalDate.parse(options.get("to")).atStartOfDay() : null);
+            }
+            List<String> callsFiles = MergedCallReader.resolveFiles(
+                    options.getOrDefault("calls", "data/all_calls_2014_clean.csv"));
+            List<String> activitiesFiles = MergedCallReader.resolveFiles(
+                    options.getOrDefault("activities", "data/all_activities_2014_clean.csv"));
+            if (options.containsKey("pipeline")) {
+                if (replay.checkpoint != null || options.containsKey("append")) {
+                    throw new IllegalStateException("Points de reprise et ajout quotidien non disponibles en mode pipeline");
+                }
+                new ReplayPipeline(replay).execute(callsFiles, activitiesFiles);
+            } else if (options.containsKey("append")) {
+                replay.setDailyAppend(new DailyAppend(Path.of(options.get("append"))));
+                replay.executeAppend(callsFiles, activitiesFiles);
+            } else {
+                replay.executeReplay(callsFiles, activitiesFiles);
+            }
+            if (playback != null) playback.printReport();
         } catch (Exception e) {
             System.err.println("ERREUR: " + e.getMessage());
             e.printStackTrace();
+        } finally {
+            servers.forEach(QueryServer::close);
+            if (playback != null) {
+                try {
+                    playback.close();
+                } catch (IOException e) {
+                    System.err.println("ERREUR: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Options de ligne de commande de la forme --cle=valeur (--cle seul: "true")
+     */
+    static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) continue;
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                options.put(arg.substring(2), "true");
+            } else {
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
         }
+        return options;
     }
 
     /**
      * Exécution complète du replay
      */
     public void executeReplay(String callsFile, String activitiesFile) throws Exception {
+        executeReplay(List.of(callsFile), List.of(activitiesFile));
+    }
+
+    /**
+     * Exécution complète du replay sur plusieurs fichiers (ex: exports mensuels),
+     * fusionnés à la volée par date de réception
+     */
+    public void executeReplay(List<String> callsFiles, List<String> activitiesFiles) throws Exception {
         chronometer = new Chrono();
         chronometer.init();
+        profiler = new PhaseProfiler(true);
+        profiler.attribute("engine", nativeKernel ? "native" : "ssj");
+        profiler.attribute("calls_files", String.join(";", callsFiles));
 
         // 1. Chargement et préparation des données
-        loadAndPrepareData(callsFile, activitiesFile);
+        loadAndPrepareData(callsFiles, activitiesFiles);
+        profiler.measure("model", () -> {
+            boolean cacheable = callsFiles.size() == 1 && replayFrom == null && replayTo == null;
+            workloadModel = cacheable
+                    ? WorkloadModel.loadOrFit(modelFileFor(callsFiles.get(0)), callsFiles.get(0), historicalCalls, topServices)
+                    : WorkloadModel.fit(historicalCalls, topServices); // fenêtre ou multi-fichiers: pas de cache partagé
+        });
 
         // 2. Debug des temps pour identifier les problèmes
         debugEventTimes();
@@ -74,42 +258,203 @@ public class VanadSSJReplay extends Simulator {
         initializeSSJ();
 
         // 4. Replay avec simulation d'événements
-        runReplaySimulation();
+        profiler.measure("simulation", this::simulate);
 
         // 5. Export des résultats
-        exportResults();
+        profiler.measure("export", () -> {
+            exportResults();
+        });
+
+        if (checkpoint != null) {
+            checkpoint.printReport();
+            checkpoint.clear(); // replay exporté: plus rien à reprendre
+        }
 
         System.out.printf("Replay terminé en %.2f secondes\n", chronometer.getSeconds());
+        profiler.attribute("events", processedEvents);
+        profiler.printReport();
+        profiler.writeJson(RUN_REPORT_FILE);
+        latency.printReport();
+        latency.exportCsv(LATENCY_FILE);
     }
 
     /**
-     * Chargement et préparation des données historiques
+     * Ajout quotidien: reprend l'état de fin de journée, rejoue les appels reçus depuis la
+     * coupure précédente jusqu'au minuit qui suit le dernier (ou la borne --to), ajoute leurs
+     * lignes aux datasets et écrit le nouvel état. Sans état: premier passage, datasets réécrits.
+     * Les appels encore en cours à la coupure sont reportés par valeur dans l'état.
      */
-    private void loadAndPrepareData(String callsFile, String activitiesFile) throws Exception {
-        System.out.println("Chargement des données historiques...");
+    public void executeAppend(List<String> callsFiles, List<String> activitiesFiles) throws Exception {
+        if (simulatedRouting || checkpoint != null) {
+            throw new IllegalStateException("Ajout quotidien disponible pour le replay historique sans points de reprise");
+        }
+        chronometer = new Chrono();
+        chronometer.init();
+        profiler = new PhaseProfiler(true);
+        profiler.attribute("engine", nativeKernel ? "native" : "ssj");
+        profiler.attribute("calls_files", String.join(";", callsFiles));
+        profiler.attribute("mode", "append");
+
+        boolean firstRun = !dailyAppend.exists();
+        if (!firstRun) {
+            appendState = dailyAppend.load();
+            dailyAppend.truncateShards();
+            topServices = dailyAppend.getServices();
+            replayFrom = dailyAppend.getCutoff(); // jours déjà rejoués exclus
+            System.out.printf("Ajout quotidien: reprise à la coupure du %s\n", replayFrom);
+        }
 
-        // Charger tous les appels
-        List<Call> allCalls = CSVReaderUtil.readCalls(callsFile);
-        List<Activity> agentActivities = CSVReaderUtil.readActivities(activitiesFile);
+        loadAndPrepareData(callsFiles, activitiesFiles);
+        if (historicalCalls.isEmpty()) {
+            System.out.println("Aucun nouvel appel: datasets et état inchangés");
+            return;
+        }
+        LocalDateTime lastCall = historicalCalls.get(historicalCalls.size() - 1).getDateReceived();
+        appendCutoffTime = replayTo != null ? replayTo : lastCall.toLocalDate().plusDays(1).atStartOfDay();
 
-        // Identifier TOP 5 services (volume > 200)
-        Map<String, Long> serviceVolumes = allCalls.stream()
-                .filter(call -> call.getQueueName() != null && call.getDateReceived() != null)
-                .collect(Collectors.groupingBy(Call::getQueueName, Collectors.counting()));
+        profiler.measure("model", () -> {
+            if (firstRun) {
+                workloadModel = WorkloadModel.fit(historicalCalls, topServices);
+                dailyAppend.saveModel(workloadModel);
+            } else {
+                simulationStartTime = dailyAppend.getStartTime();
+                workloadModel = dailyAppend.loadModel();
+                readCarriedState(appendState);
+            }
+        });
+        appendCutoff = timeToDouble(appendCutoffTime);
 
-        topServices = serviceVolumes.entrySet().stream()
-                .filter(entry -> entry.getValue() >= 200)
-                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
-                .limit(5)
-                .map(Map.Entry::getKey)
-                .toArray(String[]::new);
+        initializeSSJ();
+
+        profiler.measure("simulation", () -> {
+            runReplaySimulation();
+        });
+
+        profiler.measure("export", () -> {
+            exportRows(capturedStates.size(), this::capturedRow, !firstRun);
+            dailyAppend.save(simulationStartTime, topServices, appendCutoffTime,
+                    List.of(TRAINING_FILE, TEST_FILE), this::writeAppendState);
+        });
+
+        System.out.printf("Ajout terminé en %.2f secondes (coupure %s, %d appels reportés)\n",
+                chronometer.getSeconds(), appendCutoffTime, carriedCount);
+        profiler.attribute("events", processedEvents);
+        profiler.printReport();
+        profiler.writeJson(RUN_REPORT_FILE);
+        latency.printReport();
+        latency.exportCsv(LATENCY_FILE);
+    }
+
+    /**
+     * Préparation sur une table d'appels déjà chargée (réplications, scénarios)
+     */
+    public void prepare(List<Call> calls, String[] services) {
+        topServices = services.clone();
+        historicalCalls = new ArrayList<>(calls);
+        historicalCalls.sort(Comparator.comparing(Call::getDateReceived));
+        simulationStartTime = historicalCalls.isEmpty() ? null : historicalCalls.get(0).getDateReceived();
+    }
+
+    /**
+     * Préparation du mode pipeline: la table d'appels arrive en cours de simulation
+     * ({@link #appendCalls}), la dotation vient de {@link #setAgentSourceCalls}
+     */
+    void preparePipelined(String[] services, LocalDateTime startTime) {
+        topServices = services.clone();
+        historicalCalls = new ArrayList<>();
+        simulationStartTime = startTime;
+        nativeKernel = true;
+    }
+
+    /**
+     * Simulation du mode pipeline sur le thread appelant, événements fournis par la source
+     */
+    void runPipelined(NativeReplayKernel.EventFeed feed) throws InterruptedException {
+        chronometer = new Chrono();
+        initializeSSJ();
+        System.out.println("Démarrage du replay avec simulation d'événements...");
+        kernel.run(new KernelHandler(), feed);
+        if (metrics != null) refreshServiceMetrics();
+        closeJournal();
+        System.out.printf("Simulation terminée (pipeline). États capturés: %d\n", statistics.total().count());
+    }
+
+    /**
+     * Ajoute des appels à la table (mode pipeline, thread de simulation); indices consécutifs
+     */
+    void appendCalls(List<Call> calls) {
+        for (Call call : calls) {
+            callIndices.put(call, historicalCalls.size());
+            historicalCalls.add(call);
+        }
+    }
+
+    /**
+     * Exécution de la simulation seule (sans chargement ni export)
+     */
+    public void runSimulation() {
+        chronometer = new Chrono();
+        initializeSSJ();
+        runReplaySimulation();
+    }
+
+    /**
+     * Simulation seule, composantes rejouées en parallèle puis fusionnées si le replay
+     * parallèle est demandé ({@link #setParallel}) et qu'il y a plusieurs composantes
+     */
+    void runParallelSimulation() throws Exception {
+        chronometer = new Chrono();
+        initializeSSJ();
+        simulate();
+    }
+
+    private void simulate() throws Exception {
+        if (componentReplays != null) {
+            runComponents();
+        } else {
+            runReplaySimulation();
+        }
+    }
+
+    /**
+     * Chargement et préparation des données historiques
+     */
+    void loadAndPrepareData(String callsFile, String activitiesFile) throws Exception {
+        loadAndPrepareData(List.of(callsFile), List.of(activitiesFile));
+    }
+
+    void loadAndPrepareData(List<String> callsFiles, List<String> activitiesFiles) throws Exception {
+        System.out.println("Chargement des données historiques...");
+        List<Activity> agentActivities = new ArrayList<>();
+        profiler.measure("load", () -> {
+            if (appendState == null) {
+                selectTopServices(callsFiles); // ajout quotidien: services fixés au premier passage
+            }
+            for (String activitiesFile : activitiesFiles) {
+                agentActivities.addAll(CSVReaderUtil.readActivities(activitiesFile, replayFrom, replayTo));
+            }
+        });
 
-        // Filtrage plus strict et tri chronologique
-        historicalCalls = allCalls.stream()
-                .filter(call -> Arrays.asList(topServices).contains(call.getQueueName()))
-                .filter(this::isValidCall)
-                .sorted(Comparator.comparing(Call::getDateReceived))
-                .collect(Collectors.toList());
+        // Passe 2: décodage des seuls appels retenus, fusion k-voies par date de réception
+        Set<String> selectedServices = new HashSet<>(Arrays.asList(topServices));
+        historicalCalls = new ArrayList<>();
+        profiler.measure("filter", () -> {
+            try (MergedCallReader reader = new MergedCallReader(callsFiles, selectedServices, replayFrom, replayTo)) {
+                Call call;
+                while ((call = reader.next()) != null) {
+                    if (isValidCall(call)) {
+                        historicalCalls.add(call);
+                    }
+                }
+                if (reader.getOutOfOrder() > 0) {
+                    // Fichier source non trié: tri de secours
+                    System.out.printf("ATTENTION: %d appels hors ordre, tri de la table\n", reader.getOutOfOrder());
+                    historicalCalls.sort(Comparator.comparing(Call::getDateReceived));
+                }
+            }
+        });
+        System.out.printf("[CALL] Nombre total d'appels retenus : %d (%d fichiers)\n",
+                historicalCalls.size(), callsFiles.size());
 
         // Définir le temps de référence pour la simulation
         if (!historicalCalls.isEmpty()) {
@@ -125,6 +470,44 @@ public class VanadSSJReplay extends Simulator {
         System.out.printf("Activités agents: %d\n", agentActivities.size());
     }
 
+    /**
+     * Passe 1: volumes par file, lus dans les index temporels (construits au premier passage)
+     * et sélection des services retenus
+     */
+    String[] selectTopServices(List<String> callsFiles) throws IOException {
+        if (callsFiles.isEmpty()) {
+            throw new IllegalArgumentException("Aucun fichier d'appels");
+        }
+
+        Map<String, Long> serviceVolumes = new HashMap<>();
+        long windowRows = 0;
+        for (String callsFile : callsFiles) {
+            TimeIndex callsIndex = TimeIndex.loadOrBuild(callsFile, 0, 1, 2);
+            callsIndex.getQueueVolumes().forEach((queue, volume) -> serviceVolumes.merge(queue, volume, Long::sum));
+            windowRows += callsIndex.rowCount(replayFrom, replayTo);
+        }
+        if (replayFrom != null || replayTo != null) {
+            System.out.printf("Fenêtre [%s, %s): ~%d lignes\n", replayFrom, replayTo, windowRows);
+        }
+
+        // Identifier TOP 5 services (volume > 200)
+        topServices = serviceVolumes.entrySet().stream()
+                .filter(entry -> entry.getValue() >= 200)
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(5)
+                .map(Map.Entry::getKey)
+                .toArray(String[]::new);
+        return topServices;
+    }
+
+    /**
+     * Fichier cache du modèle de charge, à côté du fichier d'appels
+     */
+    static Path modelFileFor(String callsFile) {
+        return Path.of(callsFile + ".model");
+    }
+
     /**
      * Méthode de debugging pour vérifier les temps
      */
@@ -172,7 +555,7 @@ public class VanadSSJReplay extends Simulator {
     /**
      * Validation d'un appel
      */
-    private boolean isValidCall(Call call) {
+    static boolean isValidCall(Call call) {
         if (call.getDateReceived() == null) return false;
 
         // Vérifier la cohérence temporelle
@@ -199,58 +582,222 @@ public class VanadSSJReplay extends Simulator {
     /**
      * Initialisation des composants SSJ
      */
-    private void initializeSSJ() {
+    void initializeSSJ() {
         System.out.println("Initialisation SSJ SimEvents...");
 
         // Configuration EventList AVANT l'initialisation
+        // Chaque replay possède son propre Simulator (exécutions parallèles possibles)
         EventList eventList = new DoublyLinked();
-        Sim.init(eventList);
+        init(eventList);
 
-        // Initialisation des files d'attente
-        for (String service : topServices) {
-            queues.put(service, new LinkedList<>());
-            recentWaitTimes.put(service, new CircularBuffer<>(RECENT_METRICS_SIZE));
-            recentServiceTimes.put(service, new CircularBuffer<>(RECENT_METRICS_SIZE));
-            serviceMetrics.put(service, new ServiceMetrics(service));
+        if (nativeKernel) {
+            if (simulatedRouting) {
+                throw new IllegalStateException("Le noyau natif ne gère que le replay historique");
+            }
+            kernel = new NativeReplayKernel();
+        }
+        if ((checkpoint != null || dailyAppend != null) && simulatedRouting) {
+            throw new IllegalStateException("Points de reprise disponibles pour le replay historique uniquement");
+        }
+        if (playback != null && (simulatedRouting || live)) {
+            throw new IllegalStateException("Lecture cadencée disponible pour le replay historique uniquement");
+        }
+        if (parallel && (simulatedRouting || live || checkpoint != null || dailyAppend != null || journalFile != null
+                || scenario != null || metrics != null || predictionService != null || stateSink != null
+                || playback != null)) {
+            throw new IllegalStateException("Replay parallèle disponible pour un replay historique complet uniquement");
         }
 
+        initializeServices();
+
         // Initialisation des agents avec compétences
-        initializeAgents();
+        profiler.measure("agents", () -> {
+            initializeAgents();
+        });
 
-        // Tri des appels par date avant programmation
-        historicalCalls.sort(Comparator.comparing(Call::getDateReceived));
+        if (parallel && skillComponents.size() > 1) {
+            profiler.measure("scheduling", () -> {
+                planComponents();
+            });
+            System.out.printf("Agents configurés: %d\n", agents.size());
+            System.out.printf("Événements programmés: %d (%d composantes)\n", totalScheduledEvents,
+                    componentReplays.length);
+            return;
+        }
+
+        profiler.measure("scheduling", () -> {
+            // Tri des appels par date avant programmation
+            historicalCalls.sort(Comparator.comparing(Call::getDateReceived));
+            if (kernel != null || checkpoint != null || dailyAppend != null || playback != null) {
+                callIndices = new IdentityHashMap<>(historicalCalls.size() * 2);
+                for (int i = 0; i < historicalCalls.size(); i++) {
+                    callIndices.put(historicalCalls.get(i), i);
+                }
+            }
+
+            // Reprise: les événements préprogrammés déjà traités ne sont pas reprogrammés
+            DataInputStream resumeState = openResumeState();
+
+            // Programmation des événements
+            scheduleAllEvents();
+
+            if (resumeState != null) {
+                restoreCheckpointState(resumeState);
+            }
+            if (appendState != null) {
+                restoreAppendState(appendState);
+            }
+            if (kernel != null && checkpoint != null) {
+                kernel.setBarrier(checkpoint.nextDue(), this::saveCheckpoint);
+            }
+            if (kernel != null && dailyAppend != null) {
+                kernel.setBarrier(appendCutoff, next -> kernel.stop()); // événements restants reportés
+            }
+        });
 
-        // Programmation des événements
-        scheduleAllEvents();
+        if (journalFile != null) {
+            openJournal();
+        }
+        if (metrics != null) {
+            metrics.bind(topServices, simulationStartTime);
+            refreshServiceMetrics();
+        }
+        if (playback != null) {
+            playback.begin(datasetHeader());
+        }
 
         System.out.printf("Agents configurés: %d\n", agents.size());
         System.out.printf("Événements programmés: %d\n", totalScheduledEvents);
     }
 
+    /**
+     * Codes, files, fenêtres récentes et statistiques des services suivis
+     */
+    private void initializeServices() {
+        statistics = new StreamingStatistics(topServices);
+        capturedStates = new FeatureArena(predictors.size());
+        for (int i = 0; i < topServices.length; i++) {
+            serviceCodes.put(topServices[i], i + 1);
+        }
+        resolveModelServiceTimes();
+
+        // Initialisation des files d'attente
+        queueHeadsByService = new QueueHeadHeap[topServices.length][0];
+        for (String service : topServices) {
+            queues.put(service, new LinkedList<>());
+            recentWaitTimes.put(service, new CircularBuffer<>(RECENT_METRICS_SIZE));
+            recentServiceTimes.put(service, new CircularBuffer<>(RECENT_METRICS_SIZE));
+            serviceMetrics.put(service, new ServiceMetrics(service));
+        }
+    }
+
     /**
      * Initialisation des agents avec leurs compétences
      */
     private void initializeAgents() {
-        Map<Integer, Set<String>> agentSkills = historicalCalls.stream()
-                .filter(call -> call.getAgentNumber() != null)
-                .collect(Collectors.groupingBy(
-                        call -> call.getAgentNumber().intValue(),
-                        Collectors.mapping(Call::getQueueName, Collectors.toSet())
-                ));
+        Map<Integer, Set<String>> agentSkills = agentRoster != null ? rosterSkills() : skillsOf(
+                agentSourceCalls != null ? agentSourceCalls : historicalCalls);
+
+        // Ajout quotidien: compétences connues la veille complétées par celles du jour
+        List<AgentState> restoredAgents = carriedState != null ? carriedState.agents : List.of();
+        for (AgentState restored : restoredAgents) {
+            agentSkills.merge(restored.getAgentId(), restored.skills, (known, previous) -> {
+                Set<String> union = new HashSet<>(known);
+                union.addAll(previous);
+                return union;
+            });
+        }
 
         agentSkills.forEach((agentId, skills) -> {
             AgentState agent = new AgentState(agentId, skills);
             agents.put(agentId, agent);
             agentLastActivityTime.put(agentId, 0.0); // Initialiser à 0
         });
+        for (AgentState restored : restoredAgents) {
+            AgentState agent = agents.get(restored.getAgentId());
+            agent.setBusy(!restored.isAvailable());
+            agent.setLastActivityTime(restored.getLastActivityTime());
+        }
+
+        if (scenario != null) {
+            scenario.apply(agents);
+        }
+
+        busyAgents = countBusyAgents();
+
+        // Départage LIA: ordre de parcours de la table complète, conservé par les composantes
+        int rank = 0;
+        for (AgentState agent : agents.values()) {
+            agent.setRouteRank(rank++);
+        }
+
+        buildQueueHeads();
 
         // Statistiques par service
         for (String service : topServices) {
-            long competentAgents = agents.values().stream()
+            int competent = (int) agents.values().stream()
                     .filter(agent -> agent.canHandle(service))
                     .count();
-            System.out.printf("Service %s: %d agents compétents\n", service, competentAgents);
+            competentAgents.put(service, competent);
+            System.out.printf("Service %s: %d agents compétents\n", service, competent);
         }
+
+        // Composantes services–agents: rejouables indépendamment (--parallel)
+        skillComponents = SkillGraph.components(topServices, agents.values(), historicalCalls);
+        System.out.printf("Composantes services-agents indépendantes: %d\n", skillComponents.size());
+    }
+
+    /**
+     * Un tas des têtes de file par ensemble distinct de compétences suivies, partagé par
+     * les agents qui l'ont (les compétences ne changent plus après l'initialisation)
+     */
+    private void buildQueueHeads() {
+        Map<BitSet, QueueHeadHeap> pools = new HashMap<>();
+        List<List<QueueHeadHeap>> byService = new ArrayList<>();
+        for (int i = 0; i < topServices.length; i++) {
+            byService.add(new ArrayList<>());
+        }
+        agentQueueHeads.clear();
+        for (AgentState agent : agents.values()) {
+            BitSet skills = new BitSet(topServices.length);
+            for (int i = 0; i < topServices.length; i++) {
+                if (agent.canHandle(topServices[i])) skills.set(i);
+            }
+            if (skills.isEmpty()) continue;
+            QueueHeadHeap pool = pools.computeIfAbsent(skills, key -> {
+                QueueHeadHeap heads = new QueueHeadHeap(topServices.length);
+                key.stream().forEach(i -> byService.get(i).add(heads));
+                return heads;
+            });
+            agentQueueHeads.put(agent.getAgentId(), pool);
+        }
+        for (int i = 0; i < topServices.length; i++) {
+            queueHeadsByService[i] = byService.get(i).toArray(new QueueHeadHeap[0]);
+            updateQueueHead(topServices[i]);
+        }
+    }
+
+    private static Map<Integer, Set<String>> skillsOf(List<Call> calls) {
+        return calls.stream()
+                .filter(call -> call.getAgentNumber() != null)
+                .collect(Collectors.groupingBy(
+                        call -> call.getAgentNumber().intValue(),
+                        Collectors.mapping(Call::getQueueName, Collectors.toSet())
+                ));
+    }
+
+    /**
+     * Compétences de la dotation fournie, restreintes aux services retenus
+     */
+    private Map<Integer, Set<String>> rosterSkills() {
+        Set<String> selected = new HashSet<>(Arrays.asList(topServices));
+        Map<Integer, Set<String>> skills = new HashMap<>();
+        agentRoster.forEach((agentId, queuesOfAgent) -> {
+            Set<String> kept = new HashSet<>(queuesOfAgent);
+            kept.retainAll(selected);
+            if (!kept.isEmpty()) skills.put(agentId, kept);
+        });
+        return skills;
     }
 
     /**
@@ -259,11 +806,48 @@ public class VanadSSJReplay extends Simulator {
     private void scheduleAllEvents() {
         System.out.println("Programmation des événements...");
 
-        List<ScheduledEvent> allEvents = new ArrayList<>();
+        if (simulatedRouting) {
+            scheduleArrivalsOnly();
+            return;
+        }
+
+        List<ScheduledEvent> allEvents = plannedEvents();
+
+        double lastTime = chainStart;
+        lastPlannedTime = chainStart;
+        for (ScheduledEvent event : allEvents) {
+            double eventTime = Math.max(event.time(), lastTime + MIN_EVENT_INTERVAL);
+
+            try {
+                if (totalScheduledEvents < resumeCursor) {
+                    // déjà traité avant le point de reprise: seul l'espacement est recalculé
+                } else if (kernel != null) {
+                    kernel.plan(eventTime, event.type(), event.call());
+                } else {
+                    toEvent(event).schedule(eventTime);
+                }
+                lastTime = eventTime;
+                totalScheduledEvents++;
+            } catch (Exception e) {
+                System.err.printf("Failed to schedule event at time %f: %s\n",
+                        eventTime, e.getMessage());
+            }
+        }
+
+        System.out.printf("Successfully scheduled %d events\n", totalScheduledEvents);
+    }
+
+    /**
+     * Événements préprogrammés (temps bruts), triés par temps
+     */
+    private List<ScheduledEvent> plannedEvents() {
+        // Reportés de la veille en tête: à temps égal, avant ceux des nouveaux appels
+        List<ScheduledEvent> allEvents = new ArrayList<>(carriedEvents);
 
 
         // collect et validation des évènements
-        for (Call call : historicalCalls) {
+        for (int i = carriedCount; i < historicalCalls.size(); i++) {
+            Call call = historicalCalls.get(i);
             try {
                 double arrivalTime = timeToDouble(call.getDateReceived());
 
@@ -272,19 +856,19 @@ public class VanadSSJReplay extends Simulator {
                     continue;
                 }
 
-                allEvents.add(new ScheduledEvent(arrivalTime, new CallArrivalEvent(call)));
+                allEvents.add(new ScheduledEvent(arrivalTime, NativeReplayKernel.ARRIVAL, i));
 
                 if (call.getAnswered() != null) {
                     double answerTime = timeToDouble(call.getAnswered());
                     if (answerTime >= arrivalTime) {
-                        allEvents.add(new ScheduledEvent(answerTime, new CallAnsweredEvent(call)));
+                        allEvents.add(new ScheduledEvent(answerTime, NativeReplayKernel.ANSWERED, i));
                     }
                 }
 
                 if (call.getHangup() != null) {
                     double hangupTime = timeToDouble(call.getHangup());
                     if (hangupTime >= arrivalTime) {
-                        allEvents.add(new ScheduledEvent(hangupTime, new CallHangupEvent(call)));
+                        allEvents.add(new ScheduledEvent(hangupTime, NativeReplayKernel.HANGUP, i));
                     }
                 }
 
@@ -295,22 +879,37 @@ public class VanadSSJReplay extends Simulator {
 
         //
         allEvents.sort(Comparator.comparing(ScheduledEvent::time));
+        return allEvents;
+    }
 
-        double lastTime = 0.0;
-        for (ScheduledEvent event : allEvents) {
-            double eventTime = Math.max(event.time(), lastTime + MIN_EVENT_INTERVAL);
+    /**
+     * Événement SSJ correspondant à un événement programmé
+     */
+    private Event toEvent(ScheduledEvent event) {
+        Call call = historicalCalls.get(event.call());
+        return switch (event.type()) {
+            case NativeReplayKernel.ARRIVAL -> new CallArrivalEvent(call);
+            case NativeReplayKernel.ANSWERED -> new CallAnsweredEvent(call);
+            default -> new CallHangupEvent(call);
+        };
+    }
 
-            try {
-                event.event().schedule(eventTime);
-                lastTime = eventTime;
-                totalScheduledEvents++;
-            } catch (Exception e) {
-                System.err.printf("Failed to schedule event at time %f: %s\n",
-                        eventTime, e.getMessage());
-            }
+    /**
+     * Mode simulé: seules les arrivées sont programmées, réponses et raccrochés
+     * découlent du routage LIA, des durées de service et des patiences
+     */
+    private void scheduleArrivalsOnly() {
+        for (Call call : historicalCalls) {
+            double arrivalTime = timeToDouble(call.getDateReceived());
+            if (arrivalTime < 0) continue;
+            new SimulatedArrivalEvent(call).schedule(arrivalTime);
+            totalScheduledEvents++;
         }
-
-        System.out.printf("Successfully scheduled %d events\n", totalScheduledEvents);
+        if (scenario != null && scenario.hasCaps()) {
+            int secondsIntoHour = simulationStartTime.getMinute() * 60 + simulationStartTime.getSecond();
+            new CapChangeEvent().schedule(1.0 - secondsIntoHour / 3600.0); // premier changement d'heure
+        }
+        System.out.printf("Successfully scheduled %d arrivals (mode simulé)\n", totalScheduledEvents);
     }
 
 
@@ -321,7 +920,11 @@ public class VanadSSJReplay extends Simulator {
         if (simulationStartTime == null) {
             throw new IllegalStateException("simulationStartTime n'est pas initialisé");
         }
-        return ChronoUnit.SECONDS.between(simulationStartTime, time) / 3600.0;
+        return hoursSince(simulationStartTime, time);
+    }
+
+    static double hoursSince(LocalDateTime start, LocalDateTime time) {
+        return ChronoUnit.SECONDS.between(start, time) / 3600.0;
     }
 
     /**
@@ -331,280 +934,1490 @@ public class VanadSSJReplay extends Simulator {
         System.out.println("Démarrage du replay avec simulation d'événements...");
         chronometer.init();
 
-        Sim.start();
+        if (kernel != null) {
+            kernel.run(new KernelHandler());
+        } else {
+            start();
+        }
+        if (metrics != null) refreshServiceMetrics();
+        closeJournal();
 
-        System.out.printf("Simulation terminée. États capturés: %d\n", capturedStates.size());
+        System.out.printf("Simulation terminée (%s). États capturés: %d\n",
+                kernel != null ? "noyau natif" : "SSJ", statistics.total().count());
     }
 
     /**
-     * Export des résultats
+     * Export des résultats: lignes déversées aux points de reprise (relues sur disque) puis
+     * enregistrements conservés, dans l'ordre chronologique
      */
     private void exportResults() throws IOException {
-        System.out.println("Export des datasets...");
+        try (RowShard spilled = checkpoint != null ? checkpoint.openRows() : null) {
+            int spilledCount = spilled != null ? spilled.size() : 0;
+            exportRows(spilledCount + capturedStates.size(), index -> index < spilledCount
+                    ? spilled.row(index) : capturedRow(index - spilledCount), false);
+        }
+    }
+
+    /**
+     * Ligne d'un enregistrement conservé
+     */
+    private String capturedRow(int record) {
+        return formatRow(capturedStates, record);
+    }
+
+    /**
+     * Mélange des indices (même ordre que {@code Collections.shuffle} sur les lignes), division,
+     * écriture ligne à ligne. Avec {@code append}, les lignes sont ajoutées à la fin des datasets
+     * existants (ajout quotidien).
+     */
+    void exportRows(int count, DatasetRows rows, boolean append) throws IOException {
+        System.out.println(append ? "Ajout aux datasets..." : "Export des datasets...");
 
-        if (capturedStates.isEmpty()) {
+        if (count == 0 && !append) {
             throw new IllegalStateException("Aucun état capturé!");
         }
 
         // Mélange pour éviter biais temporels
-        Collections.shuffle(capturedStates, new Random(42));
+        int[] order = shuffledIndices(count, new Random(42));
 
         // Division train/test
-        int trainSize = (int) (capturedStates.size() * TRAINING_SPLIT);
-        List<SystemState> trainData = capturedStates.subList(0, trainSize);
-        List<SystemState> testData = capturedStates.subList(trainSize, capturedStates.size());
+        int trainSize = (int) (count * TRAINING_SPLIT);
 
         // Export
-        exportDataset(trainData, "vanad_training_ssj.csv");
-        exportDataset(testData, "vanad_test_ssj.csv");
+        writeRows(rows, order, 0, trainSize, TRAINING_FILE, append);
+        writeRows(rows, order, trainSize, count, TEST_FILE, append);
 
         // Statistiques
         printStatistics();
+        statistics.exportHourly("vanad_statistics_ssj.csv");
 
-        System.out.printf("Datasets exportés: %d entraînement, %d test\n",
-                trainData.size(), testData.size());
+        System.out.printf("%s: %d entraînement, %d test\n", append ? "Lignes ajoutées" : "Datasets exportés",
+                trainSize, count - trainSize);
     }
 
     /**
-     * Export d'un dataset au format CSV
+     * Permutation 0..count-1 tirée comme {@code Collections.shuffle(list, random)} sur une liste
+     * à accès direct: la ligne en position i est {@code rows.row(order[i])}
      */
-    private void exportDataset(List<SystemState> data, String filename) throws IOException {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(filename))) {
-            // En-tête selon les spécifications (ANN sera calculé en Python)
-            writer.println("T,qT,l1,l2,l3,l4,t_hour,t_day_of_week,s,P_LES,P_Avg_LES,W");
-
-            for (SystemState state : data) {
-                writer.printf(Locale.US, "%d,%d,%d,%d,%d,%d,%d,%d,%d,%.2f,%.2f,%.2f%n",
-                        encodeService(state.getServiceType()),
-                        state.getQueueLength(),
-                        getOtherQueueLength(state, 0),
-                        getOtherQueueLength(state, 1),
-                        getOtherQueueLength(state, 2),
-                        getOtherQueueLength(state, 3),
-                        state.getArrivalTime().getHour(),
-                        state.getArrivalTime().getDayOfWeek().getValue(),
-                        state.getAvailableAgents(),
-                        state.getLesPredictor(),
-                        state.getAvgLesPredictor(),
-                        state.getActualWaitTime()
-                );
+    static int[] shuffledIndices(int count, Random random) {
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        for (int i = count; i > 1; i--) {
+            int j = random.nextInt(i);
+            int swapped = order[i - 1];
+            order[i - 1] = order[j];
+            order[j] = swapped;
+        }
+        return order;
+    }
+
+    /**
+     * Export d'un dataset au format CSV
+     */
+    private void exportDataset(FeatureArena data, String filename) throws IOException {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(filename))) {
+            writer.println(datasetHeader());
+            for (int record = 0; record < data.size(); record++) {
+                writer.println(formatRow(data, record));
+            }
+        }
+    }
+
+    private void writeRows(DatasetRows rows, int[] order, int from, int to, String filename, boolean append)
+            throws IOException {
+        boolean header = !append || !Files.exists(Path.of(filename)) || Files.size(Path.of(filename)) == 0;
+        try (PrintWriter writer = new PrintWriter(new BufferedWriter(new FileWriter(filename, append), 1 << 16))) {
+            if (header) {
+                writer.println(datasetHeader());
+            }
+            for (int i = from; i < to; i++) {
+                writer.println(rows.row(order[i]));
+            }
+        }
+        if (metrics != null) metrics.rowsWritten(to - from);
+    }
+
+    /**
+     * En-tête selon les spécifications (ANN sera calculé en Python)
+     * Prédicteurs supplémentaires insérés avant la cible W
+     */
+    String datasetHeader() {
+        StringBuilder header = new StringBuilder("T,qT,l1,l2,l3,l4,t_hour,t_day_of_week,s,P_LES,P_Avg_LES");
+        for (int i = 2; i < predictors.size(); i++) {
+            header.append(',').append(predictors.get(i).name());
+        }
+        return header.append(",W").toString();
+    }
+
+    /**
+     * Ligne CSV d'un enregistrement (sans fin de ligne); lit l'arène sans la modifier, appelable
+     * hors du thread de simulation sur une arène qui ne reçoit plus d'ajouts
+     */
+    String formatRow(FeatureArena features, int record) {
+        StringBuilder row = new StringBuilder(String.format(Locale.US, "%d,%d,%d,%d,%d,%d,%d,%d,%d,%.2f,%.2f,",
+                features.service(record),
+                features.queueLength(record),
+                features.otherQueue(record, 0),
+                features.otherQueue(record, 1),
+                features.otherQueue(record, 2),
+                features.otherQueue(record, 3),
+                features.hour(record),
+                features.dayOfWeek(record),
+                features.availableAgents(record),
+                features.predictor(record, 0),
+                features.predictor(record, 1)
+        ));
+        for (int i = 2; i < predictors.size(); i++) {
+            row.append(String.format(Locale.US, "%.2f,",
+                    i < features.predictorCount() ? features.predictor(record, i) : 0.0));
+        }
+        return row.append(String.format(Locale.US, "%.2f", features.waitTime(record))).toString();
+    }
+
+    private int encodeService(String service) {
+        return serviceCodes.getOrDefault(service, 0);
+    }
+
+    /**
+     * Export des états capturés dans leur ordre chronologique (réplications)
+     */
+    void exportCapturedStates(String filename) throws IOException {
+        exportDataset(capturedStates, filename);
+    }
+
+    /**
+     * Résumé de l'exécution pour agrégation entre réplications
+     */
+    public ReplicationResult summarize(int replication) {
+        StreamingStatistics.Cell total = statistics.total();
+
+        Map<String, Double> serviceAvgWait = new LinkedHashMap<>();
+        for (String service : topServices) {
+            serviceAvgWait.put(service, statistics.service(service).meanWait());
+        }
+
+        int calls = historicalCalls.size();
+        double abandonRate = calls > 0 ? abandonedCalls / (double) calls : 0.0;
+        return new ReplicationResult(replication, calls, (int) total.count(),
+                total.meanWait(), total.meanQueue(), abandonRate, serviceAvgWait);
+    }
+
+    /**
+     * Affichage des statistiques
+     */
+    void printStatistics() {
+        System.out.println("\n=== STATISTIQUES REPLAY SSJ ===");
+        statistics.printReport();
+    }
+
+    // ========================
+    // CONFIGURATION
+    // ========================
+
+    public void setSimulatedRouting(boolean simulatedRouting) {
+        this.simulatedRouting = simulatedRouting;
+    }
+
+    public void setVerbose(boolean verbose) {
+        this.verbose = verbose;
+    }
+
+    public void setWorkloadModel(WorkloadModel workloadModel) {
+        this.workloadModel = workloadModel;
+        if (modelServiceTimes != null) resolveModelServiceTimes();
+    }
+
+    /**
+     * Temps de service moyens du modèle par service suivi (valeur par défaut hors modèle),
+     * résolus une fois plutôt qu'à chaque arrivée
+     */
+    private void resolveModelServiceTimes() {
+        modelServiceTimes = new double[topServices.length];
+        for (int i = 0; i < topServices.length; i++) {
+            int index = workloadModel != null ? workloadModel.serviceIndex(topServices[i]) : -1;
+            modelServiceTimes[i] = index >= 0 ? workloadModel.getMeanServiceTime(index) : WorkloadModel.DEFAULT_SERVICE_TIME;
+        }
+    }
+
+    /**
+     * Ajoute un prédicteur: une colonne supplémentaire dans le dataset
+     */
+    public void registerPredictor(WaitPredictor predictor) {
+        predictors.add(predictor);
+    }
+
+    /**
+     * Restreint le replay aux appels reçus dans [from, to) (filtré à la lecture)
+     */
+    public void setReplayWindow(LocalDateTime from, LocalDateTime to) {
+        this.replayFrom = from;
+        this.replayTo = to;
+    }
+
+    /**
+     * Noyau natif au lieu de la liste d'événements SSJ (replay historique uniquement)
+     */
+    public void setNativeKernel(boolean nativeKernel) {
+        this.nativeKernel = nativeKernel;
+    }
+
+    LocalDateTime getReplayFrom() {
+        return replayFrom;
+    }
+
+    LocalDateTime getReplayTo() {
+        return replayTo;
+    }
+
+    public void setRetainStates(boolean retainStates) {
+        this.retainStates = retainStates;
+    }
+
+    public HandlerLatency getLatency() {
+        return latency;
+    }
+
+    public StreamingStatistics getStatistics() {
+        return statistics;
+    }
+
+    public void setScenario(StaffingScenario scenario) {
+        this.scenario = scenario;
+    }
+
+    /**
+     * Dotation connue d'avance (agent -> files), prioritaire sur la déduction depuis les appels
+     */
+    public void setAgentRoster(Map<Integer, Set<String>> agentRoster) {
+        this.agentRoster = agentRoster;
+    }
+
+    /**
+     * Points de reprise périodiques; avec {@code resume}, repart du dernier instantané
+     * (mêmes fichiers et même fenêtre que l'exécution interrompue). Les états capturés
+     * sont déversés en lignes à chaque point de reprise.
+     */
+    public void setCheckpoint(ReplayCheckpoint checkpoint, boolean resume) {
+        this.checkpoint = checkpoint;
+        this.resume = resume;
+    }
+
+    /**
+     * Ajout quotidien ({@link #executeAppend}): état de fin de journée dans le dossier donné
+     */
+    public void setDailyAppend(DailyAppend dailyAppend) {
+        this.dailyAppend = dailyAppend;
+    }
+
+    /**
+     * Mode flux ({@link LiveIngest}): les réponses et raccrochés ne sont pas connus à l'arrivée,
+     * l'état capturé attend l'événement qui fixe W (même valeur que le replay historique)
+     */
+    void setLive(boolean live) {
+        this.live = live;
+    }
+
+    /**
+     * États capturés dont W n'est pas encore connu (mode flux)
+     */
+    int getPendingStateCount() {
+        return pendingStates.size();
+    }
+
+    /**
+     * Journal binaire des événements traités ({@link #rederive}); replay historique complet seulement
+     */
+    public void setJournal(Path journalFile) {
+        this.journalFile = journalFile;
+    }
+
+    /**
+     * Composantes services–agents indépendantes rejouées en parallèle puis fusionnées par
+     * temps (datasets identiques au replay séquentiel); replay historique complet seulement
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    /**
+     * Lecture cadencée: chaque événement attend son échéance sur l'horloge murale
+     */
+    public void setPlayback(PacedPlayback playback) {
+        this.playback = playback;
+    }
+
+    public void setMetrics(ReplayMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    ReplayMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Requêtes concurrentes: un instantané immuable est publié après chaque événement
+     */
+    public void setPredictionService(PredictionService predictionService) {
+        this.predictionService = predictionService;
+    }
+
+    /**
+     * Destinataire des états valides à la place de la liste conservée (mode pipeline)
+     */
+    void setStateSink(ObjIntConsumer<FeatureArena> stateSink) {
+        this.stateSink = stateSink;
+    }
+
+    public void setAgentSourceCalls(List<Call> agentSourceCalls) {
+        this.agentSourceCalls = agentSourceCalls;
+    }
+
+    /**
+     * Événements traités par le replay historique (débit des moteurs)
+     */
+    public long getProcessedEvents() {
+        return processedEvents;
+    }
+
+    Map<Integer, AgentState> getAgents() {
+        return agents;
+    }
+
+    LinkedList<Call> getQueue(String service) {
+        return queues.get(service);
+    }
+
+    /**
+     * Composantes rejouées séparément (0 sans replay parallèle)
+     */
+    int getComponentCount() {
+        return componentReplays != null ? componentReplays.length : 0;
+    }
+
+    FeatureArena getCapturedStates() {
+        return capturedStates;
+    }
+
+    List<Call> getHistoricalCalls() {
+        return historicalCalls;
+    }
+
+    String[] getTopServices() {
+        return topServices;
+    }
+
+    // ========================
+    // CLASSES UTILITAIRES
+    // ========================
+
+    /**
+         * Classe pour gérer les événements programmés (type NativeReplayKernel, indice d'appel)
+         */
+        record ScheduledEvent(double time, byte type, int call) {
+    }
+
+    /**
+     * Réponse routée en attente (événement dynamique à restaurer à la reprise)
+     */
+    record RoutedAnswer(int call, int agent, double time) {
+    }
+
+    // ========================
+    // ÉVÉNEMENTS SSJ
+    // ========================
+
+    /**
+     * Événement d'arrivée d'appel
+     */
+    class CallArrivalEvent extends Event {
+        private final Call call;
+
+        public CallArrivalEvent(Call call) {
+            super(VanadSSJReplay.this);
+            this.call = call;
+        }
+
+        @Override
+        public void actions() {
+            onCallArrival(call);
+        }
+    }
+
+    /**
+     * Événement de réponse à un appel
+     */
+    //  CallAnsweredEvent pour gérer le routage
+    class CallAnsweredEvent extends Event {
+        private final Call call;
+        private final Integer assignedAgentId;
+
+        public CallAnsweredEvent(Call call) {
+            super(VanadSSJReplay.this);
+            this.call = call;
+            this.assignedAgentId = null;
+        }
+
+        public CallAnsweredEvent(Call call, Integer assignedAgentId) {
+            super(VanadSSJReplay.this);
+            this.call = call;
+            this.assignedAgentId = assignedAgentId;
+        }
+
+        @Override
+        public void actions() {
+            onCallAnswered(call, assignedAgentId);
+        }
+    }
+
+    // 8. Modifier CallHangupEvent pour déclencher le routage
+    class CallHangupEvent extends Event {
+        private final Call call;
+
+        public CallHangupEvent(Call call) {
+            super(VanadSSJReplay.this);
+            this.call = call;
+        }
+
+        @Override
+        public void actions() {
+            onCallHangup(call);
+        }
+    }
+
+    /**
+     * Gestionnaires du noyau natif: mêmes traitements que les événements SSJ
+     */
+    private class KernelHandler implements NativeReplayKernel.EventHandler {
+        @Override
+        public void arrival(int call) {
+            onCallArrival(historicalCalls.get(call));
+        }
+
+        @Override
+        public void answered(int call, int agent) {
+            onCallAnswered(historicalCalls.get(call), agent == NativeReplayKernel.NO_AGENT ? null : agent);
+        }
+
+        @Override
+        public void hangup(int call) {
+            onCallHangup(historicalCalls.get(call));
+        }
+    }
+
+    // ========================
+    // TRAITEMENTS DU REPLAY HISTORIQUE (communs aux deux moteurs)
+    // ========================
+
+    private void onCallArrival(Call call) {
+        long start = HandlerLatency.start();
+        processedEvents++;
+        plannedConsumed++;
+        lastPlannedTime = now();
+        String serviceType = call.getQueueName();
+        if (playback != null) pace(call, "received", call.getDateReceived());
+
+        // CAPTURE DE L'ÉTAT AVANT MODIFICATION
+        SystemState state = live ? captureSystemState(call) : captureSystemState(call, scratchState);
+        double headOfLineWait = predictorContext.getHeadOfLineWait();
+
+        // ROUTAGE SELON SPÉCIFICATIONS VANAD
+        long routeStart = HandlerLatency.start();
+        boolean routed = routeCall(call);
+        latency.stop(HandlerLatency.Probe.ROUTE, routeStart);
+
+        if (!routed) {
+            // Pas d'agent disponible -> file d'attente (FCFS)
+            queues.get(serviceType).offer(call);
+            updateQueueHead(serviceType);
+        }
+        // Si routé, l'appel n'entre pas en file d'attente
+
+        // Sauvegarde si valide (flux: en attente de la réponse ou de l'abandon)
+        if (live) {
+            pendingStates.put(call, state);
+        } else if (isValidState(state)) {
+            recordState(state);
+        }
+
+        // Mise à jour métriques
+        serviceMetrics.get(serviceType).recordArrival();
+        if (journal != null) journalArrival(call, state, headOfLineWait);
+        if (predictionService != null) publishSnapshot();
+        if (metrics != null) recordMetrics(ReplayMetrics.EventType.ARRIVAL);
+        latency.stop(HandlerLatency.Probe.ARRIVAL, start);
+    }
+
+    private void onCallAnswered(Call call, Integer assignedAgentId) {
+        long start = HandlerLatency.start();
+        processedEvents++;
+        if (assignedAgentId == null) {
+            plannedConsumed++;
+            lastPlannedTime = now();
+            if (live) {
+                completeState(call, Math.max(0, ChronoUnit.SECONDS.between(call.getDateReceived(), call.getAnswered())));
+            }
+        } else if (checkpoint != null) {
+            pendingRoutes.remove(call);
+        }
+        String serviceType = call.getQueueName();
+        if (playback != null) {
+            if (assignedAgentId == null) {
+                pace(call, "answered", call.getAnswered());
+            } else {
+                playback.await(now()); // réponse routée: interne au replay, cadencée sans être émise
+            }
+        }
+
+        boolean removed = removeFromQueue(call);
+
+        if (!removed && verbose) {
+            System.out.println("Call was routed directly, not queued");
+        }
+
+        // Utiliser l'agent assigné ou celui du fichier de données
+        Integer agentId = assignedAgentId != null ? assignedAgentId :
+                (call.getAgentNumber() != null ? call.getAgentNumber().intValue() : null);
+
+        if (agentId != null) {
+            AgentState agent = agents.get(agentId);
+            if (agent != null) {
+                occupy(agent, true, now());
+            }
+        }
+
+        serviceMetrics.get(serviceType).recordAnswer();
+        if (journal != null) journalAnswered(call, assignedAgentId != null);
+        if (predictionService != null) publishSnapshot();
+        if (metrics != null) recordMetrics(ReplayMetrics.EventType.ANSWERED);
+        latency.stop(HandlerLatency.Probe.ANSWERED, start);
+    }
+
+    /**
+     * Lecture cadencée: attend l'échéance murale de l'événement puis l'émet avec son horodatage
+     * historique (identifiant d'appel: indice dans la table du replay)
+     */
+    private void pace(Call call, String type, LocalDateTime time) {
+        playback.await(now());
+        playback.event(type, callIndices.get(call), time, call.getQueueName(),
+                call.getAgentNumber() != null ? call.getAgentNumber().intValue() : null);
+    }
+
+    /**
+     * Retire l'appel de sa file s'il y attend encore (recherche linéaire)
+     */
+    boolean removeFromQueue(Call call) {
+        //  remove by call ID if available
+        Iterator<Call> iterator = queues.get(call.getQueueName()).iterator();
+        while (iterator.hasNext()) {
+            Call queuedCall = iterator.next();
+            if (isSameCall(queuedCall, call)) {
+                iterator.remove();
+                updateQueueHead(call.getQueueName());
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isSameCall(Call c1, Call c2) {
+        return c1.getDateReceived().equals(c2.getDateReceived()) &&
+                c1.getQueueName().equals(c2.getQueueName()) &&
+                Objects.equals(c1.getAgentNumber(), c2.getAgentNumber());
+    }
+
+    private void onCallHangup(Call call) {
+        long start = HandlerLatency.start();
+        processedEvents++;
+        plannedConsumed++;
+        lastPlannedTime = now();
+        String serviceType = call.getQueueName();
+        if (playback != null) pace(call, "hangup", call.getHangup());
+        if (live && call.getAnswered() == null) {
+            completeState(call, Math.max(0, ChronoUnit.SECONDS.between(call.getDateReceived(), call.getHangup())));
+        }
+
+        // Libération agent
+        AgentState released = null;
+        if (call.getAgentNumber() != null) {
+            released = agents.get(call.getAgentNumber().intValue());
+            if (released != null) {
+                occupy(released, false, now());
+            }
+        }
+
+        // Enregistrement métriques
+        recordCallMetrics(call);
+        serviceMetrics.get(serviceType).recordHangup();
+
+        // ROUTAGE: l'agent libéré prend l'appel le plus ancien de ses files
+        if (released != null) {
+            routeToReleasedAgent(released);
+        } else {
+            routeNextCallInQueue(serviceType); // abandon: aucun agent libéré
+        }
+        if (journal != null) journalHangup(call);
+        if (predictionService != null) publishSnapshot();
+        if (metrics != null) recordMetrics(ReplayMetrics.EventType.HANGUP);
+        latency.stop(HandlerLatency.Probe.HANGUP, start);
+    }
+
+    // 9. Méthode pour router le prochain appel en file
+    private void routeNextCallInQueue(String serviceType) {
+        LinkedList<Call> queue = queues.get(serviceType);
+
+        if (!queue.isEmpty()) {
+            AgentState availableAgent = findLongestIdleAgent(serviceType);
+
+            if (availableAgent != null) {
+                assignQueuedCall(serviceType, availableAgent);
+            }
+        }
+    }
+
+    /**
+     * Agent libéré: appel attendant depuis le plus longtemps parmi toutes ses compétences
+     * (racine du tas des têtes de ses files, sans parcourir les files). En mode simulé, le
+     * service commence aussitôt; sinon la réponse est programmée.
+     */
+    private void routeToReleasedAgent(AgentState agent) {
+        QueueHeadHeap heads = agentQueueHeads.get(agent.getAgentId());
+        if (heads == null || !agent.isAvailable() || !capAllowsBusyAgent()) return;
+        int service = heads.peek();
+        if (service < 0) return;
+        String serviceType = topServices[service];
+        if (simulatedRouting) {
+            startService(queues.get(serviceType).poll(), agent); // FCFS
+            updateQueueHead(serviceType);
+        } else {
+            assignQueuedCall(serviceType, agent);
+        }
+    }
+
+    /**
+     * Mode simulé: les agents libres, du plus longtemps inactif au plus récent, prennent les
+     * appels en file tant que le plafond horaire le permet
+     */
+    private void drainQueues() {
+        List<AgentState> idle = agents.values().stream()
+                .filter(AgentState::isAvailable)
+                .sorted(Comparator.comparingDouble(AgentState::getLastActivityTime))
+                .toList();
+        for (AgentState agent : idle) {
+            if (!capAllowsBusyAgent()) break;
+            routeToReleasedAgent(agent);
+        }
+    }
+
+    /**
+     * Tête de la file du service confiée à l'agent (FCFS), réponse programmée
+     */
+    private void assignQueuedCall(String serviceType, AgentState agent) {
+        Call nextCall = queues.get(serviceType).poll();
+        updateQueueHead(serviceType);
+
+        // Router l'appel
+        occupy(agent, true, now());
+
+        // Programmer la réponse immédiate ou selon les données historiques
+        double answerDelay = 0.1; // Délai minimal pour répondre (délai relatif)
+        if (checkpoint != null) {
+            pendingRoutes.put(nextCall, new RoutedAnswer(callIndices.get(nextCall),
+                    agent.getAgentId(), now() + answerDelay));
+        }
+        if (componentPlan != null) {
+            // après tous les préprogrammés à temps égal, puis dans l'ordre des raccrochés qui routent
+            routedOrders.put(nextCall, componentPlan.total + journalOrder());
+        }
+        if (kernel != null) {
+            kernel.schedule(answerDelay, NativeReplayKernel.ANSWERED,
+                    callIndices.get(nextCall), agent.getAgentId());
+        } else {
+            new CallAnsweredEvent(nextCall, agent.getAgentId()).schedule(answerDelay);
+        }
+    }
+
+    /**
+     * Reporte la tête courante de la file du service dans les tas qui le contiennent
+     */
+    private void updateQueueHead(String serviceType) {
+        int service = serviceCodes.get(serviceType) - 1;
+        Call head = queues.get(serviceType).peek();
+        double headTime = head == null ? 0.0 : timeToDouble(head.getDateReceived());
+        for (QueueHeadHeap heads : queueHeadsByService[service]) {
+            if (head == null) {
+                heads.remove(service);
+            } else {
+                heads.update(service, headTime);
+            }
+        }
+    }
+
+    // ========================
+    // POINTS DE REPRISE
+    // ========================
+
+    /**
+     * Boucle SSJ: point de reprise entre deux événements, avant le premier qui franchit l'échéance
+     */
+    @Override
+    protected Event removeFirstEvent() {
+        if (checkpoint != null && !eventList.isEmpty() && checkpoint.isDue(eventList.getFirst().time())) {
+            saveCheckpoint(eventList.getFirst().time());
+        }
+        if (!eventList.isEmpty() && eventList.getFirst().time() >= appendCutoff) {
+            return null; // coupure de l'ajout quotidien: événements restants reportés
+        }
+        return super.removeFirstEvent();
+    }
+
+    /**
+     * Déverse les lignes capturées depuis le point précédent puis écrit l'instantané
+     */
+    private void saveCheckpoint(double nextEventTime) {
+        try {
+            checkpoint.save(capturedStates.size(), this::capturedRow, nextEventTime, this::writeCheckpointState);
+            capturedStates.clear();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Échec du point de reprise", e);
+        }
+        if (kernel != null) {
+            kernel.setBarrier(checkpoint.nextDue(), this::saveCheckpoint);
+        }
+        if (verbose) {
+            System.out.printf("Point de reprise à t=%.2f h (%d événements)\n", nextEventTime, processedEvents);
+        }
+    }
+
+    /**
+     * Instantané: empreinte des données, curseur d'entrée, événements dynamiques en attente,
+     * files (indices d'appels), agents, fenêtres récentes, métriques, prédicteurs, statistiques
+     */
+    private void writeCheckpointState(DataOutput out) throws IOException {
+        CheckpointState state = new CheckpointState(historicalCalls.size(), topServices, totalScheduledEvents,
+                plannedConsumed, now(), processedEvents);
+        state.routes.addAll(pendingRoutes.values());
+        for (String service : topServices) {
+            state.queues.add(queues.get(service).stream().mapToInt(callIndices::get).toArray());
+        }
+        List<Integer> agentIds = new ArrayList<>(agents.keySet());
+        Collections.sort(agentIds);
+        for (int agentId : agentIds) {
+            AgentState agent = agents.get(agentId);
+            state.agents.add(new CheckpointState.Agent(agentId, !agent.isAvailable(), agent.getLastActivityTime()));
+        }
+        state.write(out);
+        writeServiceState(out);
+    }
+
+    /**
+     * Fenêtres récentes, métriques, prédicteurs et statistiques (points de reprise, ajout quotidien)
+     */
+    private void writeServiceState(DataOutput out) throws IOException {
+        for (String service : topServices) {
+            recentWaitTimes.get(service).writeState(out);
+            recentServiceTimes.get(service).writeState(out);
+            ServiceMetrics metrics = serviceMetrics.get(service);
+            out.writeInt(metrics.arrivals);
+            out.writeInt(metrics.answers);
+            out.writeInt(metrics.hangups);
+        }
+
+        out.writeInt(predictors.size());
+        for (WaitPredictor predictor : predictors) {
+            out.writeUTF(predictor.name());
+            predictor.writeState(out);
+        }
+        statistics.writeState(out);
+    }
+
+    private void readServiceState(DataInput in) throws IOException {
+        for (String service : topServices) {
+            recentWaitTimes.get(service).readState(in, Double::valueOf);
+            recentServiceTimes.get(service).readState(in, Double::valueOf);
+            ServiceMetrics metrics = serviceMetrics.get(service);
+            metrics.arrivals = in.readInt();
+            metrics.answers = in.readInt();
+            metrics.hangups = in.readInt();
+        }
+
+        int predictorCount = in.readInt();
+        if (predictorCount != predictors.size()) {
+            throw new IllegalStateException("État incompatible: prédicteurs différents");
+        }
+        for (WaitPredictor predictor : predictors) {
+            if (!predictor.name().equals(in.readUTF())) {
+                throw new IllegalStateException("État incompatible: prédicteur " + predictor.name());
+            }
+            predictor.readState(in);
+        }
+        statistics.readState(in);
+    }
+
+    /**
+     * Reprise demandée: charge le dernier instantané et fixe le curseur d'entrée
+     * (null sans instantané: départ à zéro)
+     */
+    private DataInputStream openResumeState() {
+        if (checkpoint == null || !resume) return null;
+        if (!checkpoint.exists()) {
+            System.out.println("Aucun point de reprise: replay depuis le début");
+            return null;
+        }
+        try {
+            DataInputStream in = checkpoint.load();
+            resumedState = CheckpointState.read(in, historicalCalls.size(), topServices);
+            resumeCursor = resumedState.cursor;
+            plannedConsumed = resumeCursor;
+            System.out.printf("Reprise à t=%.2f h (%d événements préprogrammés déjà traités)\n",
+                    resumedState.time, resumeCursor);
+            return in;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Lecture du point de reprise impossible", e);
+        }
+    }
+
+    /**
+     * Restaure l'état après la programmation des événements restants
+     */
+    private void restoreCheckpointState(DataInputStream in) {
+        resumedState.checkScheduled(totalScheduledEvents);
+        processedEvents = resumedState.processedEvents;
+
+        // Réponses routées: programmées après les préprogrammés, dans leur ordre d'origine
+        // (temps absolus: l'horloge est encore à 0)
+        for (RoutedAnswer route : resumedState.routes) {
+            Call call = historicalCalls.get(route.call());
+            pendingRoutes.put(call, route);
+            if (kernel != null) {
+                kernel.schedule(route.time(), NativeReplayKernel.ANSWERED, route.call(), route.agent());
+            } else {
+                new CallAnsweredEvent(call, route.agent()).schedule(route.time());
+            }
+        }
+
+        for (int i = 0; i < topServices.length; i++) {
+            LinkedList<Call> queue = queues.get(topServices[i]);
+            for (int index : resumedState.queues.get(i)) {
+                queue.add(historicalCalls.get(index));
+            }
+            updateQueueHead(topServices[i]);
+        }
+
+        for (CheckpointState.Agent restored : resumedState.agents) {
+            AgentState agent = agents.get(restored.agentId());
+            if (agent == null) {
+                throw new IllegalStateException("Point de reprise incompatible: agent inconnu");
+            }
+            agent.setBusy(restored.busy());
+            agent.setLastActivityTime(restored.lastActivityTime());
+        }
+        busyAgents = countBusyAgents();
+        resumedState = null;
+
+        try {
+            readServiceState(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Lecture du point de reprise impossible", e);
+        }
+    }
+
+    // ========================
+    // AJOUT QUOTIDIEN
+    // ========================
+
+    /**
+     * État à la coupure: espacement, agents (compétences comprises), appels encore en cours
+     * (par valeur) avec leurs préprogrammés restants, réponses routées, files, puis état par service
+     */
+    private void writeAppendState(DataOutput out) throws IOException {
+        List<ScheduledEvent> planned = new ArrayList<>();
+        List<RoutedAnswer> routes = new ArrayList<>();
+        if (kernel != null) {
+            kernel.drainPending((time, type, call, agent) -> {
+                if (agent == NativeReplayKernel.NO_AGENT) {
+                    planned.add(new ScheduledEvent(time, type, call));
+                } else {
+                    routes.add(new RoutedAnswer(call, agent, time));
+                }
+            });
+        } else {
+            for (Event event : eventList) {
+                if (event instanceof CallArrivalEvent arrival) {
+                    planned.add(new ScheduledEvent(event.time(), NativeReplayKernel.ARRIVAL, callIndices.get(arrival.call)));
+                } else if (event instanceof CallAnsweredEvent answered && answered.assignedAgentId == null) {
+                    planned.add(new ScheduledEvent(event.time(), NativeReplayKernel.ANSWERED, callIndices.get(answered.call)));
+                } else if (event instanceof CallAnsweredEvent answered) {
+                    routes.add(new RoutedAnswer(callIndices.get(answered.call), answered.assignedAgentId, event.time()));
+                } else if (event instanceof CallHangupEvent hangup) {
+                    planned.add(new ScheduledEvent(event.time(), NativeReplayKernel.HANGUP, callIndices.get(hangup.call)));
+                }
+            }
+        }
+
+        List<int[]> queued = new ArrayList<>();
+        for (String service : topServices) {
+            queued.add(queues.get(service).stream().mapToInt(callIndices::get).toArray());
+        }
+        List<AgentState> sortedAgents = new ArrayList<>(agents.values());
+        sortedAgents.sort(Comparator.comparingInt(AgentState::getAgentId));
+
+        AppendState state = AppendState.capture(lastPlannedTime, historicalCalls, sortedAgents, planned, routes, queued);
+        state.write(out);
+        writeServiceState(out);
+        carriedCount = state.calls.size();
+    }
+
+    /**
+     * Relit l'état de la veille jusqu'à l'état par service: appels reportés placés en tête de
+     * table, leurs préprogrammés restants reprennent leurs temps bruts (même espacement
+     * qu'un replay d'un seul tenant)
+     */
+    private void readCarriedState(DataInputStream in) throws IOException {
+        carriedState = AppendState.read(in, topServices.length);
+        chainStart = carriedState.chainStart;
+        historicalCalls.addAll(0, carriedState.calls);
+        carriedCount = carriedState.calls.size();
+
+        for (AppendState.Planned event : carriedState.planned) {
+            Call call = historicalCalls.get(event.call());
+            LocalDateTime raw = switch (event.type()) {
+                case NativeReplayKernel.ARRIVAL -> call.getDateReceived();
+                case NativeReplayKernel.ANSWERED -> call.getAnswered();
+                default -> call.getHangup();
+            };
+            carriedEvents.add(new ScheduledEvent(timeToDouble(raw), event.type(), event.call()));
+        }
+    }
+
+    /**
+     * Suite de l'état de la veille, après la programmation: réponses routées (temps absolus,
+     * horloge à 0), files, état par service
+     */
+    private void restoreAppendState(DataInputStream in) {
+        for (RoutedAnswer route : carriedState.routes) {
+            if (kernel != null) {
+                kernel.schedule(route.time(), NativeReplayKernel.ANSWERED, route.call(), route.agent());
+            } else {
+                new CallAnsweredEvent(historicalCalls.get(route.call()), route.agent()).schedule(route.time());
+            }
+        }
+        for (int i = 0; i < topServices.length; i++) {
+            LinkedList<Call> queue = queues.get(topServices[i]);
+            for (int index : carriedState.queues.get(i)) {
+                queue.add(historicalCalls.get(index));
+            }
+            updateQueueHead(topServices[i]);
+        }
+        try {
+            readServiceState(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Lecture de l'état quotidien impossible", e);
+        }
+    }
+
+    /**
+     * Temps simulé courant du moteur actif (heures)
+     */
+    private double now() {
+        return kernel != null ? kernel.time() : time();
+    }
+
+    // ========================
+    // JOURNAL DES ÉVÉNEMENTS
+    // ========================
+
+    private void openJournal() {
+        if (simulatedRouting || live || checkpoint != null || dailyAppend != null) {
+            throw new IllegalStateException("Journal disponible pour un replay historique complet uniquement");
+        }
+        journal = ReplayJournal.open(journalFile, topServices, simulationStartTime, competentCounts(),
+                this::queueLength, workloadModel);
+    }
+
+    private int[] competentCounts() {
+        int[] competent = new int[topServices.length];
+        for (int i = 0; i < topServices.length; i++) {
+            competent[i] = competentAgents.getOrDefault(topServices[i], 0);
+        }
+        return competent;
+    }
+
+    private int queueLength(int service) {
+        return queues.get(topServices[service]).size();
+    }
+
+    private void closeJournal() {
+        if (journal == null) return;
+        long records = journal.close();
+        if (componentPlan == null) {
+            System.out.printf("Journal: %d événements dans %s\n", records, journal.getFile());
+        }
+        journal = null;
+    }
+
+    /**
+     * Clé d'ordre de l'événement préprogrammé courant: indice global de programmation pour une
+     * composante, rang de traitement sinon
+     */
+    private long journalOrder() {
+        return componentPlan != null ? componentPlan.order[(int) plannedConsumed - 1] : processedEvents;
+    }
+
+    private void journalArrival(Call call, SystemState state, double headOfLineWait) {
+        String serviceType = call.getQueueName();
+        journal.arrival(now(), journalOrder(), serviceCodes.get(serviceType) - 1, countAvailableAgents(serviceType),
+                call.getDateReceived().toEpochSecond(ZoneOffset.UTC), headOfLineWait,
+                state.getAvailableAgents(), state.getActualWaitTime());
+    }
+
+    private void journalAnswered(Call call, boolean routed) {
+        String serviceType = call.getQueueName();
+        long order = routed && componentPlan != null ? routedOrders.remove(call) : journalOrder();
+        journal.answered(now(), order, serviceCodes.get(serviceType) - 1, countAvailableAgents(serviceType));
+    }
+
+    private void journalHangup(Call call) {
+        String serviceType = call.getQueueName();
+        journal.hangup(now(), journalOrder(), serviceCodes.get(serviceType) - 1, countAvailableAgents(serviceType),
+                observedWaitTime(call), observedServiceTime(call));
+    }
+
+    /**
+     * Recalcule les prédicteurs depuis un journal et réexporte les datasets, sans chargement
+     * ni simulation: files et agents observés sont relus, seuls les prédicteurs sont réexécutés
+     */
+    public void rederive(Path journalFile) throws IOException {
+        chronometer = new Chrono();
+        chronometer.init();
+        EventJournal.Reader reader = new EventJournal.Reader(journalFile);
+        topServices = reader.getServices();
+        simulationStartTime = reader.getStartTime();
+        Path modelFile = EventJournal.modelFile(journalFile);
+        workloadModel = Files.exists(modelFile) ? WorkloadModel.load(modelFile, null) : null;
+        initializeServices();
+        for (int i = 0; i < topServices.length; i++) {
+            competentAgents.put(topServices[i], reader.getCompetentAgents(i));
+        }
+
+        long events = reader.forEach(this::rederive);
+        System.out.printf("Journal relu: %d événements, %d états en %.2f secondes\n",
+                events, statistics.total().count(), chronometer.getSeconds());
+        exportResults();
+        System.out.printf("Réexport terminé en %.2f secondes\n", chronometer.getSeconds());
+    }
+
+    private void rederive(EventJournal.Record record) {
+        String serviceType = topServices[record.service];
+        processedEvents++;
+        switch (record.type) {
+            case EventJournal.ARRIVAL -> {
+                SystemState state = scratchState;
+                int[] otherQueues = otherQueuesOf(state);
+                int idx = 0;
+                for (int i = 0; i < topServices.length && idx < 4; i++) {
+                    if (i != record.service) {
+                        otherQueues[idx++] = record.previousQueueLengths[i];
+                    }
+                }
+                state.setServiceType(serviceType);
+                state.setQueueLength(record.previousQueueLengths[record.service]);
+                state.setArrivalTime(LocalDateTime.ofEpochSecond(record.receivedSeconds, 0, ZoneOffset.UTC));
+                state.setAvailableAgents(record.observedAgents);
+                calculatePredictors(state, record.headOfLineWait);
+                state.setActualWaitTime(record.waitTime);
+                if (isValidState(state)) {
+                    recordState(state);
+                }
+                serviceMetrics.get(serviceType).recordArrival();
+            }
+            case EventJournal.ANSWERED -> serviceMetrics.get(serviceType).recordAnswer();
+            default -> {
+                recordObservedTimes(serviceType, record.waitTime, record.serviceTime);
+                serviceMetrics.get(serviceType).recordHangup();
+            }
+        }
+    }
+
+    // ========================
+    // REPLAY PARALLÈLE PAR COMPOSANTES
+    // ========================
+
+    /**
+     * Préprogrammés d'une composante: temps espacés de la chaîne globale, indice d'appel dans
+     * la table de la composante, indice global de programmation (clé d'ordre du journal)
+     */
+    private static final class ComponentPlan {
+        final double[] times;
+        final byte[] types;
+        final int[] calls;
+        final long[] order;
+        final long total; // préprogrammés toutes composantes: les réponses routées sont ordonnées après
+        int size = 0;
+
+        ComponentPlan(int capacity, long total) {
+            times = new double[capacity];
+            types = new byte[capacity];
+            calls = new int[capacity];
+            order = new long[capacity];
+            this.total = total;
+        }
+
+        void add(double time, byte type, int call, long index) {
+            times[size] = time;
+            types[size] = type;
+            calls[size] = call;
+            order[size++] = index;
+        }
+    }
+
+    /**
+     * Répartit appels et préprogrammés entre les composantes; l'espacement minimal est calculé
+     * sur la chaîne globale, chaque composante voit donc exactement les temps du replay séquentiel
+     */
+    private void planComponents() {
+        int[] componentOfService = new int[topServices.length];
+        componentReplays = new VanadSSJReplay[skillComponents.size()];
+        for (int c = 0; c < componentReplays.length; c++) {
+            for (int service : skillComponents.get(c).services()) {
+                componentOfService[service] = c;
             }
+            VanadSSJReplay replay = new VanadSSJReplay();
+            replay.topServices = topServices;
+            replay.simulationStartTime = simulationStartTime;
+            replay.workloadModel = workloadModel;
+            replay.nativeKernel = nativeKernel;
+            replay.verbose = verbose;
+            replay.retainStates = false; // lignes recalculées à la fusion
+            replay.historicalCalls = new ArrayList<>();
+            componentReplays[c] = replay;
         }
-    }
 
-    private int encodeService(String service) {
-        return Arrays.asList(topServices).indexOf(service) + 1;
-    }
+        int[] callComponent = new int[historicalCalls.size()];
+        int[] componentIndex = new int[historicalCalls.size()];
+        for (int i = 0; i < historicalCalls.size(); i++) {
+            Call call = historicalCalls.get(i);
+            callComponent[i] = componentOfService[serviceCodes.get(call.getQueueName()) - 1];
+            List<Call> calls = componentReplays[callComponent[i]].historicalCalls;
+            componentIndex[i] = calls.size();
+            calls.add(call);
+        }
 
-    private int getOtherQueueLength(SystemState state, int index) {
-        int[] others = state.getOtherQueuesLengths();
-        return index < others.length ? others[index] : 0;
+        List<ScheduledEvent> allEvents = plannedEvents();
+        int[] counts = new int[componentReplays.length];
+        for (ScheduledEvent event : allEvents) {
+            counts[callComponent[event.call()]]++;
+        }
+        for (int c = 0; c < componentReplays.length; c++) {
+            componentReplays[c].componentPlan = new ComponentPlan(counts[c], allEvents.size());
+        }
+        double lastTime = 0.0;
+        for (ScheduledEvent event : allEvents) {
+            double eventTime = Math.max(event.time(), lastTime + MIN_EVENT_INTERVAL);
+            componentReplays[callComponent[event.call()]].componentPlan.add(eventTime, event.type(),
+                    componentIndex[event.call()], totalScheduledEvents++);
+            lastTime = eventTime;
+        }
     }
 
     /**
-     * Affichage des statistiques
+     * Rejoue chaque composante sur son propre simulateur (un thread par composante, au plus
+     * un par processeur), puis fusionne leurs journaux par temps en recalculant les
+     * prédicteurs sur l'état global, dans l'ordre exact du replay séquentiel
      */
-    private void printStatistics() {
-        System.out.println("\n=== STATISTIQUES REPLAY SSJ ===");
-
-        double avgWait = capturedStates.stream()
-                .mapToDouble(SystemState::getActualWaitTime)
-                .average().orElse(0);
+    private void runComponents() throws Exception {
+        System.out.println("Démarrage du replay parallèle par composantes...");
+        chronometer.init();
+        long started = System.nanoTime(); // temps réel: Chrono ne mesure que le thread courant
 
-        double avgQueue = capturedStates.stream()
-                .mapToInt(SystemState::getQueueLength)
-                .average().orElse(0);
+        int threads = Math.min(componentReplays.length, Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Path> journals = new ArrayList<>();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int c = 0; c < componentReplays.length; c++) {
+                Path file = Files.createTempFile("vanad_component_" + c + "_", ".bin");
+                journals.add(file);
+                VanadSSJReplay replay = componentReplays[c];
+                SkillGraph.Component component = skillComponents.get(c);
+                futures.add(executor.submit(() -> {
+                    replay.replayComponent(agents, component, file);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            System.out.printf("Composantes rejouées en %.2f secondes (%d composantes, %d threads)\n",
+                    (System.nanoTime() - started) / 1e9, componentReplays.length, threads);
+
+            List<EventJournal.Reader> readers = new ArrayList<>();
+            int[][] ownedServices = new int[componentReplays.length][];
+            for (int c = 0; c < componentReplays.length; c++) {
+                readers.add(new EventJournal.Reader(journals.get(c)));
+                ownedServices[c] = skillComponents.get(c).services();
+            }
+            EventJournal.merge(readers, ownedServices, this::rederive);
+        } finally {
+            executor.shutdown();
+            for (Path file : journals) {
+                Files.deleteIfExists(file);
+            }
+        }
 
-        System.out.printf("États capturés: %d\n", capturedStates.size());
-        System.out.printf("Temps d'attente moyen: %.2f sec (%.2f min)\n", avgWait, avgWait/60);
-        System.out.printf("Longueur file moyenne: %.2f\n", avgQueue);
+        System.out.printf("Simulation terminée (%s, %d composantes). États capturés: %d\n",
+                nativeKernel ? "noyau natif" : "SSJ", componentReplays.length, statistics.total().count());
+    }
 
-        // Par service
+    /**
+     * Replay d'une composante: agents copiés de l'orchestrateur, préprogrammés du plan,
+     * chaque événement journalisé avec sa clé d'ordre globale
+     */
+    private void replayComponent(Map<Integer, AgentState> source, SkillGraph.Component component, Path file) {
+        init(new DoublyLinked());
+        if (nativeKernel) {
+            kernel = new NativeReplayKernel();
+            callIndices = new IdentityHashMap<>(historicalCalls.size() * 2);
+            for (int i = 0; i < historicalCalls.size(); i++) {
+                callIndices.put(historicalCalls.get(i), i);
+            }
+        }
+        initializeServices();
+        for (int agentId : component.agents()) {
+            AgentState agent = new AgentState(agentId, source.get(agentId).skills);
+            agent.setRouteRank(source.get(agentId).getRouteRank());
+            agents.put(agentId, agent);
+            agentLastActivityTime.put(agentId, 0.0);
+        }
+        buildQueueHeads();
         for (String service : topServices) {
-            long count = capturedStates.stream()
-                    .filter(s -> s.getServiceType().equals(service))
-                    .count();
-
-            double serviceAvgWait = capturedStates.stream()
-                    .filter(s -> s.getServiceType().equals(service))
-                    .mapToDouble(SystemState::getActualWaitTime)
-                    .average().orElse(0);
-
-            System.out.printf("Service %s: %d échantillons, %.2f sec attente moyenne\n",
-                    service, count, serviceAvgWait);
+            competentAgents.put(service, (int) agents.values().stream()
+                    .filter(agent -> agent.canHandle(service))
+                    .count());
         }
-    }
 
-    // ========================
-    // CLASSES UTILITAIRES
-    // ========================
+        for (int i = 0; i < componentPlan.size; i++) {
+            if (kernel != null) {
+                kernel.plan(componentPlan.times[i], componentPlan.types[i], componentPlan.calls[i]);
+            } else {
+                toEvent(new ScheduledEvent(componentPlan.times[i], componentPlan.types[i], componentPlan.calls[i]))
+                        .schedule(componentPlan.times[i]);
+            }
+            totalScheduledEvents++;
+        }
 
-    /**
-         * Classe pour gérer les événements programmés
-         */
-        private record ScheduledEvent(double time, Event event) {
+        journal = new ReplayJournal(file, topServices, simulationStartTime, competentCounts(), this::queueLength);
+        if (kernel != null) {
+            kernel.run(new KernelHandler());
+        } else {
+            start();
+        }
+        closeJournal();
     }
 
     // ========================
-    // ÉVÉNEMENTS SSJ
+    // ÉVÉNEMENTS DU MODE SIMULÉ
     // ========================
 
     /**
-     * Événement d'arrivée d'appel
+     * Arrivée en mode simulé: l'état est capturé, le temps d'attente W
+     * sera fixé à la prise en charge ou à l'abandon
      */
-    class CallArrivalEvent extends Event {
+    class SimulatedArrivalEvent extends Event {
         private final Call call;
 
-        public CallArrivalEvent(Call call) {
+        public SimulatedArrivalEvent(Call call) {
+            super(VanadSSJReplay.this);
             this.call = call;
         }
 
         @Override
         public void actions() {
             String serviceType = call.getQueueName();
+            pendingStates.put(call, captureSystemState(call));
+            serviceMetrics.get(serviceType).recordArrival();
 
-            // CAPTURE DE L'ÉTAT AVANT MODIFICATION
-            SystemState state = captureSystemState(call);
-
-            // ROUTAGE SELON SPÉCIFICATIONS VANAD
-            boolean routed = routeCall(call);
-
-            if (!routed) {
-                // Pas d'agent disponible -> file d'attente (FCFS)
-                queues.get(serviceType).offer(call);
-            }
-            // Si routé, l'appel n'entre pas en file d'attente
-
-            // Sauvegarde si valide
-            if (isValidState(state)) {
-                capturedStates.add(state);
+            LinkedList<Call> queue = queues.get(serviceType);
+            AgentState agent = findLongestIdleAgent(serviceType);
+            if (agent != null && queue.isEmpty()) {
+                startService(call, agent);
+            } else {
+                queue.offer(call);
+                double patience = patienceOf(call);
+                if (Double.isFinite(patience)) {
+                    AbandonEvent abandon = new AbandonEvent(call);
+                    abandon.schedule(patience / 3600.0); // délai relatif
+                    pendingAbandons.put(call, abandon);
+                }
+                if (agent != null) {
+                    startService(queue.poll(), agent); // FCFS: la tête de file passe avant l'arrivée
+                }
+                updateQueueHead(serviceType);
             }
-
-            // Mise à jour métriques
-            serviceMetrics.get(serviceType).recordArrival();
+            if (metrics != null) recordMetrics(ReplayMetrics.EventType.SIMULATED_ARRIVAL);
         }
     }
 
     /**
-     * Événement de réponse à un appel
+     * Fin de service en mode simulé: l'agent libéré prend le prochain appel de la file
      */
-    //  CallAnsweredEvent pour gérer le routage
-    class CallAnsweredEvent extends Event {
+    class ServiceEndEvent extends Event {
         private final Call call;
-        private final Integer assignedAgentId;
-
-        public CallAnsweredEvent(Call call) {
-            this.call = call;
-            this.assignedAgentId = null;
-        }
+        private final AgentState agent;
+        private final double serviceTime;
 
-        public CallAnsweredEvent(Call call, Integer assignedAgentId) {
+        public ServiceEndEvent(Call call, AgentState agent, double serviceTime) {
+            super(VanadSSJReplay.this);
             this.call = call;
-            this.assignedAgentId = assignedAgentId;
+            this.agent = agent;
+            this.serviceTime = serviceTime;
         }
 
         @Override
         public void actions() {
             String serviceType = call.getQueueName();
+            occupy(agent, false, sim.time());
 
-            //  remove by call ID if available
-            LinkedList<Call> queue = queues.get(serviceType);
-            boolean removed = false;
-
-            // Try to remove exact call first
-            Iterator<Call> iterator = queue.iterator();
-            while (iterator.hasNext()) {
-                Call queuedCall = iterator.next();
-                if (isSameCall(queuedCall, call)) {
-                    iterator.remove();
-                    removed = true;
-                    break;
+            if (serviceTime > 0 && serviceTime < 3600) {
+                recentServiceTimes.get(serviceType).add(serviceTime);
+                for (WaitPredictor predictor : predictors) {
+                    predictor.onHangup(serviceType, serviceTime);
                 }
             }
+            serviceMetrics.get(serviceType).recordHangup();
 
+            // l'agent libéré prend l'appel le plus ancien de toutes ses files
+            routeToReleasedAgent(agent);
+            if (metrics != null) recordMetrics(ReplayMetrics.EventType.SERVICE_END);
+        }
+    }
 
-            if (!removed) {
-                System.out.println("Call was routed directly, not queued");
-            }
+    /**
+     * Changement d'heure d'un scénario plafonné: les appels retenus par le plafond précédent
+     * sont repris; reprogrammé d'heure en heure tant que la simulation a d'autres événements
+     */
+    class CapChangeEvent extends Event {
 
-            // Utiliser l'agent assigné ou celui du fichier de données
-            Integer agentId = assignedAgentId != null ? assignedAgentId :
-                    (call.getAgentNumber() != null ? call.getAgentNumber().intValue() : null);
+        public CapChangeEvent() {
+            super(VanadSSJReplay.this);
+        }
 
-            if (agentId != null) {
-                AgentState agent = agents.get(agentId);
-                if (agent != null) {
-                    agent.setBusy(true);
-                    agent.setLastActivityTime(Sim.time());
-                }
+        @Override
+        public void actions() {
+            drainQueues();
+            if (!sim.getEventList().isEmpty()) {
+                schedule(1.0); // délai relatif: heure suivante
             }
-
-            serviceMetrics.get(serviceType).recordAnswer();
-
         }
     }
 
-    private boolean isSameCall(Call c1, Call c2) {
-        return c1.getDateReceived().equals(c2.getDateReceived()) &&
-                c1.getQueueName().equals(c2.getQueueName()) &&
-                Objects.equals(c1.getAgentNumber(), c2.getAgentNumber());
-    }
-
-    // 8. Modifier CallHangupEvent pour déclencher le routage
-    class CallHangupEvent extends Event {
+    /**
+     * Abandon d'un appel en file (patience écoulée)
+     */
+    class AbandonEvent extends Event {
         private final Call call;
 
-        public CallHangupEvent(Call call) {
+        public AbandonEvent(Call call) {
+            super(VanadSSJReplay.this);
             this.call = call;
         }
 
         @Override
         public void actions() {
             String serviceType = call.getQueueName();
+            pendingAbandons.remove(call);
+            queues.get(serviceType).remove(call);
+            updateQueueHead(serviceType);
+            abandonedCalls++;
 
-            // Libération agent
-            if (call.getAgentNumber() != null) {
-                AgentState agent = agents.get(call.getAgentNumber().intValue());
-                if (agent != null) {
-                    agent.setBusy(false);
-                    agent.setLastActivityTime(Sim.time());
-                }
-            }
-
-            // Enregistrement métriques
-            recordCallMetrics(call);
+            completeState(call, patienceOf(call));
             serviceMetrics.get(serviceType).recordHangup();
-
-            // ROUTAGE DU PROCHAIN APPEL EN FILE
-            routeNextCallInQueue(serviceType);
+            if (metrics != null) recordMetrics(ReplayMetrics.EventType.ABANDON);
         }
     }
-    // 9. Méthode pour router le prochain appel en file
-    private void routeNextCallInQueue(String serviceType) {
-        LinkedList<Call> queue = queues.get(serviceType);
-
-        if (!queue.isEmpty()) {
-            AgentState availableAgent = findLongestIdleAgent(serviceType);
 
-            if (availableAgent != null) {
-                Call nextCall = queue.poll(); // FCFS
+    /**
+     * Prise en charge d'un appel par un agent à l'instant courant
+     */
+    private void startService(Call call, AgentState agent) {
+        String serviceType = call.getQueueName();
+        Event abandon = pendingAbandons.remove(call);
+        if (abandon != null) {
+            abandon.cancel();
+        }
 
-                // Router l'appel
-                availableAgent.setBusy(true);
-                availableAgent.setLastActivityTime(Sim.time());
+        occupy(agent, true, now());
 
-                // Programmer la réponse immédiate ou selon les données historiques
-                double answerDelay = 0.1; // Délai minimal pour répondre
-                new CallAnsweredEvent(nextCall, availableAgent.getAgentId())
-                        .schedule(Sim.time() + answerDelay);
+        double waitTime = Math.max(0, (now() - timeToDouble(call.getDateReceived())) * 3600.0);
+        completeState(call, waitTime);
+        if (waitTime < MAX_WAIT_TIME) {
+            recentWaitTimes.get(serviceType).add(waitTime);
+            for (WaitPredictor predictor : predictors) {
+                predictor.onAnswer(serviceType, waitTime);
             }
         }
+        serviceMetrics.get(serviceType).recordAnswer();
+
+        double serviceTime = serviceTimeOf(call);
+        new ServiceEndEvent(call, agent, serviceTime).schedule(serviceTime / 3600.0); // délai relatif
     }
 
+    /**
+     * Fixe le temps d'attente simulé de l'état capturé à l'arrivée
+     */
+    private void completeState(Call call, double waitTime) {
+        SystemState state = pendingStates.remove(call);
+        if (state == null) return;
 
+        state.setActualWaitTime(waitTime);
+        if (isValidState(state)) {
+            recordState(state);
+        }
+    }
 
+    /**
+     * Enregistre un état valide dans l'arène: statistiques en ligne et lignes lues depuis
+     * l'enregistrement; sans conservation, l'arène ne garde que le dernier (capacité réutilisée)
+     */
+    private void recordState(SystemState state) {
+        if (stateSink != null || !retainStates) {
+            capturedStates.clear();
+        }
+        int record = capturedStates.add(state, encodeService(state.getServiceType()));
+        statistics.record(capturedStates, record);
+        if (metrics != null) metrics.stateCaptured();
+        if (playback != null) playback.row(formatRow(capturedStates, record));
+        if (stateSink != null) {
+            stateSink.accept(capturedStates, record);
+        }
+    }
 
+    /**
+     * Durée de service (secondes): tirée pour un appel synthétique, observée sinon
+     */
+    private double serviceTimeOf(Call call) {
+        if (call instanceof SyntheticCall synthetic) {
+            return synthetic.getServiceTime();
+        }
+        if (call.getAnswered() != null && call.getHangup() != null) {
+            return Math.max(0, ChronoUnit.SECONDS.between(call.getAnswered(), call.getHangup()));
+        }
+        return getAverageServiceTime(call.getQueueName());
+    }
 
+    /**
+     * Patience (secondes): observée pour un abandon historique, infinie (censurée) sinon
+     */
+    private double patienceOf(Call call) {
+        if (call instanceof SyntheticCall synthetic) {
+            return synthetic.getPatience();
+        }
+        if (call.getAnswered() == null && call.getHangup() != null) {
+            return Math.max(0, ChronoUnit.SECONDS.between(call.getDateReceived(), call.getHangup()));
+        }
+        return Double.POSITIVE_INFINITY;
+    }
 
     // ========================
     // CAPTURE D'ÉTAT
@@ -613,7 +2426,16 @@ public class VanadSSJReplay extends Simulator {
     /**
      * Capture l'état du système pour un appel
      */
-    private SystemState captureSystemState(Call call) {
+    SystemState captureSystemState(Call call) {
+        return captureSystemState(call, new SystemState());
+    }
+
+    /**
+     * Capture dans un état existant (tableaux réutilisés): l'état non conservé au-delà du
+     * gestionnaire ne coûte aucune allocation
+     */
+    private SystemState captureSystemState(Call call, SystemState state) {
+        long start = HandlerLatency.start();
         String serviceType = call.getQueueName();
         LocalDateTime arrivalTime = call.getDateReceived();
 
@@ -621,30 +2443,13 @@ public class VanadSSJReplay extends Simulator {
             throw new IllegalArgumentException("Call arrival time is null");
         }
 
-        int queueLength = queues.get(serviceType).size();
-
-        // Autres files
-        int[] otherQueues = new int[4];
-        int idx = 0;
-        for (String service : topServices) {
-            if (!service.equals(serviceType) && idx < 4) {
-                otherQueues[idx] = queues.get(service).size();
-                idx++;
-            }
-        }
-
-        // Agents disponibles
-        int availableAgents = (int) agents.values().stream()
-                .filter(agent -> agent.canHandle(serviceType))
-                .filter(AgentState::isAvailable)
-                .count();
-
-        // Création état
-        SystemState state = new SystemState(serviceType, queueLength, otherQueues,
-                arrivalTime, Math.max(1, availableAgents));
+        observe(serviceType, arrivalTime, state);
+        state.setActualWaitTime(0.0);
 
         // CALCUL DES PRÉDICTEURS (correction principale)
+        long predictorsStart = HandlerLatency.start();
         calculatePredictors(state);
+        latency.stop(HandlerLatency.Probe.PREDICTORS, predictorsStart);
 
         // Temps d'attente réel
         if (call.getAnswered() != null) {
@@ -662,115 +2467,230 @@ public class VanadSSJReplay extends Simulator {
             }
         }
 
+        latency.stop(HandlerLatency.Probe.CAPTURE, start);
         return state;
     }
 
     /**
-     * Calcul des prédicteurs LES et Avg-LES
+     * État observé par un appel du service arrivant à l'instant donné (sans prédicteurs)
      */
-    private void calculatePredictors(SystemState state) {
-        String serviceType = state.getServiceType();
+    private SystemState observe(String serviceType, LocalDateTime arrivalTime, SystemState state) {
+        int queueLength = queues.get(serviceType).size();
+
+        // Autres files
+        int[] otherQueues = otherQueuesOf(state);
+        int idx = 0;
+        for (String service : topServices) {
+            if (!service.equals(serviceType) && idx < 4) {
+                otherQueues[idx] = queues.get(service).size();
+                idx++;
+            }
+        }
 
-        // 1. Calcul du prédicteur LES (Last Experience Sharing)
-        // LES = temps d'attente moyen des N derniers clients du même service
-        CircularBuffer<Double> recentWaits = recentWaitTimes.get(serviceType);
-        double lesPredictor = 0.0;
+        state.setServiceType(serviceType);
+        state.setQueueLength(queueLength);
+        state.setArrivalTime(arrivalTime);
+        state.setAvailableAgents(Math.max(1, countAvailableAgents(serviceType)));
+        return state;
+    }
 
-        if (!recentWaits.isEmpty()) {
-            lesPredictor = recentWaits.getAverage();
+    /**
+     * Tableau des quatre autres files de l'état, remis à zéro (alloué au premier usage)
+     */
+    private static int[] otherQueuesOf(SystemState state) {
+        int[] otherQueues = state.getOtherQueuesLengths();
+        if (otherQueues == null || otherQueues.length != 4) {
+            otherQueues = new int[4];
+            state.setOtherQueuesLengths(otherQueues);
         } else {
-            // Valeur par défaut si pas d'historique
-            lesPredictor = estimateDefaultWaitTime(serviceType, state.getQueueLength(), state.getAvailableAgents());
+            Arrays.fill(otherQueues, 0);
+        }
+        return otherQueues;
+    }
+
+    /**
+     * Agents compétents disponibles pour le service
+     */
+    private int countAvailableAgents(String serviceType) {
+        return (int) agents.values().stream()
+                .filter(agent -> agent.canHandle(serviceType))
+                .filter(AgentState::isAvailable)
+                .count();
+    }
+
+    /**
+     * Compte l'événement; les jauges par service (une passe sur les agents) sont rafraîchies
+     * au plus une fois par {@link ReplayMetrics#GAUGE_REFRESH_NANOS}
+     */
+    private void recordMetrics(ReplayMetrics.EventType type) {
+        metrics.recordEvent(type, now());
+        if (System.nanoTime() - gaugesRefreshed >= ReplayMetrics.GAUGE_REFRESH_NANOS) {
+            refreshServiceMetrics();
         }
+    }
 
-        // 2. Calcul du prédicteur Avg-LES (Average LES across all services)
-        // Avg-LES = moyenne pondérée des LES de tous les services
-        double avgLesPredictor = 0.0;
-        double totalWeight = 0.0;
+    /**
+     * Jauges de tous les services (un agent libre compte pour chacune de ses compétences)
+     */
+    private void refreshServiceMetrics() {
+        gaugesRefreshed = System.nanoTime();
+        int[] available = availableByService(new int[topServices.length]);
+        for (int i = 0; i < topServices.length; i++) {
+            metrics.updateService(topServices[i], queues.get(topServices[i]).size(), available[i]);
+        }
+    }
 
-        for (String service : topServices) {
-            CircularBuffer<Double> serviceWaits = recentWaitTimes.get(service);
-            if (!serviceWaits.isEmpty()) {
-                double weight = Math.max(1.0, serviceWaits.size()); // Poids basé sur le nombre d'échantillons
-                avgLesPredictor += serviceWaits.getAverage() * weight;
-                totalWeight += weight;
+    /**
+     * Agents libres compétents pour chaque service, en une passe sur les agents
+     */
+    private int[] availableByService(int[] available) {
+        Arrays.fill(available, 0);
+        for (AgentState agent : agents.values()) {
+            if (!agent.isAvailable()) continue;
+            for (int i = 0; i < topServices.length; i++) {
+                if (agent.canHandle(topServices[i])) available[i]++;
             }
         }
+        return available;
+    }
 
-        if (totalWeight > 0) {
-            avgLesPredictor /= totalWeight;
-        } else {
-            avgLesPredictor = lesPredictor; // Fallback sur LES si pas d'historique
+    /**
+     * Publie l'état de chaque service pour un appel arrivant maintenant (une écriture volatile)
+     * Files et disponibilités sont relevées une fois pour tous les services, dans des tampons
+     * réutilisés: seuls l'instantané et ses vues immuables sont alloués.
+     */
+    private void publishSnapshot() {
+        if (predictorNames == null) {
+            predictorNames = predictors.stream().map(WaitPredictor::name).toArray(String[]::new);
+            snapshotQueues = new int[topServices.length];
+            snapshotAvailable = new int[topServices.length];
+            snapshotPredictions = new double[predictors.size()];
+        }
+        LocalDateTime clock = simulationStartTime.plusNanos((long) (now() * 3.6e12));
+        availableByService(snapshotAvailable);
+        for (int i = 0; i < topServices.length; i++) {
+            snapshotQueues[i] = queues.get(topServices[i]).size();
+        }
+
+        SystemState state = snapshotState;
+        snapshotViews.clear();
+        for (int i = 0; i < topServices.length; i++) {
+            int[] otherQueues = otherQueuesOf(state);
+            for (int k = 0, idx = 0; k < topServices.length && idx < 4; k++) {
+                if (k != i) otherQueues[idx++] = snapshotQueues[k];
+            }
+            state.setServiceType(topServices[i]);
+            state.setQueueLength(snapshotQueues[i]);
+            state.setArrivalTime(clock);
+            state.setAvailableAgents(Math.max(1, snapshotAvailable[i]));
+            predict(state, headOfLineWait(state), snapshotPredictions);
+            snapshotViews.put(topServices[i], new PredictionSnapshot.ServiceView(topServices[i],
+                    encodeService(topServices[i]), snapshotQueues[i], otherQueues, clock,
+                    state.getAvailableAgents(), predictorNames, snapshotPredictions)); // tableaux copiés par la vue
         }
+        predictionService.publish(new PredictionSnapshot(processedEvents, clock, snapshotViews));
+    }
 
-        // 3. Ajustement basé sur l'état actuel du système
-        // Facteur de correction basé sur la charge actuelle
-        double queueFactor = Math.max(0.1, state.getQueueLength() / Math.max(1.0, state.getAvailableAgents()));
-        double avgServiceTime = getAverageServiceTime(serviceType);
+    /**
+     * Calcul de tous les prédicteurs enregistrés en une passe (O(1) chacun)
+     */
+    private void calculatePredictors(SystemState state) {
+        calculatePredictors(state, headOfLineWait(state));
+    }
 
-        // Ajustement LES
-        lesPredictor = Math.max(0, lesPredictor + (queueFactor * avgServiceTime * 0.1));
+    /**
+     * Prédicteurs avec l'attente de la tête de file donnée (journal: file non reconstruite)
+     */
+    private void calculatePredictors(SystemState state, double headOfLineWait) {
+        double[] values = state.getPredictorValues();
+        if (values == null || values.length != predictors.size()) {
+            values = new double[predictors.size()];
+        }
+        predict(state, headOfLineWait, values);
+        for (WaitPredictor predictor : predictors) {
+            predictor.onArrival(predictorContext);
+        }
 
-        // Ajustement Avg-LES
-        avgLesPredictor = Math.max(0, avgLesPredictor + (queueFactor * avgServiceTime * 0.1));
+        state.setLesPredictor(values[0]);
+        state.setAvgLesPredictor(values[1]);
+        state.setPredictorValues(values);
+    }
 
-        // 4. Application des prédicteurs à l'état
-        state.setLesPredictor(lesPredictor);
-        state.setAvgLesPredictor(avgLesPredictor);
+    /**
+     * Attente écoulée du client en tête de file (secondes, 0 si file vide)
+     */
+    private double headOfLineWait(SystemState state) {
+        Call head = queues.get(state.getServiceType()).peek();
+        return head == null ? 0.0
+                : Math.max(0, ChronoUnit.SECONDS.between(head.getDateReceived(), state.getArrivalTime()));
     }
 
     /**
-     * Estimation du temps d'attente par défaut quand pas d'historique
+     * Prédictions pour un appel arrivant dans l'état donné, sans effet sur les prédicteurs
      */
-    private double estimateDefaultWaitTime(String serviceType, int queueLength, int availableAgents) {
-        double avgServiceTime = getAverageServiceTime(serviceType);
+    private double[] predict(SystemState state, double headOfLineWait, double[] values) {
+        String serviceType = state.getServiceType();
+        predictorContext.set(serviceType, state.getQueueLength(), state.getAvailableAgents(),
+                competentAgents.getOrDefault(serviceType, 0), headOfLineWait,
+                getAverageServiceTime(serviceType));
 
-        if (availableAgents > 0) {
-            // Estimation simple : (nombre en file / agents disponibles) * temps service moyen
-            return (queueLength / (double) availableAgents) * avgServiceTime;
-        } else {
-            // Si pas d'agents disponibles, temps d'attente élevé
-            return queueLength * avgServiceTime * 2.0;
+        for (int i = 0; i < values.length; i++) {
+            values[i] = predictors.get(i).predict(predictorContext);
         }
+        return values;
     }
 
     /**
-     * Obtient le temps de service moyen
+     * Obtient le temps de service moyen (modèle ajusté tant que la fenêtre récente est vide)
      */
     private double getAverageServiceTime(String serviceType) {
-        if (recentServiceTimes.get(serviceType).isEmpty()) {
-            return switch (serviceType.toLowerCase()) {
-                case "technical", "support" -> 300.0;
-                case "sales", "billing" -> 180.0;
-                default -> 240.0;
-            };
+        CircularBuffer<Double> recent = recentServiceTimes.get(serviceType);
+        if (recent.isEmpty()) {
+            return modelServiceTimes[serviceCodes.get(serviceType) - 1];
         }
-        return recentServiceTimes.get(serviceType).getAverage();
+        return recent.getAverage();
     }
 
     /**
      * Enregistre les métriques d'un appel
      */
     private void recordCallMetrics(Call call) {
-        String serviceType = call.getQueueName();
+        recordObservedTimes(call.getQueueName(), observedWaitTime(call), observedServiceTime(call));
+    }
 
-        // Temps d'attente
-        if (call.getDateReceived() != null && call.getAnswered() != null) {
-            double waitTime = ChronoUnit.SECONDS.between(
-                    call.getDateReceived(), call.getAnswered()
-            );
-            if (waitTime >= 0 && waitTime < MAX_WAIT_TIME) {
-                recentWaitTimes.get(serviceType).add(waitTime);
+    /**
+     * Attente observée d'un appel servi (secondes, NaN si inconnue)
+     */
+    private static double observedWaitTime(Call call) {
+        return call.getDateReceived() != null && call.getAnswered() != null
+                ? ChronoUnit.SECONDS.between(call.getDateReceived(), call.getAnswered()) : Double.NaN;
+    }
+
+    /**
+     * Durée de service observée (secondes, NaN si inconnue)
+     */
+    private static double observedServiceTime(Call call) {
+        return call.getAnswered() != null && call.getHangup() != null
+                ? ChronoUnit.SECONDS.between(call.getAnswered(), call.getHangup()) : Double.NaN;
+    }
+
+    /**
+     * Fenêtres récentes et prédicteurs alimentés par les temps observés au raccroché
+     */
+    private void recordObservedTimes(String serviceType, double waitTime, double serviceTime) {
+        // Temps d'attente (NaN: comparaisons fausses, rien n'est enregistré)
+        if (waitTime >= 0 && waitTime < MAX_WAIT_TIME) {
+            recentWaitTimes.get(serviceType).add(waitTime);
+            for (WaitPredictor predictor : predictors) {
+                predictor.onAnswer(serviceType, waitTime);
             }
         }
 
         // Temps de service
-        if (call.getAnswered() != null && call.getHangup() != null) {
-            double serviceTime = ChronoUnit.SECONDS.between(
-                    call.getAnswered(), call.getHangup()
-            );
-            if (serviceTime > 0 && serviceTime < 3600) {
-                recentServiceTimes.get(serviceType).add(serviceTime);
+        if (serviceTime > 0 && serviceTime < 3600) {
+            recentServiceTimes.get(serviceType).add(serviceTime);
+            for (WaitPredictor predictor : predictors) {
+                predictor.onHangup(serviceType, serviceTime);
             }
         }
     }
@@ -796,6 +2716,7 @@ public class VanadSSJReplay extends Simulator {
         private final List<T> buffer;
         private final int maxSize;
         private int index = 0;
+        private double sum = 0.0; // somme courante: moyenne en O(1)
 
         public CircularBuffer(int maxSize) {
             this.maxSize = maxSize;
@@ -806,9 +2727,10 @@ public class VanadSSJReplay extends Simulator {
             if (buffer.size() < maxSize) {
                 buffer.add(value);
             } else {
-                buffer.set(index, value);
+                sum -= buffer.set(index, value).doubleValue();
                 index = (index + 1) % maxSize;
             }
+            sum += value.doubleValue();
         }
 
         public boolean isEmpty() {
@@ -816,14 +2738,33 @@ public class VanadSSJReplay extends Simulator {
         }
 
         public double getAverage() {
-            return buffer.isEmpty() ? 0.0 :
-                    buffer.stream().mapToDouble(Number::doubleValue).average().orElse(0.0);
+            return buffer.isEmpty() ? 0.0 : sum / buffer.size();
         }
         public int size() {
             return buffer.size();
         }
 
+        /**
+         * Contenu dans l'ordre de stockage, position d'écrasement et somme courante
+         */
+        void writeState(DataOutput out) throws IOException {
+            out.writeInt(buffer.size());
+            out.writeInt(index);
+            out.writeDouble(sum);
+            for (T value : buffer) {
+                out.writeDouble(value.doubleValue());
+            }
+        }
 
+        void readState(DataInput in, java.util.function.DoubleFunction<T> valueOf) throws IOException {
+            buffer.clear();
+            int size = in.readInt();
+            index = in.readInt();
+            sum = in.readDouble();
+            for (int i = 0; i < size; i++) {
+                buffer.add(valueOf.apply(in.readDouble()));
+            }
+        }
     }
 
     /**
@@ -834,6 +2775,7 @@ public class VanadSSJReplay extends Simulator {
         private final Set<String> skills;
         private boolean busy = false;
         private double lastActivityTime = 0.0;
+        private int routeRank = 0; // rang dans le parcours de la table complète des agents
 
         public AgentState(int agentId, Set<String> skills) {
             this.agentId = agentId;
@@ -855,17 +2797,54 @@ public class VanadSSJReplay extends Simulator {
         }
 
         public int getAgentId() { return agentId; }
+        Set<String> getSkills() { return skills; }
         public double getLastActivityTime() { return lastActivityTime; }
         public void setLastActivityTime(double time) { this.lastActivityTime = time; }
+        int getRouteRank() { return routeRank; }
+        void setRouteRank(int routeRank) { this.routeRank = routeRank; }
     }
 
-    private AgentState findLongestIdleAgent(String serviceType) {
+    AgentState findLongestIdleAgent(String serviceType) {
+        if (!capAllowsBusyAgent()) {
+            return null; // plafond d'agents simultanés atteint
+        }
         return agents.values().stream()
                 .filter(agent -> agent.canHandle(serviceType))
                 .filter(AgentState::isAvailable)  // Agents libres
-                .min(Comparator.comparing(AgentState::getLastActivityTime))
+                .min(Comparator.comparingDouble(AgentState::getLastActivityTime)
+                        .thenComparingInt(AgentState::getRouteRank)) // égalité: premier dans la table complète
                 .orElse(null);
     }
+    /**
+     * Plafond horaire d'agents simultanés du scénario (toujours vrai sans scénario)
+     */
+    private boolean capAllowsBusyAgent() {
+        return scenario == null || !scenario.hasCaps()
+                || scenario.allowsBusyAgent(currentHourOfDay(), busyAgents);
+    }
+
+    /**
+     * Prise ou libération d'un agent, compte des agents occupés tenu à jour
+     */
+    private void occupy(AgentState agent, boolean busy, double time) {
+        if (agent.isAvailable() == busy) {
+            busyAgents += busy ? 1 : -1;
+        }
+        agent.setBusy(busy);
+        agent.setLastActivityTime(time);
+    }
+
+    /**
+     * Recompte complet (initialisation et reprise uniquement)
+     */
+    private int countBusyAgents() {
+        return (int) agents.values().stream().filter(agent -> !agent.isAvailable()).count();
+    }
+
+    private int currentHourOfDay() {
+        return simulationStartTime.plusSeconds((long) (now() * 3600.0)).getHour();
+    }
+
     // 4. Méthode de routage principal
     private boolean routeCall(Call call) {
         String serviceType = call.getQueueName();
@@ -873,19 +2852,18 @@ public class VanadSSJReplay extends Simulator {
 
         if (selectedAgent != null) {
             // Route immediately
-            selectedAgent.setBusy(true);
-            selectedAgent.setLastActivityTime(Sim.time());
+            occupy(selectedAgent, true, now());
 
             // Log successful routing
-            System.out.printf("Routed call to agent %d at time %.2f\n",
-                    selectedAgent.getAgentId(), Sim.time());
+            if (verbose) System.out.printf("Routed call to agent %d at time %.2f\n",
+                    selectedAgent.getAgentId(), now());
 
             return true;
         }
 
         // Log queue entry
-        System.out.printf("Call queued for service %s at time %.2f\n",
-                serviceType, Sim.time());
+        if (verbose) System.out.printf("Call queued for service %s at time %.2f\n",
+                serviceType, now());
         return false;
     }
 
@@ -0,0 +1,134 @@
+package org.example;
+
+import org.example.model.Call;
+import org.example.model.ReplicationResult;
+import umontreal.ssj.util.Chrono;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Moteur de scénarios de dotation: rejoue le flux d'arrivées historique
+ * sous une dotation modifiée, temps de réponse simulés par routage LIA.
+ * Les scénarios s'exécutent en parallèle, chacun sur son propre Simulator,
+ * en partageant la même table d'appels chargée une seule fois.
+ */
+public class WhatIfScenarioEngine {
+
+    private final List<Call> calls;
+    private final String[] services;
+    private final WorkloadModel model;
+    private final int threads;
+
+    public WhatIfScenarioEngine(List<Call> calls, String[] services, WorkloadModel model, int threads) {
+        this.calls = Collections.unmodifiableList(calls);
+        this.services = services;
+        this.model = model;
+        this.threads = threads;
+    }
+
+    /**
+     * Point d'entrée: fichier de scénarios (une ligne par scénario, voir StaffingScenario)
+     */
+    public static void main(String[] args) {
+        System.out.println("=== VANAD SCÉNARIOS WHAT-IF ===");
+
+        String scenarioFile = args.length > 0 ? args[0] : "data/scenarios.txt";
+        String callsFile = "data/all_calls_2014_clean.csv";
+
+        try {
+            List<StaffingScenario> scenarios = new ArrayList<>();
+            scenarios.add(new StaffingScenario("baseline"));
+            for (String line : Files.readAllLines(Path.of(scenarioFile))) {
+                if (!line.isBlank() && !line.startsWith("#")) {
+                    scenarios.add(StaffingScenario.parse(line));
+                }
+            }
+
+            VanadSSJReplay loader = new VanadSSJReplay();
+            loader.loadAndPrepareData(callsFile, "data/all_activities_2014_clean.csv");
+            WorkloadModel model = WorkloadModel.loadOrFit(VanadSSJReplay.modelFileFor(callsFile), callsFile,
+                    loader.getHistoricalCalls(), loader.getTopServices());
+
+            WhatIfScenarioEngine engine = new WhatIfScenarioEngine(loader.getHistoricalCalls(),
+                    loader.getTopServices(), model, Runtime.getRuntime().availableProcessors());
+            Map<StaffingScenario, ReplicationResult> results = engine.runAll(scenarios);
+            engine.exportSummary(results, "vanad_scenarios.csv");
+        } catch (Exception e) {
+            System.err.println("ERREUR: " + e.getMessage());
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Exécute tous les scénarios en parallèle, résultats dans l'ordre de soumission
+     */
+    public Map<StaffingScenario, ReplicationResult> runAll(List<StaffingScenario> scenarios)
+            throws InterruptedException, ExecutionException {
+        Chrono chrono = new Chrono();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            Map<StaffingScenario, Future<ReplicationResult>> futures = new LinkedHashMap<>();
+            int index = 0;
+            for (StaffingScenario scenario : scenarios) {
+                int replication = index++;
+                futures.put(scenario, executor.submit(() -> runScenario(replication, scenario)));
+            }
+
+            Map<StaffingScenario, ReplicationResult> results = new LinkedHashMap<>();
+            for (Map.Entry<StaffingScenario, Future<ReplicationResult>> entry : futures.entrySet()) {
+                results.put(entry.getKey(), entry.getValue().get());
+            }
+
+            printSummary(results);
+            System.out.printf("%d scénarios terminés en %.2f secondes (%d threads)\n",
+                    scenarios.size(), chrono.getSeconds(), threads);
+            return results;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private ReplicationResult runScenario(int index, StaffingScenario scenario) {
+        VanadSSJReplay replay = new VanadSSJReplay();
+        replay.setSimulatedRouting(true);
+        replay.setVerbose(false);
+        replay.setWorkloadModel(model);
+        replay.setScenario(scenario);
+        replay.setRetainStates(false);
+        replay.prepare(calls, services);
+        replay.runSimulation();
+        return replay.summarize(index);
+    }
+
+    private void printSummary(Map<StaffingScenario, ReplicationResult> results) {
+        System.out.println("\n=== RÉSULTATS DES SCÉNARIOS ===");
+        System.out.printf("%-24s %10s %12s %10s %10s\n", "Scénario", "Appels", "Attente(s)", "File", "Abandon");
+        results.forEach((scenario, result) -> System.out.printf(Locale.US, "%-24s %10d %12.2f %10.2f %10.4f\n",
+                scenario.getName(), result.calls(), result.avgWait(), result.avgQueue(), result.abandonRate()));
+    }
+
+    /**
+     * Export CSV: une ligne par scénario, attente moyenne par service en colonnes
+     */
+    public void exportSummary(Map<StaffingScenario, ReplicationResult> results, String filename) throws IOException {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(filename))) {
+            StringBuilder header = new StringBuilder("scenario,calls,samples,avg_wait,avg_queue,abandon_rate");
+            for (String service : services) header.append(",wait_").append(service);
+            writer.println(header);
+
+            results.forEach((scenario, result) -> {
+                StringBuilder row = new StringBuilder(String.format(Locale.US, "%s,%d,%d,%.2f,%.2f,%.4f",
+                        scenario.getName(), result.calls(), result.samples(),
+                        result.avgWait(), result.avgQueue(), result.abandonRate()));
+                for (String service : services) {
+                    row.append(String.format(Locale.US, ",%.2f", result.serviceAvgWait().getOrDefault(service, 0.0)));
+                }
+                writer.println(row);
+            });
+        }
+    }
+}
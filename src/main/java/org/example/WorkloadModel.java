@@ -0,0 +1,367 @@
+package org.example;
+
+import org.example.model.Call;
+import org.example.model.SyntheticCall;
+import umontreal.ssj.randvar.ExponentialGen;
+import umontreal.ssj.randvar.LognormalGen;
+import umontreal.ssj.rng.RandomStream;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Modèle de charge ajusté sur les appels historiques
+ * - taux d'arrivée par service × heure de la semaine (Poisson non homogène)
+ * - temps de service lognormal par service
+ * - patience exponentielle par service (estimateur censuré)
+ * Sauvegardé en binaire compact pour être rechargé sans réajustement
+ */
+public class WorkloadModel {
+
+    public static final int HOURS_PER_WEEK = 168;
+    public static final double DEFAULT_SERVICE_TIME = 180.0;
+    private static final double MAX_SERVICE_TIME = 3600.0;
+    private static final int FIT_CHUNK = 1 << 16; // appels par tranche d'ajustement
+    private static final int MAGIC = 0x564D444C; // "VMDL"
+    private static final int FORMAT_VERSION = 1;
+
+    private final String[] services;
+    private final double[][] arrivalRates;   // [service][heure semaine] en appels/heure
+    private final double[] serviceLogMean;   // moyenne de ln(temps de service)
+    private final double[] serviceLogStd;    // écart-type de ln(temps de service)
+    private final double[] patienceRates;    // abandons par seconde d'attente
+
+    WorkloadModel(String[] services, double[][] arrivalRates, double[] serviceLogMean,
+                  double[] serviceLogStd, double[] patienceRates) {
+        this.services = services;
+        this.arrivalRates = arrivalRates;
+        this.serviceLogMean = serviceLogMean;
+        this.serviceLogStd = serviceLogStd;
+        this.patienceRates = patienceRates;
+    }
+
+    /**
+     * Ajustement du modèle sur une table d'appels (déjà filtrée sur les services)
+     * Une seule passe parallèle sur des tranches fixes de la table, fusionnées dans l'ordre
+     * des tranches: les sommes flottantes (donc le cache .model) ne dépendent pas du nombre de cœurs
+     */
+    public static WorkloadModel fit(List<Call> calls, String[] services) {
+        Map<String, Integer> index = new HashMap<>();
+        for (int s = 0; s < services.length; s++) index.put(services[s], s);
+
+        int chunks = (calls.size() + FIT_CHUNK - 1) / FIT_CHUNK;
+        FitAccumulator[] partials = IntStream.range(0, chunks).parallel()
+                .mapToObj(chunk -> {
+                    FitAccumulator partial = new FitAccumulator(services.length, index);
+                    int end = Math.min(calls.size(), (chunk + 1) * FIT_CHUNK);
+                    for (Call call : calls.subList(chunk * FIT_CHUNK, end)) {
+                        partial.accept(call);
+                    }
+                    return partial;
+                })
+                .toArray(FitAccumulator[]::new);
+
+        FitAccumulator acc = new FitAccumulator(services.length, index);
+        for (FitAccumulator partial : partials) {
+            acc.combine(partial);
+        }
+        return acc.toModel(services.clone());
+    }
+
+    /**
+     * Charge le modèle depuis le cache binaire s'il correspond au fichier source,
+     * sinon l'ajuste et réécrit le cache
+     */
+    public static WorkloadModel loadOrFit(Path modelFile, String callsFile, List<Call> calls, String[] services) {
+        WorkloadModel cached = loadCached(modelFile, callsFile, services);
+        if (cached != null) {
+            return cached;
+        }
+
+        WorkloadModel model = fit(calls, services);
+        try {
+            model.save(modelFile, fingerprint(callsFile));
+            System.out.printf("Modèle de charge ajusté et sauvegardé dans %s\n", modelFile);
+        } catch (IOException e) {
+            System.err.printf("Impossible de sauvegarder le modèle: %s\n", e.getMessage());
+        }
+        return model;
+    }
+
+    /**
+     * Modèle du cache s'il est à jour pour ce fichier et ces services, null sinon
+     * (permet de démarrer avant d'avoir lu les appels)
+     */
+    public static WorkloadModel loadCached(Path modelFile, String callsFile, String[] services) {
+        if (!Files.exists(modelFile)) {
+            return null;
+        }
+        try {
+            WorkloadModel cached = load(modelFile, fingerprint(callsFile));
+            if (cached != null && Arrays.equals(cached.services, services)) {
+                System.out.printf("Modèle de charge chargé depuis %s\n", modelFile);
+                return cached;
+            }
+        } catch (IOException e) {
+            System.err.printf("Cache modèle illisible (%s), réajustement\n", e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Empreinte du fichier source (taille, date de modification)
+     */
+    private static long[] fingerprint(String sourceFile) {
+        File file = new File(sourceFile);
+        return new long[] {file.length(), file.lastModified()};
+    }
+
+    /**
+     * Format binaire: en-tête (magic, version, empreinte source), services,
+     * puis par service 168 taux d'arrivée, paramètres lognormaux et taux de patience
+     */
+    public void save(Path modelFile, long[] fingerprint) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(modelFile)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(fingerprint[0]);
+            out.writeLong(fingerprint[1]);
+            out.writeInt(services.length);
+            for (int s = 0; s < services.length; s++) {
+                out.writeUTF(services[s]);
+                for (int h = 0; h < HOURS_PER_WEEK; h++) {
+                    out.writeDouble(arrivalRates[s][h]);
+                }
+                out.writeDouble(serviceLogMean[s]);
+                out.writeDouble(serviceLogStd[s]);
+                out.writeDouble(patienceRates[s]);
+            }
+        }
+    }
+
+    /**
+     * Lecture du cache binaire; null si l'empreinte ne correspond plus (fingerprint null: pas de contrôle)
+     */
+    public static WorkloadModel load(Path modelFile, long[] fingerprint) throws IOException {
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Files.newInputStream(modelFile)))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                return null;
+            }
+            long size = in.readLong();
+            long modified = in.readLong();
+            if (fingerprint != null && (size != fingerprint[0] || modified != fingerprint[1])) {
+                return null;
+            }
+
+            int n = in.readInt();
+            String[] services = new String[n];
+            double[][] rates = new double[n][HOURS_PER_WEEK];
+            double[] logMean = new double[n];
+            double[] logStd = new double[n];
+            double[] patience = new double[n];
+            for (int s = 0; s < n; s++) {
+                services[s] = in.readUTF();
+                for (int h = 0; h < HOURS_PER_WEEK; h++) {
+                    rates[s][h] = in.readDouble();
+                }
+                logMean[s] = in.readDouble();
+                logStd[s] = in.readDouble();
+                patience[s] = in.readDouble();
+            }
+            return new WorkloadModel(services, rates, logMean, logStd, patience);
+        }
+    }
+
+    /**
+     * Génère des arrivées synthétiques sur un horizon de plusieurs jours
+     * Un flux distinct par source d'aléa (arrivées, service, patience)
+     */
+    public List<Call> generate(LocalDateTime start, int days,
+                               RandomStream arrivalStream,
+                               RandomStream serviceStream,
+                               RandomStream patienceStream) {
+        List<Call> calls = new ArrayList<>();
+        LocalDateTime origin = start.truncatedTo(ChronoUnit.HOURS);
+        int totalHours = days * 24;
+
+        for (int hour = 0; hour < totalHours; hour++) {
+            LocalDateTime hourStart = origin.plusHours(hour);
+            int how = hourOfWeek(hourStart);
+
+            for (int s = 0; s < services.length; s++) {
+                double rate = arrivalRates[s][how];
+                if (rate <= 0) continue;
+
+                // Poisson constant par morceaux (taux horaire, temps en heures)
+                double t = ExponentialGen.nextDouble(arrivalStream, rate);
+                while (t < 1.0) {
+                    LocalDateTime received = hourStart.plusSeconds((long) (t * 3600.0));
+                    calls.add(new SyntheticCall(received, services[s],
+                            sampleServiceTime(s, serviceStream),
+                            samplePatience(s, patienceStream)));
+                    t += ExponentialGen.nextDouble(arrivalStream, rate);
+                }
+            }
+        }
+
+        calls.sort(Comparator.comparing(Call::getDateReceived));
+        return calls;
+    }
+
+    private double sampleServiceTime(int s, RandomStream stream) {
+        if (serviceLogStd[s] <= 0) return Math.exp(serviceLogMean[s]);
+        return Math.min(MAX_SERVICE_TIME, LognormalGen.nextDouble(stream, serviceLogMean[s], serviceLogStd[s]));
+    }
+
+    private double samplePatience(int s, RandomStream stream) {
+        if (patienceRates[s] <= 0) return Double.POSITIVE_INFINITY;
+        return ExponentialGen.nextDouble(stream, patienceRates[s]);
+    }
+
+    /**
+     * Indice heure de la semaine: lundi 0h = 0, dimanche 23h = 167
+     */
+    public static int hourOfWeek(LocalDateTime time) {
+        return (time.getDayOfWeek().getValue() - DayOfWeek.MONDAY.getValue()) * 24 + time.getHour();
+    }
+
+    /**
+     * Accumulateur d'ajustement (une instance par thread de la passe parallèle)
+     */
+    private static final class FitAccumulator {
+        private final Map<String, Integer> index;
+        private final long[][] arrivals;
+        private final double[] logSum;
+        private final double[] logSumSq;
+        private final long[] served;
+        private final long[] abandons;
+        private final double[] exposure;
+        private long firstDay = Long.MAX_VALUE;
+        private long lastDay = Long.MIN_VALUE;
+
+        FitAccumulator(int n, Map<String, Integer> index) {
+            this.index = index;
+            this.arrivals = new long[n][HOURS_PER_WEEK];
+            this.logSum = new double[n];
+            this.logSumSq = new double[n];
+            this.served = new long[n];
+            this.abandons = new long[n];
+            this.exposure = new double[n];
+        }
+
+        void accept(Call call) {
+            Integer s = index.get(call.getQueueName());
+            if (s == null || call.getDateReceived() == null) return;
+
+            LocalDateTime received = call.getDateReceived();
+            arrivals[s][hourOfWeek(received)]++;
+
+            long day = received.toLocalDate().toEpochDay();
+            firstDay = Math.min(firstDay, day);
+            lastDay = Math.max(lastDay, day);
+
+            if (call.getAnswered() != null) {
+                // Attente observée mais patience censurée
+                exposure[s] += Math.max(0, ChronoUnit.SECONDS.between(received, call.getAnswered()));
+                if (call.getHangup() != null) {
+                    double serviceTime = ChronoUnit.SECONDS.between(call.getAnswered(), call.getHangup());
+                    if (serviceTime > 0 && serviceTime < MAX_SERVICE_TIME) {
+                        double log = Math.log(serviceTime);
+                        logSum[s] += log;
+                        logSumSq[s] += log * log;
+                        served[s]++;
+                    }
+                }
+            } else if (call.getHangup() != null) {
+                // Abandon: la patience est observée
+                exposure[s] += Math.max(0, ChronoUnit.SECONDS.between(received, call.getHangup()));
+                abandons[s]++;
+            }
+        }
+
+        void combine(FitAccumulator other) {
+            for (int s = 0; s < served.length; s++) {
+                for (int h = 0; h < HOURS_PER_WEEK; h++) {
+                    arrivals[s][h] += other.arrivals[s][h];
+                }
+                logSum[s] += other.logSum[s];
+                logSumSq[s] += other.logSumSq[s];
+                served[s] += other.served[s];
+                abandons[s] += other.abandons[s];
+                exposure[s] += other.exposure[s];
+            }
+            firstDay = Math.min(firstDay, other.firstDay);
+            lastDay = Math.max(lastDay, other.lastDay);
+        }
+
+        WorkloadModel toModel(String[] services) {
+            int n = services.length;
+
+            // Nombre d'occurrences de chaque jour de la semaine dans la période observée
+            long[] dayOccurrences = new long[7];
+            for (long day = firstDay; day <= lastDay; day++) {
+                dayOccurrences[LocalDate.ofEpochDay(day).getDayOfWeek().getValue() - 1]++;
+            }
+
+            double[][] rates = new double[n][HOURS_PER_WEEK];
+            double[] logMean = new double[n];
+            double[] logStd = new double[n];
+            double[] patience = new double[n];
+
+            for (int s = 0; s < n; s++) {
+                for (int h = 0; h < HOURS_PER_WEEK; h++) {
+                    long occurrences = dayOccurrences[h / 24];
+                    rates[s][h] = occurrences > 0 ? arrivals[s][h] / (double) occurrences : 0.0;
+                }
+                if (served[s] > 0) {
+                    logMean[s] = logSum[s] / served[s];
+                    double variance = logSumSq[s] / served[s] - logMean[s] * logMean[s];
+                    logStd[s] = Math.sqrt(Math.max(0, variance));
+                } else {
+                    logMean[s] = Math.log(DEFAULT_SERVICE_TIME);
+                    logStd[s] = 0.0;
+                }
+                patience[s] = exposure[s] > 0 ? abandons[s] / exposure[s] : 0.0;
+            }
+
+            return new WorkloadModel(services, rates, logMean, logStd, patience);
+        }
+    }
+
+    // Accesseurs
+
+    public String[] getServices() {
+        return services;
+    }
+
+    public int serviceIndex(String service) {
+        for (int s = 0; s < services.length; s++) {
+            if (services[s].equals(service)) return s;
+        }
+        return -1;
+    }
+
+    public double getArrivalRate(int service, int hourOfWeek) {
+        return arrivalRates[service][hourOfWeek];
+    }
+
+    /**
+     * Temps de service moyen (espérance de la lognormale)
+     */
+    public double getMeanServiceTime(int service) {
+        return Math.exp(serviceLogMean[service] + serviceLogStd[service] * serviceLogStd[service] / 2.0);
+    }
+
+    public double getPatienceRate(int service) {
+        return patienceRates[service];
+    }
+}
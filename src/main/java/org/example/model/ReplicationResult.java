@@ -0,0 +1,23 @@
+package org.example.model;
+
+import java.util.Map;
+
+/**
+ * Résultat agrégé d'une réplication de simulation (ou d'un scénario)
+ *
+ * @param replication   indice de la réplication
+ * @param calls         nombre d'appels simulés
+ * @param samples       nombre d'états capturés valides
+ * @param avgWait       temps d'attente moyen (secondes)
+ * @param avgQueue      longueur moyenne de la file à l'arrivée
+ * @param abandonRate   proportion d'appels abandonnés
+ * @param serviceAvgWait temps d'attente moyen par service (secondes)
+ */
+public record ReplicationResult(int replication,
+                                int calls,
+                                int samples,
+                                double avgWait,
+                                double avgQueue,
+                                double abandonRate,
+                                Map<String, Double> serviceAvgWait) {
+}
@@ -0,0 +1,46 @@
+package org.example.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Appel synthétique généré à partir d'un modèle de charge ajusté
+ * Porte la durée de service et la patience tirées aléatoirement (en secondes)
+ */
+public class SyntheticCall extends Call {
+
+    private final double serviceTime;
+    private final double patience;
+
+    public SyntheticCall(LocalDateTime dateReceived, String queueName, double serviceTime, double patience) {
+        super(dateReceived, queueName, null);
+        this.serviceTime = serviceTime;
+        this.patience = patience;
+
+        // Champs calculés de date/heure (même sémantique que le CSV)
+        setYear(dateReceived.getYear());
+        setMonth(dateReceived.getMonthValue());
+        setDay(dateReceived.getDayOfMonth());
+        setDayOfWeek(dateReceived.getDayOfWeek().getValue());
+        setHour(dateReceived.getHour());
+        setMinute(dateReceived.getMinute());
+        setTimeOfDay(dateReceived.toLocalTime().toSecondOfDay() / 3600.0);
+    }
+
+    public double getServiceTime() {
+        return serviceTime;
+    }
+
+    public double getPatience() {
+        return patience;
+    }
+
+    @Override
+    public String toString() {
+        return "SyntheticCall{" +
+                "dateReceived=" + getDateReceived() +
+                ", queueName='" + getQueueName() + '\'' +
+                ", serviceTime=" + serviceTime +
+                ", patience=" + patience +
+                '}';
+    }
+}
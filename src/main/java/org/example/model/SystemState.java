@@ -18,6 +18,7 @@ public class SystemState {
     // Prédicteurs
     private double lesPredictor;      // Linear Exponential Smoothing
     private double avgLesPredictor;   // Average Linear Exponential Smoothing
+    private double[] predictorValues; // Tous les prédicteurs enregistrés (dans l'ordre du replay)
 
     // Variable cible
     private double actualWaitTime;    // Temps d'attente réel (en secondes)
@@ -142,6 +143,14 @@ public class SystemState {
         this.avgLesPredictor = avgLesPredictor;
     }
 
+    public double[] getPredictorValues() {
+        return predictorValues;
+    }
+
+    public void setPredictorValues(double[] predictorValues) {
+        this.predictorValues = predictorValues;
+    }
+
     public double getActualWaitTime() {
         return actualWaitTime;
     }
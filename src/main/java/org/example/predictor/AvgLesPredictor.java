@@ -0,0 +1,56 @@
+package org.example.predictor;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Avg-LES: moyenne des LES de tous les services pondérée par le nombre d'échantillons,
+ * maintenue par des totaux globaux mis à jour à chaque ajout/éviction
+ */
+public class AvgLesPredictor extends LesPredictor {
+
+    private double totalSum = 0.0;
+    private long totalCount = 0;
+
+    public AvgLesPredictor(int windowSize) {
+        super(windowSize);
+    }
+
+    @Override
+    public String name() {
+        return "P_Avg_LES";
+    }
+
+    @Override
+    public double predict(PredictorContext context) {
+        double avgLes = totalCount > 0 ? totalSum / totalCount : defaultWait(context);
+        return adjustForLoad(avgLes, context);
+    }
+
+    @Override
+    public void onAnswer(String serviceType, double waitTime) {
+        RunningWindow window = windows.computeIfAbsent(serviceType, s -> new RunningWindow(windowSize));
+        boolean wasFull = window.isFull();
+        double evicted = window.add(waitTime);
+
+        totalSum += waitTime - evicted;
+        if (!wasFull) {
+            totalCount++;
+        }
+    }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        super.writeState(out);
+        out.writeDouble(totalSum);
+        out.writeLong(totalCount);
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        super.readState(in);
+        totalSum = in.readDouble();
+        totalCount = in.readLong();
+    }
+}
@@ -0,0 +1,58 @@
+package org.example.predictor;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * LES à lissage exponentiel: moyenne exponentielle des attentes par service
+ */
+public class EwLesPredictor implements WaitPredictor {
+
+    private final double alpha;
+    private final Map<String, double[]> smoothed = new HashMap<>(); // {valeur}
+
+    public EwLesPredictor(double alpha) {
+        this.alpha = alpha;
+    }
+
+    @Override
+    public String name() {
+        return "P_EW_LES";
+    }
+
+    @Override
+    public double predict(PredictorContext context) {
+        double[] value = smoothed.get(context.getServiceType());
+        return value != null ? value[0] : LesPredictor.defaultWait(context);
+    }
+
+    @Override
+    public void onAnswer(String serviceType, double waitTime) {
+        double[] value = smoothed.get(serviceType);
+        if (value == null) {
+            smoothed.put(serviceType, new double[] {waitTime});
+        } else {
+            value[0] += alpha * (waitTime - value[0]);
+        }
+    }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        out.writeInt(smoothed.size());
+        for (Map.Entry<String, double[]> entry : smoothed.entrySet()) {
+            out.writeUTF(entry.getKey());
+            out.writeDouble(entry.getValue()[0]);
+        }
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        smoothed.clear();
+        for (int i = in.readInt(); i > 0; i--) {
+            smoothed.put(in.readUTF(), new double[] {in.readDouble()});
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package org.example.predictor;
+
+/**
+ * HOL (Head Of Line): attente déjà écoulée du client en tête de file
+ */
+public class HolPredictor implements WaitPredictor {
+
+    @Override
+    public String name() {
+        return "P_HOL";
+    }
+
+    @Override
+    public double predict(PredictorContext context) {
+        return context.getHeadOfLineWait();
+    }
+}
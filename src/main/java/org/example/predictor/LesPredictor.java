@@ -0,0 +1,76 @@
+package org.example.predictor;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * LES (Last Experience Sharing): moyenne des N dernières attentes du même service,
+ * ajustée par la charge courante
+ */
+public class LesPredictor implements WaitPredictor {
+
+    protected final int windowSize;
+    protected final Map<String, RunningWindow> windows = new HashMap<>();
+
+    public LesPredictor(int windowSize) {
+        this.windowSize = windowSize;
+    }
+
+    @Override
+    public String name() {
+        return "P_LES";
+    }
+
+    @Override
+    public double predict(PredictorContext context) {
+        RunningWindow window = windows.get(context.getServiceType());
+        double les = window != null && !window.isEmpty() ? window.average() : defaultWait(context);
+        return adjustForLoad(les, context);
+    }
+
+    @Override
+    public void onAnswer(String serviceType, double waitTime) {
+        windows.computeIfAbsent(serviceType, s -> new RunningWindow(windowSize)).add(waitTime);
+    }
+
+    @Override
+    public void writeState(DataOutput out) throws IOException {
+        out.writeInt(windows.size());
+        for (Map.Entry<String, RunningWindow> entry : windows.entrySet()) {
+            out.writeUTF(entry.getKey());
+            entry.getValue().writeState(out);
+        }
+    }
+
+    @Override
+    public void readState(DataInput in) throws IOException {
+        windows.clear();
+        for (int i = in.readInt(); i > 0; i--) {
+            RunningWindow window = new RunningWindow(windowSize);
+            windows.put(in.readUTF(), window);
+            window.readState(in);
+        }
+    }
+
+    /**
+     * Estimation sans historique: (file / agents disponibles) × temps de service moyen
+     */
+    protected static double defaultWait(PredictorContext context) {
+        int available = context.getAvailableAgents();
+        if (available > 0) {
+            return (context.getQueueLength() / (double) available) * context.getAvgServiceTime();
+        }
+        return context.getQueueLength() * context.getAvgServiceTime() * 2.0;
+    }
+
+    /**
+     * Facteur de correction basé sur la charge actuelle
+     */
+    protected static double adjustForLoad(double prediction, PredictorContext context) {
+        double queueFactor = Math.max(0.1, context.getQueueLength() / Math.max(1.0, context.getAvailableAgents()));
+        return Math.max(0, prediction + (queueFactor * context.getAvgServiceTime() * 0.1));
+    }
+}
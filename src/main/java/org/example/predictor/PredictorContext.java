@@ -0,0 +1,55 @@
+package org.example.predictor;
+
+/**
+ * État du système vu par les prédicteurs à l'arrivée d'un appel
+ * Instance réutilisée par le replay (aucune allocation par événement)
+ */
+public class PredictorContext {
+
+    private String serviceType;
+    private int queueLength;
+    private int availableAgents;
+    private int competentAgents;
+    private double headOfLineWait;
+    private double avgServiceTime;
+
+    public void set(String serviceType, int queueLength, int availableAgents, int competentAgents,
+                    double headOfLineWait, double avgServiceTime) {
+        this.serviceType = serviceType;
+        this.queueLength = queueLength;
+        this.availableAgents = availableAgents;
+        this.competentAgents = competentAgents;
+        this.headOfLineWait = headOfLineWait;
+        this.avgServiceTime = avgServiceTime;
+    }
+
+    public String getServiceType() {
+        return serviceType;
+    }
+
+    public int getQueueLength() {
+        return queueLength;
+    }
+
+    public int getAvailableAgents() {
+        return availableAgents;
+    }
+
+    /**
+     * Nombre d'agents ayant la compétence du service (libres ou non)
+     */
+    public int getCompetentAgents() {
+        return competentAgents;
+    }
+
+    /**
+     * Attente écoulée du client en tête de file (secondes, 0 si file vide)
+     */
+    public double getHeadOfLineWait() {
+        return headOfLineWait;
+    }
+
+    public double getAvgServiceTime() {
+        return avgServiceTime;
+    }
+}
@@ -0,0 +1,21 @@
+package org.example.predictor;
+
+/**
+ * QL (Queue Length): (file + 1) × temps de service moyen / agents compétents
+ */
+public class QueueLengthPredictor implements WaitPredictor {
+
+    @Override
+    public String name() {
+        return "P_QL";
+    }
+
+    @Override
+    public double predict(PredictorContext context) {
+        if (context.getAvailableAgents() > 0 && context.getQueueLength() == 0) {
+            return 0.0;
+        }
+        return (context.getQueueLength() + 1) * context.getAvgServiceTime()
+                / Math.max(1, context.getCompetentAgents());
+    }
+}
@@ -0,0 +1,77 @@
+package org.example.predictor;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Fenêtre glissante de taille fixe avec somme courante (moyenne en O(1))
+ */
+public class RunningWindow {
+
+    private final double[] values;
+    private int size = 0;
+    private int index = 0;
+    private double sum = 0.0;
+
+    public RunningWindow(int capacity) {
+        this.values = new double[capacity];
+    }
+
+    /**
+     * Ajoute une valeur et retourne la valeur évincée (0 si la fenêtre n'était pas pleine)
+     */
+    public double add(double value) {
+        double evicted = 0.0;
+        if (size < values.length) {
+            size++;
+        } else {
+            evicted = values[index];
+        }
+        values[index] = value;
+        index = (index + 1) % values.length;
+        sum += value - evicted;
+        return evicted;
+    }
+
+    public boolean isFull() {
+        return size == values.length;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double sum() {
+        return sum;
+    }
+
+    public double average() {
+        return size == 0 ? 0.0 : sum / size;
+    }
+
+    /**
+     * Contenu, position et somme courante (restauration exacte de la moyenne)
+     */
+    public void writeState(DataOutput out) throws IOException {
+        out.writeInt(size);
+        out.writeInt(index);
+        out.writeDouble(sum);
+        for (int i = 0; i < size; i++) {
+            out.writeDouble(values[i]);
+        }
+    }
+
+    public void readState(DataInput in) throws IOException {
+        size = in.readInt();
+        index = in.readInt();
+        sum = in.readDouble();
+        for (int i = 0; i < size; i++) {
+            values[i] = in.readDouble();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package org.example.predictor;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Prédicteur de temps d'attente alimenté de façon incrémentale par le replay
+ * Chaque hook et chaque prédiction doivent s'exécuter en O(1)
+ */
+public interface WaitPredictor {
+
+    /**
+     * Nom de la colonne dans le dataset (ex: P_LES)
+     */
+    String name();
+
+    /**
+     * Prédiction pour un appel arrivant dans l'état décrit par le contexte
+     */
+    double predict(PredictorContext context);
+
+    /**
+     * Arrivée d'un appel (appelé après la prédiction de cet appel)
+     */
+    default void onArrival(PredictorContext context) {}
+
+    /**
+     * Temps d'attente observé d'un appel servi (secondes)
+     * En replay historique il est connu au raccroché, comme les métriques récentes
+     */
+    default void onAnswer(String serviceType, double waitTime) {}
+
+    /**
+     * Fin de service d'un appel, avec sa durée de service (secondes)
+     */
+    default void onHangup(String serviceType, double serviceTime) {}
+
+    /**
+     * Sauvegarde de l'état interne (point de reprise); rien pour un prédicteur sans état
+     */
+    default void writeState(DataOutput out) throws IOException {}
+
+    /**
+     * Restauration de l'état écrit par {@link #writeState}
+     */
+    default void readState(DataInput in) throws IOException {}
+}
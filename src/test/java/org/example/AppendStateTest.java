@@ -0,0 +1,100 @@
+package org.example;
+
+import org.example.model.Call;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * État de l'ajout quotidien: appels reportés renumérotés, aller-retour binaire
+ */
+class AppendStateTest {
+
+    private static List<Call> table(int size) {
+        List<Call> calls = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Call call = new Call();
+            call.setDateReceived(LocalDateTime.of(2014, 1, 6, 23, 0).plusMinutes(i));
+            call.setQueueName(i % 2 == 0 ? "30175" : "30181");
+            call.setAgentNumber(i % 3 == 0 ? null : (double) i);
+            call.setHangup(call.getDateReceived().plusMinutes(90));
+            call.setHour(23);
+            calls.add(call);
+        }
+        return calls;
+    }
+
+    @Test
+    void onlyReferencedCallsAreCarriedInTableOrder() {
+        VanadSSJReplay.AgentState busy = new VanadSSJReplay.AgentState(4, Set.of("30181", "30175"));
+        busy.setBusy(true);
+        busy.setLastActivityTime(23.9);
+
+        AppendState state = AppendState.capture(23.95, table(12), List.of(busy),
+                List.of(new VanadSSJReplay.ScheduledEvent(24.4, NativeReplayKernel.HANGUP, 9),
+                        new VanadSSJReplay.ScheduledEvent(24.1, NativeReplayKernel.ANSWERED, 5)),
+                List.of(new VanadSSJReplay.RoutedAnswer(7, 4, 24.05)),
+                List.of(new int[] {11, 9}, new int[0]));
+
+        assertEquals(List.of(5, 7, 9, 11), state.calls.stream()
+                .map(call -> call.getDateReceived().getMinute()).toList());
+        assertEquals(List.of(new AppendState.Planned(2, NativeReplayKernel.HANGUP),
+                new AppendState.Planned(0, NativeReplayKernel.ANSWERED)), state.planned);
+        assertEquals(List.of(new VanadSSJReplay.RoutedAnswer(1, 4, 24.05)), state.routes);
+        assertArrayEquals(new int[] {3, 2}, state.queues.get(0));
+        assertArrayEquals(new int[0], state.queues.get(1));
+    }
+
+    @Test
+    void binaryRoundTripKeepsAgentsCallsAndQueues() throws IOException {
+        VanadSSJReplay.AgentState idle = new VanadSSJReplay.AgentState(2, Set.of());
+        idle.setLastActivityTime(20.0);
+        VanadSSJReplay.AgentState busy = new VanadSSJReplay.AgentState(4, Set.of("30181", "30175"));
+        busy.setBusy(true);
+        busy.setLastActivityTime(23.9);
+        AppendState state = AppendState.capture(23.95, table(4), List.of(idle, busy),
+                List.of(new VanadSSJReplay.ScheduledEvent(24.1, NativeReplayKernel.ARRIVAL, 3)),
+                List.of(new VanadSSJReplay.RoutedAnswer(1, 4, 24.05)),
+                List.of(new int[] {0}, new int[0]));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            state.write(out);
+            out.writeInt(42); // état par service à la suite
+        }
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        AppendState read = AppendState.read(in, 2);
+        assertEquals(42, in.readInt());
+
+        assertEquals(23.95, read.chainStart);
+        assertEquals(2, read.agents.size());
+        assertEquals(Set.of(), read.agents.get(0).getSkills());
+        assertTrue(read.agents.get(0).isAvailable());
+        assertEquals(20.0, read.agents.get(0).getLastActivityTime());
+        assertEquals(Set.of("30175", "30181"), read.agents.get(1).getSkills());
+        assertFalse(read.agents.get(1).isAvailable());
+
+        assertEquals(3, read.calls.size());
+        for (int i = 0; i < read.calls.size(); i++) {
+            Call expected = state.calls.get(i);
+            Call actual = read.calls.get(i);
+            assertEquals(expected.getDateReceived(), actual.getDateReceived());
+            assertEquals(expected.getQueueName(), actual.getQueueName());
+            assertEquals(expected.getAgentNumber(), actual.getAgentNumber());
+            assertEquals(expected.getHangup(), actual.getHangup());
+            assertNull(actual.getAnswered());
+            assertEquals(23, actual.getHour());
+            assertNull(actual.getMinute());
+        }
+        assertEquals(state.planned, read.planned);
+        assertEquals(state.routes, read.routes);
+        assertArrayEquals(state.queues.get(0), read.queues.get(0));
+        assertArrayEquals(state.queues.get(1), read.queues.get(1));
+    }
+}
@@ -0,0 +1,64 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Ordre du tas d'événements: temps croissant, puis ordre d'insertion à temps égal (FIFO SSJ)
+ */
+class EventHeapTest {
+
+    private record Pending(double time, long seq, byte type, int call, int agent) {
+    }
+
+    @Test
+    void equalTimesLeaveInInsertionOrder() {
+        EventHeap heap = new EventHeap();
+        heap.add(2.0, (byte) 0, 10, -1);
+        heap.add(1.0, (byte) 1, 11, 3);
+        heap.add(2.0, (byte) 2, 12, -1);
+        heap.add(1.0, (byte) 0, 13, -1);
+
+        int[] expected = {11, 13, 10, 12};
+        for (int call : expected) {
+            assertFalse(heap.isEmpty());
+            assertEquals(call, heap.topCall());
+            heap.removeTop();
+        }
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    void matchesAReferenceQueueUnderInterleavedAddsAndRemoves() {
+        Random random = new Random(3);
+        EventHeap heap = new EventHeap();
+        PriorityQueue<Pending> reference = new PriorityQueue<>(
+                Comparator.comparingDouble(Pending::time).thenComparingLong(Pending::seq));
+        long seq = 0;
+        double clock = 0.0;
+
+        for (int step = 0; step < 20_000; step++) {
+            if (reference.isEmpty() || random.nextInt(3) > 0) {
+                double time = clock + random.nextInt(50) * 0.25; // beaucoup d'égalités
+                Pending event = new Pending(time, seq++, (byte) random.nextInt(3), random.nextInt(1000),
+                        random.nextInt(20));
+                heap.add(event.time(), event.type(), event.call(), event.agent());
+                reference.add(event);
+            } else {
+                Pending expected = reference.poll();
+                assertEquals(expected.time(), heap.topTime());
+                assertEquals(expected.type(), heap.topType());
+                assertEquals(expected.call(), heap.topCall());
+                assertEquals(expected.agent(), heap.topAgent());
+                heap.removeTop();
+                clock = expected.time();
+            }
+            assertEquals(reference.size(), heap.size());
+        }
+    }
+}
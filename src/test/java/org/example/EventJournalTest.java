@@ -0,0 +1,133 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Aller-retour du journal des événements (écriture par le replay, relecture, fusion des composantes)
+ */
+class EventJournalTest {
+
+    private static final String[] SERVICES = {"30175", "30181", "30560"};
+    private static final LocalDateTime START = LocalDateTime.of(2014, 1, 6, 0, 0);
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Enregistrement relu, copié (le lecteur réutilise son instance)
+     */
+    private record Event(byte type, int service, double time, long order, int available, List<Integer> queues,
+                         List<Integer> previous, long received, double headOfLine, double waitTime, double serviceTime,
+                         int observed) {
+
+        static Event of(EventJournal.Record record) {
+            List<Integer> queues = new ArrayList<>();
+            List<Integer> previous = new ArrayList<>();
+            for (int s = 0; s < record.queueLengths.length; s++) {
+                queues.add(record.queueLengths[s]);
+                previous.add(record.previousQueueLengths[s]);
+            }
+            return new Event(record.type, record.service, record.time, record.order, record.availableAgents,
+                    queues, previous, record.receivedSeconds, record.headOfLineWait, record.waitTime,
+                    record.serviceTime, record.observedAgents);
+        }
+    }
+
+    private static List<Event> read(Path file) throws IOException {
+        List<Event> events = new ArrayList<>();
+        new EventJournal.Reader(file).forEach(record -> events.add(Event.of(record)));
+        return events;
+    }
+
+    @Test
+    void replayJournalRoundTrip() throws IOException {
+        Path file = directory.resolve(EventJournal.JOURNAL_FILE);
+        Files.writeString(EventJournal.modelFile(file), "périmé");
+        int[] queues = {2, 0, 1};
+
+        ReplayJournal journal = ReplayJournal.open(file, SERVICES, START, new int[] {4, 6, 2}, s -> queues[s], null);
+        queues[1] = 1;
+        journal.arrival(8.25, 0, 1, 3, 1_389_000_000L, 12.0, 5, 30.5);
+        queues[1] = 0;
+        journal.answered(8.26, 1, 1, 2);
+        journal.hangup(8.5, 2, 1, 3, 30.5, 840.0);
+        assertEquals(3, journal.close());
+        assertFalse(Files.exists(EventJournal.modelFile(file)), "modèle absent: fichier compagnon supprimé");
+
+        EventJournal.Reader reader = new EventJournal.Reader(file);
+        assertArrayEquals(SERVICES, reader.getServices());
+        assertEquals(START, reader.getStartTime());
+        assertEquals(6, reader.getCompetentAgents(1));
+
+        List<Event> events = read(file);
+        assertEquals(List.of(
+                new Event(EventJournal.ARRIVAL, 1, 8.25, 0, 3, List.of(2, 1, 1), List.of(2, 0, 1),
+                        1_389_000_000L, 12.0, 30.5, Double.NaN, 5),
+                new Event(EventJournal.ANSWERED, 1, 8.26, 1, 2, List.of(2, 0, 1), List.of(2, 1, 1),
+                        0L, 0.0, 0.0, 0.0, 0),
+                new Event(EventJournal.HANGUP, 1, 8.5, 2, 3, List.of(2, 0, 1), List.of(2, 0, 1),
+                        0L, 0.0, 30.5, 840.0, 0)), events);
+    }
+
+    @Test
+    void incompleteTrailingRecordIsIgnored() throws IOException {
+        Path file = directory.resolve("interrupted.bin");
+        ReplayJournal journal = new ReplayJournal(file, SERVICES, START, new int[3], s -> 0);
+        journal.answered(1.0, 0, 0, 1);
+        journal.answered(2.0, 1, 2, 1);
+        journal.close();
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 5); // arrêt au milieu du dernier enregistrement
+        }
+        List<Event> events = read(file);
+        assertEquals(1, events.size());
+        assertEquals(1.0, events.get(0).time());
+    }
+
+    @Test
+    void mergeInterleavesComponentsByTimeThenOrder() throws IOException {
+        // composante 0: services 0 et 2; composante 1: service 1
+        int[] firstQueues = {1, 9, 0};
+        int[] secondQueues = {9, 3, 9};
+        Path first = directory.resolve("component_0.bin");
+        Path second = directory.resolve("component_1.bin");
+        ReplayJournal a = new ReplayJournal(first, SERVICES, START, new int[3], s -> firstQueues[s]);
+        ReplayJournal b = new ReplayJournal(second, SERVICES, START, new int[3], s -> secondQueues[s]);
+
+        firstQueues[0] = 2;
+        a.answered(1.0, 5, 0, 0);
+        secondQueues[1] = 4;
+        b.answered(1.0, 2, 1, 0);    // même temps, clé d'ordre plus petite: avant
+        firstQueues[2] = 1;
+        a.answered(3.0, 7, 2, 0);
+        secondQueues[1] = 2;
+        b.answered(2.0, 6, 1, 0);
+        a.close();
+        b.close();
+
+        List<Event> merged = new ArrayList<>();
+        long count = EventJournal.merge(List.of(new EventJournal.Reader(first), new EventJournal.Reader(second)),
+                new int[][] {{0, 2}, {1}}, record -> merged.add(Event.of(record)));
+
+        assertEquals(4, count);
+        assertEquals(List.of(2L, 5L, 6L, 7L), merged.stream().map(Event::order).toList());
+        assertEquals(List.of(1, 4, 0), merged.get(0).queues());
+        assertEquals(List.of(1, 3, 0), merged.get(0).previous()); // état initial recomposé
+        assertEquals(List.of(2, 4, 0), merged.get(1).queues());
+        assertEquals(List.of(2, 2, 0), merged.get(2).queues());
+        assertEquals(List.of(2, 2, 1), merged.get(3).queues());
+    }
+}
@@ -0,0 +1,91 @@
+package org.example;
+
+import org.example.model.SystemState;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Arène des états capturés: voies d'un enregistrement, croissance, copie, réutilisation
+ */
+class FeatureArenaTest {
+
+    private static SystemState state(int queue, int[] others, LocalDateTime arrival, double wait) {
+        SystemState state = new SystemState();
+        state.setServiceType("30181");
+        state.setQueueLength(queue);
+        state.setOtherQueuesLengths(others);
+        state.setArrivalTime(arrival);
+        state.setAvailableAgents(queue + 1);
+        state.setLesPredictor(queue * 10.0);
+        state.setAvgLesPredictor(queue * 20.0);
+        state.setPredictorValues(new double[] {-1, -1, queue * 30.0, queue * 40.0, queue * 50.0});
+        state.setActualWaitTime(wait);
+        return state;
+    }
+
+    @Test
+    void recordsKeepEveryLaneOfTheCapturedState() {
+        FeatureArena arena = new FeatureArena(5);
+        LocalDateTime arrival = LocalDateTime.of(2014, 3, 9, 23, 59, 58); // dimanche
+        int record = arena.add(state(4, new int[] {1, 2, 3, 4, 5}, arrival, 12.5), 3);
+
+        assertEquals(0, record);
+        assertEquals(1, arena.size());
+        assertEquals(5, arena.predictorCount());
+        assertEquals(3, arena.service(record));
+        assertEquals(4, arena.queueLength(record));
+        assertArrayEquals(new int[] {1, 2, 3, 4}, new int[] {arena.otherQueue(record, 0), arena.otherQueue(record, 1),
+                arena.otherQueue(record, 2), arena.otherQueue(record, 3)}); // quatre voies au plus
+        assertEquals(5, arena.availableAgents(record));
+        assertEquals(arrival.toEpochSecond(ZoneOffset.UTC), arena.epochSecond(record));
+        assertEquals(23, arena.hour(record));
+        assertEquals(7, arena.dayOfWeek(record));
+        assertArrayEquals(new double[] {40, 80, 120, 160, 200}, new double[] {arena.predictor(record, 0),
+                arena.predictor(record, 1), arena.predictor(record, 2), arena.predictor(record, 3),
+                arena.predictor(record, 4)});
+        assertEquals(12.5, arena.waitTime(record));
+    }
+
+    @Test
+    void missingLanesAreZero() {
+        FeatureArena arena = new FeatureArena(4);
+        SystemState state = state(2, new int[] {7}, LocalDateTime.of(1969, 12, 31, 22, 0), 0.0);
+        state.setPredictorValues(null);
+        int record = arena.add(state, 0);
+
+        assertEquals(7, arena.otherQueue(record, 0));
+        assertEquals(0, arena.otherQueue(record, 3));
+        assertEquals(0.0, arena.predictor(record, 2));
+        assertEquals(0.0, arena.predictor(record, 3));
+        assertEquals(22, arena.hour(record)); // avant l'epoch
+        assertEquals(3, arena.dayOfWeek(record)); // mercredi
+    }
+
+    @Test
+    void growsCopiesAndClearsWithoutLosingRecords() {
+        FeatureArena arena = new FeatureArena(2, 1);
+        LocalDateTime start = LocalDateTime.of(2014, 1, 6, 8, 0);
+        for (int i = 0; i < 1_000; i++) {
+            arena.add(state(i, new int[] {i, i, i, i}, start.plusSeconds(i), i * 0.5), i % 4);
+        }
+        assertEquals(1_000, arena.size());
+        assertEquals(999, arena.queueLength(999));
+        assertEquals(499.5, arena.waitTime(999));
+
+        FeatureArena copy = new FeatureArena(2);
+        assertEquals(0, copy.copy(arena, 500));
+        assertEquals(500, copy.queueLength(0));
+        assertEquals(arena.epochSecond(500), copy.epochSecond(0));
+        assertEquals(arena.predictor(500, 1), copy.predictor(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new FeatureArena(3).copy(arena, 0));
+
+        arena.clear();
+        assertEquals(0, arena.size());
+        assertEquals(0, arena.add(state(1, new int[0], start, 1.0), 1));
+        assertEquals(1, arena.queueLength(0));
+    }
+}
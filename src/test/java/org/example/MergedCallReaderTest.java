@@ -0,0 +1,105 @@
+package org.example;
+
+import org.example.model.Call;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Fusion k-voies: ordre global, départage par fichier, filtres poussés, résolution des globs
+ */
+class MergedCallReaderTest {
+
+    private static final String HEADER = "date_received,queue_name,agent_number,answered,consult,transfer,hangup,"
+            + "year,month,day,day_of_week,hour,minute,time_of_day\n";
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Fichier d'appels: "HH:mm:ss file" par ligne, le 6 janvier 2014
+     */
+    private String calls(String name, String... rows) throws IOException {
+        StringBuilder content = new StringBuilder(HEADER);
+        for (String row : rows) {
+            String[] parts = row.split(" ");
+            String received = "2014-01-06 " + parts[0];
+            int hour = Integer.parseInt(parts[0].substring(0, 2));
+            content.append(String.format("%s,%s,8,%s,,,%s,2014,1,6,1,%d,0,%d.0\n",
+                    received, parts[1], received, received, hour, hour));
+        }
+        Path file = directory.resolve(name);
+        Files.writeString(file, content);
+        return file.toString();
+    }
+
+    private static List<String> drain(MergedCallReader reader) throws IOException {
+        List<String> merged = new ArrayList<>();
+        Call call;
+        while ((call = reader.next()) != null) {
+            merged.add(call.getDateReceived().toLocalTime() + " " + call.getQueueName());
+        }
+        return merged;
+    }
+
+    @Test
+    void mergesFilesChronologicallyWithFileOrderOnTies() throws IOException {
+        String january = calls("calls_01.csv", "08:00:00 A", "09:00:00 A", "11:00:00 A");
+        String february = calls("calls_02.csv", "08:30:00 B", "09:00:00 B", "10:00:00 B");
+
+        try (MergedCallReader reader = new MergedCallReader(List.of(february, january), null, null, null)) {
+            assertEquals(List.of("08:00 A", "08:30 B", "09:00 B", "09:00 A", "10:00 B", "11:00 A"), drain(reader));
+            assertEquals(0, reader.getOutOfOrder());
+            assertNull(reader.next());
+        }
+    }
+
+    @Test
+    void appliesServiceAndDateFiltersPerFile() throws IOException {
+        String first = calls("calls_01.csv", "07:00:00 A", "08:00:00 A", "09:00:00 C", "10:00:00 A");
+        String second = calls("calls_02.csv", "08:15:00 C", "09:30:00 A", "12:00:00 A");
+
+        try (MergedCallReader reader = new MergedCallReader(List.of(first, second), Set.of("A"),
+                LocalDateTime.of(2014, 1, 6, 8, 0), LocalDateTime.of(2014, 1, 6, 10, 0))) {
+            assertEquals(List.of("08:00 A", "09:30 A"), drain(reader));
+        }
+    }
+
+    @Test
+    void countsCallsBreakingTheGlobalOrder() throws IOException {
+        String unsorted = calls("calls_01.csv", "09:00:00 A", "08:00:00 A");
+
+        try (MergedCallReader reader = new MergedCallReader(List.of(unsorted), null, null, null)) {
+            assertEquals(List.of("09:00 A", "08:00 A"), drain(reader));
+            assertEquals(1, reader.getOutOfOrder());
+        }
+    }
+
+    @Test
+    void resolvesGlobsSortedByName() throws IOException {
+        String march = calls("calls_2014_03.csv", "08:00:00 A");
+        String january = calls("calls_2014_01.csv", "08:00:00 A");
+        calls("activities_2014_01.csv", "08:00:00 A");
+
+        assertEquals(List.of(january, march), MergedCallReader.resolveFiles(directory.resolve("calls_2014_*.csv").toString()));
+        assertEquals(List.of(march, january), MergedCallReader.resolveFiles(march + ", " + january));
+    }
+
+    @Test
+    void globsSkipIndexAndModelSidecars() throws IOException {
+        String january = calls("calls_2014_01.csv", "08:00:00 A");
+        Files.writeString(Path.of(january + ".idx"), "");
+        Files.writeString(Path.of(january + ".model"), "");
+
+        assertEquals(List.of(january), MergedCallReader.resolveFiles(directory.resolve("calls_2014_*").toString()));
+    }
+}
@@ -0,0 +1,70 @@
+package org.example;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Équivalence replay parallèle (--parallel) / séquentiel: composantes planifiées et rejouées
+ * séparément, journaux fusionnés par temps et prédicteurs recalculés, mêmes lignes de dataset
+ */
+class ParallelReplayTest {
+
+    @TempDir
+    static Path data;
+
+    private static VanadSSJReplay loader;
+    private static WorkloadModel model;
+
+    @BeforeAll
+    static void generate() throws Exception {
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(4, 12, 7);
+        generator.setCallsPerDay(40);
+        generator.setSkillOverlap(0.0); // un service par agent: une composante par service
+        generator.setThreads(1);
+        generator.generate(data, 2014, 1);
+
+        loader = new VanadSSJReplay();
+        loader.loadAndPrepareData(SyntheticDataGenerator.callsFileFor(data, 2014).toString(),
+                data.resolve("all_activities_2014_clean.csv").toString());
+        model = WorkloadModel.fit(loader.getHistoricalCalls(), loader.getTopServices());
+    }
+
+    @Test
+    void nativeComponentsWriteTheSequentialRows() throws Exception {
+        List<String> sequential = rows(true, false);
+
+        assertTrue(sequential.size() > 1000, "dataset synthétique trop petit: " + sequential.size());
+        assertEquals(sequential, rows(true, true));
+    }
+
+    @Test
+    void ssjComponentsWriteTheSequentialRows() throws Exception {
+        assertEquals(rows(false, false), rows(false, true));
+    }
+
+    private static List<String> rows(boolean nativeKernel, boolean parallel) throws Exception {
+        VanadSSJReplay replay = new VanadSSJReplay();
+        replay.setNativeKernel(nativeKernel);
+        replay.setVerbose(false);
+        replay.setWorkloadModel(model);
+        replay.setRetainStates(true);
+        replay.setParallel(parallel);
+        replay.prepare(loader.getHistoricalCalls(), loader.getTopServices());
+        replay.runParallelSimulation();
+        assertEquals(parallel, replay.getComponentCount() > 1, "composantes planifiées");
+
+        FeatureArena states = replay.getCapturedStates();
+        List<String> rows = new ArrayList<>(states.size());
+        for (int record = 0; record < states.size(); record++) {
+            rows.add(replay.formatRow(states, record));
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,91 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Erreur relative des quantiles, fusion exacte et sauvegarde du sketch
+ */
+class QuantileSketchTest {
+
+    private static final double[] QUANTILES = {0.0, 0.1, 0.5, 0.9, 0.95, 0.99, 1.0};
+
+    @Test
+    void quantilesStayWithinOnePercentOfExactValues() {
+        Random random = new Random(1);
+        double[] values = new double[20_000];
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.exp(random.nextGaussian() * 2 + 3); // attentes log-normales
+            sketch.add(values[i]);
+        }
+        Arrays.sort(values);
+
+        assertEquals(values.length, sketch.count());
+        assertEquals(values[values.length - 1], sketch.max());
+        for (double q : QUANTILES) {
+            double exact = values[(int) Math.floor(q * (values.length - 1))];
+            assertEquals(exact, sketch.quantile(q), exact * 0.01, "q=" + q);
+        }
+    }
+
+    @Test
+    void valuesBelowResolutionCountAsZero() {
+        QuantileSketch sketch = new QuantileSketch();
+        assertEquals(0.0, sketch.quantile(0.5));
+        assertEquals(0.0, sketch.max());
+
+        for (int i = 0; i < 9; i++) {
+            sketch.add(0.0);
+        }
+        sketch.add(100.0);
+
+        assertEquals(0.0, sketch.quantile(0.5));
+        assertEquals(100.0, sketch.quantile(1.0), 1.0);
+    }
+
+    @Test
+    void mergeMatchesASingleSketch() {
+        Random random = new Random(2);
+        QuantileSketch all = new QuantileSketch();
+        QuantileSketch first = new QuantileSketch();
+        QuantileSketch second = new QuantileSketch();
+        for (int i = 0; i < 5_000; i++) {
+            double value = random.nextDouble() * 600;
+            all.add(value);
+            (i % 3 == 0 ? first : second).add(value);
+        }
+        first.merge(second);
+        first.merge(new QuantileSketch()); // vide: sans effet
+
+        assertEquals(all.count(), first.count());
+        assertEquals(all.max(), first.max());
+        for (double q : QUANTILES) {
+            assertEquals(all.quantile(q), first.quantile(q), "q=" + q);
+        }
+    }
+
+    @Test
+    void stateRoundTripKeepsQuantiles() throws IOException {
+        QuantileSketch sketch = new QuantileSketch();
+        for (int i = 0; i < 1_000; i++) {
+            sketch.add(i * 0.37);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        sketch.writeState(new DataOutputStream(bytes));
+
+        QuantileSketch restored = new QuantileSketch();
+        restored.readState(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(sketch.count(), restored.count());
+        assertEquals(sketch.max(), restored.max());
+        for (double q : QUANTILES) {
+            assertEquals(sketch.quantile(q), restored.quantile(q), "q=" + q);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tas des têtes de file: plus ancienne tête à la racine, égalité au plus petit service
+ */
+class QueueHeadHeapTest {
+
+    @Test
+    void rootIsTheOldestHeadWithLowestServiceOnTies() {
+        QueueHeadHeap heads = new QueueHeadHeap(4);
+        assertEquals(-1, heads.peek());
+
+        heads.update(2, 5.0);
+        heads.update(3, 3.0);
+        heads.update(1, 3.0);
+        assertEquals(1, heads.peek());
+
+        heads.update(1, 7.0); // tête prise en charge, la suivante est plus récente
+        assertEquals(3, heads.peek());
+        heads.remove(3);
+        assertEquals(2, heads.peek());
+        heads.remove(3); // déjà vide: sans effet
+        heads.remove(2);
+        assertEquals(1, heads.peek());
+        heads.remove(1);
+        assertEquals(-1, heads.peek());
+    }
+
+    @Test
+    void matchesALinearScanUnderRandomUpdates() {
+        int services = 9;
+        Random random = new Random(4);
+        QueueHeadHeap heads = new QueueHeadHeap(services);
+        double[] keys = new double[services];
+        Arrays.fill(keys, Double.NaN); // NaN: file vide
+
+        for (int step = 0; step < 50_000; step++) {
+            int service = random.nextInt(services);
+            if (random.nextInt(4) == 0) {
+                heads.remove(service);
+                keys[service] = Double.NaN;
+            } else {
+                double key = random.nextInt(100); // égalités fréquentes
+                heads.update(service, key);
+                keys[service] = key;
+            }
+            assertEquals(oldest(keys), heads.peek(), "étape " + step);
+        }
+    }
+
+    private static int oldest(double[] keys) {
+        int best = -1;
+        for (int s = 0; s < keys.length; s++) {
+            if (!Double.isNaN(keys[s]) && (best < 0 || keys[s] < keys[best])) {
+                best = s;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,109 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Aller-retour des points de reprise: lignes en ajout seul, instantané, état propre au replay
+ */
+class ReplayCheckpointTest {
+
+    @TempDir
+    Path directory;
+
+    private static List<String> rows(RowShard shard) {
+        return IntStream.range(0, shard.size()).mapToObj(shard::row).toList();
+    }
+
+    @Test
+    void rowsAndStateSurviveAReload() throws IOException {
+        ReplayCheckpoint checkpoint = new ReplayCheckpoint(directory, 24);
+        assertFalse(checkpoint.exists());
+        assertTrue(checkpoint.isDue(24.0));
+
+        List<String> first = List.of("1,2,3", "4,5,6");
+        checkpoint.save(first.size(), first::get, 24.5, out -> out.writeUTF("premier"));
+        assertEquals(48.0, checkpoint.nextDue());
+        List<String> second = List.of("7,8,9");
+        checkpoint.save(second.size(), second::get, 71.0, out -> out.writeUTF("second"));
+        assertEquals(72.0, checkpoint.nextDue());
+
+        // arrêt entre les deux écritures: lignes non validées par l'instantané
+        Files.writeString(directory.resolve(ReplayCheckpoint.ROWS_FILE), "excédent\n", StandardOpenOption.APPEND);
+
+        ReplayCheckpoint resumed = new ReplayCheckpoint(directory, 1); // intervalle relu
+        DataInputStream in = resumed.load();
+        assertEquals("second", in.readUTF());
+        assertEquals(72.0, resumed.nextDue());
+        try (RowShard shard = resumed.openRows()) {
+            assertEquals(List.of("1,2,3", "4,5,6", "7,8,9"), rows(shard));
+        }
+
+        // la reprise continue le même fichier de lignes
+        List<String> third = List.of("10,11,12");
+        resumed.save(third.size(), third::get, 80.0, out -> { });
+        assertEquals(96.0, resumed.nextDue());
+        try (RowShard shard = resumed.openRows()) {
+            assertEquals(List.of("1,2,3", "4,5,6", "7,8,9", "10,11,12"), rows(shard));
+        }
+
+        resumed.clear();
+        assertFalse(resumed.exists());
+        assertFalse(Files.exists(directory.resolve(ReplayCheckpoint.ROWS_FILE)));
+    }
+
+    @Test
+    void missingValidatedRowsAreRejected() throws IOException {
+        ReplayCheckpoint checkpoint = new ReplayCheckpoint(directory, 24);
+        List<String> rows = List.of("1,2,3", "4,5,6");
+        checkpoint.save(rows.size(), rows::get, 24.5, out -> { });
+        Files.writeString(directory.resolve(ReplayCheckpoint.ROWS_FILE), "1,2,3\n4,5,");
+
+        assertThrows(IOException.class, () -> new ReplayCheckpoint(directory, 24).load());
+    }
+
+    @Test
+    void replayStateRoundTrip() throws IOException {
+        String[] services = {"30175", "30181"};
+        CheckpointState state = new CheckpointState(1_200, services, 3_600, 1_790, 48.25, 2_000);
+        state.routes.add(new VanadSSJReplay.RoutedAnswer(17, 8, 48.35));
+        state.queues.add(new int[] {20, 21});
+        state.queues.add(new int[0]);
+        state.agents.add(new CheckpointState.Agent(3, true, 47.5));
+        state.agents.add(new CheckpointState.Agent(8, false, 48.0));
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            state.write(out);
+            out.writeInt(42); // état par service à la suite
+        }
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        CheckpointState read = CheckpointState.read(in, 1_200, services);
+        assertEquals(42, in.readInt());
+        assertEquals(1_790, read.cursor);
+        assertEquals(48.25, read.time);
+        assertEquals(2_000, read.processedEvents);
+        assertEquals(state.routes, read.routes);
+        assertArrayEquals(new int[] {20, 21}, read.queues.get(0));
+        assertArrayEquals(new int[0], read.queues.get(1));
+        assertEquals(state.agents, read.agents);
+        read.checkScheduled(3_600);
+        assertThrows(IllegalStateException.class, () -> read.checkScheduled(3_599));
+
+        // données modifiées depuis l'instantané
+        assertThrows(IllegalStateException.class, () -> CheckpointState.read(
+                new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), 1_201, services));
+        assertThrows(IllegalStateException.class, () -> CheckpointState.read(
+                new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), 1_200, new String[] {"30175"}));
+    }
+}
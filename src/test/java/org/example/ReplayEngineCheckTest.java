@@ -0,0 +1,56 @@
+package org.example;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Équivalence SSJ / noyau natif sur une année synthétique réduite (multi-compétences, abandons)
+ */
+class ReplayEngineCheckTest {
+
+    @TempDir
+    static Path data;
+
+    private static ReplayEngineCheck check;
+
+    @BeforeAll
+    static void generate() throws Exception {
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(4, 12, 7);
+        generator.setCallsPerDay(40);
+        generator.setSkillOverlap(0.3);
+        generator.setThreads(1);
+        generator.generate(data, 2014, 1);
+
+        VanadSSJReplay loader = new VanadSSJReplay();
+        loader.loadAndPrepareData(SyntheticDataGenerator.callsFileFor(data, 2014).toString(),
+                data.resolve("all_activities_2014_clean.csv").toString());
+        WorkloadModel model = WorkloadModel.fit(loader.getHistoricalCalls(), loader.getTopServices());
+        check = new ReplayEngineCheck(loader, model);
+    }
+
+    @Test
+    void nativeKernelCapturesTheSameStatesAsSsj() {
+        FeatureArena reference = check.capture(false);
+        FeatureArena candidate = check.capture(true);
+
+        assertTrue(reference.size() > 1000, "dataset synthétique trop petit: " + reference.size());
+        assertNull(ReplayEngineCheck.mismatch(reference, candidate));
+    }
+
+    @Test
+    void mismatchReportsTheFirstDivergingState() {
+        FeatureArena reference = check.capture(false);
+        FeatureArena truncated = new FeatureArena(reference.predictorCount());
+        for (int i = 0; i < reference.size() - 1; i++) {
+            truncated.copy(reference, i);
+        }
+
+        assertNull(ReplayEngineCheck.mismatch(reference, reference));
+        assertNotNull(ReplayEngineCheck.mismatch(reference, truncated));
+    }
+}
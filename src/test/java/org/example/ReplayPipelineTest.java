@@ -0,0 +1,94 @@
+package org.example;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Équivalence pipeline / replay séquentiel: mêmes lignes de dataset, dans le même ordre,
+ * sur l'année synthétique entière (modèle mis en cache) et sur une fenêtre (modèle ajusté)
+ */
+class ReplayPipelineTest {
+
+    @TempDir
+    static Path data;
+
+    private static String callsFile;
+    private static String activitiesFile;
+
+    @BeforeAll
+    static void generate() throws Exception {
+        SyntheticDataGenerator generator = new SyntheticDataGenerator(4, 12, 7);
+        generator.setCallsPerDay(40);
+        generator.setSkillOverlap(0.3);
+        generator.setThreads(1);
+        generator.generate(data, 2014, 1);
+        callsFile = SyntheticDataGenerator.callsFileFor(data, 2014).toString();
+        activitiesFile = data.resolve("all_activities_2014_clean.csv").toString();
+    }
+
+    @Test
+    void pipelineWritesTheSequentialRows() throws Exception {
+        List<String> pipeline = pipelineRows(null, null);
+
+        assertTrue(pipeline.size() > 1000, "dataset synthétique trop petit: " + pipeline.size());
+        assertEquals(sequentialRows(null, null), pipeline);
+        assertTrue(Files.exists(VanadSSJReplay.modelFileFor(callsFile)), "modèle ajusté avant les étages et mis en cache");
+    }
+
+    @Test
+    void pipelineWritesTheSequentialRowsInAWindow() throws Exception {
+        LocalDateTime from = LocalDateTime.of(2014, 3, 1, 0, 0);
+        LocalDateTime to = LocalDateTime.of(2014, 3, 8, 0, 0);
+        List<String> pipeline = pipelineRows(from, to);
+
+        assertFalse(pipeline.isEmpty());
+        assertEquals(sequentialRows(from, to), pipeline);
+    }
+
+    private static List<String> pipelineRows(LocalDateTime from, LocalDateTime to) throws Exception {
+        VanadSSJReplay replay = new VanadSSJReplay();
+        replay.setVerbose(false);
+        replay.setReplayWindow(from, to);
+        StringWriter rows = new StringWriter();
+        long count = new ReplayPipeline(replay).run(List.of(callsFile), List.of(activitiesFile),
+                new PhaseProfiler(false), rows);
+
+        List<String> lines = rows.toString().lines().toList();
+        assertEquals(count, lines.size());
+        return lines;
+    }
+
+    /**
+     * Lignes du replay séquentiel: table filtrée sur la fenêtre, modèle ajusté sur cette table
+     */
+    private static List<String> sequentialRows(LocalDateTime from, LocalDateTime to) throws Exception {
+        VanadSSJReplay loader = new VanadSSJReplay();
+        loader.setReplayWindow(from, to);
+        loader.loadAndPrepareData(callsFile, activitiesFile);
+
+        VanadSSJReplay replay = new VanadSSJReplay();
+        replay.setNativeKernel(true);
+        replay.setVerbose(false);
+        replay.setRetainStates(true);
+        replay.setWorkloadModel(WorkloadModel.fit(loader.getHistoricalCalls(), loader.getTopServices()));
+        replay.prepare(loader.getHistoricalCalls(), loader.getTopServices());
+        replay.runSimulation();
+
+        FeatureArena states = replay.getCapturedStates();
+        List<String> rows = new ArrayList<>(states.size());
+        for (int record = 0; record < states.size(); record++) {
+            rows.add(replay.formatRow(states, record));
+        }
+        return rows;
+    }
+}
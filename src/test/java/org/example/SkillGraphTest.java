@@ -0,0 +1,65 @@
+package org.example;
+
+import org.example.model.Call;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Composantes services–agents: compétences et prises d'appels relient, le reste est ignoré
+ */
+class SkillGraphTest {
+
+    private static VanadSSJReplay.AgentState agent(int id, String... skills) {
+        return new VanadSSJReplay.AgentState(id, Set.of(skills));
+    }
+
+    private static Call call(String queue, Double agent) {
+        Call call = new Call();
+        call.setQueueName(queue);
+        call.setAgentNumber(agent);
+        return call;
+    }
+
+    @Test
+    void splitsServicesSharingNoAgent() {
+        String[] services = {"A", "B", "C", "D", "E"};
+        List<VanadSSJReplay.AgentState> agents = List.of(
+                agent(7, "C"),
+                agent(2, "A", "B"),
+                agent(1, "A"),
+                agent(9, "X"),  // aucun service suivi
+                agent(5));
+        List<Call> calls = List.of(
+                call("D", 7.0),   // D relié à C par l'agent 7
+                call("B", null),  // non pris
+                call("X", 1.0),   // file non suivie
+                call("E", 42.0)); // agent inconnu
+
+        List<SkillGraph.Component> components = SkillGraph.components(services, agents, calls);
+
+        assertEquals(3, components.size());
+        assertArrayEquals(new int[] {0, 1}, components.get(0).services());
+        assertArrayEquals(new int[] {1, 2}, components.get(0).agents());
+        assertArrayEquals(new int[] {2, 3}, components.get(1).services());
+        assertArrayEquals(new int[] {7}, components.get(1).agents());
+        assertArrayEquals(new int[] {4}, components.get(2).services());
+        assertArrayEquals(new int[0], components.get(2).agents());
+    }
+
+    @Test
+    void sharedAgentsKeepEverythingInOneComponent() {
+        String[] services = {"A", "B", "C"};
+        List<VanadSSJReplay.AgentState> agents = List.of(agent(1, "A"), agent(2, "B"), agent(3, "C"));
+        List<Call> calls = List.of(call("B", 1.0), call("C", 2.0));
+
+        List<SkillGraph.Component> components = SkillGraph.components(services, agents, calls);
+
+        assertEquals(1, components.size());
+        assertArrayEquals(new int[] {0, 1, 2}, components.get(0).services());
+        assertArrayEquals(new int[] {1, 2, 3}, components.get(0).agents());
+    }
+}
@@ -0,0 +1,104 @@
+package org.example;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Index horaire: offsets et numéros de ligne, volumes, tri vérifié ligne à ligne, persistance
+ */
+class TimeIndexTest {
+
+    private static final String CALLS = """
+            queue,date,agent
+            A,2014-01-01 08:05:00,1
+            B,2014-01-01 08:40:00,2
+            A,2014-01-01 09:10:00,1.0
+            A,2014-01-01 09:50:00,
+            B,2014-01-01 11:00:00,2
+            """;
+
+    @TempDir
+    Path directory;
+
+    private Path write(String content) throws IOException {
+        Path file = directory.resolve("calls.csv");
+        Files.writeString(file, content);
+        return file;
+    }
+
+    private static String lineAt(Path file, long offset) throws IOException {
+        try (RandomAccessFile in = new RandomAccessFile(file.toFile(), "r")) {
+            in.seek(offset);
+            return in.readLine();
+        }
+    }
+
+    @Test
+    void seeksToTheFirstLineOfEachHour() throws IOException {
+        Path file = write(CALLS);
+        TimeIndex index = TimeIndex.build(file.toFile(), 1, 0, 2);
+
+        assertTrue(index.isSorted());
+        assertEquals("A,2014-01-01 08:05:00,1", lineAt(file, index.getDataStart()));
+        assertEquals("A,2014-01-01 09:10:00,1.0", lineAt(file, index.offsetFor(LocalDateTime.of(2014, 1, 1, 9, 30))));
+        assertEquals(4, index.lineFor(LocalDateTime.of(2014, 1, 1, 9, 30)));
+        // heure sans ligne: première heure suivante
+        assertEquals("B,2014-01-01 11:00:00,2", lineAt(file, index.offsetFor(LocalDateTime.of(2014, 1, 1, 10, 0))));
+        assertEquals(6, index.lineFor(LocalDateTime.of(2014, 1, 1, 10, 0)));
+        // au-delà de la fin
+        assertEquals(Files.size(file), index.offsetFor(LocalDateTime.of(2014, 1, 2, 0, 0)));
+        assertEquals(7, index.lineFor(LocalDateTime.of(2014, 1, 2, 0, 0)));
+        assertEquals(2, index.lineFor(null));
+
+        assertEquals(5, index.rowCount(null, null));
+        assertEquals(2, index.rowCount(LocalDateTime.of(2014, 1, 1, 9, 0), LocalDateTime.of(2014, 1, 1, 10, 0)));
+        assertEquals(Map.of("A", 3L, "B", 2L), index.getQueueVolumes());
+        assertEquals(Map.of(1, Set.of("A"), 2, Set.of("B")), index.getAgentQueues());
+    }
+
+    @Test
+    void disorderInsideAnHourDisablesSeeking() throws IOException {
+        Path file = write("""
+                queue,date,agent
+                A,2014-01-01 08:40:00,1
+                A,2014-01-01 08:05:00,1
+                A,2014-01-01 09:10:00,1
+                """);
+        TimeIndex index = TimeIndex.build(file.toFile(), 1, 0, -1);
+
+        assertFalse(index.isSorted());
+        assertEquals(Map.of("A", 3L), index.getQueueVolumes());
+    }
+
+    @Test
+    void companionFileIsReusedOnlyForTheSameColumns() throws IOException {
+        Path file = write(CALLS);
+        Path indexFile = Path.of(file + ".idx");
+
+        TimeIndex built = TimeIndex.loadOrBuild(file.toString(), 1, 0, 2);
+        assertTrue(Files.exists(indexFile));
+        TimeIndex reloaded = TimeIndex.loadOrBuild(file.toString(), 1, 0, 2);
+        assertEquals(built.getQueueVolumes(), reloaded.getQueueVolumes());
+        assertEquals(built.getAgentQueues(), reloaded.getAgentQueues());
+        assertEquals(built.offsetFor(LocalDateTime.of(2014, 1, 1, 11, 0)),
+                reloaded.offsetFor(LocalDateTime.of(2014, 1, 1, 11, 0)));
+
+        // autre colonne de file: index reconstruit, volumes de la nouvelle colonne
+        TimeIndex byAgent = TimeIndex.loadOrBuild(file.toString(), 1, 2);
+        assertEquals(Map.of("1", 1L, "1.0", 1L, "2", 2L), byAgent.getQueueVolumes());
+
+        // autre colonne de date: plus aucune ligne datée
+        TimeIndex wrongDate = TimeIndex.loadOrBuild(file.toString(), 0, 0);
+        assertEquals(0, wrongDate.rowCount(null, null));
+    }
+}
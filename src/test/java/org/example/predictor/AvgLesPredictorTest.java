@@ -0,0 +1,89 @@
+package org.example.predictor;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Totaux globaux de l'Avg-LES contre la moyenne recalculée sur les fenêtres de tous les services
+ */
+class AvgLesPredictorTest {
+
+    private static final int WINDOW = 4;
+    private static final String[] SERVICES = {"30172", "30175", "30560"};
+
+    @Test
+    void runningTotalsMatchRecomputationIncludingEviction() {
+        Random random = new Random(7);
+        AvgLesPredictor predictor = new AvgLesPredictor(WINDOW);
+        Map<String, List<Double>> answers = new HashMap<>();
+
+        for (int n = 0; n < 60; n++) {
+            String service = SERVICES[random.nextInt(n < 10 ? 1 : SERVICES.length)]; // un service se remplit d'abord
+            double wait = random.nextDouble() * 300;
+            predictor.onAnswer(service, wait);
+            answers.computeIfAbsent(service, s -> new ArrayList<>()).add(wait);
+
+            assertEquals(bruteForce(answers), predictor.predict(context("30175", 0, 1)), 1e-9, "réponse " + n);
+        }
+    }
+
+    @Test
+    void noAnswerFallsBackOnTheLoadEstimate() {
+        AvgLesPredictor predictor = new AvgLesPredictor(WINDOW);
+        PredictorContext context = new PredictorContext();
+        context.set("30172", 3, 2, 5, 0.0, 100.0);
+
+        double expected = LesPredictor.adjustForLoad(LesPredictor.defaultWait(context), context);
+        assertEquals(expected, predictor.predict(context));
+        assertEquals(150.0 + 15.0, expected);
+    }
+
+    @Test
+    void restoredTotalsContinueLikeTheOriginal() throws IOException {
+        Random random = new Random(11);
+        AvgLesPredictor original = new AvgLesPredictor(WINDOW);
+        for (int i = 0; i < 20; i++) {
+            original.onAnswer(SERVICES[i % SERVICES.length], random.nextDouble() * 300);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        original.writeState(new DataOutputStream(bytes));
+        AvgLesPredictor restored = new AvgLesPredictor(WINDOW);
+        restored.readState(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        for (int i = 0; i < 10; i++) {
+            double wait = random.nextDouble() * 300;
+            original.onAnswer(SERVICES[i % 2], wait);
+            restored.onAnswer(SERVICES[i % 2], wait);
+            assertEquals(original.predict(context("30172", 2, 1)), restored.predict(context("30172", 2, 1)));
+        }
+    }
+
+    /**
+     * Moyenne des attentes encore dans les fenêtres (les {@code WINDOW} dernières de chaque service)
+     */
+    private static double bruteForce(Map<String, List<Double>> answers) {
+        double sum = 0.0;
+        int count = 0;
+        for (List<Double> waits : answers.values()) {
+            for (double wait : waits.subList(Math.max(0, waits.size() - WINDOW), waits.size())) {
+                sum += wait;
+                count++;
+            }
+        }
+        return sum / count;
+    }
+
+    /**
+     * Contexte sans temps de service: la correction de charge est nulle, la prédiction est l'Avg-LES
+     */
+    private static PredictorContext context(String service, int queueLength, int availableAgents) {
+        PredictorContext context = new PredictorContext();
+        context.set(service, queueLength, availableAgents, availableAgents, 0.0, 0.0);
+        return context;
+    }
+}
@@ -0,0 +1,81 @@
+package org.example.predictor;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Mise à jour incrémentale de l'EW-LES contre la somme pondérée explicite des attentes
+ */
+class EwLesPredictorTest {
+
+    private static final double ALPHA = 0.2;
+
+    @Test
+    void incrementalValueMatchesExplicitWeightedSum() {
+        Random random = new Random(13);
+        EwLesPredictor predictor = new EwLesPredictor(ALPHA);
+        Map<String, List<Double>> answers = new HashMap<>();
+
+        for (int n = 0; n < 50; n++) {
+            String service = random.nextBoolean() ? "30172" : "30175";
+            double wait = random.nextDouble() * 300;
+            predictor.onAnswer(service, wait);
+            answers.computeIfAbsent(service, s -> new ArrayList<>()).add(wait);
+
+            for (Map.Entry<String, List<Double>> entry : answers.entrySet()) {
+                assertEquals(bruteForce(entry.getValue()), predictor.predict(context(entry.getKey())), 1e-9);
+            }
+        }
+    }
+
+    @Test
+    void unseenServiceFallsBackOnTheLoadEstimate() {
+        EwLesPredictor predictor = new EwLesPredictor(ALPHA);
+        predictor.onAnswer("30172", 42.0);
+
+        PredictorContext context = new PredictorContext();
+        context.set("30560", 4, 2, 3, 0.0, 90.0);
+        assertEquals(LesPredictor.defaultWait(context), predictor.predict(context));
+        assertEquals(42.0, predictor.predict(context("30172")));
+    }
+
+    @Test
+    void restoredValuesContinueLikeTheOriginal() throws IOException {
+        EwLesPredictor original = new EwLesPredictor(ALPHA);
+        original.onAnswer("30172", 10.0);
+        original.onAnswer("30172", 30.0);
+        original.onAnswer("30175", 5.0);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        original.writeState(new DataOutputStream(bytes));
+        EwLesPredictor restored = new EwLesPredictor(ALPHA);
+        restored.readState(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        original.onAnswer("30172", 50.0);
+        restored.onAnswer("30172", 50.0);
+        assertEquals(original.predict(context("30172")), restored.predict(context("30172")));
+        assertEquals(original.predict(context("30175")), restored.predict(context("30175")));
+    }
+
+    /**
+     * (1-a)^(n-1) x1 + somme sur k >= 2 de a (1-a)^(n-k) xk
+     */
+    private static double bruteForce(List<Double> waits) {
+        int n = waits.size();
+        double value = Math.pow(1 - ALPHA, n - 1) * waits.get(0);
+        for (int k = 1; k < n; k++) {
+            value += ALPHA * Math.pow(1 - ALPHA, n - 1 - k) * waits.get(k);
+        }
+        return value;
+    }
+
+    private static PredictorContext context(String service) {
+        PredictorContext context = new PredictorContext();
+        context.set(service, 0, 1, 1, 0.0, 0.0);
+        return context;
+    }
+}
@@ -0,0 +1,74 @@
+package org.example.predictor;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Somme courante de la fenêtre contre un recalcul complet, éviction à capacité et sauvegarde
+ */
+class RunningWindowTest {
+
+    private static final int CAPACITY = 5;
+
+    @Test
+    void runningSumMatchesRecomputationIncludingEviction() {
+        Random random = new Random(3);
+        RunningWindow window = new RunningWindow(CAPACITY);
+        List<Double> added = new ArrayList<>();
+
+        assertTrue(window.isEmpty());
+        assertEquals(0.0, window.average());
+        for (int n = 1; n <= 4 * CAPACITY; n++) {
+            double value = random.nextDouble() * 600;
+            double evicted = window.add(value);
+            added.add(value);
+
+            assertEquals(n > CAPACITY ? added.get(n - 1 - CAPACITY) : 0.0, evicted);
+            assertWindow(added, window);
+        }
+    }
+
+    @Test
+    void restoredWindowContinuesLikeTheOriginal() throws IOException {
+        Random random = new Random(5);
+        RunningWindow original = new RunningWindow(CAPACITY);
+        List<Double> added = new ArrayList<>();
+        for (int i = 0; i < CAPACITY + 2; i++) {
+            double value = random.nextDouble() * 600;
+            original.add(value);
+            added.add(value);
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        original.writeState(new DataOutputStream(bytes));
+        RunningWindow restored = new RunningWindow(CAPACITY);
+        restored.readState(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        for (int i = 0; i < CAPACITY; i++) {
+            double value = random.nextDouble() * 600;
+            assertEquals(original.add(value), restored.add(value));
+            added.add(value);
+            assertEquals(original.sum(), restored.sum());
+            assertWindow(added, restored);
+        }
+    }
+
+    /**
+     * Taille, somme et moyenne attendues: les {@code CAPACITY} dernières valeurs ajoutées
+     */
+    private static void assertWindow(List<Double> added, RunningWindow window) {
+        List<Double> kept = added.subList(Math.max(0, added.size() - CAPACITY), added.size());
+        double sum = kept.stream().mapToDouble(Double::doubleValue).sum();
+
+        assertEquals(kept.size(), window.size());
+        assertEquals(kept.size() == CAPACITY, window.isFull());
+        assertEquals(sum, window.sum(), 1e-9);
+        assertEquals(sum / kept.size(), window.average(), 1e-9);
+    }
+}